@@ -187,6 +187,7 @@ public class DataInitializer implements CommandLineRunner {
         
         // Save borrow records
         borrowRecordRepository.saveAll(borrowRecords);
+        userRepository.refreshAllLoanCounters();
         log.info("Created {} sample borrow records", borrowRecords.size());
     }
 
@@ -0,0 +1,57 @@
+package com.barisdalyanemre.librarymanagement.config;
+
+import com.barisdalyanemre.librarymanagement.datasource.ReplicaLagGuard;
+import com.barisdalyanemre.librarymanagement.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Replaces the auto-configured data source with one that routes read-only transactions to replica
+ * pools. Only active when {@code library.datasource.replicas.enabled=true}; the primary still comes
+ * from the regular {@code spring.datasource} settings.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "library.datasource.replicas", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties({ReplicaDataSourceProperties.class, DataSourceProperties.class})
+@Slf4j
+public class ReplicaRoutingConfig {
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(DataSourceProperties dataSourceProperties,
+                                                             ReplicaDataSourceProperties replicaProperties,
+                                                             ReplicaLagGuard replicaLagGuard) {
+        DataSource primary = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+
+        List<DataSource> replicas = replicaProperties.getNodes().stream()
+                .map(node -> (DataSource) DataSourceBuilder.create()
+                        .type(HikariDataSource.class)
+                        .url(node.getUrl())
+                        .username(node.getUsername())
+                        .password(node.getPassword())
+                        .driverClassName(node.getDriverClassName())
+                        .build())
+                .toList();
+
+        log.info("Routing read-only transactions across {} replica(s)", replicas.size());
+        return new ReplicaRoutingDataSource(primary, replicas, replicaLagGuard);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+}
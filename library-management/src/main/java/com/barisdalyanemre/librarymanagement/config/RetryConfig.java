@@ -0,0 +1,9 @@
+package com.barisdalyanemre.librarymanagement.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.retry.annotation.EnableRetry;
+
+@Configuration
+@EnableRetry
+public class RetryConfig {
+}
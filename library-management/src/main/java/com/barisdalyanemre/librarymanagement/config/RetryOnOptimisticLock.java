@@ -0,0 +1,25 @@
+package com.barisdalyanemre.librarymanagement.config;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Re-runs a transactional method when its commit loses an optimistic locking race. Each retry waits a
+ * random 20-200 ms so competing writers do not collide again in lockstep. The retry advice wraps the
+ * transaction, so every attempt starts a fresh transaction with freshly loaded entities.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Retryable(
+        retryFor = OptimisticLockingFailureException.class,
+        maxAttemptsExpression = "${library.retry.optimistic-lock.max-attempts:3}",
+        backoff = @Backoff(delay = 20, maxDelay = 200, random = true)
+)
+public @interface RetryOnOptimisticLock {
+}
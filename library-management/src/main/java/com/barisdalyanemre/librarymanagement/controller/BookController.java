@@ -118,7 +118,9 @@ public class BookController {
     @GetMapping("/search")
     @Operation(
         summary = "Search books with pagination", 
-        description = "Search for books based on various criteria like title, author, genre, availability, and publication date range with pagination support"
+        description = "Search for books based on various criteria like title, author, genre, availability, and publication date range with pagination support. " +
+                "With fuzzy=true, misspelled title and author terms are matched and results are ordered by closeness instead of the sort field; " +
+                "only the 1000 closest matches are paged through, so totalElements is at most 1000."
     )
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Search results retrieved successfully"),
@@ -134,19 +136,21 @@ public class BookController {
             @Parameter(description = "Availability status") @RequestParam(required = false) Boolean available,
             @Parameter(description = "Published after date (YYYY-MM-DD)") @RequestParam(required = false) String publishedAfter,
             @Parameter(description = "Published before date (YYYY-MM-DD)") @RequestParam(required = false) String publishedBefore,
+            @Parameter(description = "Typo-tolerant title/author matching, results ranked by closeness") @RequestParam(defaultValue = "false") boolean fuzzy,
             @Parameter(description = "Page number (0-based)") @RequestParam(defaultValue = "0") int page,
             @Parameter(description = "Page size") @RequestParam(defaultValue = "10") int size,
             @Parameter(description = "Sort field") @RequestParam(defaultValue = "id") String sortBy,
             @Parameter(description = "Sort direction (asc/desc)") @RequestParam(defaultValue = "asc") String sortDir
     ) {
-        log.info("Request to search books with criteria: title={}, author={}, genre={}, available={}, page={}, size={}", 
-                title, author, genre, available, page, size);
+        log.info("Request to search books with criteria: title={}, author={}, genre={}, available={}, fuzzy={}, page={}, size={}", 
+                title, author, genre, available, fuzzy, page, size);
                 
         BookSearchRequest searchRequest = BookSearchRequest.builder()
                 .title(title)
                 .author(author)
                 .genre(genre)
                 .available(available)
+                .fuzzy(fuzzy)
                 .build();
                 
         if (publishedAfter != null) {
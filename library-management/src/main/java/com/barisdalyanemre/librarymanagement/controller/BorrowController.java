@@ -1,8 +1,17 @@
 package com.barisdalyanemre.librarymanagement.controller;
 
+import com.barisdalyanemre.librarymanagement.dto.request.BatchBorrowRequest;
+import com.barisdalyanemre.librarymanagement.dto.request.BatchReturnRequest;
+import com.barisdalyanemre.librarymanagement.dto.request.BorrowRecordSearchRequest;
 import com.barisdalyanemre.librarymanagement.dto.response.ApiError;
+import com.barisdalyanemre.librarymanagement.dto.response.BatchResultDTO;
 import com.barisdalyanemre.librarymanagement.dto.response.BorrowRecordDTO;
+import com.barisdalyanemre.librarymanagement.dto.response.CursorPageDTO;
+import com.barisdalyanemre.librarymanagement.enums.LoanStatus;
+import com.barisdalyanemre.librarymanagement.enums.ReportFormat;
 import com.barisdalyanemre.librarymanagement.service.BorrowService;
+import com.barisdalyanemre.librarymanagement.service.OverdueReportService;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -10,15 +19,24 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -30,6 +48,7 @@ import java.util.List;
 public class BorrowController {
 
     private final BorrowService borrowService;
+    private final OverdueReportService overdueReportService;
 
     @PostMapping("/{bookId}")
     @Operation(summary = "Borrow a book", description = "Borrow a book by its ID. Available to all authenticated users.")
@@ -51,6 +70,26 @@ public class BorrowController {
         return ResponseEntity.status(HttpStatus.CREATED).body(borrowRecord);
     }
 
+    @PostMapping("/batch")
+    @Operation(summary = "Borrow several books", description = "Borrow up to 50 books in one request, e.g. from a self-checkout kiosk. " +
+            "In ALL_OR_NOTHING mode no book is borrowed unless every book can be; in BEST_EFFORT mode the available books are borrowed and the rest are reported.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "At least one book borrowed; per-book results are in the body",
+                    content = @Content(schema = @Schema(implementation = BatchResultDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid request, account disabled or user has overdue books",
+                    content = @Content(schema = @Schema(implementation = ApiError.class))),
+            @ApiResponse(responseCode = "401", description = "Unauthorized",
+                    content = @Content(schema = @Schema(implementation = ApiError.class))),
+            @ApiResponse(responseCode = "409", description = "No book borrowed; per-book results are in the body",
+                    content = @Content(schema = @Schema(implementation = BatchResultDTO.class)))
+    })
+    public ResponseEntity<BatchResultDTO> borrowBooks(@Valid @RequestBody BatchBorrowRequest request) {
+        log.info("Request to borrow {} books in {} mode", request.getBookIds().size(), request.getMode());
+        BatchResultDTO result = borrowService.borrowBooks(request);
+        HttpStatus status = result.getSucceeded() > 0 ? HttpStatus.CREATED : HttpStatus.CONFLICT;
+        return ResponseEntity.status(status).body(result);
+    }
+
     @PutMapping("/return/{bookId}")
     @Operation(summary = "Return a book", description = "Return a borrowed book by its ID. Users can only return books they've borrowed, while librarians can return any book.")
     @ApiResponses(value = {
@@ -71,43 +110,124 @@ public class BorrowController {
         return ResponseEntity.ok(borrowRecord);
     }
 
+    @PutMapping("/return/batch")
+    @PreAuthorize("hasRole('LIBRARIAN')")
+    @Operation(summary = "Return several books", description = "Return up to 1000 books at once, e.g. when emptying a return drop box. " +
+            "Books without an active loan are reported and skipped. Only accessible by librarians.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Batch processed; per-book results are in the body",
+                    content = @Content(schema = @Schema(implementation = BatchResultDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid request",
+                    content = @Content(schema = @Schema(implementation = ApiError.class))),
+            @ApiResponse(responseCode = "401", description = "Unauthorized",
+                    content = @Content(schema = @Schema(implementation = ApiError.class))),
+            @ApiResponse(responseCode = "403", description = "Forbidden - requires LIBRARIAN role",
+                    content = @Content(schema = @Schema(implementation = ApiError.class))),
+            @ApiResponse(responseCode = "409", description = "Some books were returned concurrently by another request",
+                    content = @Content(schema = @Schema(implementation = ApiError.class)))
+    })
+    public ResponseEntity<BatchResultDTO> returnBooks(@Valid @RequestBody BatchReturnRequest request) {
+        log.info("Request to return {} books", request.getBookIds().size());
+        return ResponseEntity.ok(borrowService.returnBooks(request));
+    }
+
     @GetMapping("/history")
-    @Operation(summary = "Get user's borrowing history", description = "Get the borrowing history of the currently authenticated user.")
+    @Operation(summary = "Get user's borrowing history", description = "Get the borrowing history of the currently authenticated user, newest first, one page at a time. " +
+            "Pass nextCursor of a page as cursor to get the next page.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Borrowing history retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid page size",
+                    content = @Content(schema = @Schema(implementation = ApiError.class))),
             @ApiResponse(responseCode = "401", description = "Unauthorized",
                     content = @Content(schema = @Schema(implementation = ApiError.class)))
     })
-    public ResponseEntity<List<BorrowRecordDTO>> getUserBorrowHistory() {
-        log.info("Request to get user's borrowing history");
-        return ResponseEntity.ok(borrowService.getCurrentUserBorrowHistory());
+    public ResponseEntity<CursorPageDTO<BorrowRecordDTO>> getUserBorrowHistory(
+            @Parameter(description = "nextCursor of the previous page") @RequestParam(required = false) Long cursor,
+            @Parameter(description = "Page size (1-100)") @RequestParam(defaultValue = "20") int size) {
+        log.info("Request to get user's borrowing history: cursor={}, size={}", cursor, size);
+        return ResponseEntity.ok(borrowService.getCurrentUserBorrowHistory(cursor, size));
     }
 
     @GetMapping("/active")
-    @Operation(summary = "Get user's active loans", description = "Get the active loans of the currently authenticated user.")
+    @Operation(summary = "Get user's active loans", description = "Get the active loans of the currently authenticated user, earliest due date first, one page at a time. " +
+            "Pass nextCursor of a page as cursor to get the next page.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Active loans retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid page size",
+                    content = @Content(schema = @Schema(implementation = ApiError.class))),
             @ApiResponse(responseCode = "401", description = "Unauthorized",
                     content = @Content(schema = @Schema(implementation = ApiError.class)))
     })
-    public ResponseEntity<List<BorrowRecordDTO>> getUserActiveLoans() {
-        log.info("Request to get user's active loans");
-        return ResponseEntity.ok(borrowService.getCurrentUserActiveLoans());
+    public ResponseEntity<CursorPageDTO<BorrowRecordDTO>> getUserActiveLoans(
+            @Parameter(description = "nextCursor of the previous page") @RequestParam(required = false) Long cursor,
+            @Parameter(description = "Page size (1-100)") @RequestParam(defaultValue = "20") int size) {
+        log.info("Request to get user's active loans: cursor={}, size={}", cursor, size);
+        return ResponseEntity.ok(borrowService.getCurrentUserActiveLoans(cursor, size));
     }
 
     @GetMapping("/history/all")
     @PreAuthorize("hasRole('LIBRARIAN')")
-    @Operation(summary = "Get all borrowing records", description = "Get all borrowing records in the system. Only accessible by librarians.")
+    @Operation(summary = "Get all borrowing records", description = "Get borrowing records in the system, newest first, one page at a time. " +
+            "Records can be filtered by user, book, status and borrow date range. Pass nextCursor of a page as cursor to get the next page. " +
+            "Only accessible by librarians.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Borrowing records retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid filter or page size",
+                    content = @Content(schema = @Schema(implementation = ApiError.class))),
+            @ApiResponse(responseCode = "401", description = "Unauthorized",
+                    content = @Content(schema = @Schema(implementation = ApiError.class))),
+            @ApiResponse(responseCode = "403", description = "Forbidden - requires LIBRARIAN role",
+                    content = @Content(schema = @Schema(implementation = ApiError.class)))
+    })
+    public ResponseEntity<CursorPageDTO<BorrowRecordDTO>> getAllBorrowRecords(
+            @Parameter(description = "Only records of this user") @RequestParam(required = false) Long userId,
+            @Parameter(description = "Only records of this book") @RequestParam(required = false) Long bookId,
+            @Parameter(description = "Loan status: active, returned or overdue") @RequestParam(required = false) String status,
+            @Parameter(description = "Borrowed on or after this date (YYYY-MM-DD)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate borrowedFrom,
+            @Parameter(description = "Borrowed on or before this date (YYYY-MM-DD)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate borrowedTo,
+            @Parameter(description = "nextCursor of the previous page") @RequestParam(required = false) Long cursor,
+            @Parameter(description = "Page size (1-100)") @RequestParam(defaultValue = "20") int size) {
+        log.info("Request to get borrowing records: userId={}, bookId={}, status={}, cursor={}, size={}",
+                userId, bookId, status, cursor, size);
+        BorrowRecordSearchRequest filter = toSearchRequest(userId, bookId, status, borrowedFrom, borrowedTo);
+        return ResponseEntity.ok(borrowService.searchBorrowRecords(filter, cursor, size));
+    }
+
+    @GetMapping(value = "/history/all/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('LIBRARIAN')")
+    @Operation(summary = "Stream all borrowing records", description = "Stream every borrowing record matching the filters as newline-delimited JSON, newest first. " +
+            "Meant for bulk consumers; records are written as they are read. Only accessible by librarians.")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "All borrowing records retrieved successfully"),
+            @ApiResponse(responseCode = "200", description = "Borrowing records streamed successfully",
+                    content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE)),
+            @ApiResponse(responseCode = "400", description = "Invalid filter",
+                    content = @Content(schema = @Schema(implementation = ApiError.class))),
             @ApiResponse(responseCode = "401", description = "Unauthorized",
                     content = @Content(schema = @Schema(implementation = ApiError.class))),
             @ApiResponse(responseCode = "403", description = "Forbidden - requires LIBRARIAN role",
                     content = @Content(schema = @Schema(implementation = ApiError.class)))
     })
-    public ResponseEntity<List<BorrowRecordDTO>> getAllBorrowRecords() {
-        log.info("Request to get all borrowing records");
-        return ResponseEntity.ok(borrowService.getAllBorrowRecords());
+    public ResponseEntity<StreamingResponseBody> streamAllBorrowRecords(
+            @Parameter(description = "Only records of this user") @RequestParam(required = false) Long userId,
+            @Parameter(description = "Only records of this book") @RequestParam(required = false) Long bookId,
+            @Parameter(description = "Loan status: active, returned or overdue") @RequestParam(required = false) String status,
+            @Parameter(description = "Borrowed on or after this date (YYYY-MM-DD)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate borrowedFrom,
+            @Parameter(description = "Borrowed on or before this date (YYYY-MM-DD)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate borrowedTo) {
+        log.info("Request to stream borrowing records: userId={}, bookId={}, status={}", userId, bookId, status);
+        BorrowRecordSearchRequest filter = toSearchRequest(userId, bookId, status, borrowedFrom, borrowedTo);
+
+        StreamingResponseBody body = outputStream -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            borrowService.writeBorrowRecords(filter, writer);
+        };
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
     @GetMapping("/overdue")
@@ -125,27 +245,75 @@ public class BorrowController {
         return ResponseEntity.ok(borrowService.getAllOverdueRecords());
     }
 
+    @GetMapping("/due-soon")
+    @PreAuthorize("hasRole('LIBRARIAN')")
+    @Operation(summary = "Get loans due soon", description = "Get open loans that fall due within the next given number of hours, " +
+            "earliest first. Only accessible by librarians.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Loans due soon retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Hours outside 1-720",
+                    content = @Content(schema = @Schema(implementation = ApiError.class))),
+            @ApiResponse(responseCode = "401", description = "Unauthorized",
+                    content = @Content(schema = @Schema(implementation = ApiError.class))),
+            @ApiResponse(responseCode = "403", description = "Forbidden - requires LIBRARIAN role",
+                    content = @Content(schema = @Schema(implementation = ApiError.class)))
+    })
+    public ResponseEntity<List<BorrowRecordDTO>> getLoansDueSoon(
+            @Parameter(description = "Window size in hours") @RequestParam(defaultValue = "24") int hours) {
+        log.info("Request to get loans due within {} hours", hours);
+        return ResponseEntity.ok(borrowService.getLoansDueWithin(hours));
+    }
+
     @GetMapping("/overdue/report")
     @PreAuthorize("hasRole('LIBRARIAN')")
-    @Operation(summary = "Get overdue books report as text", description = "Get a formatted text report of all overdue books. Only accessible by librarians.")
+    @Operation(summary = "Get overdue books report", description = "Get a report of all overdue books as text, CSV or JSON. " +
+            "The report is streamed to the client as it is read, so it stays cheap for very large numbers of overdue loans. " +
+            "Only accessible by librarians.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Overdue report generated successfully",
-                    content = @Content(mediaType = "text/plain")),
+                    content = {@Content(mediaType = "text/plain"), @Content(mediaType = "text/csv"),
+                            @Content(mediaType = "application/json")}),
+            @ApiResponse(responseCode = "400", description = "Unsupported report format",
+                    content = @Content(schema = @Schema(implementation = ApiError.class))),
             @ApiResponse(responseCode = "401", description = "Unauthorized",
                     content = @Content(schema = @Schema(implementation = ApiError.class))),
             @ApiResponse(responseCode = "403", description = "Forbidden - requires LIBRARIAN role",
                     content = @Content(schema = @Schema(implementation = ApiError.class)))
     })
-    public ResponseEntity<String> getOverdueReport() {
-        log.info("Request to get overdue books report as text");
-        
-        String reportText = borrowService.generateOverdueReportText();
-        
+    public ResponseEntity<StreamingResponseBody> getOverdueReport(
+            @Parameter(description = "Report format: text, csv or json")
+            @RequestParam(defaultValue = "text") String format) {
+        ReportFormat reportFormat = ReportFormat.fromValue(format);
+        log.info("Request to get overdue books report as {}", reportFormat);
+
         HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.TEXT_PLAIN);
-        
+        switch (reportFormat) {
+            case CSV -> {
+                headers.setContentType(new MediaType("text", "csv", StandardCharsets.UTF_8));
+                headers.setContentDisposition(ContentDisposition.attachment().filename("overdue-report.csv").build());
+            }
+            case JSON -> headers.setContentType(MediaType.APPLICATION_JSON);
+            default -> headers.setContentType(new MediaType("text", "plain", StandardCharsets.UTF_8));
+        }
+
+        StreamingResponseBody body = outputStream -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            overdueReportService.writeOverdueReport(reportFormat, writer);
+        };
+
         return ResponseEntity.ok()
                 .headers(headers)
-                .body(reportText);
+                .body(body);
+    }
+
+    private BorrowRecordSearchRequest toSearchRequest(Long userId, Long bookId, String status,
+                                                      LocalDate borrowedFrom, LocalDate borrowedTo) {
+        return BorrowRecordSearchRequest.builder()
+                .userId(userId)
+                .bookId(bookId)
+                .status(status != null ? LoanStatus.fromValue(status) : null)
+                .borrowedFrom(borrowedFrom)
+                .borrowedTo(borrowedTo)
+                .build();
     }
 }
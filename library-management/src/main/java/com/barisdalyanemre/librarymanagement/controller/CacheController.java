@@ -0,0 +1,47 @@
+package com.barisdalyanemre.librarymanagement.controller;
+
+import com.barisdalyanemre.librarymanagement.dto.response.ApiError;
+import com.barisdalyanemre.librarymanagement.dto.response.CacheStatisticsDTO;
+import com.barisdalyanemre.librarymanagement.service.CacheStatisticsService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/cache")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Cache", description = "APIs for monitoring the entity cache")
+@SecurityRequirement(name = "bearerAuth")
+public class CacheController {
+
+    private final CacheStatisticsService cacheStatisticsService;
+
+    @GetMapping("/statistics")
+    @PreAuthorize("hasRole('LIBRARIAN')")
+    @Operation(summary = "Get cache statistics", description = "Get hit, miss and put counts of the second-level cache for books and users, " +
+            "in total and per region. Only accessible by librarians.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Cache statistics retrieved successfully",
+                    content = @Content(schema = @Schema(implementation = CacheStatisticsDTO.class))),
+            @ApiResponse(responseCode = "401", description = "Unauthorized",
+                    content = @Content(schema = @Schema(implementation = ApiError.class))),
+            @ApiResponse(responseCode = "403", description = "Forbidden - requires LIBRARIAN role",
+                    content = @Content(schema = @Schema(implementation = ApiError.class)))
+    })
+    public ResponseEntity<CacheStatisticsDTO> getStatistics() {
+        log.info("Request to get cache statistics");
+        return ResponseEntity.ok(cacheStatisticsService.getStatistics());
+    }
+}
@@ -0,0 +1,69 @@
+package com.barisdalyanemre.librarymanagement.controller;
+
+import com.barisdalyanemre.librarymanagement.dto.response.ApiError;
+import com.barisdalyanemre.librarymanagement.dto.response.DashboardDTO;
+import com.barisdalyanemre.librarymanagement.service.DashboardService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+@RestController
+@RequestMapping("/api/v1/dashboard")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Dashboard", description = "APIs for live library totals")
+@SecurityRequirement(name = "bearerAuth")
+public class DashboardController {
+
+    private final DashboardService dashboardService;
+
+    @GetMapping
+    @PreAuthorize("hasRole('LIBRARIAN')")
+    @Operation(summary = "Get library totals", description = "Get the number of books, available books, active loans, " +
+            "overdue loans and patrons. Only accessible by librarians.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Library totals retrieved successfully",
+                    content = @Content(schema = @Schema(implementation = DashboardDTO.class))),
+            @ApiResponse(responseCode = "401", description = "Unauthorized",
+                    content = @Content(schema = @Schema(implementation = ApiError.class))),
+            @ApiResponse(responseCode = "403", description = "Forbidden - requires LIBRARIAN role",
+                    content = @Content(schema = @Schema(implementation = ApiError.class)))
+    })
+    public ResponseEntity<DashboardDTO> getDashboard() {
+        log.info("Request to get dashboard totals");
+        return ResponseEntity.ok(dashboardService.getDashboard());
+    }
+
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('LIBRARIAN')")
+    @Operation(summary = "Stream library totals", description = "Returns a Server-Sent Events (SSE) stream of the library totals: " +
+            "the current totals first, then every change. Only accessible by librarians.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Stream established successfully",
+                    content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE,
+                            schema = @Schema(implementation = DashboardDTO.class))),
+            @ApiResponse(responseCode = "401", description = "Unauthorized",
+                    content = @Content(schema = @Schema(implementation = ApiError.class))),
+            @ApiResponse(responseCode = "403", description = "Forbidden - requires LIBRARIAN role",
+                    content = @Content(schema = @Schema(implementation = ApiError.class)))
+    })
+    public Flux<DashboardDTO> streamDashboard() {
+        log.info("Client subscribed to dashboard stream");
+        return dashboardService.getDashboardStream()
+                .doOnCancel(() -> log.info("Client unsubscribed from dashboard stream"))
+                .doOnError(error -> log.error("Error in dashboard stream", error));
+    }
+}
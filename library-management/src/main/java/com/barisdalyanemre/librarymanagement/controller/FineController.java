@@ -0,0 +1,85 @@
+package com.barisdalyanemre.librarymanagement.controller;
+
+import com.barisdalyanemre.librarymanagement.dto.request.FinePaymentRequest;
+import com.barisdalyanemre.librarymanagement.dto.response.ApiError;
+import com.barisdalyanemre.librarymanagement.dto.response.FineBalanceDTO;
+import com.barisdalyanemre.librarymanagement.service.FineService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/fines")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Fines", description = "APIs for overdue fine balances and payments")
+@SecurityRequirement(name = "bearerAuth")
+public class FineController {
+
+    private final FineService fineService;
+
+    @GetMapping("/me")
+    @Operation(summary = "Get my fine balance", description = "Get the current user's outstanding overdue fines.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Balance retrieved successfully",
+                    content = @Content(schema = @Schema(implementation = FineBalanceDTO.class))),
+            @ApiResponse(responseCode = "401", description = "Unauthorized",
+                    content = @Content(schema = @Schema(implementation = ApiError.class)))
+    })
+    public ResponseEntity<FineBalanceDTO> getCurrentUserBalance() {
+        log.info("Request to get current user's fine balance");
+        return ResponseEntity.ok(fineService.getCurrentUserBalance());
+    }
+
+    @GetMapping("/users/{userId}")
+    @PreAuthorize("hasRole('LIBRARIAN')")
+    @Operation(summary = "Get a user's fine balance", description = "Get a user's outstanding overdue fines. Only accessible by librarians.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Balance retrieved successfully",
+                    content = @Content(schema = @Schema(implementation = FineBalanceDTO.class))),
+            @ApiResponse(responseCode = "401", description = "Unauthorized",
+                    content = @Content(schema = @Schema(implementation = ApiError.class))),
+            @ApiResponse(responseCode = "403", description = "Forbidden - requires LIBRARIAN role",
+                    content = @Content(schema = @Schema(implementation = ApiError.class))),
+            @ApiResponse(responseCode = "404", description = "User not found",
+                    content = @Content(schema = @Schema(implementation = ApiError.class)))
+    })
+    public ResponseEntity<FineBalanceDTO> getUserBalance(
+            @Parameter(description = "ID of the user", required = true) @PathVariable Long userId) {
+        log.info("Request to get fine balance of user with ID: {}", userId);
+        return ResponseEntity.ok(fineService.getUserBalance(userId));
+    }
+
+    @PostMapping("/users/{userId}/payments")
+    @PreAuthorize("hasRole('LIBRARIAN')")
+    @Operation(summary = "Record a fine payment", description = "Record a payment against a user's fine balance. Only accessible by librarians.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Payment recorded successfully",
+                    content = @Content(schema = @Schema(implementation = FineBalanceDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid amount or payment exceeds the outstanding balance",
+                    content = @Content(schema = @Schema(implementation = ApiError.class))),
+            @ApiResponse(responseCode = "401", description = "Unauthorized",
+                    content = @Content(schema = @Schema(implementation = ApiError.class))),
+            @ApiResponse(responseCode = "403", description = "Forbidden - requires LIBRARIAN role",
+                    content = @Content(schema = @Schema(implementation = ApiError.class))),
+            @ApiResponse(responseCode = "404", description = "User not found",
+                    content = @Content(schema = @Schema(implementation = ApiError.class)))
+    })
+    public ResponseEntity<FineBalanceDTO> recordPayment(
+            @Parameter(description = "ID of the user", required = true) @PathVariable Long userId,
+            @Valid @RequestBody FinePaymentRequest request) {
+        log.info("Request to record a fine payment for user with ID: {}", userId);
+        return ResponseEntity.ok(fineService.recordPayment(userId, request));
+    }
+}
@@ -0,0 +1,111 @@
+package com.barisdalyanemre.librarymanagement.controller;
+
+import com.barisdalyanemre.librarymanagement.dto.response.ApiError;
+import com.barisdalyanemre.librarymanagement.dto.response.HoldDTO;
+import com.barisdalyanemre.librarymanagement.event.HoldAllocationEvent;
+import com.barisdalyanemre.librarymanagement.service.HoldService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/borrow")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Book Holds", description = "APIs for queueing up for books that are checked out")
+@SecurityRequirement(name = "bearerAuth")
+public class HoldController {
+
+    private final HoldService holdService;
+
+    @PostMapping("/{bookId}/hold")
+    @Operation(summary = "Place a hold", description = "Join the FIFO hold queue of a checked-out book. When a copy is returned it is set aside for the first patron in the queue.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Hold placed successfully",
+                    content = @Content(schema = @Schema(implementation = HoldDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Book is available and can be borrowed directly",
+                    content = @Content(schema = @Schema(implementation = ApiError.class))),
+            @ApiResponse(responseCode = "401", description = "Unauthorized",
+                    content = @Content(schema = @Schema(implementation = ApiError.class))),
+            @ApiResponse(responseCode = "404", description = "Book not found",
+                    content = @Content(schema = @Schema(implementation = ApiError.class))),
+            @ApiResponse(responseCode = "409", description = "User already holds or has borrowed this book",
+                    content = @Content(schema = @Schema(implementation = ApiError.class)))
+    })
+    public ResponseEntity<HoldDTO> placeHold(@PathVariable Long bookId) {
+        log.info("Request to place a hold on book with ID: {}", bookId);
+        return ResponseEntity.status(HttpStatus.CREATED).body(holdService.placeHold(bookId));
+    }
+
+    @GetMapping("/{bookId}/hold")
+    @Operation(summary = "Get hold status", description = "Get the current user's hold on a book, including the queue position while waiting.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Hold retrieved successfully",
+                    content = @Content(schema = @Schema(implementation = HoldDTO.class))),
+            @ApiResponse(responseCode = "401", description = "Unauthorized",
+                    content = @Content(schema = @Schema(implementation = ApiError.class))),
+            @ApiResponse(responseCode = "404", description = "No active hold on this book",
+                    content = @Content(schema = @Schema(implementation = ApiError.class)))
+    })
+    public ResponseEntity<HoldDTO> getHold(@PathVariable Long bookId) {
+        log.info("Request to get hold on book with ID: {}", bookId);
+        return ResponseEntity.ok(holdService.getHold(bookId));
+    }
+
+    @DeleteMapping("/{bookId}/hold")
+    @Operation(summary = "Cancel a hold", description = "Leave the hold queue of a book. A copy already set aside goes to the next patron in the queue.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Hold cancelled successfully"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized",
+                    content = @Content(schema = @Schema(implementation = ApiError.class))),
+            @ApiResponse(responseCode = "404", description = "No active hold on this book",
+                    content = @Content(schema = @Schema(implementation = ApiError.class)))
+    })
+    public ResponseEntity<Void> cancelHold(@PathVariable Long bookId) {
+        log.info("Request to cancel hold on book with ID: {}", bookId);
+        holdService.cancelHold(bookId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/holds")
+    @Operation(summary = "Get user's holds", description = "Get the waiting and ready holds of the currently authenticated user.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Holds retrieved successfully"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized",
+                    content = @Content(schema = @Schema(implementation = ApiError.class)))
+    })
+    public ResponseEntity<List<HoldDTO>> getUserHolds() {
+        log.info("Request to get user's holds");
+        return ResponseEntity.ok(holdService.getCurrentUserHolds());
+    }
+
+    @GetMapping(path = "/holds/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream hold allocations", description = "Returns a Server-Sent Events (SSE) stream that notifies the current user when a held book is set aside for them")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Stream established successfully",
+                    content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE,
+                            schema = @Schema(implementation = HoldAllocationEvent.class))),
+            @ApiResponse(responseCode = "401", description = "Unauthorized",
+                    content = @Content(schema = @Schema(implementation = ApiError.class)))
+    })
+    public Flux<HoldAllocationEvent> streamHoldAllocations(Authentication authentication) {
+        log.info("Client subscribed to hold allocation stream");
+        return holdService.getHoldAllocationStream(authentication.getName())
+                .doOnCancel(() -> log.info("Client unsubscribed from hold allocation stream"))
+                .doOnError(error -> log.error("Error in hold allocation stream", error));
+    }
+}
@@ -0,0 +1,134 @@
+package com.barisdalyanemre.librarymanagement.controller;
+
+import com.barisdalyanemre.librarymanagement.dto.request.LoanAnalyticsFilter;
+import com.barisdalyanemre.librarymanagement.dto.response.ApiError;
+import com.barisdalyanemre.librarymanagement.dto.response.LoanDurationHistogramDTO;
+import com.barisdalyanemre.librarymanagement.dto.response.LoanGroupCountDTO;
+import com.barisdalyanemre.librarymanagement.dto.response.PatronActivityDTO;
+import com.barisdalyanemre.librarymanagement.enums.LoanGroupBy;
+import com.barisdalyanemre.librarymanagement.service.LoanAnalyticsService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/analytics/loans")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Loan Analytics", description = "APIs for ad-hoc loan analytics")
+@SecurityRequirement(name = "bearerAuth")
+public class LoanAnalyticsController {
+
+    private final LoanAnalyticsService loanAnalyticsService;
+
+    @GetMapping("/counts")
+    @PreAuthorize("hasRole('LIBRARIAN')")
+    @Operation(summary = "Count loans by group", description = "Count the matching loans per genre, author, month, book or user. " +
+            "Months come in calendar order, other groups most loans first. Only accessible by librarians.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Loan counts retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid grouping, filter or limit",
+                    content = @Content(schema = @Schema(implementation = ApiError.class))),
+            @ApiResponse(responseCode = "401", description = "Unauthorized",
+                    content = @Content(schema = @Schema(implementation = ApiError.class))),
+            @ApiResponse(responseCode = "403", description = "Forbidden - requires LIBRARIAN role",
+                    content = @Content(schema = @Schema(implementation = ApiError.class)))
+    })
+    public ResponseEntity<List<LoanGroupCountDTO>> countLoans(
+            @Parameter(description = "Grouping: genre, author, month, book or user") @RequestParam String groupBy,
+            @Parameter(description = "Borrowed on or after this date (YYYY-MM-DD)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate borrowedFrom,
+            @Parameter(description = "Borrowed on or before this date (YYYY-MM-DD)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate borrowedTo,
+            @Parameter(description = "Only loans of books of this genre") @RequestParam(required = false) String genre,
+            @Parameter(description = "Only loans of books by this author") @RequestParam(required = false) String author,
+            @Parameter(description = "Maximum number of groups (1-1000)") @RequestParam(defaultValue = "20") int limit) {
+        log.info("Request to count loans by {}: borrowedFrom={}, borrowedTo={}, genre={}, author={}",
+                groupBy, borrowedFrom, borrowedTo, genre, author);
+        return ResponseEntity.ok(loanAnalyticsService.countLoans(LoanGroupBy.fromValue(groupBy),
+                toFilter(borrowedFrom, borrowedTo, genre, author), limit));
+    }
+
+    @GetMapping("/durations")
+    @PreAuthorize("hasRole('LIBRARIAN')")
+    @Operation(summary = "Get loan duration histogram", description = "Get a histogram of how many days the matching returned loans lasted. " +
+            "Only accessible by librarians.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Loan duration histogram retrieved successfully",
+                    content = @Content(schema = @Schema(implementation = LoanDurationHistogramDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid filter or buckets",
+                    content = @Content(schema = @Schema(implementation = ApiError.class))),
+            @ApiResponse(responseCode = "401", description = "Unauthorized",
+                    content = @Content(schema = @Schema(implementation = ApiError.class))),
+            @ApiResponse(responseCode = "403", description = "Forbidden - requires LIBRARIAN role",
+                    content = @Content(schema = @Schema(implementation = ApiError.class)))
+    })
+    public ResponseEntity<LoanDurationHistogramDTO> getDurationHistogram(
+            @Parameter(description = "Borrowed on or after this date (YYYY-MM-DD)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate borrowedFrom,
+            @Parameter(description = "Borrowed on or before this date (YYYY-MM-DD)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate borrowedTo,
+            @Parameter(description = "Only loans of books of this genre") @RequestParam(required = false) String genre,
+            @Parameter(description = "Only loans of books by this author") @RequestParam(required = false) String author,
+            @Parameter(description = "Width of a bucket in days") @RequestParam(defaultValue = "1") int bucketDays,
+            @Parameter(description = "Number of buckets (1-366)") @RequestParam(defaultValue = "30") int buckets) {
+        log.info("Request to get loan duration histogram: borrowedFrom={}, borrowedTo={}, genre={}, author={}",
+                borrowedFrom, borrowedTo, genre, author);
+        return ResponseEntity.ok(loanAnalyticsService.getDurationHistogram(
+                toFilter(borrowedFrom, borrowedTo, genre, author), bucketDays, buckets));
+    }
+
+    @GetMapping("/patrons")
+    @PreAuthorize("hasRole('LIBRARIAN')")
+    @Operation(summary = "Get patron activity percentiles", description = "Get percentiles of the number of matching loans per patron. " +
+            "Only accessible by librarians.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Patron activity retrieved successfully",
+                    content = @Content(schema = @Schema(implementation = PatronActivityDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid filter or percentiles",
+                    content = @Content(schema = @Schema(implementation = ApiError.class))),
+            @ApiResponse(responseCode = "401", description = "Unauthorized",
+                    content = @Content(schema = @Schema(implementation = ApiError.class))),
+            @ApiResponse(responseCode = "403", description = "Forbidden - requires LIBRARIAN role",
+                    content = @Content(schema = @Schema(implementation = ApiError.class)))
+    })
+    public ResponseEntity<PatronActivityDTO> getPatronActivity(
+            @Parameter(description = "Borrowed on or after this date (YYYY-MM-DD)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate borrowedFrom,
+            @Parameter(description = "Borrowed on or before this date (YYYY-MM-DD)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate borrowedTo,
+            @Parameter(description = "Only loans of books of this genre") @RequestParam(required = false) String genre,
+            @Parameter(description = "Only loans of books by this author") @RequestParam(required = false) String author,
+            @Parameter(description = "Percentiles to compute (1-100)") @RequestParam(defaultValue = "50,90,99") List<Integer> percentiles) {
+        log.info("Request to get patron activity: borrowedFrom={}, borrowedTo={}, genre={}, author={}, percentiles={}",
+                borrowedFrom, borrowedTo, genre, author, percentiles);
+        return ResponseEntity.ok(loanAnalyticsService.getPatronActivity(
+                toFilter(borrowedFrom, borrowedTo, genre, author), percentiles));
+    }
+
+    private LoanAnalyticsFilter toFilter(LocalDate borrowedFrom, LocalDate borrowedTo, String genre, String author) {
+        return LoanAnalyticsFilter.builder()
+                .borrowedFrom(borrowedFrom)
+                .borrowedTo(borrowedTo)
+                .genre(genre)
+                .author(author)
+                .build();
+    }
+}
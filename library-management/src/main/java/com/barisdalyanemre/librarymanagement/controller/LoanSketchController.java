@@ -0,0 +1,65 @@
+package com.barisdalyanemre.librarymanagement.controller;
+
+import com.barisdalyanemre.librarymanagement.dto.response.ApiError;
+import com.barisdalyanemre.librarymanagement.dto.response.LoanSketchDTO;
+import com.barisdalyanemre.librarymanagement.enums.SketchDimension;
+import com.barisdalyanemre.librarymanagement.service.LoanSketchService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.YearMonth;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/stats/loans/sketches")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Loan Sketches", description = "APIs for approximate patron and loan duration metrics")
+@SecurityRequirement(name = "bearerAuth")
+public class LoanSketchController {
+
+    private final LoanSketchService loanSketchService;
+
+    @GetMapping
+    @PreAuthorize("hasRole('LIBRARIAN')")
+    @Operation(summary = "Get approximate loan metrics", description = "Get the estimated number of distinct patrons who borrowed " +
+            "and loan duration percentiles of a book, a genre or the whole library, over at most 12 months. " +
+            "Only accessible by librarians.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Loan metrics retrieved successfully",
+                    content = @Content(schema = @Schema(implementation = LoanSketchDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid dimension, key, month range or percentiles",
+                    content = @Content(schema = @Schema(implementation = ApiError.class))),
+            @ApiResponse(responseCode = "401", description = "Unauthorized",
+                    content = @Content(schema = @Schema(implementation = ApiError.class))),
+            @ApiResponse(responseCode = "403", description = "Forbidden - requires LIBRARIAN role",
+                    content = @Content(schema = @Schema(implementation = ApiError.class)))
+    })
+    public ResponseEntity<LoanSketchDTO> getSketch(
+            @Parameter(description = "all, book or genre") @RequestParam(defaultValue = "all") String dimension,
+            @Parameter(description = "Book ID or genre; not used for all") @RequestParam(required = false) String key,
+            @Parameter(description = "First month (YYYY-MM), defaults to toMonth")
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth fromMonth,
+            @Parameter(description = "Last month (YYYY-MM), defaults to the current month")
+            @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM") YearMonth toMonth,
+            @Parameter(description = "Loan duration percentiles, 1 to 100")
+            @RequestParam(defaultValue = "50,90,95,99") List<Integer> percentiles) {
+        log.info("Request to get loan sketch: dimension={}, key={}, fromMonth={}, toMonth={}", dimension, key, fromMonth, toMonth);
+        return ResponseEntity.ok(loanSketchService.getSketch(SketchDimension.fromValue(dimension), key, fromMonth, toMonth, percentiles));
+    }
+}
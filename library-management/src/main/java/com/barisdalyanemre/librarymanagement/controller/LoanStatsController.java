@@ -0,0 +1,84 @@
+package com.barisdalyanemre.librarymanagement.controller;
+
+import com.barisdalyanemre.librarymanagement.dto.response.ApiError;
+import com.barisdalyanemre.librarymanagement.dto.response.DailyLoanStatsDTO;
+import com.barisdalyanemre.librarymanagement.dto.response.LoanStatsSummaryDTO;
+import com.barisdalyanemre.librarymanagement.service.LoanStatsService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/stats/loans")
+@RequiredArgsConstructor
+@Slf4j
+@Tag(name = "Loan Statistics", description = "APIs for daily loan statistics")
+@SecurityRequirement(name = "bearerAuth")
+public class LoanStatsController {
+
+    private final LoanStatsService loanStatsService;
+
+    @GetMapping("/daily")
+    @PreAuthorize("hasRole('LIBRARIAN')")
+    @Operation(summary = "Get daily loan statistics", description = "Get borrows, returns, loans that fell overdue and the average loan duration " +
+            "of every day in a range of at most 366 days, for one genre or all genres. Only accessible by librarians.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Daily loan statistics retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid date range",
+                    content = @Content(schema = @Schema(implementation = ApiError.class))),
+            @ApiResponse(responseCode = "401", description = "Unauthorized",
+                    content = @Content(schema = @Schema(implementation = ApiError.class))),
+            @ApiResponse(responseCode = "403", description = "Forbidden - requires LIBRARIAN role",
+                    content = @Content(schema = @Schema(implementation = ApiError.class)))
+    })
+    public ResponseEntity<List<DailyLoanStatsDTO>> getDailyStats(
+            @Parameter(description = "First day (YYYY-MM-DD)")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Last day (YYYY-MM-DD)")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @Parameter(description = "Only loans of books of this genre") @RequestParam(required = false) String genre) {
+        log.info("Request to get daily loan statistics: from={}, to={}, genre={}", from, to, genre);
+        return ResponseEntity.ok(loanStatsService.getDailyStats(from, to, genre));
+    }
+
+    @GetMapping("/summary")
+    @PreAuthorize("hasRole('LIBRARIAN')")
+    @Operation(summary = "Get loan statistics summary", description = "Get the loan statistics of a range of at most 366 days added up, " +
+            "for one genre or all genres. Only accessible by librarians.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Loan statistics summary retrieved successfully",
+                    content = @Content(schema = @Schema(implementation = LoanStatsSummaryDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Invalid date range",
+                    content = @Content(schema = @Schema(implementation = ApiError.class))),
+            @ApiResponse(responseCode = "401", description = "Unauthorized",
+                    content = @Content(schema = @Schema(implementation = ApiError.class))),
+            @ApiResponse(responseCode = "403", description = "Forbidden - requires LIBRARIAN role",
+                    content = @Content(schema = @Schema(implementation = ApiError.class)))
+    })
+    public ResponseEntity<LoanStatsSummaryDTO> getSummary(
+            @Parameter(description = "First day (YYYY-MM-DD)")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Last day (YYYY-MM-DD)")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @Parameter(description = "Only loans of books of this genre") @RequestParam(required = false) String genre) {
+        log.info("Request to get loan statistics summary: from={}, to={}, genre={}", from, to, genre);
+        return ResponseEntity.ok(loanStatsService.getSummary(from, to, genre));
+    }
+}
@@ -0,0 +1,78 @@
+package com.barisdalyanemre.librarymanagement.datasource;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Read-your-writes guard for replica routing. After a user writes (e.g. borrows a book), their
+ * read-only transactions stay on the primary for a configurable window so they never observe a
+ * replica that has not caught up with their own change yet.
+ */
+@Component
+public class ReplicaLagGuard {
+
+    private final Map<String, Long> lastWriteByUser = new ConcurrentHashMap<>();
+    private final Duration window;
+    private final Clock clock;
+
+    @Autowired
+    public ReplicaLagGuard(@Value("${library.datasource.replicas.lag-guard-window-ms:5000}") long windowMillis) {
+        this(Duration.ofMillis(windowMillis), Clock.systemUTC());
+    }
+
+    ReplicaLagGuard(Duration window, Clock clock) {
+        this.window = window;
+        this.clock = clock;
+    }
+
+    /**
+     * Records that the current user has just written to the primary
+     */
+    public void recordWrite() {
+        String user = currentUser();
+        if (user != null && !window.isZero()) {
+            lastWriteByUser.put(user, clock.millis());
+        }
+    }
+
+    /**
+     * @return true if the current user wrote recently enough that replicas may still lag behind
+     */
+    public boolean requiresPrimary() {
+        String user = currentUser();
+        if (user == null) {
+            return false;
+        }
+
+        Long lastWrite = lastWriteByUser.get(user);
+        if (lastWrite == null) {
+            return false;
+        }
+        if (clock.millis() - lastWrite < window.toMillis()) {
+            return true;
+        }
+
+        lastWriteByUser.remove(user, lastWrite);
+        return false;
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    public void purgeExpired() {
+        long cutoff = clock.millis() - window.toMillis();
+        lastWriteByUser.values().removeIf(lastWrite -> lastWrite < cutoff);
+    }
+
+    private String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null ? authentication.getName() : null;
+    }
+}
@@ -0,0 +1,123 @@
+package com.barisdalyanemre.librarymanagement.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends connections for read-only transactions to the replica pools in round-robin order and
+ * everything else to the primary. Replicas that fail to hand out a connection or fail a health
+ * check are ejected until a later health check succeeds.
+ * <p>
+ * The transaction's read-only flag is only visible once the transaction has started, so this data
+ * source must sit behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource {
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final ReplicaLagGuard lagGuard;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, ReplicaLagGuard lagGuard) {
+        this.primary = primary;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.lagGuard = lagGuard;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        DataSource target = determineTarget();
+        if (target != primary) {
+            try {
+                return target.getConnection();
+            } catch (SQLException e) {
+                eject(target, e);
+                return primary.getConnection();
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        DataSource target = determineTarget();
+        if (target != primary) {
+            try {
+                return target.getConnection(username, password);
+            } catch (SQLException e) {
+                eject(target, e);
+                return primary.getConnection(username, password);
+            }
+        }
+        return primary.getConnection(username, password);
+    }
+
+    /**
+     * Validates every replica and brings healthy ones back into rotation
+     */
+    @Scheduled(fixedDelayString = "${library.datasource.replicas.health-check-interval-ms:10000}")
+    public void checkReplicaHealth() {
+        for (Replica replica : replicas) {
+            boolean healthy;
+            try (Connection connection = replica.dataSource.getConnection()) {
+                healthy = connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+            } catch (SQLException e) {
+                healthy = false;
+            }
+
+            if (healthy != replica.healthy) {
+                log.warn("Replica {} is now {}", replicas.indexOf(replica), healthy ? "healthy" : "unhealthy");
+            }
+            replica.healthy = healthy;
+        }
+    }
+
+    public int getHealthyReplicaCount() {
+        return (int) replicas.stream().filter(replica -> replica.healthy).count();
+    }
+
+    DataSource determineTarget() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || lagGuard.requiresPrimary()) {
+            return primary;
+        }
+
+        int size = replicas.size();
+        int start = Math.floorMod(nextReplica.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.healthy) {
+                return replica.dataSource;
+            }
+        }
+        return primary;
+    }
+
+    private void eject(DataSource dataSource, SQLException cause) {
+        for (Replica replica : replicas) {
+            if (replica.dataSource == dataSource && replica.healthy) {
+                replica.healthy = false;
+                log.warn("Ejecting replica {} after connection failure: {}", replicas.indexOf(replica), cause.getMessage());
+            }
+        }
+    }
+
+    private static final class Replica {
+        private final DataSource dataSource;
+        private volatile boolean healthy = true;
+
+        private Replica(DataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.barisdalyanemre.librarymanagement.dto.request;
+
+import com.barisdalyanemre.librarymanagement.enums.BatchMode;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchBorrowRequest {
+
+    @NotEmpty(message = "At least one book ID is required")
+    @Size(max = 50, message = "At most 50 books can be borrowed in one request")
+    private List<@NotNull(message = "Book ID must not be null") Long> bookIds;
+
+    @Builder.Default
+    private BatchMode mode = BatchMode.ALL_OR_NOTHING;
+}
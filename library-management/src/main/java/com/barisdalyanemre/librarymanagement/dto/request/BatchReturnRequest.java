@@ -0,0 +1,22 @@
+package com.barisdalyanemre.librarymanagement.dto.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchReturnRequest {
+
+    @NotEmpty(message = "At least one book ID is required")
+    @Size(max = 1000, message = "At most 1000 books can be returned in one request")
+    private List<@NotNull(message = "Book ID must not be null") Long> bookIds;
+}
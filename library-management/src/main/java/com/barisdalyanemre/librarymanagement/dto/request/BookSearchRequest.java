@@ -23,4 +23,6 @@ public class BookSearchRequest {
     
     @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
     private LocalDate publishedBefore;
+    
+    private boolean fuzzy;
 }
@@ -0,0 +1,23 @@
+package com.barisdalyanemre.librarymanagement.dto.request;
+
+import com.barisdalyanemre.librarymanagement.enums.LoanStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BorrowRecordSearchRequest {
+    private Long userId;
+    private Long bookId;
+    private LoanStatus status;
+    
+    // Inclusive range of borrow dates
+    private LocalDate borrowedFrom;
+    private LocalDate borrowedTo;
+}
@@ -0,0 +1,21 @@
+package com.barisdalyanemre.librarymanagement.dto.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoanAnalyticsFilter {
+    // Inclusive range of borrow dates
+    private LocalDate borrowedFrom;
+    private LocalDate borrowedTo;
+
+    private String genre;
+    private String author;
+}
@@ -0,0 +1,17 @@
+package com.barisdalyanemre.librarymanagement.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchItemResultDTO {
+    private Long bookId;
+    private boolean success;
+    private String message;
+    private BorrowRecordDTO borrowRecord;
+}
@@ -0,0 +1,21 @@
+package com.barisdalyanemre.librarymanagement.dto.response;
+
+import com.barisdalyanemre.librarymanagement.enums.BatchMode;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchResultDTO {
+    private BatchMode mode;
+    private int requested;
+    private int succeeded;
+    private int failed;
+    private List<BatchItemResultDTO> results;
+}
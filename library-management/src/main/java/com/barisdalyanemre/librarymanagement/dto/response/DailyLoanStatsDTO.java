@@ -0,0 +1,22 @@
+package com.barisdalyanemre.librarymanagement.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyLoanStatsDTO {
+    private LocalDate date;
+    private String genre;
+    private int borrows;
+    private int returns;
+    private int fellOverdue;
+    private BigDecimal averageLoanDays;
+}
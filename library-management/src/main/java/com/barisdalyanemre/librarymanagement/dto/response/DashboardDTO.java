@@ -0,0 +1,21 @@
+package com.barisdalyanemre.librarymanagement.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DashboardDTO {
+    private long totalBooks;
+    private long availableBooks;
+    private long activeLoans;
+    private long overdueLoans;
+    private long patrons;
+    private LocalDateTime timestamp;
+}
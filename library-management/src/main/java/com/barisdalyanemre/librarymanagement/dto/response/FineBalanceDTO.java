@@ -0,0 +1,19 @@
+package com.barisdalyanemre.librarymanagement.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FineBalanceDTO {
+    private Long userId;
+    private String email;
+    private BigDecimal balance;
+    private boolean borrowingBlocked;
+}
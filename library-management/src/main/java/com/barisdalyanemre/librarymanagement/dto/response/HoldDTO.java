@@ -0,0 +1,25 @@
+package com.barisdalyanemre.librarymanagement.dto.response;
+
+import com.barisdalyanemre.librarymanagement.enums.HoldStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HoldDTO {
+    private Long id;
+    private Long bookId;
+    private String bookTitle;
+    private String bookIsbn;
+    private HoldStatus status;
+    private Long queuePosition;
+    private LocalDateTime requestedAt;
+    private LocalDateTime readyAt;
+    private LocalDateTime expiresAt;
+}
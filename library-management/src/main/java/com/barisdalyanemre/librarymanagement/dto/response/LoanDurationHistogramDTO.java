@@ -0,0 +1,26 @@
+package com.barisdalyanemre.librarymanagement.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoanDurationHistogramDTO {
+    private int bucketDays;
+
+    // Bucket i counts the returned loans that lasted from i * bucketDays up to (i + 1) * bucketDays days
+    private List<Long> buckets;
+
+    // Returned loans that lasted longer than the last bucket
+    private long longer;
+
+    private long returnedLoans;
+    private BigDecimal averageLoanDays;
+}
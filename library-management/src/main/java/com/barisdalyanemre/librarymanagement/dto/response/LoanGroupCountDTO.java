@@ -0,0 +1,16 @@
+package com.barisdalyanemre.librarymanagement.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoanGroupCountDTO {
+    // Genre, author, month (YYYY-MM), book ID or user ID, depending on the grouping
+    private String key;
+    private long loans;
+}
@@ -0,0 +1,29 @@
+package com.barisdalyanemre.librarymanagement.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoanSketchDTO {
+    private String dimension;
+    private String key;
+    private YearMonth fromMonth;
+    private YearMonth toMonth;
+
+    // Estimated number of distinct patrons who borrowed, with about 2.3% standard error (HyperLogLog)
+    private long distinctPatrons;
+
+    private long returnedLoans;
+
+    // Loan duration in days at each requested percentile, within 1%; null without returned loans
+    private Map<Integer, BigDecimal> loanDaysPercentiles;
+}
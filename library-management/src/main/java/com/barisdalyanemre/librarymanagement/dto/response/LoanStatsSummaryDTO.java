@@ -0,0 +1,23 @@
+package com.barisdalyanemre.librarymanagement.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoanStatsSummaryDTO {
+    private LocalDate from;
+    private LocalDate to;
+    private String genre;
+    private long borrows;
+    private long returns;
+    private long fellOverdue;
+    private BigDecimal averageLoanDays;
+}
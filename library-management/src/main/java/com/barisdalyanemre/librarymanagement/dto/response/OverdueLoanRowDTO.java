@@ -0,0 +1,23 @@
+package com.barisdalyanemre.librarymanagement.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * One line of the overdue report. Selected as a projection so streamed rows are never
+ * attached to the persistence context.
+ */
+@Getter
+@AllArgsConstructor
+public class OverdueLoanRowDTO {
+    private String bookTitle;
+    private String isbn;
+    private String author;
+    private String patronFirstName;
+    private String patronLastName;
+    private String patronEmail;
+    private LocalDateTime borrowDate;
+    private LocalDateTime dueDate;
+}
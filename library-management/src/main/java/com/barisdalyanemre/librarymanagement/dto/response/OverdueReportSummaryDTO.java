@@ -0,0 +1,32 @@
+package com.barisdalyanemre.librarymanagement.dto.response;
+
+import lombok.Getter;
+
+/**
+ * Aggregate figures of the overdue report, computed by the database in a single query.
+ */
+@Getter
+public class OverdueReportSummaryDTO {
+
+    private final long totalOverdue;
+    private final long uniquePatrons;
+    private final long lessThan7Days;
+    private final long between7And14Days;
+    private final long between14And30Days;
+    private final long moreThan30Days;
+
+    // SUM returns null when there are no overdue loans at all
+    public OverdueReportSummaryDTO(Long totalOverdue, Long uniquePatrons, Long lessThan7Days,
+                                   Long between7And14Days, Long between14And30Days, Long moreThan30Days) {
+        this.totalOverdue = valueOf(totalOverdue);
+        this.uniquePatrons = valueOf(uniquePatrons);
+        this.lessThan7Days = valueOf(lessThan7Days);
+        this.between7And14Days = valueOf(between7And14Days);
+        this.between14And30Days = valueOf(between14And30Days);
+        this.moreThan30Days = valueOf(moreThan30Days);
+    }
+
+    private static long valueOf(Long value) {
+        return value != null ? value : 0L;
+    }
+}
@@ -0,0 +1,21 @@
+package com.barisdalyanemre.librarymanagement.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatronActivityDTO {
+    // Patrons with at least one matching loan
+    private long patrons;
+    private long loans;
+
+    // Loans per patron at each requested percentile
+    private Map<Integer, Long> percentiles;
+}
@@ -0,0 +1,46 @@
+package com.barisdalyanemre.librarymanagement.entity;
+
+import com.barisdalyanemre.librarymanagement.enums.HoldStatus;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "book_holds")
+@NamedEntityGraph(name = BookHold.WITH_USER, attributeNodes = @NamedAttributeNode("user"))
+@NamedEntityGraph(name = BookHold.WITH_BOOK, attributeNodes = @NamedAttributeNode("book"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookHold extends BaseEntity {
+
+    public static final String WITH_USER = "BookHold.withUser";
+    public static final String WITH_BOOK = "BookHold.withBook";
+
+    @NotNull(message = "User is required")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id")
+    private User user;
+
+    @NotNull(message = "Book is required")
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "book_id")
+    private Book book;
+
+    @NotNull(message = "Status is required")
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private HoldStatus status;
+
+    @Column(name = "ready_at")
+    private LocalDateTime readyAt;
+
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+}
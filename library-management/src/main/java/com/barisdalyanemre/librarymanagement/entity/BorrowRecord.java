@@ -11,19 +11,24 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "borrow_records")
+@NamedEntityGraph(name = BorrowRecord.WITH_USER_AND_BOOK,
+                  attributeNodes = {@NamedAttributeNode("user"), @NamedAttributeNode("book")})
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 public class BorrowRecord extends BaseEntity {
 
+    public static final String WITH_USER_AND_BOOK = "BorrowRecord.withUserAndBook";
+
+    // Lazy: each query states what it needs through a fetch join or entity graph
     @NotNull(message = "User is required")
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User user;
 
     @NotNull(message = "Book is required")
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "book_id")
     private Book book;
 
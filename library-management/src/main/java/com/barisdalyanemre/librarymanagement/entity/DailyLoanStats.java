@@ -0,0 +1,48 @@
+package com.barisdalyanemre.librarymanagement.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+@Entity
+@Table(name = "daily_loan_stats",
+       uniqueConstraints = @UniqueConstraint(name = "uk_daily_loan_stats_genre_date", columnNames = {"genre", "stat_date"}))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyLoanStats extends BaseEntity {
+
+    // Genre of the rows counting every loan of the day, whatever the book's genre
+    public static final String ALL_GENRES = "";
+
+    // Genre of the rows counting loans of books without a genre
+    public static final String UNCATEGORIZED = "Uncategorized";
+
+    @Column(name = "stat_date", nullable = false)
+    private LocalDate statDate;
+
+    @Column(nullable = false, length = 100)
+    private String genre;
+
+    @Column(nullable = false)
+    private int borrows;
+
+    @Column(nullable = false)
+    private int returns;
+
+    // Loans that fell due on this day without having been returned
+    @Column(name = "fell_overdue", nullable = false)
+    private int fellOverdue;
+
+    // Total duration of the loans returned on this day
+    @Column(name = "loan_seconds", nullable = false)
+    private long loanSeconds;
+}
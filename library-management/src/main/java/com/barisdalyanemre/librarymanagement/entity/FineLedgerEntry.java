@@ -0,0 +1,37 @@
+package com.barisdalyanemre.librarymanagement.entity;
+
+import com.barisdalyanemre.librarymanagement.enums.FineEntryType;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+
+@Entity
+@Table(name = "fine_ledger_entries")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class FineLedgerEntry extends BaseEntity {
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "loan_fine_id")
+    private Long loanFineId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entry_type", nullable = false, length = 20)
+    private FineEntryType entryType;
+
+    // Positive for accruals, negative for payments
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal amount;
+}
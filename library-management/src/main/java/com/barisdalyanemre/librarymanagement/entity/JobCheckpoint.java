@@ -0,0 +1,44 @@
+package com.barisdalyanemre.librarymanagement.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "job_checkpoints",
+       uniqueConstraints = @UniqueConstraint(name = "uk_job_checkpoints_job_partition", columnNames = {"job_name", "partition_no"}))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobCheckpoint extends BaseEntity {
+
+    @Column(name = "job_name", nullable = false, length = 100)
+    private String jobName;
+
+    @Column(name = "partition_no", nullable = false)
+    private int partitionNo;
+
+    @Column(name = "partition_count", nullable = false)
+    private int partitionCount;
+
+    // Fixed when a run starts, so a resumed run works on the same set of rows
+    @Column(nullable = false)
+    private LocalDateTime cutoff;
+
+    @Column(name = "last_processed_id", nullable = false)
+    private long lastProcessedId;
+
+    @Column(name = "processed_count", nullable = false)
+    private long processedCount;
+
+    @Column(nullable = false)
+    private boolean completed;
+}
@@ -0,0 +1,43 @@
+package com.barisdalyanemre.librarymanagement.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "loan_fines")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoanFine extends BaseEntity {
+
+    @Column(name = "borrow_record_id", nullable = false, unique = true)
+    private Long borrowRecordId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "due_date", nullable = false)
+    private LocalDateTime dueDate;
+
+    @Column(name = "accrued_days", nullable = false)
+    private int accruedDays;
+
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal amount = BigDecimal.ZERO;
+
+    // Null once the fine is finalized or has reached the per-loan cap
+    @Column(name = "next_accrual_at")
+    private LocalDateTime nextAccrualAt;
+
+    @Column(nullable = false)
+    private boolean finalized;
+}
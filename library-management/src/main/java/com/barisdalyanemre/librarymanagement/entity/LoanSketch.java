@@ -0,0 +1,46 @@
+package com.barisdalyanemre.librarymanagement.entity;
+
+import com.barisdalyanemre.librarymanagement.enums.SketchDimension;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+@Entity
+@Table(name = "loan_sketches",
+       uniqueConstraints = @UniqueConstraint(name = "uk_loan_sketches_dimension_key_period",
+                                             columnNames = {"dimension", "sketch_key", "period"}))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoanSketch extends BaseEntity {
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private SketchDimension dimension;
+
+    // Book ID or genre; empty for the whole library
+    @Column(name = "sketch_key", nullable = false, length = 100)
+    private String sketchKey;
+
+    // First day of the month the sketch covers
+    @Column(nullable = false)
+    private LocalDate period;
+
+    // Serialized HyperLogLog of the patrons who borrowed
+    @Column(nullable = false)
+    private byte[] patrons;
+
+    // Serialized histogram of the durations of returned loans, in minutes
+    @Column(nullable = false)
+    private byte[] durations;
+}
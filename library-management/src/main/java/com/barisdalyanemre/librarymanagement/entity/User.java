@@ -6,9 +6,17 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "users")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
 @Getter
 @Setter
 @NoArgsConstructor
@@ -36,4 +44,17 @@ public class User extends BaseEntity {
     
     @Column(nullable = false)
     private boolean enabled = true;
+
+    // Loan counters are maintained by set-based updates in UserRepository, never written through the entity
+    @Column(name = "active_loan_count", nullable = false, insertable = false, updatable = false)
+    @ColumnDefault("0")
+    private int activeLoanCount;
+
+    @Column(name = "earliest_due_date", insertable = false, updatable = false)
+    private LocalDateTime earliestDueDate;
+
+    // Running total of the fine ledger, likewise only changed by set-based updates
+    @Column(name = "fine_balance", nullable = false, precision = 10, scale = 2, insertable = false, updatable = false)
+    @ColumnDefault("0")
+    private BigDecimal fineBalance = BigDecimal.ZERO;
 }
@@ -0,0 +1,6 @@
+package com.barisdalyanemre.librarymanagement.enums;
+
+public enum BatchMode {
+    ALL_OR_NOTHING,
+    BEST_EFFORT
+}
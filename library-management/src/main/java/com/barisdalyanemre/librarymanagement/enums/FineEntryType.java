@@ -0,0 +1,6 @@
+package com.barisdalyanemre.librarymanagement.enums;
+
+public enum FineEntryType {
+    ACCRUAL,
+    PAYMENT
+}
@@ -0,0 +1,9 @@
+package com.barisdalyanemre.librarymanagement.enums;
+
+public enum HoldStatus {
+    WAITING,
+    READY,
+    FULFILLED,
+    CANCELLED,
+    EXPIRED
+}
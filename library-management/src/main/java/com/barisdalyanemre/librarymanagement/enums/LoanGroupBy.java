@@ -0,0 +1,20 @@
+package com.barisdalyanemre.librarymanagement.enums;
+
+import com.barisdalyanemre.librarymanagement.exception.BadRequestException;
+
+public enum LoanGroupBy {
+    GENRE,
+    AUTHOR,
+    MONTH,
+    BOOK,
+    USER;
+
+    public static LoanGroupBy fromValue(String value) {
+        for (LoanGroupBy groupBy : values()) {
+            if (groupBy.name().equalsIgnoreCase(value)) {
+                return groupBy;
+            }
+        }
+        throw new BadRequestException("Unsupported grouping: " + value + ". Use genre, author, month, book or user.");
+    }
+}
@@ -0,0 +1,18 @@
+package com.barisdalyanemre.librarymanagement.enums;
+
+import com.barisdalyanemre.librarymanagement.exception.BadRequestException;
+
+public enum LoanStatus {
+    ACTIVE,
+    RETURNED,
+    OVERDUE;
+
+    public static LoanStatus fromValue(String value) {
+        for (LoanStatus status : values()) {
+            if (status.name().equalsIgnoreCase(value)) {
+                return status;
+            }
+        }
+        throw new BadRequestException("Unsupported loan status: " + value + ". Use active, returned or overdue.");
+    }
+}
@@ -0,0 +1,19 @@
+package com.barisdalyanemre.librarymanagement.enums;
+
+import java.time.LocalDateTime;
+
+public enum ReminderType {
+    DUE_IN_3_DAYS(-3),
+    DUE_TOMORROW(-1),
+    OVERDUE(1);
+
+    private final int daysFromDueDate;
+
+    ReminderType(int daysFromDueDate) {
+        this.daysFromDueDate = daysFromDueDate;
+    }
+
+    public LocalDateTime deadline(LocalDateTime dueDate) {
+        return dueDate.plusDays(daysFromDueDate);
+    }
+}
@@ -0,0 +1,18 @@
+package com.barisdalyanemre.librarymanagement.enums;
+
+import com.barisdalyanemre.librarymanagement.exception.BadRequestException;
+
+public enum ReportFormat {
+    TEXT,
+    CSV,
+    JSON;
+
+    public static ReportFormat fromValue(String value) {
+        for (ReportFormat format : values()) {
+            if (format.name().equalsIgnoreCase(value)) {
+                return format;
+            }
+        }
+        throw new BadRequestException("Unsupported report format: " + value + ". Use text, csv or json.");
+    }
+}
@@ -0,0 +1,18 @@
+package com.barisdalyanemre.librarymanagement.enums;
+
+import com.barisdalyanemre.librarymanagement.exception.BadRequestException;
+
+public enum SketchDimension {
+    ALL,
+    BOOK,
+    GENRE;
+
+    public static SketchDimension fromValue(String value) {
+        for (SketchDimension dimension : values()) {
+            if (dimension.name().equalsIgnoreCase(value)) {
+                return dimension;
+            }
+        }
+        throw new BadRequestException("Unsupported dimension: " + value + ". Use all, book or genre.");
+    }
+}
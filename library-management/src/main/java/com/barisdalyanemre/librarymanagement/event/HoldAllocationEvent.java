@@ -0,0 +1,24 @@
+package com.barisdalyanemre.librarymanagement.event;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HoldAllocationEvent {
+    private Long holdId;
+    private Long bookId;
+    private String title;
+    private String isbn;
+    @JsonIgnore
+    private String email;
+    private LocalDateTime readyAt;
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,22 @@
+package com.barisdalyanemre.librarymanagement.event;
+
+import com.barisdalyanemre.librarymanagement.enums.ReminderType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoanReminderEvent {
+    private Long loanId;
+    private ReminderType type;
+    private String email;
+    private String title;
+    private String isbn;
+    private LocalDateTime dueDate;
+}
@@ -3,6 +3,7 @@ package com.barisdalyanemre.librarymanagement.exception;
 import jakarta.validation.ConstraintViolationException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
@@ -125,6 +126,15 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return new ResponseEntity<>(apiError, HttpStatus.CONFLICT);
     }
 
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Object> handleOptimisticLockingFailureException(OptimisticLockingFailureException ex, WebRequest request) {
+        log.error("Concurrent modification: {}", ex.getMessage());
+        ApiError apiError = new ApiError(HttpStatus.CONFLICT,
+                "The resource was modified by another request. Please try again.", ex);
+        apiError.setPath(getRequestPath(request));
+        return new ResponseEntity<>(apiError, HttpStatus.CONFLICT);
+    }
+
     // Handle type mismatch exceptions
     @ExceptionHandler(MethodArgumentTypeMismatchException.class)
     public ResponseEntity<Object> handleMethodArgumentTypeMismatch(MethodArgumentTypeMismatchException ex, WebRequest request) {
@@ -0,0 +1,23 @@
+package com.barisdalyanemre.librarymanagement.mapper;
+
+import com.barisdalyanemre.librarymanagement.dto.response.HoldDTO;
+import com.barisdalyanemre.librarymanagement.entity.BookHold;
+import org.springframework.stereotype.Component;
+
+@Component
+public class BookHoldMapper {
+
+    public HoldDTO toDTO(BookHold hold, Long queuePosition) {
+        return HoldDTO.builder()
+                .id(hold.getId())
+                .bookId(hold.getBook().getId())
+                .bookTitle(hold.getBook().getTitle())
+                .bookIsbn(hold.getBook().getIsbn())
+                .status(hold.getStatus())
+                .queuePosition(queuePosition)
+                .requestedAt(hold.getCreatedAt())
+                .readyAt(hold.getReadyAt())
+                .expiresAt(hold.getExpiresAt())
+                .build();
+    }
+}
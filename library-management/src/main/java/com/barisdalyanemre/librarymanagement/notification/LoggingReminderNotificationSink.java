@@ -0,0 +1,25 @@
+package com.barisdalyanemre.librarymanagement.notification;
+
+import com.barisdalyanemre.librarymanagement.event.LoanReminderEvent;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Writes reminders to the "reminders" logger, which logback-spring.xml sends to logs/reminders.log.
+ * Stands in for an e-mail or push gateway when running locally.
+ */
+@Component
+@Slf4j(topic = "reminders")
+public class LoggingReminderNotificationSink implements ReminderNotificationSink {
+
+    @Override
+    public void send(List<LoanReminderEvent> reminders) {
+        for (LoanReminderEvent reminder : reminders) {
+            log.info("{} reminder to {}: '{}' (ISBN: {}) is due {}", reminder.getType(), reminder.getEmail(),
+                    reminder.getTitle(), reminder.getIsbn(), reminder.getDueDate());
+        }
+    }
+}
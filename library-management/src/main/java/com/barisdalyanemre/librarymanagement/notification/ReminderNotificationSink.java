@@ -0,0 +1,15 @@
+package com.barisdalyanemre.librarymanagement.notification;
+
+import com.barisdalyanemre.librarymanagement.event.LoanReminderEvent;
+
+import java.util.List;
+
+public interface ReminderNotificationSink {
+
+    /**
+     * Deliver a batch of due-date reminders
+     *
+     * @param reminders reminders that are due now, at most one batch worth
+     */
+    void send(List<LoanReminderEvent> reminders);
+}
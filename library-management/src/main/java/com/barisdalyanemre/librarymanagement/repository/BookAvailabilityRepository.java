@@ -0,0 +1,22 @@
+package com.barisdalyanemre.librarymanagement.repository;
+
+import java.util.Collection;
+
+/**
+ * Availability flips on the hot borrow and return paths. Only the cache entries of the flipped books are
+ * invalidated, so the rest of the second-level cache survives the write traffic.
+ */
+public interface BookAvailabilityRepository {
+
+    /**
+     * Flips the book to unavailable only if it is still available, so concurrent borrowers
+     * cannot both win. Returns the number of rows updated (0 or 1).
+     */
+    int markUnavailableIfAvailable(Long id);
+
+    int markAllUnavailableIfAvailable(Collection<Long> ids);
+
+    int markAvailable(Long id);
+
+    int markAllAvailable(Collection<Long> ids);
+}
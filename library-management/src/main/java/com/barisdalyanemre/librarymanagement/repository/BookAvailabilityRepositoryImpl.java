@@ -0,0 +1,41 @@
+package com.barisdalyanemre.librarymanagement.repository;
+
+import com.barisdalyanemre.librarymanagement.entity.Book;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class BookAvailabilityRepositoryImpl implements BookAvailabilityRepository {
+
+    private static final String MARK_UNAVAILABLE =
+            "UPDATE books SET available = false, version = version + 1 WHERE id IN (:ids) AND available = true";
+
+    private static final String MARK_AVAILABLE =
+            "UPDATE books SET available = true, version = version + 1 WHERE id IN (:ids)";
+
+    private final EntityManager entityManager;
+
+    @Override
+    public int markUnavailableIfAvailable(Long id) {
+        return markAllUnavailableIfAvailable(List.of(id));
+    }
+
+    @Override
+    public int markAllUnavailableIfAvailable(Collection<Long> ids) {
+        return CachedEntityUpdates.execute(entityManager, Book.class, ids, MARK_UNAVAILABLE, Map.of("ids", ids));
+    }
+
+    @Override
+    public int markAvailable(Long id) {
+        return markAllAvailable(List.of(id));
+    }
+
+    @Override
+    public int markAllAvailable(Collection<Long> ids) {
+        return CachedEntityUpdates.execute(entityManager, Book.class, ids, MARK_AVAILABLE, Map.of("ids", ids));
+    }
+}
@@ -0,0 +1,65 @@
+package com.barisdalyanemre.librarymanagement.repository;
+
+import com.barisdalyanemre.librarymanagement.entity.Book;
+import com.barisdalyanemre.librarymanagement.entity.BookHold;
+import com.barisdalyanemre.librarymanagement.entity.User;
+import com.barisdalyanemre.librarymanagement.enums.HoldStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BookHoldRepository extends JpaRepository<BookHold, Long> {
+
+    // A lock timeout of -2 makes Hibernate render FOR UPDATE SKIP LOCKED where the database supports it
+    String SKIP_LOCKED = "-2";
+
+    boolean existsByUserAndBookAndStatusIn(User user, Book book, Collection<HoldStatus> statuses);
+
+    @EntityGraph(BookHold.WITH_BOOK)
+    Optional<BookHold> findFirstByUserAndBookIdAndStatusIn(User user, Long bookId, Collection<HoldStatus> statuses);
+
+    Optional<BookHold> findFirstByUserAndBookIdAndStatus(User user, Long bookId, HoldStatus status);
+
+    @EntityGraph(BookHold.WITH_BOOK)
+    List<BookHold> findByUserAndStatusInOrderByIdAsc(User user, Collection<HoldStatus> statuses);
+
+    @EntityGraph(BookHold.WITH_USER)
+    List<BookHold> findByStatusOrderByIdAsc(HoldStatus status);
+
+    @Query("SELECT h.book.id FROM BookHold h WHERE h.user = :user AND h.status = :status AND h.book.id IN :bookIds")
+    List<Long> findHeldBookIds(@Param("user") User user,
+                               @Param("bookIds") Collection<Long> bookIds,
+                               @Param("status") HoldStatus status);
+
+    @Query("SELECT DISTINCT h.book.id FROM BookHold h WHERE h.status = :status AND h.book.id IN :bookIds")
+    List<Long> findBookIdsWithHolds(@Param("bookIds") Collection<Long> bookIds, @Param("status") HoldStatus status);
+
+    long countByBookIdAndStatusAndIdLessThan(Long bookId, HoldStatus status, Long id);
+
+    /**
+     * Claims the oldest waiting hold of a book. Rows already claimed by a concurrent transaction are
+     * skipped instead of waited on. Locking queries stay single-table; the user is loaded on access.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = SKIP_LOCKED))
+    Optional<BookHold> findFirstByBookIdAndStatusOrderByIdAsc(Long bookId, HoldStatus status);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = SKIP_LOCKED))
+    List<BookHold> findByStatusAndExpiresAtBefore(HoldStatus status, LocalDateTime now);
+
+    @Query("SELECT DISTINCT h.book FROM BookHold h WHERE h.status = :status AND h.book.available = true")
+    List<Book> findAvailableBooksWithHoldsInStatus(@Param("status") HoldStatus status);
+}
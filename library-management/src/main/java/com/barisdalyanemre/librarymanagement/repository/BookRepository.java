@@ -1,19 +1,27 @@
 package com.barisdalyanemre.librarymanagement.repository;
 
 import com.barisdalyanemre.librarymanagement.entity.Book;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface BookRepository extends JpaRepository<Book, Long> {
+public interface BookRepository extends JpaRepository<Book, Long>, BookAvailabilityRepository {
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+                 @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "book-lookups")})
     Optional<Book> findByIsbn(String isbn);
     boolean existsByIsbn(String isbn);
     
@@ -36,4 +44,26 @@ public interface BookRepository extends JpaRepository<Book, Long> {
             @Param("publishedAfter") LocalDate publishedAfter,
             @Param("publishedBefore") LocalDate publishedBefore,
             Pageable pageable);
+
+    @Query("SELECT b.id FROM Book b WHERE b.id IN :ids " +
+           "AND (:genre IS NULL OR LOWER(b.genre) LIKE LOWER(CONCAT('%', :genre, '%'))) " +
+           "AND (:available IS NULL OR b.available = :available) " +
+           "AND (:publishedAfter IS NULL OR b.publicationDate >= :publishedAfter) " +
+           "AND (:publishedBefore IS NULL OR b.publicationDate <= :publishedBefore)")
+    List<Long> findIdsMatchingFilters(
+            @Param("ids") Collection<Long> ids,
+            @Param("genre") String genre,
+            @Param("available") Boolean available,
+            @Param("publishedAfter") LocalDate publishedAfter,
+            @Param("publishedBefore") LocalDate publishedBefore);
+
+    @Query("SELECT b.id FROM Book b WHERE b.available = false")
+    List<Long> findUnavailableBookIds();
+
+    /**
+     * Locks the given books in ID order so concurrent batches cannot deadlock each other
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Book b WHERE b.id IN :ids ORDER BY b.id")
+    List<Book> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,35 @@
+package com.barisdalyanemre.librarymanagement.repository;
+
+import com.barisdalyanemre.librarymanagement.dto.request.BorrowRecordSearchRequest;
+import com.barisdalyanemre.librarymanagement.entity.BorrowRecord;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+public interface BorrowRecordBatchRepository {
+
+    /**
+     * Inserts one loan per book for the given user as a single JDBC batch
+     */
+    void insertLoans(Long userId, List<Long> bookIds, LocalDateTime borrowDate, LocalDateTime dueDate);
+
+    /**
+     * Next chunk of loans that were overdue at the cutoff, in ID order after the given ID, with user
+     * and book fetched. Only loans whose ID falls into the given partition are returned. The records
+     * are read through a stateless session and are detached.
+     */
+    List<BorrowRecord> findOverdueChunk(LocalDateTime cutoff, long afterId, int partitionCount, int partition, int limit);
+
+    /**
+     * Loans matching the filter, newest first, with user and book fetched. Keyset pagination: only loans
+     * with an ID below beforeId are returned when it is given. The records are detached.
+     */
+    List<BorrowRecord> findRecordsPage(BorrowRecordSearchRequest filter, LocalDateTime now, Long beforeId, int limit);
+
+    /**
+     * Hands every loan matching the filter to the consumer, newest first, with user and book fetched.
+     * Rows are streamed from the database and not kept after they are consumed.
+     */
+    void forEachRecord(BorrowRecordSearchRequest filter, LocalDateTime now, Consumer<BorrowRecord> consumer);
+}
@@ -0,0 +1,149 @@
+package com.barisdalyanemre.librarymanagement.repository;
+
+import com.barisdalyanemre.librarymanagement.dto.request.BorrowRecordSearchRequest;
+import com.barisdalyanemre.librarymanagement.entity.BorrowRecord;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.query.SelectionQuery;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+
+import java.sql.Connection;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Borrow records use IDENTITY keys, which keep Hibernate from batching inserts, so bulk loans go
+ * through plain JDBC on the transaction's connection. Large scans go through a stateless session,
+ * also on the transaction's connection when there is one, so nothing is kept in a persistence context
+ * between chunks.
+ */
+@RequiredArgsConstructor
+public class BorrowRecordBatchRepositoryImpl implements BorrowRecordBatchRepository {
+
+    private static final String INSERT_LOAN =
+            "INSERT INTO borrow_records (user_id, book_id, borrow_date, due_date, created_at, updated_at, version) " +
+            "VALUES (?, ?, ?, ?, ?, ?, 0)";
+
+    private static final String OVERDUE_CHUNK =
+            "SELECT br FROM BorrowRecord br JOIN FETCH br.user JOIN FETCH br.book " +
+            "WHERE br.returnDate IS NULL AND br.dueDate < :cutoff AND br.id > :afterId " +
+            "AND MOD(br.id, :partitionCount) = :partition ORDER BY br.id";
+
+    private static final int STREAM_FETCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public void insertLoans(Long userId, List<Long> bookIds, LocalDateTime borrowDate, LocalDateTime dueDate) {
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.batchUpdate(INSERT_LOAN, bookIds, bookIds.size(), (ps, bookId) -> {
+            ps.setLong(1, userId);
+            ps.setLong(2, bookId);
+            ps.setObject(3, borrowDate);
+            ps.setObject(4, dueDate);
+            ps.setObject(5, now);
+            ps.setObject(6, now);
+        });
+    }
+
+    @Override
+    public List<BorrowRecord> findOverdueChunk(LocalDateTime cutoff, long afterId, int partitionCount, int partition, int limit) {
+        try (StatelessSession session = openStatelessSession()) {
+            return session.createSelectionQuery(OVERDUE_CHUNK, BorrowRecord.class)
+                    .setParameter("cutoff", cutoff)
+                    .setParameter("afterId", afterId)
+                    .setParameter("partitionCount", (long) partitionCount)
+                    .setParameter("partition", (long) partition)
+                    .setMaxResults(limit)
+                    .getResultList();
+        }
+    }
+
+    @Override
+    public List<BorrowRecord> findRecordsPage(BorrowRecordSearchRequest filter, LocalDateTime now, Long beforeId, int limit) {
+        try (StatelessSession session = openStatelessSession()) {
+            return recordQuery(session, filter, now, beforeId)
+                    .setMaxResults(limit)
+                    .getResultList();
+        }
+    }
+
+    @Override
+    public void forEachRecord(BorrowRecordSearchRequest filter, LocalDateTime now, Consumer<BorrowRecord> consumer) {
+        try (StatelessSession session = openStatelessSession();
+             Stream<BorrowRecord> records = recordQuery(session, filter, now, null)
+                     .setFetchSize(STREAM_FETCH_SIZE)
+                     .getResultStream()) {
+            records.forEach(consumer);
+        }
+    }
+
+    /**
+     * Opens the stateless session on the surrounding transaction's connection, so a read-only listing or
+     * export holds one pooled connection instead of two and reads from the transaction's snapshot. Without
+     * a transaction (the overdue job's chunks) the session takes a connection of its own.
+     */
+    private StatelessSession openStatelessSession() {
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        EntityManager entityManager = EntityManagerFactoryUtils.getTransactionalEntityManager(entityManagerFactory);
+        if (entityManager == null) {
+            return sessionFactory.openStatelessSession();
+        }
+        Connection connection = entityManager.unwrap(Session.class).doReturningWork(c -> c);
+        return sessionFactory.openStatelessSession(connection);
+    }
+
+    private SelectionQuery<BorrowRecord> recordQuery(StatelessSession session, BorrowRecordSearchRequest filter,
+                                                     LocalDateTime now, Long beforeId) {
+        List<String> conditions = new ArrayList<>();
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        if (filter.getUserId() != null) {
+            conditions.add("br.user.id = :userId");
+            parameters.put("userId", filter.getUserId());
+        }
+        if (filter.getBookId() != null) {
+            conditions.add("br.book.id = :bookId");
+            parameters.put("bookId", filter.getBookId());
+        }
+        if (filter.getBorrowedFrom() != null) {
+            conditions.add("br.borrowDate >= :borrowedFrom");
+            parameters.put("borrowedFrom", filter.getBorrowedFrom().atStartOfDay());
+        }
+        if (filter.getBorrowedTo() != null) {
+            conditions.add("br.borrowDate < :borrowedBefore");
+            parameters.put("borrowedBefore", filter.getBorrowedTo().plusDays(1).atStartOfDay());
+        }
+        if (filter.getStatus() != null) {
+            switch (filter.getStatus()) {
+                case ACTIVE -> conditions.add("br.returnDate IS NULL");
+                case RETURNED -> conditions.add("br.returnDate IS NOT NULL");
+                case OVERDUE -> {
+                    conditions.add("br.returnDate IS NULL AND br.dueDate < :now");
+                    parameters.put("now", now);
+                }
+            }
+        }
+        if (beforeId != null) {
+            conditions.add("br.id < :beforeId");
+            parameters.put("beforeId", beforeId);
+        }
+
+        String jpql = "SELECT br FROM BorrowRecord br JOIN FETCH br.user JOIN FETCH br.book" +
+                (conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions)) +
+                " ORDER BY br.id DESC";
+        SelectionQuery<BorrowRecord> query = session.createSelectionQuery(jpql, BorrowRecord.class);
+        parameters.forEach(query::setParameter);
+        return query;
+    }
+}
@@ -1,28 +1,83 @@
 package com.barisdalyanemre.librarymanagement.repository;
 
+import com.barisdalyanemre.librarymanagement.dto.response.OverdueLoanRowDTO;
+import com.barisdalyanemre.librarymanagement.dto.response.OverdueReportSummaryDTO;
 import com.barisdalyanemre.librarymanagement.entity.BorrowRecord;
 import com.barisdalyanemre.librarymanagement.entity.User;
 import com.barisdalyanemre.librarymanagement.entity.Book;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface BorrowRecordRepository extends JpaRepository<BorrowRecord, Long> {
-    List<BorrowRecord> findByUserOrderByBorrowDateDesc(User user);
+public interface BorrowRecordRepository extends JpaRepository<BorrowRecord, Long>, BorrowRecordBatchRepository {
     List<BorrowRecord> findByUserAndReturnDateIsNullOrderByDueDateAsc(User user);
+
+    /**
+     * First page of a user's borrowing history, newest first. Books are fetched in the same query; the user
+     * is not joined, since callers already hold it.
+     */
+    @Query("SELECT br FROM BorrowRecord br JOIN FETCH br.book WHERE br.user = :user " +
+           "ORDER BY br.borrowDate DESC, br.id DESC")
+    List<BorrowRecord> findHistoryPage(@Param("user") User user, Limit limit);
+
+    /**
+     * Page of a user's borrowing history following the loan borrowed at cursorBorrowDate with id cursorId,
+     * in the same order as findHistoryPage. The cursor loan may already be archived, so its position is
+     * passed in rather than looked up.
+     */
+    @Query("SELECT br FROM BorrowRecord br JOIN FETCH br.book WHERE br.user = :user AND (" +
+           "br.borrowDate < :cursorBorrowDate OR (br.borrowDate = :cursorBorrowDate AND br.id < :cursorId)) " +
+           "ORDER BY br.borrowDate DESC, br.id DESC")
+    List<BorrowRecord> findHistoryPageAfter(@Param("user") User user,
+                                            @Param("cursorBorrowDate") LocalDateTime cursorBorrowDate,
+                                            @Param("cursorId") Long cursorId, Limit limit);
+
+    /**
+     * First page of a user's open loans, earliest due date first, with books fetched. None of the user's open
+     * loans may have been borrowed before openSince; on PostgreSQL the bound limits the scan to the
+     * borrow_date partitions from that month on.
+     */
+    @Query("SELECT br FROM BorrowRecord br JOIN FETCH br.book WHERE br.user = :user AND br.returnDate IS NULL " +
+           "AND br.borrowDate >= :openSince ORDER BY br.dueDate ASC, br.id ASC")
+    List<BorrowRecord> findActiveLoansPage(@Param("user") User user, @Param("openSince") LocalDateTime openSince,
+                                           Limit limit);
+
+    /**
+     * Page of a user's open loans following the given loan, in the same order as findActiveLoansPage
+     */
+    @Query("SELECT br FROM BorrowRecord br JOIN FETCH br.book WHERE br.user = :user AND br.returnDate IS NULL " +
+           "AND br.borrowDate >= :openSince AND (" +
+           "br.dueDate > (SELECT c.dueDate FROM BorrowRecord c WHERE c.id = :cursor AND c.user = :user) OR " +
+           "(br.dueDate = (SELECT c.dueDate FROM BorrowRecord c WHERE c.id = :cursor AND c.user = :user) AND br.id > :cursor)) " +
+           "ORDER BY br.dueDate ASC, br.id ASC")
+    List<BorrowRecord> findActiveLoansPageAfter(@Param("user") User user, @Param("openSince") LocalDateTime openSince,
+                                                @Param("cursor") Long cursor, Limit limit);
    
     @Query("SELECT br FROM BorrowRecord br WHERE br.returnDate IS NULL AND br.dueDate < :now")
     List<BorrowRecord> findAllOverdue(@Param("now") LocalDateTime now);
    
+    @EntityGraph(BorrowRecord.WITH_USER_AND_BOOK)
     Optional<BorrowRecord> findByBookAndReturnDateIsNull(Book book);
     boolean existsByUserAndBookAndReturnDateIsNull(User user, Book book);
     long countByUserAndReturnDateIsNull(User user);
+    long countByReturnDateIsNull();
+    long countByReturnDateIsNullAndDueDateBefore(LocalDateTime now);
    
     @Query("SELECT br FROM BorrowRecord br WHERE br.borrowDate >= :startDate ORDER BY br.borrowDate DESC")
     List<BorrowRecord> findRecentBorrows(@Param("startDate") LocalDateTime startDate);
@@ -31,6 +86,179 @@ public interface BorrowRecordRepository extends JpaRepository<BorrowRecord, Long
            "WHERE br.returnDate IS NULL AND br.dueDate < :now ORDER BY br.dueDate ASC")
     List<BorrowRecord> findAllOverdueWithUserAndBookDetails(@Param("now") LocalDateTime now);
 
+    /**
+     * Overdue totals and age buckets for the overdue report. A loan is in a bucket when its due date
+     * lies after the bucket's lower bound, e.g. less than 7 days overdue means due after sevenDaysAgo.
+     */
+    @Query("SELECT new com.barisdalyanemre.librarymanagement.dto.response.OverdueReportSummaryDTO(" +
+           "COUNT(br), COUNT(DISTINCT br.user.id), " +
+           "SUM(CASE WHEN br.dueDate > :sevenDaysAgo THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN br.dueDate <= :sevenDaysAgo AND br.dueDate > :fourteenDaysAgo THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN br.dueDate <= :fourteenDaysAgo AND br.dueDate > :thirtyDaysAgo THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN br.dueDate <= :thirtyDaysAgo THEN 1 ELSE 0 END)) " +
+           "FROM BorrowRecord br WHERE br.returnDate IS NULL AND br.dueDate < :now")
+    OverdueReportSummaryDTO summarizeOverdue(@Param("now") LocalDateTime now,
+                                             @Param("sevenDaysAgo") LocalDateTime sevenDaysAgo,
+                                             @Param("fourteenDaysAgo") LocalDateTime fourteenDaysAgo,
+                                             @Param("thirtyDaysAgo") LocalDateTime thirtyDaysAgo);
+
+    /**
+     * Streams the overdue report lines in due date order. Must be consumed inside a transaction and closed.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.barisdalyanemre.librarymanagement.dto.response.OverdueLoanRowDTO(" +
+           "b.title, b.isbn, b.author, u.firstName, u.lastName, u.email, br.borrowDate, br.dueDate) " +
+           "FROM BorrowRecord br JOIN br.book b JOIN br.user u " +
+           "WHERE br.returnDate IS NULL AND br.dueDate < :now ORDER BY br.dueDate ASC, br.id ASC")
+    Stream<OverdueLoanRowDTO> streamOverdueReportRows(@Param("now") LocalDateTime now);
+
+    @Query("SELECT br.id AS id, br.dueDate AS dueDate FROM BorrowRecord br WHERE br.returnDate IS NULL")
+    List<LoanDueDate> findActiveLoanDueDates();
+
+    @Query("SELECT br.id AS id, br.user.id AS userId, br.dueDate AS dueDate FROM BorrowRecord br " +
+           "WHERE br.returnDate IS NULL AND br.dueDate >= :from AND br.dueDate < :to")
+    List<OverdueLoan> findLoansFallenDueBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("SELECT br FROM BorrowRecord br JOIN FETCH br.user JOIN FETCH br.book WHERE br.id IN :ids")
+    List<BorrowRecord> findAllWithUserAndBookByIdIn(@Param("ids") Collection<Long> ids);
+
     @Query("SELECT COUNT(br) > 0 FROM BorrowRecord br WHERE br.user = :user AND br.returnDate IS NULL AND br.dueDate < :now")
     boolean hasOverdueBooks(@Param("user") User user, @Param("now") LocalDateTime now);
+
+    @Query("SELECT br.book.id FROM BorrowRecord br " +
+           "WHERE br.user = :user AND br.returnDate IS NULL AND br.book.id IN :bookIds")
+    List<Long> findActiveLoanBookIds(@Param("user") User user, @Param("bookIds") Collection<Long> bookIds);
+
+    @Query("SELECT br FROM BorrowRecord br JOIN FETCH br.book " +
+           "WHERE br.user = :user AND br.returnDate IS NULL AND br.book.id IN :bookIds")
+    List<BorrowRecord> findActiveLoansByUserAndBookIds(@Param("user") User user,
+                                                       @Param("bookIds") Collection<Long> bookIds);
+
+    @Query("SELECT br FROM BorrowRecord br JOIN FETCH br.book JOIN FETCH br.user " +
+           "WHERE br.returnDate IS NULL AND br.book.id IN :bookIds")
+    List<BorrowRecord> findActiveLoansByBookIds(@Param("bookIds") Collection<Long> bookIds);
+
+    /**
+     * Closes the given loans if they are still open. Returns the number of loans closed.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE BorrowRecord br SET br.returnDate = :returnDate, br.updatedAt = :returnDate, br.version = br.version + 1 " +
+           "WHERE br.id IN :ids AND br.returnDate IS NULL")
+    int closeLoans(@Param("ids") Collection<Long> ids, @Param("returnDate") LocalDateTime returnDate);
+
+    /**
+     * Returned loans due for archiving, in id order. Loans with a fine stay, since the fine ledger refers to them.
+     */
+    @Query("SELECT br.id AS id, br.user.id AS userId, br.book.id AS bookId, br.borrowDate AS borrowDate, " +
+           "br.dueDate AS dueDate, br.returnDate AS returnDate FROM BorrowRecord br " +
+           "WHERE br.returnDate < :returnedBefore " +
+           "AND NOT EXISTS (SELECT f.id FROM LoanFine f WHERE f.borrowRecordId = br.id) ORDER BY br.id")
+    List<ArchivableLoan> findArchivableLoans(@Param("returnedBefore") LocalDateTime returnedBefore, Limit limit);
+
+    /**
+     * Deletes the loans findArchivableLoans returns up to and including lastId. Returned loans no longer
+     * change, so this removes exactly the loans that were read.
+     */
+    @Modifying
+    @Query("DELETE FROM BorrowRecord br WHERE br.returnDate < :returnedBefore AND br.id <= :lastId " +
+           "AND NOT EXISTS (SELECT f.id FROM LoanFine f WHERE f.borrowRecordId = br.id)")
+    int deleteArchivedLoans(@Param("returnedBefore") LocalDateTime returnedBefore, @Param("lastId") Long lastId);
+
+    /**
+     * Creates the monthly borrow_records partitions from the month of fromDate through monthsAhead months
+     * past the current one. PostgreSQL only. Returns the number of partitions created.
+     */
+    @Query(value = "SELECT borrow_records_create_partitions(CAST(:fromDate AS DATE), :monthsAhead)", nativeQuery = true)
+    int createPartitions(@Param("fromDate") LocalDate fromDate, @Param("monthsAhead") int monthsAhead);
+
+    /**
+     * Detaches the monthly borrow_records partitions ending on or before cutoff that hold no open loan.
+     * PostgreSQL only. Returns the names of the detached tables.
+     */
+    @Query(value = "SELECT borrow_records_detach_partitions(CAST(:cutoff AS DATE))", nativeQuery = true)
+    List<String> detachPartitions(@Param("cutoff") LocalDate cutoff);
+
+    /**
+     * Every loan with the book attributes analytics group by, in id order
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT br.id AS id, br.user.id AS userId, b.id AS bookId, b.genre AS genre, b.author AS author, " +
+           "br.borrowDate AS borrowDate, br.returnDate AS returnDate FROM BorrowRecord br JOIN br.book b ORDER BY br.id")
+    Stream<LoanFact> streamLoanFacts();
+
+    /**
+     * Loans borrowed in [from, to), counted per borrow day and book genre
+     */
+    @Query("SELECT CAST(br.borrowDate AS LocalDate) AS day, b.genre AS genre, COUNT(br) AS loans " +
+           "FROM BorrowRecord br JOIN br.book b WHERE br.borrowDate >= :from AND br.borrowDate < :to " +
+           "GROUP BY CAST(br.borrowDate AS LocalDate), b.genre")
+    List<DailyLoanCount> countBorrowsByDay(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /**
+     * Loans returned in [from, to), counted per return day and book genre with their total duration
+     */
+    @Query("SELECT CAST(br.returnDate AS LocalDate) AS day, b.genre AS genre, COUNT(br) AS loans, " +
+           "SUM((br.returnDate - br.borrowDate) BY SECOND) AS loanSeconds " +
+           "FROM BorrowRecord br JOIN br.book b WHERE br.returnDate >= :from AND br.returnDate < :to " +
+           "GROUP BY CAST(br.returnDate AS LocalDate), b.genre")
+    List<DailyReturnCount> countReturnsByDay(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /**
+     * Open loans that fell due in [from, to), counted per due day and book genre
+     */
+    @Query("SELECT CAST(br.dueDate AS LocalDate) AS day, b.genre AS genre, COUNT(br) AS loans " +
+           "FROM BorrowRecord br JOIN br.book b WHERE br.returnDate IS NULL " +
+           "AND br.dueDate >= :from AND br.dueDate < :to " +
+           "GROUP BY CAST(br.dueDate AS LocalDate), b.genre")
+    List<DailyLoanCount> countOpenLoansFallenDueByDay(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    /**
+     * Returned loans that fell due in [from, to) before they were returned, counted per due day and book genre.
+     * Such a loan was returned after from, which is the bound the return_date index is searched by.
+     */
+    @Query("SELECT CAST(br.dueDate AS LocalDate) AS day, b.genre AS genre, COUNT(br) AS loans " +
+           "FROM BorrowRecord br JOIN br.book b WHERE br.returnDate >= :from AND br.returnDate > br.dueDate " +
+           "AND br.dueDate >= :from AND br.dueDate < :to " +
+           "GROUP BY CAST(br.dueDate AS LocalDate), b.genre")
+    List<DailyLoanCount> countLateReturnsFallenDueByDay(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    interface LoanDueDate {
+        Long getId();
+        LocalDateTime getDueDate();
+    }
+
+    interface OverdueLoan {
+        Long getId();
+        Long getUserId();
+        LocalDateTime getDueDate();
+    }
+
+    interface ArchivableLoan {
+        Long getId();
+        Long getUserId();
+        Long getBookId();
+        LocalDateTime getBorrowDate();
+        LocalDateTime getDueDate();
+        LocalDateTime getReturnDate();
+    }
+
+    interface LoanFact {
+        Long getId();
+        Long getUserId();
+        Long getBookId();
+        String getGenre();
+        String getAuthor();
+        LocalDateTime getBorrowDate();
+        LocalDateTime getReturnDate();
+    }
+
+    interface DailyLoanCount {
+        LocalDate getDay();
+        String getGenre();
+        Long getLoans();
+    }
+
+    interface DailyReturnCount extends DailyLoanCount {
+        Long getLoanSeconds();
+    }
 }
@@ -0,0 +1,56 @@
+package com.barisdalyanemre.librarymanagement.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.hibernate.cache.spi.access.EntityDataAccess;
+import org.hibernate.cache.spi.access.SoftLock;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.query.NativeQuery;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Native updates of second-level cached entities that leave the rest of the cache alone. Hibernate treats
+ * a bulk update as touching every row of its tables, so it evicts the whole entity region and invalidates
+ * the cached queries on those tables. These updates are synchronized on a query space no entity maps to,
+ * which skips both, and instead soft-lock the cache entries of the given IDs until the transaction completes,
+ * as Hibernate does for an ordinary entity update: readers miss them and load from the database, and a load
+ * that started before the commit cannot put the old state back.
+ */
+final class CachedEntityUpdates {
+
+    private static final String NO_QUERY_SPACE = "";
+
+    private CachedEntityUpdates() {
+    }
+
+    static int execute(EntityManager entityManager, Class<?> entityClass, Collection<Long> ids,
+                       String sql, Map<String, Object> parameters) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        // Pending changes are not flushed for a query space nothing maps to, so flush them explicitly
+        entityManager.flush();
+        lockCacheEntries(entityManager.unwrap(SessionImplementor.class), entityClass, ids);
+
+        Query query = entityManager.createNativeQuery(sql);
+        query.unwrap(NativeQuery.class).addSynchronizedQuerySpace(NO_QUERY_SPACE);
+        parameters.forEach(query::setParameter);
+        return query.executeUpdate();
+    }
+
+    private static void lockCacheEntries(SessionImplementor session, Class<?> entityClass, Collection<Long> ids) {
+        EntityPersister persister = session.getFactory().getMappingMetamodel().getEntityDescriptor(entityClass);
+        if (!persister.canWriteToCache()) {
+            return;
+        }
+        EntityDataAccess cache = persister.getCacheAccessStrategy();
+        for (Long id : ids) {
+            Object key = cache.generateCacheKey(id, persister, session.getFactory(), session.getTenantIdentifier());
+            SoftLock lock = cache.lockItem(session, key, null);
+            session.getActionQueue().registerProcess((success, completed) -> cache.unlockItem(completed, key, lock));
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.barisdalyanemre.librarymanagement.repository;
+
+import com.barisdalyanemre.librarymanagement.entity.DailyLoanStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface DailyLoanStatsRepository extends JpaRepository<DailyLoanStats, Long> {
+    List<DailyLoanStats> findByGenreAndStatDateBetweenOrderByStatDateAsc(String genre, LocalDate from, LocalDate to);
+
+    List<DailyLoanStats> findByStatDateIn(Collection<LocalDate> statDates);
+
+    List<DailyLoanStats> findByStatDateBetween(LocalDate from, LocalDate to);
+}
@@ -0,0 +1,13 @@
+package com.barisdalyanemre.librarymanagement.repository;
+
+import com.barisdalyanemre.librarymanagement.entity.FineLedgerEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface FineLedgerEntryRepository extends JpaRepository<FineLedgerEntry, Long> {
+
+    List<FineLedgerEntry> findByUserIdOrderByIdAsc(Long userId);
+}
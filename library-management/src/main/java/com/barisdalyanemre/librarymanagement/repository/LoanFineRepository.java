@@ -0,0 +1,27 @@
+package com.barisdalyanemre.librarymanagement.repository;
+
+import com.barisdalyanemre.librarymanagement.entity.LoanFine;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface LoanFineRepository extends JpaRepository<LoanFine, Long> {
+
+    List<LoanFine> findByBorrowRecordIdIn(Collection<Long> borrowRecordIds);
+
+    @Query("SELECT f.borrowRecordId FROM LoanFine f WHERE f.borrowRecordId IN :borrowRecordIds")
+    List<Long> findBorrowRecordIdsIn(@Param("borrowRecordIds") Collection<Long> borrowRecordIds);
+
+    /**
+     * Open fines whose next accrual moment has passed, i.e. the only fines that can have grown since the last run
+     */
+    @Query("SELECT f FROM LoanFine f WHERE f.nextAccrualAt <= :now AND f.finalized = false ORDER BY f.nextAccrualAt, f.id")
+    List<LoanFine> findAccruable(@Param("now") LocalDateTime now, Pageable pageable);
+}
@@ -0,0 +1,26 @@
+package com.barisdalyanemre.librarymanagement.repository;
+
+import com.barisdalyanemre.librarymanagement.entity.LoanSketch;
+import com.barisdalyanemre.librarymanagement.enums.SketchDimension;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface LoanSketchRepository extends JpaRepository<LoanSketch, Long> {
+    Optional<LoanSketch> findByDimensionAndSketchKeyAndPeriod(SketchDimension dimension, String sketchKey, LocalDate period);
+
+    /**
+     * Locks the stored sketch, so the flushes of several instances merge into it one after another
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<LoanSketch> findWithLockByDimensionAndSketchKeyAndPeriod(SketchDimension dimension, String sketchKey,
+                                                                      LocalDate period);
+
+    List<LoanSketch> findByPeriodGreaterThanEqual(LocalDate period);
+}
@@ -0,0 +1,34 @@
+package com.barisdalyanemre.librarymanagement.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * Loan counter and fine balance updates on the hot borrow, return and fine paths. Only the cache entries
+ * of the updated users are invalidated, so the rest of the second-level cache and the cached email lookups
+ * survive the write traffic.
+ */
+public interface UserCounterRepository {
+
+    /**
+     * Adds new loans to the user's counters, but only while the user stays within the loan limit
+     * and has nothing overdue. Returns 0 if the user is not eligible.
+     */
+    int addLoansIfEligible(Long id, int loans, LocalDateTime dueDate, LocalDateTime now, int maxLoans);
+
+    /**
+     * Recomputes the loan counters of the given users from their open loans
+     */
+    int refreshLoanCounters(Collection<Long> ids);
+
+    /**
+     * Adds a change of the fine ledger to the user's running balance
+     */
+    int addToFineBalance(Long id, BigDecimal amount);
+
+    /**
+     * Deducts a payment from the user's fine balance, but only if the balance covers it. Returns 0 otherwise.
+     */
+    int deductFromFineBalanceIfCovered(Long id, BigDecimal amount);
+}
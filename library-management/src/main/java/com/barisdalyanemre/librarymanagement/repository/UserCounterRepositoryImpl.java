@@ -0,0 +1,61 @@
+package com.barisdalyanemre.librarymanagement.repository;
+
+import com.barisdalyanemre.librarymanagement.entity.User;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class UserCounterRepositoryImpl implements UserCounterRepository {
+
+    private static final String ADD_LOANS =
+            "UPDATE users SET active_loan_count = active_loan_count + :loans, " +
+            "earliest_due_date = CASE WHEN earliest_due_date IS NULL OR earliest_due_date > :dueDate " +
+            "THEN :dueDate ELSE earliest_due_date END " +
+            "WHERE id = :id AND active_loan_count + :loans <= :maxLoans " +
+            "AND (earliest_due_date IS NULL OR earliest_due_date >= :now)";
+
+    private static final String REFRESH_LOAN_COUNTERS =
+            "UPDATE users SET " +
+            "active_loan_count = (SELECT COUNT(*) FROM borrow_records br " +
+            "WHERE br.user_id = users.id AND br.return_date IS NULL), " +
+            "earliest_due_date = (SELECT MIN(br.due_date) FROM borrow_records br " +
+            "WHERE br.user_id = users.id AND br.return_date IS NULL) " +
+            "WHERE id IN (:ids)";
+
+    private static final String ADD_TO_FINE_BALANCE =
+            "UPDATE users SET fine_balance = fine_balance + :amount WHERE id = :id";
+
+    private static final String DEDUCT_FROM_FINE_BALANCE =
+            "UPDATE users SET fine_balance = fine_balance - :amount WHERE id = :id AND fine_balance >= :amount";
+
+    private final EntityManager entityManager;
+
+    @Override
+    public int addLoansIfEligible(Long id, int loans, LocalDateTime dueDate, LocalDateTime now, int maxLoans) {
+        return CachedEntityUpdates.execute(entityManager, User.class, List.of(id), ADD_LOANS,
+                Map.of("id", id, "loans", loans, "dueDate", dueDate, "now", now, "maxLoans", maxLoans));
+    }
+
+    @Override
+    public int refreshLoanCounters(Collection<Long> ids) {
+        return CachedEntityUpdates.execute(entityManager, User.class, ids, REFRESH_LOAN_COUNTERS, Map.of("ids", ids));
+    }
+
+    @Override
+    public int addToFineBalance(Long id, BigDecimal amount) {
+        return CachedEntityUpdates.execute(entityManager, User.class, List.of(id), ADD_TO_FINE_BALANCE,
+                Map.of("id", id, "amount", amount));
+    }
+
+    @Override
+    public int deductFromFineBalanceIfCovered(Long id, BigDecimal amount) {
+        return CachedEntityUpdates.execute(entityManager, User.class, List.of(id), DEDUCT_FROM_FINE_BALANCE,
+                Map.of("id", id, "amount", amount));
+    }
+}
@@ -1,13 +1,33 @@
 package com.barisdalyanemre.librarymanagement.repository;
 
 import com.barisdalyanemre.librarymanagement.entity.User;
+import com.barisdalyanemre.librarymanagement.enums.Role;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserCounterRepository {
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+                 @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "user-lookups")})
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
+    long countByRole(Role role);
+
+    /**
+     * Recomputes the loan counters of every user from their open loans
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE User u SET " +
+           "u.activeLoanCount = (SELECT COUNT(br) FROM BorrowRecord br WHERE br.user = u AND br.returnDate IS NULL), " +
+           "u.earliestDueDate = (SELECT MIN(br.dueDate) FROM BorrowRecord br WHERE br.user = u AND br.returnDate IS NULL)")
+    int refreshAllLoanCounters();
 }
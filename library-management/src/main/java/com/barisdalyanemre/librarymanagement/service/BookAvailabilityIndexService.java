@@ -0,0 +1,26 @@
+package com.barisdalyanemre.librarymanagement.service;
+
+public interface BookAvailabilityIndexService {
+
+    /**
+     * Checks the in-memory availability snapshot without touching the database.
+     * A false result does not mean the book can be borrowed; the database stays the final authority.
+     *
+     * @param bookId the book ID
+     * @return true if the book is known to be checked out
+     */
+    boolean isKnownUnavailable(Long bookId);
+
+    /**
+     * Records the availability of a book in the snapshot
+     *
+     * @param bookId the book ID
+     * @param available whether the book is available
+     */
+    void updateAvailability(Long bookId, boolean available);
+
+    /**
+     * Rebuilds the snapshot from the database
+     */
+    void reseed();
+}
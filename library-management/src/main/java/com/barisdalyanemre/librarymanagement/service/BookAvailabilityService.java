@@ -3,6 +3,8 @@ package com.barisdalyanemre.librarymanagement.service;
 import com.barisdalyanemre.librarymanagement.event.BookAvailabilityEvent;
 import reactor.core.publisher.Flux;
 
+import java.util.List;
+
 public interface BookAvailabilityService {
     
     /**
@@ -12,6 +14,13 @@ public interface BookAvailabilityService {
      */
     void publishAvailabilityEvent(BookAvailabilityEvent event);
     
+    /**
+     * Publishes a group of book availability events together, e.g. after a batch return
+     * 
+     * @param events the book availability events
+     */
+    void publishAvailabilityEvents(List<BookAvailabilityEvent> events);
+    
     /**
      * Returns a reactive stream of book availability events
      * 
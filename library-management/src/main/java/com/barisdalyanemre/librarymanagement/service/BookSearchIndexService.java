@@ -0,0 +1,37 @@
+package com.barisdalyanemre.librarymanagement.service;
+
+import com.barisdalyanemre.librarymanagement.entity.Book;
+
+import java.util.List;
+
+public interface BookSearchIndexService {
+
+    /**
+     * Adds a book to the in-memory search index, replacing any previous entry for the same ID
+     *
+     * @param book the book to index
+     */
+    void indexBook(Book book);
+
+    /**
+     * Removes a book from the in-memory search index
+     *
+     * @param bookId ID of the book to remove
+     */
+    void removeBook(Long bookId);
+
+    /**
+     * Finds books whose title and author terms are within a small edit distance of the query terms
+     *
+     * @param title title query (may be null)
+     * @param author author query (may be null)
+     * @param limit maximum number of book IDs to return
+     * @return matching book IDs, closest matches first
+     */
+    List<Long> findMatchingBookIds(String title, String author, int limit);
+
+    /**
+     * Rebuilds the whole index from the database
+     */
+    void rebuildIndex();
+}
@@ -0,0 +1,10 @@
+package com.barisdalyanemre.librarymanagement.service;
+
+public interface BorrowRecordPartitionService {
+
+    /**
+     * Create the upcoming monthly borrow_records partitions and detach the old ones that hold no open loan.
+     * Only does anything when partitioning is enabled (PostgreSQL).
+     */
+    void maintainPartitions();
+}
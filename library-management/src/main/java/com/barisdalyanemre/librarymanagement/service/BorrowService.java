@@ -1,8 +1,15 @@
 package com.barisdalyanemre.librarymanagement.service;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.util.List;
 
+import com.barisdalyanemre.librarymanagement.dto.request.BatchBorrowRequest;
+import com.barisdalyanemre.librarymanagement.dto.request.BatchReturnRequest;
+import com.barisdalyanemre.librarymanagement.dto.request.BorrowRecordSearchRequest;
+import com.barisdalyanemre.librarymanagement.dto.response.BatchResultDTO;
 import com.barisdalyanemre.librarymanagement.dto.response.BorrowRecordDTO;
+import com.barisdalyanemre.librarymanagement.dto.response.CursorPageDTO;
 
 public interface BorrowService {
 
@@ -14,6 +21,14 @@ public interface BorrowService {
      */
     BorrowRecordDTO borrowBook(Long bookId);
     
+    /**
+     * Borrow several books for the currently authenticated user in one transaction
+     * 
+     * @param request IDs of the books to borrow and whether partial success is acceptable
+     * @return per-book outcome of the batch
+     */
+    BatchResultDTO borrowBooks(BatchBorrowRequest request);
+    
     /**
      * Return a borrowed book
      * 
@@ -23,25 +38,50 @@ public interface BorrowService {
     BorrowRecordDTO returnBook(Long bookId);
     
     /**
-     * Get borrowing history for the currently authenticated user
+     * Return several books at once, closing whichever loan is active for each of them.
+     * Intended for librarians processing a return drop box.
+     * 
+     * @param request IDs of the returned books
+     * @return per-book outcome of the batch
+     */
+    BatchResultDTO returnBooks(BatchReturnRequest request);
+    
+    /**
+     * Get one page of the borrowing history of the currently authenticated user, newest first
+     * 
+     * @param cursor nextCursor of the previous page, or null for the first page
+     * @param size page size, from 1 to 100
+     * @return the page and the cursor of the next one
+     */
+    CursorPageDTO<BorrowRecordDTO> getCurrentUserBorrowHistory(Long cursor, int size);
+    
+    /**
+     * Get one page of the active loans of the currently authenticated user, earliest due date first
      * 
-     * @return list of borrow records for the user
+     * @param cursor nextCursor of the previous page, or null for the first page
+     * @param size page size, from 1 to 100
+     * @return the page and the cursor of the next one
      */
-    List<BorrowRecordDTO> getCurrentUserBorrowHistory();
+    CursorPageDTO<BorrowRecordDTO> getCurrentUserActiveLoans(Long cursor, int size);
     
     /**
-     * Get active loans for the currently authenticated user
+     * Get one page of borrow records matching the filter, newest first (only accessible by librarians)
      * 
-     * @return list of active borrow records for the user
+     * @param filter user, book, status and borrow date range to filter by; empty fields are ignored
+     * @param cursor nextCursor of the previous page, or null for the first page
+     * @param size page size, from 1 to 100
+     * @return the page and the cursor of the next one
      */
-    List<BorrowRecordDTO> getCurrentUserActiveLoans();
+    CursorPageDTO<BorrowRecordDTO> searchBorrowRecords(BorrowRecordSearchRequest filter, Long cursor, int size);
     
     /**
-     * Get all borrow records (only accessible by librarians)
+     * Write every borrow record matching the filter as newline-delimited JSON, newest first
+     * (only accessible by librarians)
      * 
-     * @return list of all borrow records
+     * @param filter user, book, status and borrow date range to filter by; empty fields are ignored
+     * @param writer destination of the records, one JSON object per line
      */
-    List<BorrowRecordDTO> getAllBorrowRecords();
+    void writeBorrowRecords(BorrowRecordSearchRequest filter, Writer writer) throws IOException;
     
     /**
      * Get all overdue borrow records (only accessible by librarians)
@@ -50,6 +90,14 @@ public interface BorrowService {
      */
     List<BorrowRecordDTO> getAllOverdueRecords();
     
+    /**
+     * Get open loans that fall due within the next given number of hours (only accessible by librarians)
+     * 
+     * @param hours size of the window, from 1 to 720
+     * @return loans ordered by due date, earliest first
+     */
+    List<BorrowRecordDTO> getLoansDueWithin(int hours);
+    
     /**
      * Process overdue books and send notifications
      * This method is intended to be called by a scheduler
@@ -57,9 +105,8 @@ public interface BorrowService {
     void processOverdueBooks();
     
     /**
-     * Generate a text report of all overdue books
-     * 
-     * @return Formatted text report of overdue books
+     * Recompute every user's active loan count and earliest due date from their open loans.
+     * This method is intended to be called by a scheduler
      */
-    String generateOverdueReportText();
+    void repairLoanCounters();
 }
@@ -0,0 +1,11 @@
+package com.barisdalyanemre.librarymanagement.service;
+
+import com.barisdalyanemre.librarymanagement.dto.response.CacheStatisticsDTO;
+
+public interface CacheStatisticsService {
+
+    /**
+     * Get hit, miss and put counts of the second-level cache, in total and per region, since startup
+     */
+    CacheStatisticsDTO getStatistics();
+}
@@ -0,0 +1,73 @@
+package com.barisdalyanemre.librarymanagement.service;
+
+import com.barisdalyanemre.librarymanagement.dto.response.DashboardDTO;
+import com.barisdalyanemre.librarymanagement.entity.BorrowRecord;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * Live library totals for the librarian dashboard, kept in in-memory counters instead of counted per request
+ */
+public interface DashboardService {
+
+    /**
+     * Counts a new book once the current transaction commits
+     */
+    void recordBookAdded();
+
+    /**
+     * Stops counting a deleted book once the current transaction commits
+     *
+     * @param bookId the book ID
+     */
+    void recordBookRemoved(Long bookId);
+
+    /**
+     * Counts new loans once the current transaction commits
+     *
+     * @param loans the number of loans opened
+     */
+    void recordLoansOpened(int loans);
+
+    /**
+     * Stops counting returned loans, and the overdue ones among them, once the current transaction commits
+     *
+     * @param loans the returned loans
+     * @param returnDate when they were returned
+     */
+    void recordLoansClosed(Collection<BorrowRecord> loans, LocalDateTime returnDate);
+
+    /**
+     * Counts a new patron once the current transaction commits
+     */
+    void recordPatronAdded();
+
+    /**
+     * Stops counting a patron who was deleted or promoted once the current transaction commits
+     */
+    void recordPatronRemoved();
+
+    /**
+     * Get the current totals, answered from memory
+     */
+    DashboardDTO getDashboard();
+
+    /**
+     * Stream of the totals: the current ones first, then every change, pushed as the counters are updated
+     */
+    Flux<DashboardDTO> getDashboardStream();
+
+    /**
+     * Recounts overdue loans from the in-memory due date index, as loans fall due without any event
+     */
+    void refreshOverdueLoans();
+
+    /**
+     * Recounts every total from the database and corrects the counters
+     *
+     * @return the total drift corrected
+     */
+    long reconcile();
+}
@@ -0,0 +1,45 @@
+package com.barisdalyanemre.librarymanagement.service;
+
+import com.barisdalyanemre.librarymanagement.dto.request.FinePaymentRequest;
+import com.barisdalyanemre.librarymanagement.dto.response.FineBalanceDTO;
+import com.barisdalyanemre.librarymanagement.entity.BorrowRecord;
+import com.barisdalyanemre.librarymanagement.entity.User;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+public interface FineService {
+
+    /**
+     * Open fines for loans that fell due since the last run and accrue the fines that grew since then.
+     * Fines that cannot have changed are not read.
+     *
+     * @return number of fines accrued by this run
+     */
+    int accrueFines();
+
+    /**
+     * Accrue the fines of returned loans up to the return date and close them
+     */
+    void finalizeFines(Collection<BorrowRecord> returnedLoans, LocalDateTime returnDate);
+
+    /**
+     * Reject borrowing when the fine blocking policy is enabled and the user's balance is above the threshold
+     */
+    void checkBorrowingAllowed(User user);
+
+    /**
+     * Get the current user's outstanding fine balance
+     */
+    FineBalanceDTO getCurrentUserBalance();
+
+    /**
+     * Get a user's outstanding fine balance
+     */
+    FineBalanceDTO getUserBalance(Long userId);
+
+    /**
+     * Record a payment against a user's fine balance
+     */
+    FineBalanceDTO recordPayment(Long userId, FinePaymentRequest request);
+}
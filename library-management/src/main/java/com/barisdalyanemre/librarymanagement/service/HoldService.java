@@ -0,0 +1,95 @@
+package com.barisdalyanemre.librarymanagement.service;
+
+import com.barisdalyanemre.librarymanagement.dto.response.HoldDTO;
+import com.barisdalyanemre.librarymanagement.entity.Book;
+import com.barisdalyanemre.librarymanagement.entity.User;
+import com.barisdalyanemre.librarymanagement.event.HoldAllocationEvent;
+import reactor.core.publisher.Flux;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+public interface HoldService {
+
+    /**
+     * Place the currently authenticated user in the hold queue of an unavailable book
+     *
+     * @param bookId ID of the book to hold
+     * @return the hold details including the queue position
+     */
+    HoldDTO placeHold(Long bookId);
+
+    /**
+     * Get the current user's active hold on a book
+     *
+     * @param bookId ID of the held book
+     * @return the hold details including the queue position
+     */
+    HoldDTO getHold(Long bookId);
+
+    /**
+     * Get all waiting and ready holds of the currently authenticated user
+     *
+     * @return list of active holds
+     */
+    List<HoldDTO> getCurrentUserHolds();
+
+    /**
+     * Cancel the current user's active hold on a book. A copy set aside for the hold goes to the next patron.
+     *
+     * @param bookId ID of the held book
+     */
+    void cancelHold(Long bookId);
+
+    /**
+     * Hand a returned copy to the oldest waiting hold. Must run inside the returning transaction.
+     *
+     * @param book the returned book
+     * @return true if a hold claimed the copy and the book must stay unavailable
+     */
+    boolean allocateReturnedCopy(Book book);
+
+    /**
+     * Mark the user's ready hold on a book as fulfilled
+     *
+     * @param user the borrowing user
+     * @param bookId ID of the book being borrowed
+     * @return true if the user had a ready hold on the book
+     */
+    boolean fulfilReadyHold(User user, Long bookId);
+
+    /**
+     * @param bookIds IDs of the books being returned
+     * @return the subset of the books that have someone waiting for them
+     */
+    Set<Long> getBooksWithWaitingHolds(Collection<Long> bookIds);
+
+    /**
+     * @param user the borrowing user
+     * @param bookIds IDs of the books being borrowed
+     * @return the subset of the books that are set aside for the user
+     */
+    Set<Long> getReadyHoldBookIds(User user, Collection<Long> bookIds);
+
+    /**
+     * @param bookId the book ID
+     * @param email the user's email
+     * @return true if the book is currently set aside for the given user
+     */
+    boolean isReservedFor(Long bookId, String email);
+
+    /**
+     * Expire ready holds that were not picked up in time and pass their copies on.
+     * This method is intended to be called by a scheduler
+     */
+    void processExpiredHolds();
+
+    /**
+     * Returns a reactive stream of allocations for the given user
+     *
+     * @param email the user's email
+     * @return flux of hold allocation events
+     */
+    Flux<HoldAllocationEvent> getHoldAllocationStream(String email);
+}
@@ -0,0 +1,50 @@
+package com.barisdalyanemre.librarymanagement.service;
+
+import com.barisdalyanemre.librarymanagement.dto.request.LoanAnalyticsFilter;
+import com.barisdalyanemre.librarymanagement.dto.response.LoanDurationHistogramDTO;
+import com.barisdalyanemre.librarymanagement.dto.response.LoanGroupCountDTO;
+import com.barisdalyanemre.librarymanagement.dto.response.PatronActivityDTO;
+import com.barisdalyanemre.librarymanagement.entity.Book;
+import com.barisdalyanemre.librarymanagement.enums.LoanGroupBy;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Ad-hoc loan analytics answered from an in-memory, column-oriented copy of every loan, live and archived.
+ * Filters apply to the borrow date, genre and author.
+ */
+public interface LoanAnalyticsService {
+
+    /**
+     * Adds a new loan to the store once the current transaction commits
+     */
+    void recordLoan(Long loanId, Long userId, Book book, LocalDateTime borrowDate);
+
+    /**
+     * Marks loans returned once the current transaction commits
+     */
+    void recordReturns(Collection<Long> loanIds, LocalDateTime returnDate);
+
+    /**
+     * Count the matching loans per genre, author, month, book or user. Months come in calendar order,
+     * everything else most loans first.
+     */
+    List<LoanGroupCountDTO> countLoans(LoanGroupBy groupBy, LoanAnalyticsFilter filter, int limit);
+
+    /**
+     * Get a histogram of how long the matching returned loans lasted
+     */
+    LoanDurationHistogramDTO getDurationHistogram(LoanAnalyticsFilter filter, int bucketDays, int buckets);
+
+    /**
+     * Get percentiles of the number of matching loans per patron, over the patrons with at least one
+     */
+    PatronActivityDTO getPatronActivity(LoanAnalyticsFilter filter, List<Integer> percentiles);
+
+    /**
+     * Rebuilds the store from the database and the loan archive
+     */
+    void reseed();
+}
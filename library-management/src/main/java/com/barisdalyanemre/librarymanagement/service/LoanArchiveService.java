@@ -0,0 +1,50 @@
+package com.barisdalyanemre.librarymanagement.service;
+
+import com.barisdalyanemre.librarymanagement.dto.request.BorrowRecordSearchRequest;
+import com.barisdalyanemre.librarymanagement.entity.BorrowRecord;
+import com.barisdalyanemre.librarymanagement.entity.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Archived loans are returned loans moved out of borrow_records into segment files. They are handed out
+ * as detached borrow records with their user and book loaded, so callers can treat them like live ones.
+ */
+public interface LoanArchiveService {
+
+    /**
+     * Move returned loans older than the archive age into new segment files
+     * @return the number of loans archived
+     */
+    int archiveReturnedLoans();
+
+    /**
+     * Get a user's archived loans newest first, starting after the loan borrowed at cursorBorrowDate with
+     * id cursorId, or from the newest when the cursor is null
+     */
+    List<BorrowRecord> findUserHistory(User user, LocalDateTime cursorBorrowDate, Long cursorId, int limit);
+
+    /**
+     * Get one of a user's archived loans
+     */
+    Optional<BorrowRecord> findUserLoan(User user, Long loanId);
+
+    /**
+     * Get archived loans matching the filter with ids below beforeId (all when null), highest id first
+     */
+    List<BorrowRecord> findRecords(BorrowRecordSearchRequest filter, Long beforeId, int limit);
+
+    /**
+     * Pass every archived loan matching the filter to the consumer once, segment by segment
+     */
+    void forEachRecord(BorrowRecordSearchRequest filter, Consumer<BorrowRecord> consumer);
+
+    /**
+     * Live loans returned before this moment may also be in the archive, left there by a failed run or
+     * archived within the next day
+     */
+    LocalDateTime archivableBefore();
+}
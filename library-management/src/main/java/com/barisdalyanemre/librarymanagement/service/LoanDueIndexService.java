@@ -0,0 +1,53 @@
+package com.barisdalyanemre.librarymanagement.service;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface LoanDueIndexService {
+
+    /**
+     * Adds an open loan to the index once the current transaction commits
+     *
+     * @param loanId the borrow record ID
+     * @param dueDate the loan's due date
+     */
+    void recordLoan(Long loanId, LocalDateTime dueDate);
+
+    /**
+     * Removes returned loans from the index once the current transaction commits
+     *
+     * @param loanIds the borrow record IDs
+     */
+    void removeLoans(Collection<Long> loanIds);
+
+    /**
+     * Get the IDs of open loans whose due date has passed, answered from memory
+     *
+     * @param now the reference time
+     * @return loan IDs ordered by due date, earliest first
+     */
+    List<Long> getOverdueLoanIds(LocalDateTime now);
+
+    /**
+     * Count the open loans whose due date has passed, answered from memory without listing them
+     *
+     * @param now the reference time
+     * @return the number of overdue loans
+     */
+    int countOverdueLoans(LocalDateTime now);
+
+    /**
+     * Get the IDs of open loans that fall due in the given window, answered from memory
+     *
+     * @param from start of the window (inclusive)
+     * @param to end of the window (exclusive)
+     * @return loan IDs ordered by due date, earliest first
+     */
+    List<Long> getLoanIdsDueBetween(LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Rebuilds the index from the database
+     */
+    void reseed();
+}
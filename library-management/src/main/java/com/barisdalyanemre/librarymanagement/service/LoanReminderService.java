@@ -0,0 +1,36 @@
+package com.barisdalyanemre.librarymanagement.service;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+public interface LoanReminderService {
+
+    /**
+     * Schedules the due-date reminders of a new loan once the current transaction commits.
+     * Reminders whose moment has already passed are skipped.
+     *
+     * @param loanId the borrow record ID
+     * @param dueDate the loan's due date
+     */
+    void scheduleReminders(Long loanId, LocalDateTime dueDate);
+
+    /**
+     * Cancels the outstanding reminders of returned loans once the current transaction commits
+     *
+     * @param loanIds the borrow record IDs
+     */
+    void cancelReminders(Collection<Long> loanIds);
+
+    /**
+     * Sends every reminder whose moment has come, in batches.
+     * This method is intended to be called by a scheduler
+     *
+     * @return number of reminders sent
+     */
+    int dispatchDueReminders();
+
+    /**
+     * Rebuilds the pending reminders from the open loans in the database
+     */
+    void rebuild();
+}
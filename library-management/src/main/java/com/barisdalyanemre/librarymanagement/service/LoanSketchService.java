@@ -0,0 +1,42 @@
+package com.barisdalyanemre.librarymanagement.service;
+
+import com.barisdalyanemre.librarymanagement.dto.response.LoanSketchDTO;
+import com.barisdalyanemre.librarymanagement.entity.Book;
+import com.barisdalyanemre.librarymanagement.entity.BorrowRecord;
+import com.barisdalyanemre.librarymanagement.enums.SketchDimension;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Approximate per-month metrics kept in mergeable sketches per book, genre and the whole library:
+ * distinct borrowing patrons in a HyperLogLog and loan durations in a log-linear histogram.
+ */
+public interface LoanSketchService {
+
+    /**
+     * Adds the borrowing patron to the sketches of the book, its genre and the library once the current
+     * transaction commits
+     */
+    void recordBorrow(Long userId, Book book, LocalDateTime borrowDate);
+
+    /**
+     * Adds the durations of returned loans to the sketches of their books, genres and the library once the
+     * current transaction commits. The loans' books must be loaded.
+     */
+    void recordReturns(Collection<BorrowRecord> loans, LocalDateTime returnDate);
+
+    /**
+     * Get the sketch metrics of a book, a genre or the library, merged over the months from fromMonth to toMonth
+     */
+    LoanSketchDTO getSketch(SketchDimension dimension, String key, YearMonth fromMonth, YearMonth toMonth,
+                            List<Integer> percentiles);
+
+    /**
+     * Write the sketches changed since the last flush to the database
+     * @return the number of sketches written
+     */
+    int flush();
+}
@@ -0,0 +1,36 @@
+package com.barisdalyanemre.librarymanagement.service;
+
+import com.barisdalyanemre.librarymanagement.dto.response.DailyLoanStatsDTO;
+import com.barisdalyanemre.librarymanagement.dto.response.LoanStatsSummaryDTO;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Daily loan statistics are kept in rollup rows per day and genre, so a range query reads at most one row per
+ * day instead of scanning borrow_records.
+ */
+public interface LoanStatsService {
+
+    /**
+     * Add the borrows, returns and overdue loans since the previous run to the daily rollups
+     * @return the number of loan events added
+     */
+    long tailLoanActivity();
+
+    /**
+     * Recompute the rollups of the most recent days from borrow_records and correct the rows that drifted
+     * @return the number of rows corrected
+     */
+    int reconcile();
+
+    /**
+     * Get the statistics of every day from one date to another, of one genre or of all genres when genre is null
+     */
+    List<DailyLoanStatsDTO> getDailyStats(LocalDate from, LocalDate to, String genre);
+
+    /**
+     * Get the statistics from one date to another added up, of one genre or of all genres when genre is null
+     */
+    LoanStatsSummaryDTO getSummary(LocalDate from, LocalDate to, String genre);
+}
@@ -0,0 +1,12 @@
+package com.barisdalyanemre.librarymanagement.service;
+
+public interface OverdueLoanJobService {
+
+    /**
+     * Walk every loan that is overdue in ID-ordered chunks, checkpointing after each chunk.
+     * A run that was interrupted is resumed from its checkpoints instead of starting over.
+     *
+     * @return number of overdue loans processed by this invocation
+     */
+    long processOverdueLoans();
+}
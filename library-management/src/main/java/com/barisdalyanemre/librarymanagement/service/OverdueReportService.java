@@ -0,0 +1,18 @@
+package com.barisdalyanemre.librarymanagement.service;
+
+import com.barisdalyanemre.librarymanagement.enums.ReportFormat;
+
+import java.io.IOException;
+import java.io.Writer;
+
+public interface OverdueReportService {
+
+    /**
+     * Write the overdue books report to the given writer as it is read from the database,
+     * without holding the whole report in memory
+     *
+     * @param format text, csv or json
+     * @param writer destination of the report; flushed but not closed
+     */
+    void writeOverdueReport(ReportFormat format, Writer writer) throws IOException;
+}
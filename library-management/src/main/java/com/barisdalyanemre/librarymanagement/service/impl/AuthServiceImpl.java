@@ -10,6 +10,7 @@ import com.barisdalyanemre.librarymanagement.exception.ResourceNotFoundException
 import com.barisdalyanemre.librarymanagement.repository.UserRepository;
 import com.barisdalyanemre.librarymanagement.security.JwtUtils;
 import com.barisdalyanemre.librarymanagement.service.AuthService;
+import com.barisdalyanemre.librarymanagement.service.DashboardService;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -31,6 +32,7 @@ public class AuthServiceImpl implements AuthService {
     private final JwtUtils jwtUtils;
     private final AuthenticationManager authenticationManager;
     private final UserDetailsService userDetailsService;
+    private final DashboardService dashboardService;
 
     @Override
     @Transactional
@@ -49,6 +51,7 @@ public class AuthServiceImpl implements AuthService {
         user.setEnabled(true);
 
         User savedUser = userRepository.save(user);
+        dashboardService.recordPatronAdded();
         log.info("User registered successfully: {}", savedUser.getEmail());
 
         UserDetails userDetails = userDetailsService.loadUserByUsername(savedUser.getEmail());
@@ -102,6 +105,7 @@ public class AuthServiceImpl implements AuthService {
         
         user.setRole(Role.LIBRARIAN);
         userRepository.save(user);
+        dashboardService.recordPatronRemoved();
         log.info("User with ID: {} has been promoted to LIBRARIAN role", userId);
     }
 }
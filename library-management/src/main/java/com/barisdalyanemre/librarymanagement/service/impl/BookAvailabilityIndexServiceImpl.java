@@ -0,0 +1,141 @@
+package com.barisdalyanemre.librarymanagement.service.impl;
+
+import com.barisdalyanemre.librarymanagement.event.BookAvailabilityEvent;
+import com.barisdalyanemre.librarymanagement.repository.BookRepository;
+import com.barisdalyanemre.librarymanagement.service.BookAvailabilityIndexService;
+import com.barisdalyanemre.librarymanagement.service.BookAvailabilityService;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bitset of checked-out books, kept current from {@link BookAvailabilityEvent}s and
+ * periodically reseeded from the database. Unknown books read as available, so a stale or missing
+ * bit only ever lets a request through to the database, never the other way around for long.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BookAvailabilityIndexServiceImpl implements BookAvailabilityIndexService {
+
+    private final BookRepository bookRepository;
+    private final BookAvailabilityService bookAvailabilityService;
+
+    private final ReplayingSnapshot<UnavailabilityBitmap> bitmap = new ReplayingSnapshot<>(new UnavailabilityBitmap());
+    private Disposable subscription;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        subscription = bookAvailabilityService.getAvailabilityEventStream()
+                .subscribe(this::apply, error -> log.error("Availability event stream failed", error));
+        reseed();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    @Override
+    public boolean isKnownUnavailable(Long bookId) {
+        return bookId != null && bitmap.read(books -> books.get(bookId));
+    }
+
+    @Override
+    public void updateAvailability(Long bookId, boolean available) {
+        if (bookId != null) {
+            bitmap.apply(books -> books.set(bookId, !available));
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${library.availability-index.reseed-interval-ms:300000}",
+               initialDelayString = "${library.availability-index.reseed-interval-ms:300000}")
+    public void reseed() {
+        // Events that arrive while the snapshot is loading are replayed on top of it,
+        // otherwise a borrow committed after the query would be overwritten by the swap
+        bitmap.reseed(() -> {
+            List<Long> unavailableIds = bookRepository.findUnavailableBookIds();
+
+            UnavailabilityBitmap seeded = new UnavailabilityBitmap();
+            unavailableIds.forEach(id -> seeded.set(id, true));
+            log.info("Availability index seeded with {} checked-out books", unavailableIds.size());
+            return seeded;
+        });
+    }
+
+    void apply(BookAvailabilityEvent event) {
+        updateAvailability(event.getBookId(), event.isAvailable());
+    }
+
+    /**
+     * Two-level bitset: a fixed directory of lazily allocated 64K-bit segments. Segments are
+     * installed with a CAS and words are updated with CAS loops, so readers and writers never block
+     * and no update is lost to a resize.
+     */
+    static final class UnavailabilityBitmap {
+
+        private static final int SEGMENT_SHIFT = 16;
+        private static final int SEGMENT_WORDS = (1 << SEGMENT_SHIFT) / Long.SIZE;
+        private static final int MAX_SEGMENTS = 1 << 14;
+
+        private final AtomicReferenceArray<AtomicLongArray> segments = new AtomicReferenceArray<>(MAX_SEGMENTS);
+
+        boolean get(long id) {
+            if (!inRange(id)) {
+                return false;
+            }
+            AtomicLongArray segment = segments.get((int) (id >>> SEGMENT_SHIFT));
+            if (segment == null) {
+                return false;
+            }
+            return (segment.get(wordIndex(id)) & bitMask(id)) != 0;
+        }
+
+        void set(long id, boolean value) {
+            if (!inRange(id)) {
+                return;
+            }
+            int segmentIndex = (int) (id >>> SEGMENT_SHIFT);
+            AtomicLongArray segment = segments.get(segmentIndex);
+            if (segment == null) {
+                if (!value) {
+                    return;
+                }
+                segments.compareAndSet(segmentIndex, null, new AtomicLongArray(SEGMENT_WORDS));
+                segment = segments.get(segmentIndex);
+            }
+
+            long mask = bitMask(id);
+            if (value) {
+                segment.getAndUpdate(wordIndex(id), word -> word | mask);
+            } else {
+                segment.getAndUpdate(wordIndex(id), word -> word & ~mask);
+            }
+        }
+
+        private static boolean inRange(long id) {
+            return id >= 0 && (id >>> SEGMENT_SHIFT) < MAX_SEGMENTS;
+        }
+
+        private static int wordIndex(long id) {
+            return (int) ((id & ((1 << SEGMENT_SHIFT) - 1)) >>> 6);
+        }
+
+        private static long bitMask(long id) {
+            return 1L << (id & 63);
+        }
+    }
+}
@@ -8,6 +8,8 @@ import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Sinks;
 
+import java.util.List;
+
 @Service
 @Slf4j
 public class BookAvailabilityServiceImpl implements BookAvailabilityService {
@@ -25,14 +27,20 @@ public class BookAvailabilityServiceImpl implements BookAvailabilityService {
 
     @Override
     public void publishAvailabilityEvent(BookAvailabilityEvent event) {
-        log.info("Publishing book availability event: {}", event);
+        // Subscribers must only see committed state, so the emission waits for the surrounding transaction
+        AfterCommit.run(() -> emit(event));
+    }
+
+    @Override
+    public void publishAvailabilityEvents(List<BookAvailabilityEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
         
-        // Emit the event to all subscribers with retry if busy
-        availabilitySink.emitNext(event, (signalType, emitResult) -> {
-            if (emitResult.isFailure()) {
-                log.error("Failed to emit book availability event: {}, result: {}", event, emitResult);
-            }
-            return false;
+        // One synchronization and one log line for the whole group instead of one per book
+        AfterCommit.run(() -> {
+            log.info("Publishing {} book availability events", events.size());
+            events.forEach(this::emitNext);
         });
     }
 
@@ -40,4 +48,20 @@ public class BookAvailabilityServiceImpl implements BookAvailabilityService {
     public Flux<BookAvailabilityEvent> getAvailabilityEventStream() {
         return availabilityFlux;
     }
+
+    private void emit(BookAvailabilityEvent event) {
+        log.info("Publishing book availability event: {}", event);
+        emitNext(event);
+    }
+
+    private void emitNext(BookAvailabilityEvent event) {
+        // Emit the event to all subscribers, retrying while another thread is emitting
+        availabilitySink.emitNext(event, (signalType, emitResult) -> {
+            if (emitResult == Sinks.EmitResult.FAIL_NON_SERIALIZED) {
+                return true;
+            }
+            log.error("Failed to emit book availability event: {}, result: {}", event, emitResult);
+            return false;
+        });
+    }
 }
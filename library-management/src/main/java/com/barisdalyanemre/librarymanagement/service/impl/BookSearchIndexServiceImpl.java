@@ -0,0 +1,358 @@
+package com.barisdalyanemre.librarymanagement.service.impl;
+
+import com.barisdalyanemre.librarymanagement.entity.Book;
+import com.barisdalyanemre.librarymanagement.repository.BookRepository;
+import com.barisdalyanemre.librarymanagement.service.BookSearchIndexService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory trigram index over title and author terms. Candidate terms are found through shared
+ * trigrams and then verified with a bounded edit distance (adjacent transpositions count as one edit),
+ * so a misspelled query only ever compares against a handful of terms instead of the whole catalog.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BookSearchIndexServiceImpl implements BookSearchIndexService {
+
+    private static final int REBUILD_PAGE_SIZE = 500;
+    private static final int GRAM_SIZE = 3;
+    private static final char BOUNDARY = '$';
+
+    private static final Pattern TERM_SEPARATOR = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    private final BookRepository bookRepository;
+
+    private final FieldIndex titleIndex = new FieldIndex();
+    private final FieldIndex authorIndex = new FieldIndex();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuildIndex();
+    }
+
+    @Override
+    public void rebuildIndex() {
+        lock.writeLock().lock();
+        try {
+            titleIndex.clear();
+            authorIndex.clear();
+
+            Page<Book> page = bookRepository.findAll(PageRequest.of(0, REBUILD_PAGE_SIZE, Sort.by("id")));
+            while (true) {
+                page.forEach(this::addToIndexes);
+                if (!page.hasNext()) {
+                    break;
+                }
+                page = bookRepository.findAll(page.nextPageable());
+            }
+
+            log.info("Book search index built with {} title terms and {} author terms",
+                    titleIndex.termCount(), authorIndex.termCount());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void indexBook(Book book) {
+        if (book == null || book.getId() == null) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            titleIndex.remove(book.getId());
+            authorIndex.remove(book.getId());
+            addToIndexes(book);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void removeBook(Long bookId) {
+        if (bookId == null) {
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            titleIndex.remove(bookId);
+            authorIndex.remove(bookId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Long> findMatchingBookIds(String title, String author, int limit) {
+        List<String> titleTerms = tokenize(title);
+        List<String> authorTerms = tokenize(author);
+
+        if (titleTerms.isEmpty() && authorTerms.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Integer> distances = null;
+
+        lock.readLock().lock();
+        try {
+            if (!titleTerms.isEmpty()) {
+                distances = titleIndex.match(titleTerms);
+            }
+            if (!authorTerms.isEmpty()) {
+                Map<Long, Integer> authorDistances = authorIndex.match(authorTerms);
+                distances = distances == null ? authorDistances : intersect(distances, authorDistances);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return distances.entrySet().stream()
+                .sorted(Map.Entry.<Long, Integer>comparingByValue()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    private void addToIndexes(Book book) {
+        titleIndex.add(book.getId(), tokenize(book.getTitle()));
+        authorIndex.add(book.getId(), tokenize(book.getAuthor()));
+    }
+
+    private static Map<Long, Integer> intersect(Map<Long, Integer> left, Map<Long, Integer> right) {
+        Map<Long, Integer> result = new HashMap<>();
+        left.forEach((bookId, distance) -> {
+            Integer other = right.get(bookId);
+            if (other != null) {
+                result.put(bookId, distance + other);
+            }
+        });
+        return result;
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD))
+                .replaceAll("")
+                .toLowerCase(Locale.ROOT);
+
+        Set<String> terms = new LinkedHashSet<>();
+        for (String term : TERM_SEPARATOR.split(normalized)) {
+            if (!term.isEmpty()) {
+                terms.add(term);
+            }
+        }
+        return new ArrayList<>(terms);
+    }
+
+    static int maxEditsFor(String term) {
+        if (term.length() <= 2) {
+            return 0;
+        }
+        return term.length() <= 5 ? 1 : 2;
+    }
+
+    static Set<String> trigrams(String term) {
+        String padded = BOUNDARY + term + BOUNDARY;
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_SIZE <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + GRAM_SIZE));
+        }
+        return grams;
+    }
+
+    /**
+     * Optimal string alignment distance that gives up as soon as every cell of a row exceeds
+     * {@code maxDistance}. Returns {@code maxDistance + 1} when the distance is larger than the bound.
+     */
+    static int boundedDistance(String source, String target, int maxDistance) {
+        int sourceLength = source.length();
+        int targetLength = target.length();
+        if (Math.abs(sourceLength - targetLength) > maxDistance) {
+            return maxDistance + 1;
+        }
+
+        int[] previousPrevious = new int[targetLength + 1];
+        int[] previous = new int[targetLength + 1];
+        int[] current = new int[targetLength + 1];
+        for (int j = 0; j <= targetLength; j++) {
+            previous[j] = j;
+        }
+
+        for (int i = 1; i <= sourceLength; i++) {
+            current[0] = i;
+            int rowMinimum = current[0];
+            for (int j = 1; j <= targetLength; j++) {
+                int cost = source.charAt(i - 1) == target.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1
+                        && source.charAt(i - 1) == target.charAt(j - 2)
+                        && source.charAt(i - 2) == target.charAt(j - 1)) {
+                    value = Math.min(value, previousPrevious[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMinimum = Math.min(rowMinimum, value);
+            }
+            if (rowMinimum > maxDistance) {
+                return maxDistance + 1;
+            }
+
+            int[] recycled = previousPrevious;
+            previousPrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+
+        return Math.min(previous[targetLength], maxDistance + 1);
+    }
+
+    /**
+     * Postings for a single field: term to book IDs, trigram to terms, and book ID to terms for removals.
+     * Not thread-safe on its own; guarded by the enclosing service's lock.
+     */
+    private static final class FieldIndex {
+
+        private final Map<String, Set<Long>> postings = new HashMap<>();
+        private final Map<String, Set<String>> gramPostings = new HashMap<>();
+        private final Map<Long, List<String>> termsByBook = new HashMap<>();
+
+        void add(Long bookId, List<String> terms) {
+            if (terms.isEmpty()) {
+                return;
+            }
+            termsByBook.put(bookId, terms);
+            for (String term : terms) {
+                Set<Long> books = postings.computeIfAbsent(term, key -> {
+                    trigrams(key).forEach(gram -> gramPostings.computeIfAbsent(gram, g -> new HashSet<>()).add(key));
+                    return new HashSet<>();
+                });
+                books.add(bookId);
+            }
+        }
+
+        void remove(Long bookId) {
+            List<String> terms = termsByBook.remove(bookId);
+            if (terms == null) {
+                return;
+            }
+            for (String term : terms) {
+                Set<Long> books = postings.get(term);
+                if (books == null) {
+                    continue;
+                }
+                books.remove(bookId);
+                if (books.isEmpty()) {
+                    postings.remove(term);
+                    for (String gram : trigrams(term)) {
+                        Set<String> gramTerms = gramPostings.get(gram);
+                        if (gramTerms != null) {
+                            gramTerms.remove(term);
+                            if (gramTerms.isEmpty()) {
+                                gramPostings.remove(gram);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        void clear() {
+            postings.clear();
+            gramPostings.clear();
+            termsByBook.clear();
+        }
+
+        int termCount() {
+            return postings.size();
+        }
+
+        /**
+         * Every query term must match some term of the book; the book's score is the sum of the
+         * best distance found for each query term.
+         */
+        Map<Long, Integer> match(List<String> queryTerms) {
+            Map<Long, Integer> result = null;
+
+            for (String queryTerm : queryTerms) {
+                Map<Long, Integer> termMatches = matchTerm(queryTerm);
+                if (result == null) {
+                    result = termMatches;
+                } else {
+                    result = intersect(result, termMatches);
+                }
+                if (result.isEmpty()) {
+                    break;
+                }
+            }
+
+            return result;
+        }
+
+        private Map<Long, Integer> matchTerm(String queryTerm) {
+            Map<Long, Integer> bestDistances = new HashMap<>();
+            int maxEdits = maxEditsFor(queryTerm);
+
+            Set<Long> exact = postings.get(queryTerm);
+            if (exact != null) {
+                exact.forEach(bookId -> bestDistances.put(bookId, 0));
+            }
+            if (maxEdits == 0) {
+                return bestDistances;
+            }
+
+            Set<String> queryGrams = trigrams(queryTerm);
+            Map<String, Integer> sharedGrams = new HashMap<>();
+            for (String gram : queryGrams) {
+                Set<String> terms = gramPostings.get(gram);
+                if (terms != null) {
+                    terms.forEach(term -> sharedGrams.merge(term, 1, Integer::sum));
+                }
+            }
+
+            // q-gram lemma: each edit destroys at most GRAM_SIZE grams of the padded term
+            int minimumShared = Math.max(1, queryGrams.size() - GRAM_SIZE * maxEdits);
+
+            sharedGrams.entrySet().stream()
+                    .filter(entry -> entry.getValue() >= minimumShared)
+                    .map(Map.Entry::getKey)
+                    .filter(term -> !term.equals(queryTerm))
+                    .forEach(term -> {
+                        int distance = boundedDistance(queryTerm, term, maxEdits);
+                        if (distance <= maxEdits) {
+                            postings.get(term).forEach(bookId -> bestDistances.merge(bookId, distance, Math::min));
+                        }
+                    });
+
+            return bestDistances;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.barisdalyanemre.librarymanagement.service.impl;
 
+import com.barisdalyanemre.librarymanagement.config.RetryOnOptimisticLock;
 import com.barisdalyanemre.librarymanagement.dto.request.BookSearchRequest;
 import com.barisdalyanemre.librarymanagement.dto.request.CreateBookRequest;
 import com.barisdalyanemre.librarymanagement.dto.request.UpdateBookRequest;
@@ -11,17 +12,28 @@ import com.barisdalyanemre.librarymanagement.exception.ResourceNotFoundException
 import com.barisdalyanemre.librarymanagement.mapper.BookMapper;
 import com.barisdalyanemre.librarymanagement.repository.BookRepository;
 import com.barisdalyanemre.librarymanagement.service.BookAvailabilityService;
+import com.barisdalyanemre.librarymanagement.service.BookSearchIndexService;
+import com.barisdalyanemre.librarymanagement.service.DashboardService;
 import com.barisdalyanemre.librarymanagement.service.BookService;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -31,6 +43,16 @@ public class BookServiceImpl implements BookService {
     private final BookRepository bookRepository;
     private final BookMapper bookMapper;
     private final BookAvailabilityService bookAvailabilityService;
+    private final BookSearchIndexService bookSearchIndexService;
+    private final DashboardService dashboardService;
+
+    // A fuzzy search walks at most this many of the closest candidates and pages through at most
+    // MAX_FUZZY_MATCHES of those matching its other criteria
+    private static final int MAX_FUZZY_CANDIDATES = 10_000;
+    
+    private static final int MAX_FUZZY_MATCHES = 1000;
+    
+    private static final int FUZZY_FILTER_BATCH_SIZE = 1000;
 
     @Override
     @Transactional
@@ -43,6 +65,10 @@ public class BookServiceImpl implements BookService {
         Book savedBook = bookRepository.save(book);
         log.info("Created new book with ISBN: {}", savedBook.getIsbn());
         
+        // The index is only rebuilt at startup, so it must not pick up a book whose insert rolls back
+        AfterCommit.run(() -> bookSearchIndexService.indexBook(savedBook));
+        dashboardService.recordBookAdded();
+        
         // Publish availability event for the new book
         publishAvailabilityEvent(savedBook);
         
@@ -50,12 +76,14 @@ public class BookServiceImpl implements BookService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public BookDTO getBookById(Long id) {
         Book book = findBookById(id);
         return bookMapper.toDTO(book);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public BookDTO getBookByIsbn(String isbn) {
         Book book = bookRepository.findByIsbn(isbn)
                 .orElseThrow(() -> new ResourceNotFoundException("Book not found with isbn: " + isbn));
@@ -63,13 +91,19 @@ public class BookServiceImpl implements BookService {
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<BookDTO> getAllBooks(Pageable pageable) {
         return bookRepository.findAll(pageable)
                 .map(bookMapper::toDTO);
     }
     
     @Override
+    @Transactional(readOnly = true)
     public Page<BookDTO> searchBooks(BookSearchRequest request, Pageable pageable) {
+        if (request.isFuzzy() && (request.getTitle() != null || request.getAuthor() != null)) {
+            return fuzzySearchBooks(request, pageable);
+        }
+        
         return bookRepository.searchBooks(
                 request.getTitle(),
                 request.getAuthor(),
@@ -83,6 +117,7 @@ public class BookServiceImpl implements BookService {
 
     @Override
     @Transactional
+    @RetryOnOptimisticLock
     public BookDTO updateBook(Long id, UpdateBookRequest request) {
         Book book = findBookById(id);
         
@@ -93,6 +128,8 @@ public class BookServiceImpl implements BookService {
         Book updatedBook = bookRepository.save(book);
         log.info("Updated book with ID: {}", id);
         
+        AfterCommit.run(() -> bookSearchIndexService.indexBook(updatedBook));
+        
         // If availability changed, publish an event
         if (previousAvailability != updatedBook.getAvailable()) {
             publishAvailabilityEvent(updatedBook);
@@ -106,11 +143,15 @@ public class BookServiceImpl implements BookService {
     public void deleteBook(Long id) {
         Book book = findBookById(id);
         bookRepository.delete(book);
+        // A delete can still fail at commit (e.g. the book has loan history), so the index waits for it
+        AfterCommit.run(() -> bookSearchIndexService.removeBook(id));
+        dashboardService.recordBookRemoved(id);
         log.info("Deleted book with ID: {}", id);
     }
 
     @Override
     @Transactional
+    @RetryOnOptimisticLock
     public BookDTO updateBookAvailability(Long id, boolean available) {
         Book book = findBookById(id);
         
@@ -126,6 +167,62 @@ public class BookServiceImpl implements BookService {
         return bookMapper.toDTO(book);
     }
     
+    /**
+     * Typo-tolerant search: the in-memory index supplies candidate IDs ranked by edit distance, the remaining
+     * criteria are checked in the database on IDs alone, a batch of candidates at a time, and only the books
+     * on the requested page are loaded. Totals count at most MAX_FUZZY_MATCHES matches among the closest
+     * MAX_FUZZY_CANDIDATES candidates.
+     */
+    private Page<BookDTO> fuzzySearchBooks(BookSearchRequest request, Pageable pageable) {
+        List<Long> rankedIds = bookSearchIndexService.findMatchingBookIds(
+                request.getTitle(), request.getAuthor(), MAX_FUZZY_CANDIDATES);
+        
+        List<Long> matchingIds = hasFilters(request)
+                ? filterCandidates(rankedIds, request)
+                : rankedIds.subList(0, Math.min(rankedIds.size(), MAX_FUZZY_MATCHES));
+        
+        int start = (int) Math.min(pageable.getOffset(), matchingIds.size());
+        int end = Math.min(start + pageable.getPageSize(), matchingIds.size());
+        List<Long> pageIds = matchingIds.subList(start, end);
+        if (pageIds.isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, matchingIds.size());
+        }
+        
+        Map<Long, Book> books = bookRepository.findAllById(pageIds).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        List<BookDTO> content = pageIds.stream()
+                .map(books::get)
+                .filter(Objects::nonNull)
+                .map(bookMapper::toDTO)
+                .collect(Collectors.toList());
+        
+        return new PageImpl<>(content, pageable, matchingIds.size());
+    }
+    
+    /**
+     * Keeps the candidates matching the remaining criteria, in rank order, until MAX_FUZZY_MATCHES are found
+     */
+    private List<Long> filterCandidates(List<Long> rankedIds, BookSearchRequest request) {
+        List<Long> matches = new ArrayList<>();
+        for (int from = 0; from < rankedIds.size() && matches.size() < MAX_FUZZY_MATCHES; from += FUZZY_FILTER_BATCH_SIZE) {
+            List<Long> batch = rankedIds.subList(from, Math.min(from + FUZZY_FILTER_BATCH_SIZE, rankedIds.size()));
+            Set<Long> matching = new HashSet<>(bookRepository.findIdsMatchingFilters(batch,
+                    request.getGenre(), request.getAvailable(),
+                    request.getPublishedAfter(), request.getPublishedBefore()));
+            for (Long id : batch) {
+                if (matching.contains(id) && matches.size() < MAX_FUZZY_MATCHES) {
+                    matches.add(id);
+                }
+            }
+        }
+        return matches;
+    }
+    
+    private static boolean hasFilters(BookSearchRequest request) {
+        return request.getGenre() != null || request.getAvailable() != null
+                || request.getPublishedAfter() != null || request.getPublishedBefore() != null;
+    }
+    
     private Book findBookById(Long id) {
         return bookRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Book not found with id: " + id));
@@ -0,0 +1,52 @@
+package com.barisdalyanemre.librarymanagement.service.impl;
+
+import com.barisdalyanemre.librarymanagement.repository.BorrowRecordRepository;
+import com.barisdalyanemre.librarymanagement.service.BorrowRecordPartitionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Keeps the monthly borrow_records partitions of PostgreSQL (see db/vendor/postgresql/V8 and V12) rolling:
+ * partitions are created months-ahead months in advance, so new loans never land in the default partition,
+ * and months older than retention-months are detached once none of their loans is open or fined. Fined loans
+ * are not archived, so a month holding one stays attached. Detached months stay in the database as
+ * standalone tables but no longer show up in loan queries.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BorrowRecordPartitionServiceImpl implements BorrowRecordPartitionService {
+
+    private final BorrowRecordRepository borrowRecordRepository;
+
+    @Value("${library.partitions.enabled:false}")
+    private boolean enabled;
+
+    @Value("${library.partitions.months-ahead:3}")
+    private int monthsAhead;
+
+    @Value("${library.partitions.retention-months:24}")
+    private int retentionMonths;
+
+    @Override
+    @Scheduled(cron = "${library.partitions.maintenance-cron:0 15 0 * * ?}")
+    @Transactional
+    public void maintainPartitions() {
+        if (!enabled) {
+            return;
+        }
+        
+        LocalDate today = LocalDate.now();
+        int created = borrowRecordRepository.createPartitions(today, monthsAhead);
+        List<String> detached = borrowRecordRepository.detachPartitions(
+                today.withDayOfMonth(1).minusMonths(retentionMonths));
+        log.info("Created {} borrow record partitions, detached {}", created, detached);
+    }
+}
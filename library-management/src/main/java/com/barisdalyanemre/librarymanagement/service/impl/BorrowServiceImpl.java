@@ -1,9 +1,18 @@
 package com.barisdalyanemre.librarymanagement.service.impl;
 
+import com.barisdalyanemre.librarymanagement.config.RetryOnOptimisticLock;
+import com.barisdalyanemre.librarymanagement.datasource.ReplicaLagGuard;
+import com.barisdalyanemre.librarymanagement.dto.request.BatchBorrowRequest;
+import com.barisdalyanemre.librarymanagement.dto.request.BatchReturnRequest;
+import com.barisdalyanemre.librarymanagement.dto.request.BorrowRecordSearchRequest;
+import com.barisdalyanemre.librarymanagement.dto.response.BatchItemResultDTO;
+import com.barisdalyanemre.librarymanagement.dto.response.BatchResultDTO;
 import com.barisdalyanemre.librarymanagement.dto.response.BorrowRecordDTO;
+import com.barisdalyanemre.librarymanagement.dto.response.CursorPageDTO;
 import com.barisdalyanemre.librarymanagement.entity.Book;
 import com.barisdalyanemre.librarymanagement.entity.BorrowRecord;
 import com.barisdalyanemre.librarymanagement.entity.User;
+import com.barisdalyanemre.librarymanagement.enums.BatchMode;
 import com.barisdalyanemre.librarymanagement.event.BookAvailabilityEvent;
 import com.barisdalyanemre.librarymanagement.exception.BadRequestException;
 import com.barisdalyanemre.librarymanagement.exception.ConflictException;
@@ -13,21 +22,46 @@ import com.barisdalyanemre.librarymanagement.mapper.BorrowRecordMapper;
 import com.barisdalyanemre.librarymanagement.repository.BookRepository;
 import com.barisdalyanemre.librarymanagement.repository.BorrowRecordRepository;
 import com.barisdalyanemre.librarymanagement.repository.UserRepository;
+import com.barisdalyanemre.librarymanagement.service.BookAvailabilityIndexService;
 import com.barisdalyanemre.librarymanagement.service.BookAvailabilityService;
 import com.barisdalyanemre.librarymanagement.service.BorrowService;
+import com.barisdalyanemre.librarymanagement.service.DashboardService;
+import com.barisdalyanemre.librarymanagement.service.FineService;
+import com.barisdalyanemre.librarymanagement.service.HoldService;
+import com.barisdalyanemre.librarymanagement.service.LoanAnalyticsService;
+import com.barisdalyanemre.librarymanagement.service.LoanSketchService;
+import com.barisdalyanemre.librarymanagement.service.LoanArchiveService;
+import com.barisdalyanemre.librarymanagement.service.LoanDueIndexService;
+import com.barisdalyanemre.librarymanagement.service.LoanReminderService;
+import com.barisdalyanemre.librarymanagement.service.OverdueLoanJobService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -39,55 +73,107 @@ public class BorrowServiceImpl implements BorrowService {
     private final UserRepository userRepository;
     private final BorrowRecordMapper borrowRecordMapper;
     private final BookAvailabilityService bookAvailabilityService;
+    private final BookAvailabilityIndexService bookAvailabilityIndexService;
+    private final HoldService holdService;
+    private final OverdueLoanJobService overdueLoanJobService;
+    private final LoanDueIndexService loanDueIndexService;
+    private final LoanReminderService loanReminderService;
+    private final FineService fineService;
+    private final LoanArchiveService loanArchiveService;
+    private final LoanAnalyticsService loanAnalyticsService;
+    private final LoanSketchService loanSketchService;
+    private final DashboardService dashboardService;
+    private final ObjectMapper objectMapper;
+    private final ReplicaLagGuard replicaLagGuard;
+    private final TransactionTemplate transactionTemplate;
     
     private static final int DEFAULT_LOAN_PERIOD_DAYS = 14;
     
     private static final int MAX_ACTIVE_LOANS = 5;
+    
+    private static final int MAX_DUE_SOON_HOURS = 24 * 30;
+    
+    private static final int LOAN_FETCH_BATCH_SIZE = 1000;
+    
+    private static final int MAX_PAGE_SIZE = 100;
+    
+    // Orders of the history pages and of the librarian listings
+    private static final Comparator<BorrowRecord> HISTORY_ORDER = Comparator
+            .comparing(BorrowRecord::getBorrowDate).thenComparing(BorrowRecord::getId).reversed();
+    
+    private static final Comparator<BorrowRecord> NEWEST_ID_FIRST = Comparator
+            .comparing(BorrowRecord::getId).reversed();
+    
+    // Lower borrow date bound for a user whose loan counters show no open loan
+    private static final LocalDateTime OPEN_SINCE_UNKNOWN = LocalDateTime.of(1970, 1, 1, 0, 0);
 
     @Override
-    @Transactional
+    @RetryOnOptimisticLock
     public BorrowRecordDTO borrowBook(Long bookId) {
+        // Cheap in-memory rejection for books that are already out, checked before a transaction takes a pooled
+        // connection; the conditional update in borrow() stays authoritative
+        if (bookAvailabilityIndexService.isKnownUnavailable(bookId)
+                && !holdService.isReservedFor(bookId, getCurrentUserEmail())) {
+            throw new ConflictException("Book is not available for borrowing");
+        }
+        
+        return transactionTemplate.execute(status -> borrow(bookId));
+    }
+
+    private BorrowRecordDTO borrow(Long bookId) {
         User user = getCurrentUser();
         
         if (!user.isEnabled()) {
             throw new BadRequestException("Your account is disabled. Cannot borrow books.");
         }
         
-        long activeLoansCount = borrowRecordRepository.countByUserAndReturnDateIsNull(user);
-        if (activeLoansCount >= MAX_ACTIVE_LOANS) {
+        // The user's loan counters are on the row just read, so eligibility needs no aggregate over their loans
+        LocalDateTime now = LocalDateTime.now();
+        if (user.getActiveLoanCount() >= MAX_ACTIVE_LOANS) {
             throw new BadRequestException("You have reached the maximum limit of " + 
                                            MAX_ACTIVE_LOANS + " active loans");
         }
         
-        if (borrowRecordRepository.hasOverdueBooks(user, LocalDateTime.now())) {
+        if (hasOverdueLoans(user, now)) {
             throw new BadRequestException("You have overdue books. Please return them before borrowing more books.");
         }
+        fineService.checkBorrowingAllowed(user);
         
-        Book book = bookRepository.findById(bookId)
-                .orElseThrow(() -> new ResourceNotFoundException("Book not found with id: " + bookId));
-        
-        if (!book.getAvailable()) {
+        // Conditional update instead of read-check-save: only one concurrent borrower can flip the flag.
+        // A copy set aside for this user's hold is already unavailable and is handed over instead.
+        if (bookRepository.markUnavailableIfAvailable(bookId) == 0 && !holdService.fulfilReadyHold(user, bookId)) {
+            if (!bookRepository.existsById(bookId)) {
+                throw new ResourceNotFoundException("Book not found with id: " + bookId);
+            }
+            if (user.getActiveLoanCount() > 0 && !borrowRecordRepository.findActiveLoanBookIds(user, List.of(bookId)).isEmpty()) {
+                throw new ConflictException("You already have an active loan for this book");
+            }
+            bookAvailabilityIndexService.updateAvailability(bookId, false);
             throw new ConflictException("Book is not available for borrowing");
         }
         
-        if (borrowRecordRepository.existsByUserAndBookAndReturnDateIsNull(user, book)) {
-            throw new ConflictException("You already have an active loan for this book");
-        }
+        Book book = bookRepository.findById(bookId)
+                .orElseThrow(() -> new ResourceNotFoundException("Book not found with id: " + bookId));
         
         BorrowRecord borrowRecord = new BorrowRecord();
         borrowRecord.setUser(user);
         borrowRecord.setBook(book);
-        borrowRecord.setBorrowDate(LocalDateTime.now());
-        borrowRecord.setDueDate(LocalDateTime.now().plusDays(DEFAULT_LOAN_PERIOD_DAYS));
+        borrowRecord.setBorrowDate(now);
+        borrowRecord.setDueDate(now.plusDays(DEFAULT_LOAN_PERIOD_DAYS));
         
         validateBorrowRecordDates(borrowRecord);
+        recordNewLoans(user, 1, borrowRecord.getDueDate(), now);
         
-        book.setAvailable(false);
-        bookRepository.save(book);
-        
-        publishAvailabilityEvent(book);
+        // The flag was flipped by a bulk update, so the loaded entity may still read as available
+        publishAvailabilityEvent(book, false);
         
         BorrowRecord savedRecord = borrowRecordRepository.save(borrowRecord);
+        loanDueIndexService.recordLoan(savedRecord.getId(), savedRecord.getDueDate());
+        loanAnalyticsService.recordLoan(savedRecord.getId(), user.getId(), book, now);
+        loanSketchService.recordBorrow(user.getId(), book, now);
+        dashboardService.recordLoansOpened(1);
+        loanReminderService.scheduleReminders(savedRecord.getId(), savedRecord.getDueDate());
+        replicaLagGuard.recordWrite();
         log.info("User {} borrowed book {}", user.getEmail(), book.getTitle());
         
         return borrowRecordMapper.toDTO(savedRecord);
@@ -95,6 +181,101 @@ public class BorrowServiceImpl implements BorrowService {
 
     @Override
     @Transactional
+    public BatchResultDTO borrowBooks(BatchBorrowRequest request) {
+        User user = getCurrentUser();
+        
+        if (!user.isEnabled()) {
+            throw new BadRequestException("Your account is disabled. Cannot borrow books.");
+        }
+        
+        List<Long> bookIds = request.getBookIds().stream().distinct().toList();
+        LocalDateTime now = LocalDateTime.now();
+        
+        // Eligibility is checked once for the whole batch instead of once per book
+        if (hasOverdueLoans(user, now)) {
+            throw new BadRequestException("You have overdue books. Please return them before borrowing more books.");
+        }
+        fineService.checkBorrowingAllowed(user);
+        
+        // Rows are locked in ID order, so the availability seen here holds until commit
+        Map<Long, Book> books = bookRepository.findAllByIdForUpdate(bookIds).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        List<Long> unavailable = books.values().stream()
+                .filter(book -> !book.getAvailable())
+                .map(Book::getId)
+                .toList();
+        // A book on loan is never available, so only unavailable books can already be borrowed by this user
+        Set<Long> alreadyBorrowed = user.getActiveLoanCount() > 0 && !unavailable.isEmpty()
+                ? new HashSet<>(borrowRecordRepository.findActiveLoanBookIds(user, unavailable))
+                : Set.of();
+        Set<Long> readyHolds = unavailable.isEmpty() ? Set.of() : holdService.getReadyHoldBookIds(user, unavailable);
+        
+        Map<Long, String> failures = new LinkedHashMap<>();
+        List<Long> toClaim = new ArrayList<>();
+        List<Long> toFulfil = new ArrayList<>();
+        long activeLoans = user.getActiveLoanCount();
+        for (Long bookId : bookIds) {
+            Book book = books.get(bookId);
+            if (book == null) {
+                failures.put(bookId, "Book not found with id: " + bookId);
+            } else if (alreadyBorrowed.contains(bookId)) {
+                failures.put(bookId, "You already have an active loan for this book");
+            } else if (!book.getAvailable() && !readyHolds.contains(bookId)) {
+                failures.put(bookId, "Book is not available for borrowing");
+            } else if (activeLoans >= MAX_ACTIVE_LOANS) {
+                failures.put(bookId, "You have reached the maximum limit of " + MAX_ACTIVE_LOANS + " active loans");
+            } else {
+                (book.getAvailable() ? toClaim : toFulfil).add(bookId);
+                activeLoans++;
+            }
+        }
+        
+        if (request.getMode() == BatchMode.ALL_OR_NOTHING && !failures.isEmpty()) {
+            log.info("Batch checkout by {} rejected: {} of {} books failed", user.getEmail(), failures.size(), bookIds.size());
+            return toBatchResult(request.getMode(), bookIds, failures, Map.of());
+        }
+        
+        List<Long> borrowed = new ArrayList<>(toClaim);
+        borrowed.addAll(toFulfil);
+        if (borrowed.isEmpty()) {
+            return toBatchResult(request.getMode(), bookIds, failures, Map.of());
+        }
+        
+        if (!toClaim.isEmpty() && bookRepository.markAllUnavailableIfAvailable(toClaim) != toClaim.size()) {
+            throw new ConflictException("Book availability changed during checkout. Please try again.");
+        }
+        for (Long bookId : toFulfil) {
+            if (!holdService.fulfilReadyHold(user, bookId)) {
+                throw new ConflictException("Book availability changed during checkout. Please try again.");
+            }
+        }
+        
+        LocalDateTime dueDate = now.plusDays(DEFAULT_LOAN_PERIOD_DAYS);
+        recordNewLoans(user, borrowed.size(), dueDate, now);
+        borrowRecordRepository.insertLoans(user.getId(), borrowed, now, dueDate);
+        Map<Long, BorrowRecordDTO> loans = borrowRecordRepository.findActiveLoansByUserAndBookIds(user, borrowed).stream()
+                .map(borrowRecordMapper::toDTO)
+                .collect(Collectors.toMap(BorrowRecordDTO::getBookId, Function.identity()));
+        for (BorrowRecordDTO loan : loans.values()) {
+            loanDueIndexService.recordLoan(loan.getId(), loan.getDueDate());
+            loanAnalyticsService.recordLoan(loan.getId(), user.getId(), books.get(loan.getBookId()), now);
+            loanSketchService.recordBorrow(user.getId(), books.get(loan.getBookId()), now);
+            loanReminderService.scheduleReminders(loan.getId(), loan.getDueDate());
+        }
+        dashboardService.recordLoansOpened(loans.size());
+        
+        for (Long bookId : toClaim) {
+            publishAvailabilityEvent(books.get(bookId), false);
+        }
+        replicaLagGuard.recordWrite();
+        log.info("User {} borrowed {} books in one batch", user.getEmail(), borrowed.size());
+        
+        return toBatchResult(request.getMode(), bookIds, failures, loans);
+    }
+
+    @Override
+    @Transactional
+    @RetryOnOptimisticLock
     public BorrowRecordDTO returnBook(Long bookId) {
         User user = getCurrentUser();
         
@@ -118,11 +299,22 @@ public class BorrowServiceImpl implements BorrowService {
         validateBorrowRecordDates(borrowRecord);
         
         borrowRecordRepository.save(borrowRecord);
-        
-        book.setAvailable(true);
-        bookRepository.save(book);
-        
-        publishAvailabilityEvent(book);
+        userRepository.refreshLoanCounters(List.of(borrowRecord.getUser().getId()));
+        fineService.finalizeFines(List.of(borrowRecord), borrowRecord.getReturnDate());
+        loanDueIndexService.removeLoans(List.of(borrowRecord.getId()));
+        loanAnalyticsService.recordReturns(List.of(borrowRecord.getId()), borrowRecord.getReturnDate());
+        loanSketchService.recordReturns(List.of(borrowRecord), borrowRecord.getReturnDate());
+        dashboardService.recordLoansClosed(List.of(borrowRecord), borrowRecord.getReturnDate());
+        loanReminderService.cancelReminders(List.of(borrowRecord.getId()));
+        
+        // The copy goes to the oldest waiting hold if there is one, otherwise back on the shelf
+        if (!holdService.allocateReturnedCopy(book)) {
+            book.setAvailable(true);
+            bookRepository.save(book);
+            
+            publishAvailabilityEvent(book);
+        }
+        replicaLagGuard.recordWrite();
         
         log.info("Book {} returned by {}", book.getTitle(), user.getEmail());
         
@@ -130,164 +322,351 @@ public class BorrowServiceImpl implements BorrowService {
     }
 
     @Override
-    public List<BorrowRecordDTO> getCurrentUserBorrowHistory() {
+    @Transactional
+    public BatchResultDTO returnBooks(BatchReturnRequest request) {
+        User user = getCurrentUser();
+        
+        if (!user.isEnabled()) {
+            throw new BadRequestException("Your account is disabled. Please contact an administrator.");
+        }
+        
+        List<Long> bookIds = request.getBookIds().stream().distinct().toList();
+        LocalDateTime now = LocalDateTime.now();
+        
+        List<BorrowRecord> loans = borrowRecordRepository.findActiveLoansByBookIds(bookIds);
+        Map<Long, String> failures = new LinkedHashMap<>();
+        Set<Long> onLoan = loans.stream().map(loan -> loan.getBook().getId()).collect(Collectors.toSet());
+        for (Long bookId : bookIds) {
+            if (!onLoan.contains(bookId)) {
+                failures.put(bookId, "No active loan found for book with id: " + bookId);
+            }
+        }
+        if (loans.isEmpty()) {
+            return toBatchResult(BatchMode.BEST_EFFORT, bookIds, failures, Map.of());
+        }
+        
+        // Loans are closed in one statement; a mismatch means another return got there first
+        List<Long> loanIds = loans.stream().map(BorrowRecord::getId).toList();
+        if (borrowRecordRepository.closeLoans(loanIds, now) != loanIds.size()) {
+            throw new ConflictException("Some of these books were returned by another request. Please try again.");
+        }
+        userRepository.refreshLoanCounters(loans.stream().map(loan -> loan.getUser().getId()).collect(Collectors.toSet()));
+        fineService.finalizeFines(loans, now);
+        loanDueIndexService.removeLoans(loanIds);
+        loanAnalyticsService.recordReturns(loanIds, now);
+        loanSketchService.recordReturns(loans, now);
+        dashboardService.recordLoansClosed(loans, now);
+        loanReminderService.cancelReminders(loanIds);
+        
+        // Copies with someone waiting go to the oldest hold, everything else back on the shelf in one update
+        Set<Long> held = holdService.getBooksWithWaitingHolds(onLoan);
+        List<BookAvailabilityEvent> events = new ArrayList<>();
+        List<Long> shelved = new ArrayList<>();
+        for (BorrowRecord loan : loans) {
+            Book book = loan.getBook();
+            if (held.contains(book.getId()) && holdService.allocateReturnedCopy(book)) {
+                continue;
+            }
+            shelved.add(book.getId());
+            events.add(toAvailabilityEvent(book, true));
+        }
+        if (!shelved.isEmpty()) {
+            bookRepository.markAllAvailable(shelved);
+        }
+        bookAvailabilityService.publishAvailabilityEvents(events);
+        replicaLagGuard.recordWrite();
+        
+        // The loans were detached by the bulk update, so completing them here for the response writes nothing
+        Map<Long, BorrowRecordDTO> returned = new LinkedHashMap<>();
+        for (BorrowRecord loan : loans) {
+            loan.setReturnDate(now);
+            returned.put(loan.getBook().getId(), borrowRecordMapper.toDTO(loan));
+        }
+        log.info("{} returned {} books in one batch ({} set aside for holds)",
+                user.getEmail(), loans.size(), loans.size() - shelved.size());
+        
+        return toBatchResult(BatchMode.BEST_EFFORT, bookIds, failures, returned);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDTO<BorrowRecordDTO> getCurrentUserBorrowHistory(Long cursor, int size) {
+        validatePageSize(size);
         User user = getCurrentUser();
         
         if (!user.isEnabled()) {
             throw new ForbiddenException("Your account is disabled. Please contact an administrator.");
         }
         
-        return borrowRecordRepository.findByUserOrderByBorrowDateDesc(user)
-                .stream()
-                .map(borrowRecordMapper::toDTO)
-                .collect(Collectors.toList());
+        // The user is already in the persistence context, so the records resolve it without another query
+        Limit limit = Limit.of(size + 1);
+        if (cursor == null) {
+            return toCursorPage(merge(borrowRecordRepository.findHistoryPage(user, limit),
+                    loanArchiveService.findUserHistory(user, null, null, size + 1), HISTORY_ORDER, size + 1), size);
+        }
+        
+        // The cursor loan may have been archived since the previous page was served
+        Optional<BorrowRecord> position = borrowRecordRepository.findById(cursor)
+                .filter(record -> record.getUser().getId().equals(user.getId()))
+                .or(() -> loanArchiveService.findUserLoan(user, cursor));
+        if (position.isEmpty()) {
+            return toCursorPage(List.of(), size);
+        }
+        LocalDateTime borrowDate = position.get().getBorrowDate();
+        return toCursorPage(merge(borrowRecordRepository.findHistoryPageAfter(user, borrowDate, cursor, limit),
+                loanArchiveService.findUserHistory(user, borrowDate, cursor, size + 1), HISTORY_ORDER, size + 1), size);
     }
 
     @Override
-    public List<BorrowRecordDTO> getCurrentUserActiveLoans() {
+    @Transactional(readOnly = true)
+    public CursorPageDTO<BorrowRecordDTO> getCurrentUserActiveLoans(Long cursor, int size) {
+        validatePageSize(size);
         User user = getCurrentUser();
         
         if (!user.isEnabled()) {
             throw new ForbiddenException("Your account is disabled. Please contact an administrator.");
         }
         
-        return borrowRecordRepository.findByUserAndReturnDateIsNullOrderByDueDateAsc(user)
-                .stream()
-                .map(borrowRecordMapper::toDTO)
-                .collect(Collectors.toList());
+        // Every loan is due a fixed period after it was borrowed, so no open loan predates the user's earliest
+        // due date by more than that period. The bound lets PostgreSQL skip older borrow_date partitions.
+        LocalDateTime openSince = user.getEarliestDueDate() == null
+                ? OPEN_SINCE_UNKNOWN
+                : user.getEarliestDueDate().minusDays(DEFAULT_LOAN_PERIOD_DAYS);
+        Limit limit = Limit.of(size + 1);
+        List<BorrowRecord> records = cursor == null
+                ? borrowRecordRepository.findActiveLoansPage(user, openSince, limit)
+                : borrowRecordRepository.findActiveLoansPageAfter(user, openSince, cursor, limit);
+        return toCursorPage(records, size);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDTO<BorrowRecordDTO> searchBorrowRecords(BorrowRecordSearchRequest filter, Long cursor, int size) {
+        validatePageSize(size);
+        validateBorrowDateRange(filter);
+        
+        // One row more than requested tells whether another page follows without a count query
+        List<BorrowRecord> records = merge(borrowRecordRepository.findRecordsPage(filter, LocalDateTime.now(), cursor, size + 1),
+                loanArchiveService.findRecords(filter, cursor, size + 1), NEWEST_ID_FIRST, size + 1);
+        return toCursorPage(records, size);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public void writeBorrowRecords(BorrowRecordSearchRequest filter, Writer writer) throws IOException {
+        validateBorrowDateRange(filter);
+        
+        long[] written = {0};
+        Consumer<BorrowRecord> writeLine = record -> {
+            try {
+                writer.write(objectMapper.writeValueAsString(borrowRecordMapper.toDTO(record)));
+                writer.write('\n');
+                written[0]++;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+        // Live records first, then the archived ones. A loan left both live and archived by a failed archive run
+        // is written from the live pass only; only loans returned long enough ago can be in both, so only those
+        // ids are remembered.
+        LocalDateTime archivableBefore = loanArchiveService.archivableBefore();
+        Set<Long> writtenLive = new HashSet<>();
+        try {
+            borrowRecordRepository.forEachRecord(filter, LocalDateTime.now(), record -> {
+                writeLine.accept(record);
+                if (record.getReturnDate() != null && record.getReturnDate().isBefore(archivableBefore)) {
+                    writtenLive.add(record.getId());
+                }
+            });
+            loanArchiveService.forEachRecord(filter, record -> {
+                if (!writtenLive.contains(record.getId())) {
+                    writeLine.accept(record);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+        log.info("Streamed {} borrow records as NDJSON", written[0]);
     }
 
     @Override
-    public List<BorrowRecordDTO> getAllBorrowRecords() {
-        return borrowRecordRepository.findAll()
-                .stream()
+    @Transactional(readOnly = true)
+    public List<BorrowRecordDTO> getAllOverdueRecords() {
+        LocalDateTime now = LocalDateTime.now();
+        return findOpenLoans(loanDueIndexService.getOverdueLoanIds(now)).stream()
+                .filter(loan -> loan.getDueDate().isBefore(now))
                 .map(borrowRecordMapper::toDTO)
                 .collect(Collectors.toList());
     }
 
     @Override
-    public List<BorrowRecordDTO> getAllOverdueRecords() {
-        return borrowRecordRepository.findAllOverdue(LocalDateTime.now())
-                .stream()
+    @Transactional(readOnly = true)
+    public List<BorrowRecordDTO> getLoansDueWithin(int hours) {
+        if (hours < 1 || hours > MAX_DUE_SOON_HOURS) {
+            throw new BadRequestException("Hours must be between 1 and " + MAX_DUE_SOON_HOURS);
+        }
+        
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime until = now.plusHours(hours);
+        return findOpenLoans(loanDueIndexService.getLoanIdsDueBetween(now, until)).stream()
+                .filter(loan -> !loan.getDueDate().isBefore(now) && loan.getDueDate().isBefore(until))
                 .map(borrowRecordMapper::toDTO)
                 .collect(Collectors.toList());
     }
     
     @Override
     @Scheduled(cron = "0 0 0 * * ?") // Run at midnight every day
-    @Transactional(readOnly = true)
     public void processOverdueBooks() {
-        LocalDateTime now = LocalDateTime.now();
-        List<BorrowRecord> overdueRecords = borrowRecordRepository.findAllOverdue(now);
+        // Streams the overdue loans in checkpointed chunks rather than loading them all in one transaction
+        long processed = overdueLoanJobService.processOverdueLoans();
+        log.info("Processed {} overdue books", processed);
         
-        log.info("Processing {} overdue books", overdueRecords.size());
-        
-        // Log overdue books information
-        for (BorrowRecord record : overdueRecords) {
-            log.info("Overdue book: '{}' borrowed by {} {}, due date was {}", 
-                    record.getBook().getTitle(), 
-                    record.getUser().getFirstName(),
-                    record.getUser().getLastName(),
-                    record.getDueDate());
-        }
+        // Only fines whose loans fell due or gained a day since the last run are touched
+        fineService.accrueFines();
     }
     
     @Override
-    public String generateOverdueReportText() {
-        List<BorrowRecord> overdueRecords = borrowRecordRepository.findAllOverdue(LocalDateTime.now());
-        
-        if (overdueRecords.isEmpty()) {
-            return "LIBRARY OVERDUE BOOKS REPORT\n" +
-                   "--------------------------\n" +
-                   "No overdue books found\n\n" +
-                   "Generated: " + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
+    @Scheduled(cron = "${library.loan-counters.repair-cron:0 30 0 * * ?}")
+    @Transactional
+    public void repairLoanCounters() {
+        int users = userRepository.refreshAllLoanCounters();
+        log.info("Recomputed loan counters for {} users", users);
+    }
+    
+    /**
+     * Batch-fetches loans picked from the due date index, keeping the index order. Loans returned since
+     * the index was last updated are dropped.
+     */
+    private List<BorrowRecord> findOpenLoans(List<Long> loanIds) {
+        List<BorrowRecord> loans = new ArrayList<>(loanIds.size());
+        for (int from = 0; from < loanIds.size(); from += LOAN_FETCH_BATCH_SIZE) {
+            List<Long> batch = loanIds.subList(from, Math.min(from + LOAN_FETCH_BATCH_SIZE, loanIds.size()));
+            Map<Long, BorrowRecord> fetched = borrowRecordRepository.findAllWithUserAndBookByIdIn(batch).stream()
+                    .collect(Collectors.toMap(BorrowRecord::getId, Function.identity()));
+            for (Long loanId : batch) {
+                BorrowRecord loan = fetched.get(loanId);
+                if (loan != null && loan.getReturnDate() == null) {
+                    loans.add(loan);
+                }
+            }
         }
-        
-        // Count books by days overdue
-        LocalDateTime now = LocalDateTime.now();
-        long lessThan7Days = overdueRecords.stream()
-                .filter(r -> java.time.temporal.ChronoUnit.DAYS.between(r.getDueDate(), now) < 7)
-                .count();
-        long between7And14Days = overdueRecords.stream()
-                .filter(r -> {
-                    long days = java.time.temporal.ChronoUnit.DAYS.between(r.getDueDate(), now);
-                    return days >= 7 && days < 14;
-                })
-                .count();
-        long between14And30Days = overdueRecords.stream()
-                .filter(r -> {
-                    long days = java.time.temporal.ChronoUnit.DAYS.between(r.getDueDate(), now);
-                    return days >= 14 && days < 30;
-                })
-                .count();
-        long moreThan30Days = overdueRecords.stream()
-                .filter(r -> java.time.temporal.ChronoUnit.DAYS.between(r.getDueDate(), now) >= 30)
-                .count();
-        
-        // Get unique patrons with overdue books
-        long uniquePatronsCount = overdueRecords.stream()
-                .map(record -> record.getUser().getId())
-                .distinct()
-                .count();
-        
-        // Build the summary section
-        StringBuilder report = new StringBuilder();
-        report.append("LIBRARY OVERDUE BOOKS REPORT\n");
-        report.append("--------------------------\n");
-        report.append("Total Overdue Books: ").append(overdueRecords.size()).append('\n');
-        report.append("Unique Patrons with Overdue Books: ").append(uniquePatronsCount).append('\n');
-        report.append('\n');
-        report.append("OVERDUE BREAKDOWN:\n");
-        report.append("< 7 days overdue: ").append(lessThan7Days).append('\n');
-        report.append("7-14 days overdue: ").append(between7And14Days).append('\n');
-        report.append("14-30 days overdue: ").append(between14And30Days).append('\n');
-        report.append("> 30 days overdue: ").append(moreThan30Days).append('\n');
-        report.append('\n');
-        
-        // Add detailed overdue records section
-        report.append("DETAILED OVERDUE RECORDS:\n");
-        report.append("-----------------------\n");
-        
-        DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
-        
-        int recordCount = 1;
-        for (BorrowRecord record : overdueRecords) {
-            long daysOverdue = java.time.temporal.ChronoUnit.DAYS.between(record.getDueDate(), now);
-            
-            report.append(recordCount++).append(". ");
-            report.append("Book: \"").append(record.getBook().getTitle()).append("\" (ISBN: ").append(record.getBook().getIsbn()).append(")\n");
-            report.append("   Author: ").append(record.getBook().getAuthor()).append('\n');
-            report.append("   Patron: ").append(record.getUser().getFirstName()).append(" ").append(record.getUser().getLastName());
-            report.append(" (").append(record.getUser().getEmail()).append(")\n");
-            report.append("   Borrowed: ").append(record.getBorrowDate().format(dateFormatter)).append('\n');
-            report.append("   Due: ").append(record.getDueDate().format(dateFormatter)).append('\n');
-            report.append("   Days Overdue: ").append(daysOverdue).append('\n');
-            report.append("\n");
+        return loans;
+    }
+    
+    private void validatePageSize(int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new BadRequestException("Page size must be between 1 and " + MAX_PAGE_SIZE);
         }
+    }
+    
+    private void validateBorrowDateRange(BorrowRecordSearchRequest filter) {
+        if (filter.getBorrowedFrom() != null && filter.getBorrowedTo() != null
+                && filter.getBorrowedFrom().isAfter(filter.getBorrowedTo())) {
+            throw new BadRequestException("Borrowed from date must not be after borrowed to date");
+        }
+    }
+    
+    /**
+     * Merges live and archived records, each already in the given order, into the first limit records.
+     * A loan caught in both while it was being archived is kept once, as its live copy.
+     */
+    private List<BorrowRecord> merge(List<BorrowRecord> live, List<BorrowRecord> archived,
+                                     Comparator<BorrowRecord> order, int limit) {
+        if (archived.isEmpty()) {
+            return live;
+        }
+        Set<Long> liveIds = live.stream().map(BorrowRecord::getId).collect(Collectors.toSet());
+        return Stream.concat(live.stream(), archived.stream().filter(record -> !liveIds.contains(record.getId())))
+                .sorted(order)
+                .limit(limit)
+                .toList();
+    }
+    
+    /**
+     * Cuts a page from records fetched with one extra row; the extra row only signals that more pages follow
+     */
+    private CursorPageDTO<BorrowRecordDTO> toCursorPage(List<BorrowRecord> records, int size) {
+        boolean hasMore = records.size() > size;
+        List<BorrowRecordDTO> items = records.stream()
+                .limit(size)
+                .map(borrowRecordMapper::toDTO)
+                .toList();
         
-        report.append("\nGenerated: ").append(LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
-        
-        return report.toString();
+        return CursorPageDTO.<BorrowRecordDTO>builder()
+                .items(items)
+                .size(items.size())
+                .nextCursor(hasMore ? items.get(items.size() - 1).getId() : null)
+                .hasMore(hasMore)
+                .build();
     }
     
     private User getCurrentUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
+        String email = getCurrentUserEmail();
         
         return userRepository.findByEmail(email)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with email: " + email));
     }
     
+    private String getCurrentUserEmail() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication.getName();
+    }
+    
+    private boolean hasOverdueLoans(User user, LocalDateTime now) {
+        return user.getEarliestDueDate() != null && user.getEarliestDueDate().isBefore(now);
+    }
+    
+    private void recordNewLoans(User user, int loans, LocalDateTime dueDate, LocalDateTime now) {
+        // Re-checks the limit against the current row, so concurrent borrows by the same user cannot exceed it
+        if (userRepository.addLoansIfEligible(user.getId(), loans, dueDate, now, MAX_ACTIVE_LOANS) == 0) {
+            throw new BadRequestException("You have reached the maximum limit of " + 
+                                           MAX_ACTIVE_LOANS + " active loans");
+        }
+    }
+    
     private void publishAvailabilityEvent(Book book) {
-        BookAvailabilityEvent event = BookAvailabilityEvent.builder()
+        publishAvailabilityEvent(book, book.getAvailable());
+    }
+    
+    private void publishAvailabilityEvent(Book book, boolean available) {
+        bookAvailabilityService.publishAvailabilityEvent(toAvailabilityEvent(book, available));
+    }
+    
+    private BookAvailabilityEvent toAvailabilityEvent(Book book, boolean available) {
+        return BookAvailabilityEvent.builder()
                 .bookId(book.getId())
                 .title(book.getTitle())
                 .isbn(book.getIsbn())
-                .available(book.getAvailable())
+                .available(available)
                 .timestamp(LocalDateTime.now())
                 .build();
-                
-        bookAvailabilityService.publishAvailabilityEvent(event);
+    }
+    
+    private BatchResultDTO toBatchResult(BatchMode mode, List<Long> bookIds, Map<Long, String> failures,
+                                         Map<Long, BorrowRecordDTO> loans) {
+        List<BatchItemResultDTO> results = new ArrayList<>();
+        for (Long bookId : bookIds) {
+            BorrowRecordDTO loan = loans.get(bookId);
+            String message = failures.containsKey(bookId)
+                    ? failures.get(bookId)
+                    : loan == null ? "Not borrowed because other books in the batch failed"
+                    : loan.getReturnDate() != null ? "Returned" : "Borrowed";
+            results.add(BatchItemResultDTO.builder()
+                    .bookId(bookId)
+                    .success(loan != null)
+                    .message(message)
+                    .borrowRecord(loan)
+                    .build());
+        }
+        
+        return BatchResultDTO.builder()
+                .mode(mode)
+                .requested(bookIds.size())
+                .succeeded(loans.size())
+                .failed(bookIds.size() - loans.size())
+                .results(results)
+                .build();
     }
 
     private void validateBorrowRecordDates(BorrowRecord borrowRecord) {
@@ -0,0 +1,59 @@
+package com.barisdalyanemre.librarymanagement.service.impl;
+
+import com.barisdalyanemre.librarymanagement.dto.response.CacheStatisticsDTO;
+import com.barisdalyanemre.librarymanagement.service.CacheStatisticsService;
+import jakarta.persistence.EntityManagerFactory;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class CacheStatisticsServiceImpl implements CacheStatisticsService {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public CacheStatisticsDTO getStatistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        List<CacheStatisticsDTO.RegionStatistics> regions = Arrays.stream(statistics.getSecondLevelCacheRegionNames())
+                .sorted()
+                .map(region -> toRegionStatistics(region, statistics.getCacheRegionStatistics(region)))
+                .toList();
+
+        return CacheStatisticsDTO.builder()
+                .hitCount(statistics.getSecondLevelCacheHitCount())
+                .missCount(statistics.getSecondLevelCacheMissCount())
+                .putCount(statistics.getSecondLevelCachePutCount())
+                .hitRatio(hitRatio(statistics.getSecondLevelCacheHitCount(), statistics.getSecondLevelCacheMissCount()))
+                .queryCacheHitCount(statistics.getQueryCacheHitCount())
+                .queryCacheMissCount(statistics.getQueryCacheMissCount())
+                .queryCachePutCount(statistics.getQueryCachePutCount())
+                .regions(regions)
+                .build();
+    }
+
+    private CacheStatisticsDTO.RegionStatistics toRegionStatistics(String region, CacheRegionStatistics statistics) {
+        if (statistics == null) {
+            return CacheStatisticsDTO.RegionStatistics.builder().region(region).build();
+        }
+        return CacheStatisticsDTO.RegionStatistics.builder()
+                .region(region)
+                .hitCount(statistics.getHitCount())
+                .missCount(statistics.getMissCount())
+                .putCount(statistics.getPutCount())
+                .hitRatio(hitRatio(statistics.getHitCount(), statistics.getMissCount()))
+                .build();
+    }
+
+    private static double hitRatio(long hits, long misses) {
+        return hits + misses == 0 ? 0.0 : (double) hits / (hits + misses);
+    }
+}
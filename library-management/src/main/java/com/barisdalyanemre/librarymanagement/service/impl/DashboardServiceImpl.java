@@ -0,0 +1,225 @@
+package com.barisdalyanemre.librarymanagement.service.impl;
+
+import com.barisdalyanemre.librarymanagement.dto.response.DashboardDTO;
+import com.barisdalyanemre.librarymanagement.entity.BorrowRecord;
+import com.barisdalyanemre.librarymanagement.enums.Role;
+import com.barisdalyanemre.librarymanagement.event.BookAvailabilityEvent;
+import com.barisdalyanemre.librarymanagement.repository.BookRepository;
+import com.barisdalyanemre.librarymanagement.repository.BorrowRecordRepository;
+import com.barisdalyanemre.librarymanagement.repository.UserRepository;
+import com.barisdalyanemre.librarymanagement.service.BookAvailabilityService;
+import com.barisdalyanemre.librarymanagement.service.DashboardService;
+import com.barisdalyanemre.librarymanagement.service.LoanDueIndexService;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Dashboard totals kept in striped counters, so concurrent borrows and returns never contend on one
+ * value and a read is a sum of a few cells. Book, borrow and user operations adjust the counters after
+ * their transactions commit; availability comes from {@link BookAvailabilityEvent}s. Overdue loans are
+ * recounted from the due date index as loans fall due, and every total is periodically reconciled
+ * against the database, so a missed or doubled update only lasts until the next reconciliation. Every
+ * counter change signals the stream subscribers, which then read the totals again.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DashboardServiceImpl implements DashboardService {
+
+    private final BookRepository bookRepository;
+    private final BorrowRecordRepository borrowRecordRepository;
+    private final UserRepository userRepository;
+    private final BookAvailabilityService bookAvailabilityService;
+    private final LoanDueIndexService loanDueIndexService;
+
+    private final LongAdder totalBooks = new LongAdder();
+    private final LongAdder activeLoans = new LongAdder();
+    private final LongAdder overdueLoans = new LongAdder();
+    private final LongAdder patrons = new LongAdder();
+
+    // Carries no totals, only that they changed; a subscriber that missed a signal reads them on the next one
+    private final Sinks.Many<Boolean> changes = Sinks.many().multicast().directBestEffort();
+
+    // Availability events are not always flips (a held copy handed over is announced again), so the
+    // unavailable books are kept as a set and counted by its size instead of adding up the events
+    private final ReplayingSnapshot<Set<Long>> unavailableBooks = new ReplayingSnapshot<>(new HashSet<>());
+    private Disposable subscription;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        subscription = bookAvailabilityService.getAvailabilityEventStream()
+                .subscribe(this::apply, error -> log.error("Availability event stream failed", error));
+        reconcile();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    @Override
+    public void recordBookAdded() {
+        AfterCommit.run(() -> {
+            totalBooks.increment();
+            changed();
+        });
+    }
+
+    @Override
+    public void recordBookRemoved(Long bookId) {
+        AfterCommit.run(() -> {
+            totalBooks.decrement();
+            unavailableBooks.apply(books -> books.remove(bookId));
+            changed();
+        });
+    }
+
+    @Override
+    public void recordLoansOpened(int loans) {
+        if (loans > 0) {
+            AfterCommit.run(() -> {
+                activeLoans.add(loans);
+                changed();
+            });
+        }
+    }
+
+    @Override
+    public void recordLoansClosed(Collection<BorrowRecord> loans, LocalDateTime returnDate) {
+        if (loans.isEmpty()) {
+            return;
+        }
+        long overdue = loans.stream().filter(loan -> loan.getDueDate().isBefore(returnDate)).count();
+        AfterCommit.run(() -> {
+            activeLoans.add(-loans.size());
+            overdueLoans.add(-overdue);
+            changed();
+        });
+    }
+
+    @Override
+    public void recordPatronAdded() {
+        AfterCommit.run(() -> {
+            patrons.increment();
+            changed();
+        });
+    }
+
+    @Override
+    public void recordPatronRemoved() {
+        AfterCommit.run(() -> {
+            patrons.decrement();
+            changed();
+        });
+    }
+
+    @Override
+    public DashboardDTO getDashboard() {
+        long books = totalBooks.sum();
+        return DashboardDTO.builder()
+                .totalBooks(books)
+                .availableBooks(Math.max(0, books - unavailableBooks.read(Set::size)))
+                .activeLoans(activeLoans.sum())
+                .overdueLoans(overdueLoans.sum())
+                .patrons(patrons.sum())
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+
+    @Override
+    public Flux<DashboardDTO> getDashboardStream() {
+        // Subscribed to the changes before the first read, so a change in between is not missed. A slow
+        // subscriber only keeps the latest signal, since each one reads the totals afresh.
+        return Flux.merge(changes.asFlux(), Mono.just(Boolean.TRUE))
+                .onBackpressureLatest()
+                .map(change -> getDashboard())
+                .distinctUntilChanged(DashboardServiceImpl::totals);
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${library.dashboard.overdue-refresh-interval-ms:5000}",
+               initialDelayString = "${library.dashboard.overdue-refresh-interval-ms:5000}")
+    public void refreshOverdueLoans() {
+        if (set(overdueLoans, loanDueIndexService.countOverdueLoans(LocalDateTime.now())) > 0) {
+            changed();
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${library.dashboard.reconcile-interval-ms:300000}",
+               initialDelayString = "${library.dashboard.reconcile-interval-ms:300000}")
+    public synchronized long reconcile() {
+        // Availability events that arrive while the books are counted are replayed on top of the new set.
+        // A counter update committing during the count may be off by one until the next reconciliation.
+        long[] unavailableDrift = new long[1];
+        unavailableBooks.reseed(() -> {
+            Set<Long> unavailable = new HashSet<>(bookRepository.findUnavailableBookIds());
+            unavailableDrift[0] = Math.abs(unavailable.size() - unavailableBooks.read(Set::size));
+            return unavailable;
+        });
+        long drift = set(totalBooks, bookRepository.count())
+                     + set(activeLoans, borrowRecordRepository.countByReturnDateIsNull())
+                     + set(overdueLoans, borrowRecordRepository.countByReturnDateIsNullAndDueDateBefore(LocalDateTime.now()))
+                     + set(patrons, userRepository.countByRole(Role.PATRON))
+                     + unavailableDrift[0];
+
+        if (drift > 0) {
+            log.info("Dashboard counters reconciled, {} off", drift);
+            changed();
+        }
+        return drift;
+    }
+
+    void apply(BookAvailabilityEvent event) {
+        if (event.getBookId() == null) {
+            return;
+        }
+        unavailableBooks.apply(books -> {
+            if (event.isAvailable()) {
+                books.remove(event.getBookId());
+            } else {
+                books.add(event.getBookId());
+            }
+        });
+        changed();
+    }
+
+    private void changed() {
+        changes.emitNext(Boolean.TRUE, (signalType, emitResult) -> emitResult == Sinks.EmitResult.FAIL_NON_SERIALIZED);
+    }
+
+    /**
+     * Moves the counter to the given value by adding the difference, so concurrent updates are kept
+     *
+     * @return the absolute difference
+     */
+    private static long set(LongAdder counter, long value) {
+        long difference = value - counter.sum();
+        counter.add(difference);
+        return Math.abs(difference);
+    }
+
+    private static List<Long> totals(DashboardDTO dashboard) {
+        return List.of(dashboard.getTotalBooks(), dashboard.getAvailableBooks(), dashboard.getActiveLoans(),
+                dashboard.getOverdueLoans(), dashboard.getPatrons());
+    }
+}
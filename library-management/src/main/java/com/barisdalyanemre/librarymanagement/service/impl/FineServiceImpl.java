@@ -0,0 +1,262 @@
+package com.barisdalyanemre.librarymanagement.service.impl;
+
+import com.barisdalyanemre.librarymanagement.dto.request.FinePaymentRequest;
+import com.barisdalyanemre.librarymanagement.dto.response.FineBalanceDTO;
+import com.barisdalyanemre.librarymanagement.entity.BorrowRecord;
+import com.barisdalyanemre.librarymanagement.entity.FineLedgerEntry;
+import com.barisdalyanemre.librarymanagement.entity.JobCheckpoint;
+import com.barisdalyanemre.librarymanagement.entity.LoanFine;
+import com.barisdalyanemre.librarymanagement.entity.User;
+import com.barisdalyanemre.librarymanagement.enums.FineEntryType;
+import com.barisdalyanemre.librarymanagement.exception.BadRequestException;
+import com.barisdalyanemre.librarymanagement.exception.ResourceNotFoundException;
+import com.barisdalyanemre.librarymanagement.repository.BorrowRecordRepository;
+import com.barisdalyanemre.librarymanagement.repository.FineLedgerEntryRepository;
+import com.barisdalyanemre.librarymanagement.repository.JobCheckpointRepository;
+import com.barisdalyanemre.librarymanagement.repository.LoanFineRepository;
+import com.barisdalyanemre.librarymanagement.repository.UserRepository;
+import com.barisdalyanemre.librarymanagement.service.FineService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FineServiceImpl implements FineService {
+
+    static final String JOB_NAME = "fine-accrual";
+
+    // Watermark of the first run, so every loan already overdue gets its fine opened
+    private static final LocalDateTime FIRST_RUN_WATERMARK = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final LoanFineRepository loanFineRepository;
+    private final FineLedgerEntryRepository fineLedgerEntryRepository;
+    private final BorrowRecordRepository borrowRecordRepository;
+    private final UserRepository userRepository;
+    private final JobCheckpointRepository jobCheckpointRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${library.fines.daily-rate:0.50}")
+    private BigDecimal dailyRate;
+
+    @Value("${library.fines.max-per-loan:20.00}")
+    private BigDecimal maxPerLoan;
+
+    @Value("${library.fines.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${library.fines.block-borrowing:false}")
+    private boolean blockBorrowing;
+
+    @Value("${library.fines.block-threshold:10.00}")
+    private BigDecimal blockThreshold;
+
+    @Override
+    public int accrueFines() {
+        LocalDateTime now = LocalDateTime.now();
+        JobCheckpoint checkpoint = jobCheckpointRepository.findByJobNameAndPartitionNo(JOB_NAME, 0)
+                .orElseGet(() -> new JobCheckpoint(JOB_NAME, 0, 1, FIRST_RUN_WATERMARK, 0, 0, true));
+
+        // Only loans that fell due since the previous run can be missing a fine
+        LocalDateTime since = checkpoint.getCutoff();
+        Integer opened = transactionTemplate.execute(status -> openFines(since, now));
+
+        // Each accrued fine moves its next accrual moment past now, so the chunks run out
+        int accrued = 0;
+        int chunk;
+        do {
+            chunk = transactionTemplate.execute(status -> accrueChunk(now));
+            accrued += chunk;
+        } while (chunk == chunkSize);
+
+        checkpoint.setCutoff(now);
+        checkpoint.setProcessedCount(checkpoint.getProcessedCount() + accrued);
+        jobCheckpointRepository.save(checkpoint);
+
+        log.info("Fine accrual: {} fines opened, {} fines accrued", opened, accrued);
+        return accrued;
+    }
+
+    @Override
+    @Transactional
+    public void finalizeFines(Collection<BorrowRecord> returnedLoans, LocalDateTime returnDate) {
+        // Loans returned on time never had a fine, so the common case needs no query at all
+        List<BorrowRecord> lateLoans = returnedLoans.stream()
+                .filter(loan -> loan.getDueDate().isBefore(returnDate))
+                .toList();
+        if (lateLoans.isEmpty()) {
+            return;
+        }
+
+        Map<Long, LoanFine> fines = loanFineRepository.findByBorrowRecordIdIn(
+                        lateLoans.stream().map(BorrowRecord::getId).toList()).stream()
+                .collect(Collectors.toMap(LoanFine::getBorrowRecordId, Function.identity()));
+        List<FineLedgerEntry> entries = new ArrayList<>();
+        for (BorrowRecord loan : lateLoans) {
+            LoanFine fine = fines.get(loan.getId());
+            if (fine == null) {
+                // Returned before the accrual run picked the loan up
+                fine = loanFineRepository.save(openFine(loan.getId(), loan.getUser().getId(), loan.getDueDate()));
+            }
+            if (fine.isFinalized()) {
+                continue;
+            }
+            addAccrualEntry(entries, fine, accrue(fine, returnDate));
+            fine.setFinalized(true);
+            fine.setNextAccrualAt(null);
+            loanFineRepository.save(fine);
+        }
+        post(entries);
+    }
+
+    @Override
+    public void checkBorrowingAllowed(User user) {
+        // The balance is kept on the user row, so this is a plain field comparison
+        if (isBlocked(balanceOf(user))) {
+            throw new BadRequestException("You have unpaid fines of " + balanceOf(user) +
+                                          ". Please pay them before borrowing more books.");
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public FineBalanceDTO getCurrentUserBalance() {
+        String email = SecurityContextHolder.getContext().getAuthentication().getName();
+        return toBalance(userRepository.findByEmail(email)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with email: " + email)));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public FineBalanceDTO getUserBalance(Long userId) {
+        return toBalance(findUser(userId));
+    }
+
+    @Override
+    @Transactional
+    public FineBalanceDTO recordPayment(Long userId, FinePaymentRequest request) {
+        User user = findUser(userId);
+        BigDecimal amount = request.getAmount();
+
+        // Conditional update, so concurrent payments cannot take the balance below zero
+        if (userRepository.deductFromFineBalanceIfCovered(userId, amount) == 0) {
+            throw new BadRequestException("Payment of " + amount + " exceeds the outstanding balance of " + balanceOf(user));
+        }
+        fineLedgerEntryRepository.save(new FineLedgerEntry(userId, null, FineEntryType.PAYMENT, amount.negate()));
+        log.info("Recorded fine payment of {} for user {}", amount, user.getEmail());
+
+        user.setFineBalance(balanceOf(user).subtract(amount));
+        return toBalance(user);
+    }
+
+    private int openFines(LocalDateTime since, LocalDateTime now) {
+        List<BorrowRecordRepository.OverdueLoan> fallenDue = borrowRecordRepository.findLoansFallenDueBetween(since, now);
+        if (fallenDue.isEmpty()) {
+            return 0;
+        }
+
+        Set<Long> existing = new HashSet<>(loanFineRepository.findBorrowRecordIdsIn(
+                fallenDue.stream().map(BorrowRecordRepository.OverdueLoan::getId).toList()));
+        List<LoanFine> opened = fallenDue.stream()
+                .filter(loan -> !existing.contains(loan.getId()))
+                .map(loan -> openFine(loan.getId(), loan.getUserId(), loan.getDueDate()))
+                .toList();
+        loanFineRepository.saveAll(opened);
+        return opened.size();
+    }
+
+    private int accrueChunk(LocalDateTime now) {
+        List<LoanFine> chunk = loanFineRepository.findAccruable(now, PageRequest.of(0, chunkSize));
+        List<FineLedgerEntry> entries = new ArrayList<>();
+        for (LoanFine fine : chunk) {
+            addAccrualEntry(entries, fine, accrue(fine, now));
+        }
+        post(entries);
+        return chunk.size();
+    }
+
+    private LoanFine openFine(Long borrowRecordId, Long userId, LocalDateTime dueDate) {
+        // Nothing is owed until the loan is a full day overdue
+        return new LoanFine(borrowRecordId, userId, dueDate, 0, BigDecimal.ZERO, dueDate.plusDays(1), false);
+    }
+
+    /**
+     * Brings the fine up to date as of the given moment: whole days overdue times the daily rate, capped per loan.
+     * Returns the amount the fine grew by.
+     */
+    BigDecimal accrue(LoanFine fine, LocalDateTime asOf) {
+        long days = Math.max(Duration.between(fine.getDueDate(), asOf).toDays(), 0);
+        BigDecimal amount = dailyRate.multiply(BigDecimal.valueOf(days)).min(maxPerLoan).max(fine.getAmount());
+        BigDecimal growth = amount.subtract(fine.getAmount());
+
+        fine.setAccruedDays((int) days);
+        fine.setAmount(amount);
+        // A capped fine cannot grow any more and drops out of the accrual runs
+        fine.setNextAccrualAt(amount.compareTo(maxPerLoan) >= 0 ? null : fine.getDueDate().plusDays(days + 1));
+        return growth;
+    }
+
+    private void addAccrualEntry(List<FineLedgerEntry> entries, LoanFine fine, BigDecimal growth) {
+        if (growth.signum() > 0) {
+            entries.add(new FineLedgerEntry(fine.getUserId(), fine.getId(), FineEntryType.ACCRUAL, growth));
+        }
+    }
+
+    /**
+     * Appends the entries to the ledger and applies them to the users' running balances, one update per user
+     */
+    private void post(List<FineLedgerEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        fineLedgerEntryRepository.saveAll(entries);
+        Map<Long, BigDecimal> balanceChanges = new LinkedHashMap<>();
+        for (FineLedgerEntry entry : entries) {
+            balanceChanges.merge(entry.getUserId(), entry.getAmount(), BigDecimal::add);
+        }
+        balanceChanges.forEach(userRepository::addToFineBalance);
+    }
+
+    private User findUser(Long userId) {
+        return userRepository.findById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
+    }
+
+    private FineBalanceDTO toBalance(User user) {
+        BigDecimal balance = balanceOf(user);
+        return FineBalanceDTO.builder()
+                .userId(user.getId())
+                .email(user.getEmail())
+                .balance(balance)
+                .borrowingBlocked(isBlocked(balance))
+                .build();
+    }
+
+    private boolean isBlocked(BigDecimal balance) {
+        return blockBorrowing && balance.compareTo(blockThreshold) > 0;
+    }
+
+    private static BigDecimal balanceOf(User user) {
+        return user.getFineBalance() != null ? user.getFineBalance() : BigDecimal.ZERO;
+    }
+}
@@ -0,0 +1,399 @@
+package com.barisdalyanemre.librarymanagement.service.impl;
+
+import com.barisdalyanemre.librarymanagement.config.RetryOnOptimisticLock;
+import com.barisdalyanemre.librarymanagement.dto.response.HoldDTO;
+import com.barisdalyanemre.librarymanagement.entity.Book;
+import com.barisdalyanemre.librarymanagement.entity.BookHold;
+import com.barisdalyanemre.librarymanagement.entity.User;
+import com.barisdalyanemre.librarymanagement.enums.HoldStatus;
+import com.barisdalyanemre.librarymanagement.event.BookAvailabilityEvent;
+import com.barisdalyanemre.librarymanagement.event.HoldAllocationEvent;
+import com.barisdalyanemre.librarymanagement.exception.BadRequestException;
+import com.barisdalyanemre.librarymanagement.exception.ConflictException;
+import com.barisdalyanemre.librarymanagement.exception.ResourceNotFoundException;
+import com.barisdalyanemre.librarymanagement.mapper.BookHoldMapper;
+import com.barisdalyanemre.librarymanagement.repository.BookHoldRepository;
+import com.barisdalyanemre.librarymanagement.repository.BookRepository;
+import com.barisdalyanemre.librarymanagement.repository.BorrowRecordRepository;
+import com.barisdalyanemre.librarymanagement.repository.UserRepository;
+import com.barisdalyanemre.librarymanagement.service.BookAvailabilityService;
+import com.barisdalyanemre.librarymanagement.service.HoldService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-book FIFO hold queues. The database is the source of truth and hands out copies with
+ * skip-locked claiming; an in-memory Fenwick tree per book answers queue-position queries in
+ * O(log n) and is updated only after the owning transaction commits.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class HoldServiceImpl implements HoldService {
+
+    private static final Set<HoldStatus> ACTIVE_STATUSES = Set.of(HoldStatus.WAITING, HoldStatus.READY);
+
+    private static final int HOLD_PICKUP_DAYS = 3;
+
+    private final BookHoldRepository bookHoldRepository;
+    private final BookRepository bookRepository;
+    private final BorrowRecordRepository borrowRecordRepository;
+    private final UserRepository userRepository;
+    private final BookHoldMapper bookHoldMapper;
+    private final BookAvailabilityService bookAvailabilityService;
+
+    private final Map<Long, HoldQueue> queues = new ConcurrentHashMap<>();
+    private final Map<Long, String> reservedFor = new ConcurrentHashMap<>();
+    private final Sinks.Many<HoldAllocationEvent> allocationSink = Sinks.many().multicast().directBestEffort();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void onApplicationReady() {
+        for (BookHold hold : bookHoldRepository.findByStatusOrderByIdAsc(HoldStatus.WAITING)) {
+            enqueue(hold.getBook().getId(), hold.getId());
+        }
+        for (BookHold hold : bookHoldRepository.findByStatusOrderByIdAsc(HoldStatus.READY)) {
+            reservedFor.put(hold.getBook().getId(), hold.getUser().getEmail());
+        }
+        log.info("Hold queues loaded for {} books", queues.size());
+    }
+
+    @Override
+    @Transactional
+    public HoldDTO placeHold(Long bookId) {
+        User user = getCurrentUser();
+
+        if (!user.isEnabled()) {
+            throw new BadRequestException("Your account is disabled. Cannot place holds.");
+        }
+
+        Book book = bookRepository.findById(bookId)
+                .orElseThrow(() -> new ResourceNotFoundException("Book not found with id: " + bookId));
+
+        if (book.getAvailable()) {
+            throw new BadRequestException("Book is available. Borrow it instead of placing a hold.");
+        }
+
+        if (borrowRecordRepository.existsByUserAndBookAndReturnDateIsNull(user, book)) {
+            throw new ConflictException("You already have an active loan for this book");
+        }
+
+        if (bookHoldRepository.existsByUserAndBookAndStatusIn(user, book, ACTIVE_STATUSES)) {
+            throw new ConflictException("You already have a hold on this book");
+        }
+
+        BookHold hold = new BookHold();
+        hold.setUser(user);
+        hold.setBook(book);
+        hold.setStatus(HoldStatus.WAITING);
+
+        BookHold savedHold = bookHoldRepository.save(hold);
+        AfterCommit.run(() -> enqueue(bookId, savedHold.getId()));
+        log.info("User {} placed a hold on book {}", user.getEmail(), book.getTitle());
+
+        long position = bookHoldRepository.countByBookIdAndStatusAndIdLessThan(bookId, HoldStatus.WAITING, savedHold.getId()) + 1;
+        return bookHoldMapper.toDTO(savedHold, position);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public HoldDTO getHold(Long bookId) {
+        User user = getCurrentUser();
+
+        BookHold hold = bookHoldRepository.findFirstByUserAndBookIdAndStatusIn(user, bookId, ACTIVE_STATUSES)
+                .orElseThrow(() -> new ResourceNotFoundException("No active hold found for book with id: " + bookId));
+
+        return bookHoldMapper.toDTO(hold, queuePosition(hold));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<HoldDTO> getCurrentUserHolds() {
+        User user = getCurrentUser();
+
+        return bookHoldRepository.findByUserAndStatusInOrderByIdAsc(user, ACTIVE_STATUSES)
+                .stream()
+                .map(hold -> bookHoldMapper.toDTO(hold, queuePosition(hold)))
+                .toList();
+    }
+
+    @Override
+    @Transactional
+    @RetryOnOptimisticLock
+    public void cancelHold(Long bookId) {
+        User user = getCurrentUser();
+
+        BookHold hold = bookHoldRepository.findFirstByUserAndBookIdAndStatusIn(user, bookId, ACTIVE_STATUSES)
+                .orElseThrow(() -> new ResourceNotFoundException("No active hold found for book with id: " + bookId));
+
+        HoldStatus previousStatus = hold.getStatus();
+        hold.setStatus(HoldStatus.CANCELLED);
+        bookHoldRepository.save(hold);
+
+        if (previousStatus == HoldStatus.READY) {
+            AfterCommit.run(() -> reservedFor.remove(bookId, user.getEmail()));
+            releaseCopy(hold.getBook());
+        } else {
+            AfterCommit.run(() -> dequeue(bookId, hold.getId()));
+        }
+        log.info("User {} cancelled their hold on book {}", user.getEmail(), hold.getBook().getTitle());
+    }
+
+    @Override
+    @Transactional
+    public boolean allocateReturnedCopy(Book book) {
+        return bookHoldRepository.findFirstByBookIdAndStatusOrderByIdAsc(book.getId(), HoldStatus.WAITING)
+                .map(hold -> {
+                    LocalDateTime now = LocalDateTime.now();
+                    hold.setStatus(HoldStatus.READY);
+                    hold.setReadyAt(now);
+                    hold.setExpiresAt(now.plusDays(HOLD_PICKUP_DAYS));
+                    bookHoldRepository.save(hold);
+
+                    HoldAllocationEvent event = HoldAllocationEvent.builder()
+                            .holdId(hold.getId())
+                            .bookId(book.getId())
+                            .title(book.getTitle())
+                            .isbn(book.getIsbn())
+                            .email(hold.getUser().getEmail())
+                            .readyAt(hold.getReadyAt())
+                            .expiresAt(hold.getExpiresAt())
+                            .build();
+
+                    AfterCommit.run(() -> {
+                        dequeue(book.getId(), hold.getId());
+                        reservedFor.put(book.getId(), event.getEmail());
+                        emit(event);
+                    });
+                    log.info("Book {} set aside for {}", book.getTitle(), event.getEmail());
+                    return true;
+                })
+                .orElse(false);
+    }
+
+    @Override
+    @Transactional
+    public boolean fulfilReadyHold(User user, Long bookId) {
+        return bookHoldRepository.findFirstByUserAndBookIdAndStatus(user, bookId, HoldStatus.READY)
+                .map(hold -> {
+                    hold.setStatus(HoldStatus.FULFILLED);
+                    bookHoldRepository.save(hold);
+                    AfterCommit.run(() -> reservedFor.remove(bookId, user.getEmail()));
+                    return true;
+                })
+                .orElse(false);
+    }
+
+    @Override
+    public Set<Long> getBooksWithWaitingHolds(Collection<Long> bookIds) {
+        return new HashSet<>(bookHoldRepository.findBookIdsWithHolds(bookIds, HoldStatus.WAITING));
+    }
+
+    @Override
+    public Set<Long> getReadyHoldBookIds(User user, Collection<Long> bookIds) {
+        return new HashSet<>(bookHoldRepository.findHeldBookIds(user, bookIds, HoldStatus.READY));
+    }
+
+    @Override
+    public boolean isReservedFor(Long bookId, String email) {
+        return email != null && email.equals(reservedFor.get(bookId));
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${library.holds.expiry-check-interval-ms:60000}")
+    @Transactional
+    public void processExpiredHolds() {
+        for (BookHold hold : bookHoldRepository.findByStatusAndExpiresAtBefore(HoldStatus.READY, LocalDateTime.now())) {
+            hold.setStatus(HoldStatus.EXPIRED);
+            bookHoldRepository.save(hold);
+
+            Long bookId = hold.getBook().getId();
+            String email = hold.getUser().getEmail();
+            AfterCommit.run(() -> reservedFor.remove(bookId, email));
+            log.info("Hold of {} on book {} expired", email, hold.getBook().getTitle());
+
+            releaseCopy(hold.getBook());
+        }
+
+        // A hold placed while the last copy was being returned can miss that return; hand such books out here
+        for (Book book : bookHoldRepository.findAvailableBooksWithHoldsInStatus(HoldStatus.WAITING)) {
+            if (bookRepository.markUnavailableIfAvailable(book.getId()) == 1) {
+                if (allocateReturnedCopy(book)) {
+                    publishAvailabilityEvent(book, false);
+                } else {
+                    bookRepository.markAvailable(book.getId());
+                }
+            }
+        }
+    }
+
+    @Override
+    public Flux<HoldAllocationEvent> getHoldAllocationStream(String email) {
+        return allocationSink.asFlux()
+                .filter(event -> event.getEmail().equals(email));
+    }
+
+    private void releaseCopy(Book book) {
+        if (!allocateReturnedCopy(book)) {
+            book.setAvailable(true);
+            bookRepository.save(book);
+            publishAvailabilityEvent(book, true);
+        }
+    }
+
+    private Long queuePosition(BookHold hold) {
+        if (hold.getStatus() != HoldStatus.WAITING) {
+            return null;
+        }
+
+        HoldQueue queue = queues.get(hold.getBook().getId());
+        long position = queue != null ? queue.position(hold.getId()) : 0;
+        if (position > 0) {
+            return position;
+        }
+        // Not in this node's index (e.g. placed through another instance), fall back to counting
+        return bookHoldRepository.countByBookIdAndStatusAndIdLessThan(
+                hold.getBook().getId(), HoldStatus.WAITING, hold.getId()) + 1;
+    }
+
+    int queuedBooks() {
+        return queues.size();
+    }
+
+    private void enqueue(Long bookId, Long holdId) {
+        queues.compute(bookId, (id, queue) -> {
+            HoldQueue updated = queue != null ? queue : new HoldQueue();
+            updated.append(holdId);
+            return updated;
+        });
+    }
+
+    private void dequeue(Long bookId, Long holdId) {
+        // A queue is dropped with its last waiting hold, so books nobody waits for keep no queue
+        queues.computeIfPresent(bookId, (id, queue) -> {
+            queue.remove(holdId);
+            return queue.isEmpty() ? null : queue;
+        });
+    }
+
+    private void publishAvailabilityEvent(Book book, boolean available) {
+        bookAvailabilityService.publishAvailabilityEvent(BookAvailabilityEvent.builder()
+                .bookId(book.getId())
+                .title(book.getTitle())
+                .isbn(book.getIsbn())
+                .available(available)
+                .timestamp(LocalDateTime.now())
+                .build());
+    }
+
+    private void emit(HoldAllocationEvent event) {
+        allocationSink.emitNext(event, (signalType, emitResult) -> emitResult == Sinks.EmitResult.FAIL_NON_SERIALIZED);
+    }
+
+    private User getCurrentUser() {
+        String email = SecurityContextHolder.getContext().getAuthentication().getName();
+
+        return userRepository.findByEmail(email)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with email: " + email));
+    }
+
+    /**
+     * Waiting holds of one book in arrival order. Each hold gets the next slot of a Fenwick tree holding
+     * 1 for waiting holds and 0 for removed ones, so a position is a prefix sum. Slots are compacted
+     * whenever the tree has to grow.
+     */
+    static final class HoldQueue {
+
+        private static final int INITIAL_CAPACITY = 16;
+
+        private final Map<Long, Integer> slotByHold = new HashMap<>();
+        private long[] tree = new long[INITIAL_CAPACITY + 1];
+        private long[] holdBySlot = new long[INITIAL_CAPACITY + 1];
+        private int nextSlot = 1;
+
+        synchronized void append(Long holdId) {
+            if (slotByHold.containsKey(holdId)) {
+                return;
+            }
+            if (nextSlot >= tree.length) {
+                rebuild(Math.max(INITIAL_CAPACITY, slotByHold.size() * 2));
+            }
+            int slot = nextSlot++;
+            slotByHold.put(holdId, slot);
+            holdBySlot[slot] = holdId;
+            add(slot, 1);
+        }
+
+        synchronized void remove(Long holdId) {
+            Integer slot = slotByHold.remove(holdId);
+            if (slot != null) {
+                holdBySlot[slot] = 0;
+                add(slot, -1);
+            }
+        }
+
+        synchronized boolean isEmpty() {
+            return slotByHold.isEmpty();
+        }
+
+        /**
+         * @return the 1-based position of the hold, or 0 if it is not queued
+         */
+        synchronized long position(Long holdId) {
+            Integer slot = slotByHold.get(holdId);
+            if (slot == null) {
+                return 0;
+            }
+            long sum = 0;
+            for (int i = slot; i > 0; i -= i & -i) {
+                sum += tree[i];
+            }
+            return sum;
+        }
+
+        private void add(int slot, long delta) {
+            for (int i = slot; i < tree.length; i += i & -i) {
+                tree[i] += delta;
+            }
+        }
+
+        private void rebuild(int capacity) {
+            long[] liveHolds = new long[slotByHold.size()];
+            int count = 0;
+            for (int slot = 1; slot < nextSlot; slot++) {
+                if (holdBySlot[slot] != 0) {
+                    liveHolds[count++] = holdBySlot[slot];
+                }
+            }
+
+            tree = new long[capacity + 1];
+            holdBySlot = new long[capacity + 1];
+            slotByHold.clear();
+            nextSlot = 1;
+            for (int i = 0; i < count; i++) {
+                int slot = nextSlot++;
+                slotByHold.put(liveHolds[i], slot);
+                holdBySlot[slot] = liveHolds[i];
+                add(slot, 1);
+            }
+        }
+    }
+}
@@ -0,0 +1,454 @@
+package com.barisdalyanemre.librarymanagement.service.impl;
+
+import com.barisdalyanemre.librarymanagement.dto.request.BorrowRecordSearchRequest;
+import com.barisdalyanemre.librarymanagement.dto.request.LoanAnalyticsFilter;
+import com.barisdalyanemre.librarymanagement.dto.response.LoanDurationHistogramDTO;
+import com.barisdalyanemre.librarymanagement.dto.response.LoanGroupCountDTO;
+import com.barisdalyanemre.librarymanagement.dto.response.PatronActivityDTO;
+import com.barisdalyanemre.librarymanagement.entity.Book;
+import com.barisdalyanemre.librarymanagement.entity.DailyLoanStats;
+import com.barisdalyanemre.librarymanagement.enums.LoanGroupBy;
+import com.barisdalyanemre.librarymanagement.exception.BadRequestException;
+import com.barisdalyanemre.librarymanagement.repository.BorrowRecordRepository;
+import com.barisdalyanemre.librarymanagement.repository.BorrowRecordRepository.LoanFact;
+import com.barisdalyanemre.librarymanagement.service.LoanAnalyticsService;
+import com.barisdalyanemre.librarymanagement.service.LoanArchiveService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Every loan, live and archived, held column by column in primitive arrays with books, users, genres and
+ * authors dictionary-encoded, so analytics scan memory instead of loading entities. Kept current by the borrow
+ * and return paths after their transactions commit, and periodically rebuilt to pick up edited books.
+ * Queries split the rows into chunks that are scanned in parallel and merge the partial results.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LoanAnalyticsServiceImpl implements LoanAnalyticsService {
+
+    // Rows per parallel task; large enough that splitting costs little next to the scan
+    static final int CHUNK_SIZE = 1 << 16;
+
+    static final int MAX_GROUPS = 1000;
+
+    static final int MAX_BUCKETS = 366;
+
+    private static final long SECONDS_PER_DAY = 86_400;
+
+    private final BorrowRecordRepository borrowRecordRepository;
+    private final LoanArchiveService loanArchiveService;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ReplayingSnapshot<LoanColumns> columns = new ReplayingSnapshot<>(new LoanColumns(16));
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reseed();
+    }
+
+    @Override
+    public void recordLoan(Long loanId, Long userId, Book book, LocalDateTime borrowDate) {
+        if (loanId != null && userId != null && book != null && borrowDate != null) {
+            Long bookId = book.getId();
+            String genre = book.getGenre();
+            String author = book.getAuthor();
+            AfterCommit.run(() -> columns.apply(store -> store.append(loanId, userId, bookId, genre, author, borrowDate, null)));
+        }
+    }
+
+    @Override
+    public void recordReturns(Collection<Long> loanIds, LocalDateTime returnDate) {
+        if (!loanIds.isEmpty() && returnDate != null) {
+            List<Long> ids = List.copyOf(loanIds);
+            long returned = TimeKeys.toSeconds(returnDate);
+            AfterCommit.run(() -> columns.apply(store -> ids.forEach(id -> store.markReturned(id, returned))));
+        }
+    }
+
+    @Override
+    public List<LoanGroupCountDTO> countLoans(LoanGroupBy groupBy, LoanAnalyticsFilter filter, int limit) {
+        if (limit < 1 || limit > MAX_GROUPS) {
+            throw new BadRequestException("Limit must be between 1 and " + MAX_GROUPS);
+        }
+        return read(store -> {
+            RowFilter rows = store.compile(filter);
+            if (rows == null) {
+                return List.of();
+            }
+            long[] counts = store.countBy(groupBy, rows);
+            Comparator<LoanGroupCountDTO> order = groupBy == LoanGroupBy.MONTH
+                    ? Comparator.comparing(LoanGroupCountDTO::getKey)
+                    : Comparator.comparingLong(LoanGroupCountDTO::getLoans).reversed()
+                            .thenComparing(LoanGroupCountDTO::getKey);
+            return IntStream.range(0, counts.length)
+                    .filter(code -> counts[code] > 0)
+                    .mapToObj(code -> new LoanGroupCountDTO(store.label(groupBy, code), counts[code]))
+                    .sorted(order)
+                    .limit(limit)
+                    .toList();
+        });
+    }
+
+    @Override
+    public LoanDurationHistogramDTO getDurationHistogram(LoanAnalyticsFilter filter, int bucketDays, int buckets) {
+        if (bucketDays < 1) {
+            throw new BadRequestException("Bucket width must be at least one day");
+        }
+        if (buckets < 1 || buckets > MAX_BUCKETS) {
+            throw new BadRequestException("Number of buckets must be between 1 and " + MAX_BUCKETS);
+        }
+        Histogram histogram = read(store -> {
+            RowFilter rows = store.compile(filter);
+            return rows == null ? new Histogram(buckets) : store.durationHistogram(rows, bucketDays, buckets);
+        });
+        return LoanDurationHistogramDTO.builder()
+                .bucketDays(bucketDays)
+                .buckets(Arrays.stream(histogram.counts, 0, buckets).boxed().toList())
+                .longer(histogram.counts[buckets])
+                .returnedLoans(histogram.loans)
+                .averageLoanDays(histogram.loans == 0 ? null : BigDecimal.valueOf(histogram.loanSeconds)
+                        .divide(BigDecimal.valueOf(SECONDS_PER_DAY * histogram.loans), 2, RoundingMode.HALF_UP))
+                .build();
+    }
+
+    @Override
+    public PatronActivityDTO getPatronActivity(LoanAnalyticsFilter filter, List<Integer> percentiles) {
+        if (percentiles.isEmpty() || percentiles.stream().anyMatch(p -> p == null || p < 1 || p > 100)) {
+            throw new BadRequestException("Percentiles must be between 1 and 100");
+        }
+        long[] perPatron = read(store -> {
+            RowFilter rows = store.compile(filter);
+            return rows == null ? new long[0] : store.countBy(LoanGroupBy.USER, rows);
+        });
+
+        long[] active = Arrays.stream(perPatron).filter(loans -> loans > 0).sorted().toArray();
+        Map<Integer, Long> values = new LinkedHashMap<>();
+        for (Integer percentile : percentiles.stream().distinct().sorted().toList()) {
+            // Nearest-rank percentile
+            int rank = (int) Math.ceil(percentile / 100.0 * active.length);
+            values.put(percentile, active.length == 0 ? 0 : active[Math.max(rank, 1) - 1]);
+        }
+        return PatronActivityDTO.builder()
+                .patrons(active.length)
+                .loans(Arrays.stream(active).sum())
+                .percentiles(values)
+                .build();
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${library.analytics.reseed-interval-ms:3600000}",
+               initialDelayString = "${library.analytics.reseed-interval-ms:3600000}")
+    public void reseed() {
+        columns.reseed(() -> {
+            LoanColumns seeded = load();
+            log.info("Loan analytics store seeded with {} loans", seeded.size());
+            return seeded;
+        });
+    }
+
+    int size() {
+        return read(LoanColumns::size);
+    }
+
+    private LoanColumns load() {
+        LoanColumns seeded = new LoanColumns(1024);
+        transactionTemplate.execute(status -> {
+            try (Stream<LoanFact> loans = borrowRecordRepository.streamLoanFacts()) {
+                loans.forEach(loan -> seeded.append(loan.getId(), loan.getUserId(), loan.getBookId(),
+                        loan.getGenre(), loan.getAuthor(), loan.getBorrowDate(), loan.getReturnDate()));
+            }
+            return null;
+        });
+        // A loan archived while the live table was read can be in both; append skips the second copy, and the
+        // archive hands out a loan archived twice only once
+        loanArchiveService.forEachRecord(BorrowRecordSearchRequest.builder().build(), loan ->
+                seeded.append(loan.getId(), loan.getUser().getId(), loan.getBook().getId(), loan.getBook().getGenre(),
+                        loan.getBook().getAuthor(), loan.getBorrowDate(), loan.getReturnDate()));
+        return seeded;
+    }
+
+    private <T> T read(Function<LoanColumns, T> query) {
+        return columns.read(query);
+    }
+
+    /**
+     * Scans [0, size) in chunks of CHUNK_SIZE rows on the common fork-join pool and merges the partial results
+     */
+    static <T> T scanInParallel(int size, ChunkScan<T> scan, BinaryOperator<T> merge) {
+        int chunks = Math.max(1, (size + CHUNK_SIZE - 1) / CHUNK_SIZE);
+        return IntStream.range(0, chunks)
+                .parallel()
+                .mapToObj(chunk -> scan.scan(chunk * CHUNK_SIZE, Math.min(size, (chunk + 1) * CHUNK_SIZE)))
+                .reduce(merge)
+                .orElseThrow();
+    }
+
+    @FunctionalInterface
+    interface ChunkScan<T> {
+        T scan(int from, int to);
+    }
+
+    /**
+     * Borrow date bounds in epoch seconds (from inclusive, to exclusive) and genre and author codes, -1 for any
+     */
+    record RowFilter(long from, long to, int genre, int author) {
+    }
+
+    static final class Histogram {
+        // One count per bucket, then the loans longer than the last bucket
+        final long[] counts;
+        long loans;
+        long loanSeconds;
+
+        Histogram(int buckets) {
+            counts = new long[buckets + 1];
+        }
+
+        Histogram merge(Histogram other) {
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] += other.counts[i];
+            }
+            loans += other.loans;
+            loanSeconds += other.loanSeconds;
+            return this;
+        }
+    }
+
+    /**
+     * Assigns dense int codes to values in order of first appearance
+     */
+    static final class Dictionary<T> {
+
+        private final Map<T, Integer> codes = new HashMap<>();
+        private final List<T> values = new ArrayList<>();
+
+        int encode(T value) {
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = values.size();
+                codes.put(value, code);
+                values.add(value);
+            }
+            return code;
+        }
+
+        int find(T value) {
+            return codes.getOrDefault(value, -1);
+        }
+
+        T decode(int code) {
+            return values.get(code);
+        }
+
+        int size() {
+            return values.size();
+        }
+    }
+
+    /**
+     * Append-only loan columns. Only the return time of an open loan changes after a row is written, so open
+     * loans are the only rows with a position map. Not thread-safe; writes are guarded by the service's snapshot lock,
+     * and scans run while its read lock is held.
+     */
+    static final class LoanColumns {
+
+        static final long NOT_RETURNED = Long.MIN_VALUE;
+
+        // Months since January 1970, so months group into a dense array
+        private static final YearMonth FIRST_MONTH = YearMonth.of(1970, 1);
+
+        private long[] loanIds;
+        private int[] userCodes;
+        private int[] bookCodes;
+        private int[] genreCodes;
+        private int[] authorCodes;
+        private int[] borrowMonths;
+        private long[] borrowSeconds;
+        private long[] returnSeconds;
+        private int size;
+
+        // Rows [0, sortedPrefix) are in loan ID order, so duplicates among them are found by binary search
+        private int sortedPrefix;
+        private int maxMonth = -1;
+
+        private final Dictionary<Long> users = new Dictionary<>();
+        private final Dictionary<Long> books = new Dictionary<>();
+        private final Dictionary<String> genres = new Dictionary<>();
+        private final Dictionary<String> authors = new Dictionary<>();
+        private final Map<Long, Integer> openRows = new HashMap<>();
+
+        LoanColumns(int capacity) {
+            int initial = Math.max(capacity, 16);
+            loanIds = new long[initial];
+            userCodes = new int[initial];
+            bookCodes = new int[initial];
+            genreCodes = new int[initial];
+            authorCodes = new int[initial];
+            borrowMonths = new int[initial];
+            borrowSeconds = new long[initial];
+            returnSeconds = new long[initial];
+        }
+
+        int size() {
+            return size;
+        }
+
+        void append(long loanId, long userId, long bookId, String genre, String author,
+                    LocalDateTime borrowDate, LocalDateTime returnDate) {
+            if (openRows.containsKey(loanId) || Arrays.binarySearch(loanIds, 0, sortedPrefix, loanId) >= 0) {
+                return;
+            }
+            if (size == loanIds.length) {
+                grow();
+            }
+            loanIds[size] = loanId;
+            userCodes[size] = users.encode(userId);
+            bookCodes[size] = books.encode(bookId);
+            genreCodes[size] = genres.encode(genre == null ? DailyLoanStats.UNCATEGORIZED : genre);
+            authorCodes[size] = authors.encode(author == null ? "" : author);
+            int month = Math.max(0, (int) FIRST_MONTH.until(YearMonth.from(borrowDate), ChronoUnit.MONTHS));
+            borrowMonths[size] = month;
+            maxMonth = Math.max(maxMonth, month);
+            borrowSeconds[size] = TimeKeys.toSeconds(borrowDate);
+            returnSeconds[size] = returnDate == null ? NOT_RETURNED : TimeKeys.toSeconds(returnDate);
+            if (returnDate == null) {
+                openRows.put(loanId, size);
+            }
+            if (sortedPrefix == size && (size == 0 || loanId > loanIds[size - 1])) {
+                sortedPrefix++;
+            }
+            size++;
+        }
+
+        void markReturned(long loanId, long returned) {
+            Integer row = openRows.remove(loanId);
+            if (row != null) {
+                returnSeconds[row] = returned;
+            }
+        }
+
+        /**
+         * Translates the filter into bounds and codes, or null when it names a genre or author no loan has
+         */
+        RowFilter compile(LoanAnalyticsFilter filter) {
+            LocalDate borrowedFrom = filter == null ? null : filter.getBorrowedFrom();
+            LocalDate borrowedTo = filter == null ? null : filter.getBorrowedTo();
+            if (borrowedFrom != null && borrowedTo != null && borrowedTo.isBefore(borrowedFrom)) {
+                throw new BadRequestException("borrowedTo must not be before borrowedFrom");
+            }
+            int genre = filter == null || filter.getGenre() == null ? -1 : genres.find(filter.getGenre());
+            int author = filter == null || filter.getAuthor() == null ? -1 : authors.find(filter.getAuthor());
+            if ((genre < 0 && filter != null && filter.getGenre() != null)
+                || (author < 0 && filter != null && filter.getAuthor() != null)) {
+                return null;
+            }
+            return new RowFilter(
+                    borrowedFrom == null ? Long.MIN_VALUE : TimeKeys.toSeconds(borrowedFrom.atStartOfDay()),
+                    borrowedTo == null ? Long.MAX_VALUE : TimeKeys.toSeconds(borrowedTo.plusDays(1).atStartOfDay()),
+                    genre, author);
+        }
+
+        long[] countBy(LoanGroupBy groupBy, RowFilter filter) {
+            int[] keys = switch (groupBy) {
+                case GENRE -> genreCodes;
+                case AUTHOR -> authorCodes;
+                case MONTH -> borrowMonths;
+                case BOOK -> bookCodes;
+                case USER -> userCodes;
+            };
+            int keyCount = switch (groupBy) {
+                case GENRE -> genres.size();
+                case AUTHOR -> authors.size();
+                case MONTH -> maxMonth + 1;
+                case BOOK -> books.size();
+                case USER -> users.size();
+            };
+            return scanInParallel(size, (from, to) -> {
+                long[] counts = new long[keyCount];
+                for (int row = from; row < to; row++) {
+                    if (matches(filter, row)) {
+                        counts[keys[row]]++;
+                    }
+                }
+                return counts;
+            }, (left, right) -> {
+                for (int i = 0; i < left.length; i++) {
+                    left[i] += right[i];
+                }
+                return left;
+            });
+        }
+
+        Histogram durationHistogram(RowFilter filter, int bucketDays, int buckets) {
+            long bucketSeconds = bucketDays * SECONDS_PER_DAY;
+            return scanInParallel(size, (from, to) -> {
+                Histogram histogram = new Histogram(buckets);
+                for (int row = from; row < to; row++) {
+                    long returned = returnSeconds[row];
+                    if (returned != NOT_RETURNED && matches(filter, row)) {
+                        long seconds = Math.max(0, returned - borrowSeconds[row]);
+                        histogram.counts[(int) Math.min(seconds / bucketSeconds, buckets)]++;
+                        histogram.loans++;
+                        histogram.loanSeconds += seconds;
+                    }
+                }
+                return histogram;
+            }, Histogram::merge);
+        }
+
+        String label(LoanGroupBy groupBy, int code) {
+            return switch (groupBy) {
+                case GENRE -> genres.decode(code);
+                case AUTHOR -> authors.decode(code);
+                case MONTH -> FIRST_MONTH.plusMonths(code).toString();
+                case BOOK -> String.valueOf(books.decode(code));
+                case USER -> String.valueOf(users.decode(code));
+            };
+        }
+
+        private boolean matches(RowFilter filter, int row) {
+            long borrowed = borrowSeconds[row];
+            return borrowed >= filter.from() && borrowed < filter.to()
+                   && (filter.genre() < 0 || genreCodes[row] == filter.genre())
+                   && (filter.author() < 0 || authorCodes[row] == filter.author());
+        }
+
+        private void grow() {
+            int capacity = size + (size >> 1);
+            loanIds = Arrays.copyOf(loanIds, capacity);
+            userCodes = Arrays.copyOf(userCodes, capacity);
+            bookCodes = Arrays.copyOf(bookCodes, capacity);
+            genreCodes = Arrays.copyOf(genreCodes, capacity);
+            authorCodes = Arrays.copyOf(authorCodes, capacity);
+            borrowMonths = Arrays.copyOf(borrowMonths, capacity);
+            borrowSeconds = Arrays.copyOf(borrowSeconds, capacity);
+            returnSeconds = Arrays.copyOf(returnSeconds, capacity);
+        }
+    }
+}
@@ -0,0 +1,705 @@
+package com.barisdalyanemre.librarymanagement.service.impl;
+
+import com.barisdalyanemre.librarymanagement.dto.request.BorrowRecordSearchRequest;
+import com.barisdalyanemre.librarymanagement.entity.Book;
+import com.barisdalyanemre.librarymanagement.entity.BorrowRecord;
+import com.barisdalyanemre.librarymanagement.entity.User;
+import com.barisdalyanemre.librarymanagement.enums.LoanStatus;
+import com.barisdalyanemre.librarymanagement.repository.BookRepository;
+import com.barisdalyanemre.librarymanagement.repository.BorrowRecordRepository;
+import com.barisdalyanemre.librarymanagement.repository.UserRepository;
+import com.barisdalyanemre.librarymanagement.service.LoanArchiveService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Moves returned loans older than age-months out of borrow_records into immutable segment files under
+ * the archive directory, one segment per chunk of segment-size loans. A segment is written and synced
+ * before its loans are deleted in the same transaction, so a failed run can leave a loan both live and
+ * archived but never lose it; readers keep one copy per loan id. Segments are memory-mapped on startup;
+ * a user's history decodes only that user's rows, other reads scan the mapped columns sequentially.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LoanArchiveServiceImpl implements LoanArchiveService {
+
+    private static final String SEGMENT_PREFIX = "loans-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    // Archived loans are handed out with their user and book, loaded this many loans at a time
+    private static final int RESOLVE_BATCH_SIZE = 1000;
+
+    // Newest first, the order of a user's history
+    private static final Comparator<ArchivedLoan> HISTORY_ORDER = Comparator
+            .comparingLong(ArchivedLoan::borrowDate).thenComparingLong(ArchivedLoan::id).reversed();
+
+    private final BorrowRecordRepository borrowRecordRepository;
+    private final UserRepository userRepository;
+    private final BookRepository bookRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${library.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${library.archive.directory:archive/loans}")
+    private String directory;
+
+    @Value("${library.archive.age-months:12}")
+    private int ageMonths;
+
+    @Value("${library.archive.segment-size:100000}")
+    private int segmentSize;
+
+    // Replaced as a whole when a segment is added, so readers iterate a stable list without locking
+    private volatile List<LoanSegment> segments = List.of();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        loadSegments();
+    }
+
+    @Override
+    @Scheduled(cron = "${library.archive.cron:0 45 1 * * ?}")
+    public int archiveReturnedLoans() {
+        if (!enabled) {
+            return 0;
+        }
+
+        LocalDateTime returnedBefore = LocalDateTime.now().minusMonths(ageMonths);
+        int archived = 0;
+        LoanSegment segment;
+        do {
+            segment = transactionTemplate.execute(status -> archiveChunk(returnedBefore));
+            if (segment != null) {
+                addSegment(segment);
+                archived += segment.rowCount();
+            }
+        } while (segment != null && segment.rowCount() == segmentSize);
+
+        log.info("Archived {} loans returned before {}", archived, returnedBefore);
+        return archived;
+    }
+
+    @Override
+    public List<BorrowRecord> findUserHistory(User user, LocalDateTime cursorBorrowDate, Long cursorId, int limit) {
+        long cursorKey = cursorBorrowDate == null ? Long.MAX_VALUE : TimeKeys.toMicros(cursorBorrowDate);
+        long cursorLoanId = cursorId == null ? Long.MAX_VALUE : cursorId;
+
+        // Ordered and unique by (borrow date, id), so a loan archived twice is kept once
+        TreeSet<ArchivedLoan> page = new TreeSet<>(HISTORY_ORDER);
+        for (LoanSegment segment : segments) {
+            SegmentColumns columns = segment.decodeUser(user.getId());
+            if (columns == null) {
+                continue;
+            }
+            // A user's rows are stored newest first, so the first ones past the cursor are all a segment can add
+            int taken = 0;
+            for (int row = 0; row < columns.size() && taken < limit; row++) {
+                long borrowDate = columns.borrowDates()[row];
+                if (borrowDate < cursorKey || (borrowDate == cursorKey && columns.ids()[row] < cursorLoanId)) {
+                    page.add(columns.row(row));
+                    taken++;
+                }
+            }
+            while (page.size() > limit) {
+                page.pollLast();
+            }
+        }
+        return toRecords(List.copyOf(page), user);
+    }
+
+    @Override
+    public Optional<BorrowRecord> findUserLoan(User user, Long loanId) {
+        for (LoanSegment segment : segments) {
+            if (loanId < segment.minId() || loanId > segment.maxId()) {
+                continue;
+            }
+            SegmentColumns columns = segment.decodeUser(user.getId());
+            if (columns == null) {
+                continue;
+            }
+            for (int row = 0; row < columns.size(); row++) {
+                if (columns.ids()[row] == loanId) {
+                    return toRecords(List.of(columns.row(row)), user).stream().findFirst();
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public List<BorrowRecord> findRecords(BorrowRecordSearchRequest filter, Long beforeId, int limit) {
+        // Keyed by id, so the highest ids win and a loan archived twice is kept once
+        TreeMap<Long, ArchivedLoan> page = new TreeMap<>();
+        forEachMatch(segments, filter, beforeId, loan -> {
+            page.put(loan.id(), loan);
+            if (page.size() > limit) {
+                page.pollFirstEntry();
+            }
+        });
+        return toRecords(List.copyOf(page.descendingMap().values()), null);
+    }
+
+    @Override
+    public void forEachRecord(BorrowRecordSearchRequest filter, Consumer<BorrowRecord> consumer) {
+        List<LoanSegment> current = segments;
+        // A loan archived twice sits in two segments with overlapping id ranges, so only ids there are tracked
+        List<long[]> overlaps = overlappingIdRanges(current);
+        Set<Long> seen = new HashSet<>();
+        List<ArchivedLoan> batch = new ArrayList<>(RESOLVE_BATCH_SIZE);
+        forEachMatch(current, filter, null, loan -> {
+            if (isInAny(overlaps, loan.id()) && !seen.add(loan.id())) {
+                return;
+            }
+            batch.add(loan);
+            if (batch.size() == RESOLVE_BATCH_SIZE) {
+                toRecords(batch, null).forEach(consumer);
+                batch.clear();
+            }
+        });
+        toRecords(batch, null).forEach(consumer);
+    }
+
+    @Override
+    public LocalDateTime archivableBefore() {
+        return LocalDateTime.now().minusMonths(ageMonths).plusDays(1);
+    }
+
+    void loadSegments() {
+        Path root = Path.of(directory);
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+
+        // An unreadable segment fails startup rather than silently dropping loans from every history
+        List<LoanSegment> loaded = new ArrayList<>();
+        try (Stream<Path> files = Files.list(root)) {
+            for (Path file : files.filter(LoanArchiveServiceImpl::isSegmentFile).sorted().toList()) {
+                loaded.add(LoanSegment.open(file));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open the loan archive in " + root, e);
+        }
+        segments = List.copyOf(loaded);
+        log.info("Opened {} loan archive segments holding {} loans",
+                loaded.size(), loaded.stream().mapToInt(LoanSegment::rowCount).sum());
+    }
+
+    private LoanSegment archiveChunk(LocalDateTime returnedBefore) {
+        List<BorrowRecordRepository.ArchivableLoan> loans =
+                borrowRecordRepository.findArchivableLoans(returnedBefore, Limit.of(segmentSize));
+        if (loans.isEmpty()) {
+            return null;
+        }
+
+        long firstId = loans.get(0).getId();
+        long lastId = loans.get(loans.size() - 1).getId();
+        // Named after its id range, so a chunk archived again after a failed commit replaces the earlier file
+        Path file = Path.of(directory).resolve(
+                SEGMENT_PREFIX + "%019d-%019d".formatted(firstId, lastId) + SEGMENT_SUFFIX);
+        LoanSegment segment;
+        try {
+            segment = LoanSegment.write(file, SegmentColumns.of(loans.stream().map(LoanArchiveServiceImpl::toArchivedLoan).toList()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write loan archive segment " + file, e);
+        }
+
+        int deleted = borrowRecordRepository.deleteArchivedLoans(returnedBefore, lastId);
+        if (deleted != loans.size()) {
+            log.warn("Archived {} loans into {} but deleted {}", loans.size(), file, deleted);
+        }
+        return segment;
+    }
+
+    private synchronized void addSegment(LoanSegment segment) {
+        List<LoanSegment> updated = new ArrayList<>(segments);
+        updated.removeIf(existing -> existing.path().equals(segment.path()));
+        updated.add(segment);
+        segments = List.copyOf(updated);
+    }
+
+    private static void forEachMatch(List<LoanSegment> segments, BorrowRecordSearchRequest filter, Long beforeId,
+                                     Consumer<ArchivedLoan> action) {
+        // Only returned loans are ever archived
+        if (filter.getStatus() != null && filter.getStatus() != LoanStatus.RETURNED) {
+            return;
+        }
+
+        long borrowedFrom = filter.getBorrowedFrom() == null
+                ? Long.MIN_VALUE : TimeKeys.toMicros(filter.getBorrowedFrom().atStartOfDay());
+        long borrowedBefore = filter.getBorrowedTo() == null
+                ? Long.MAX_VALUE : TimeKeys.toMicros(filter.getBorrowedTo().plusDays(1).atStartOfDay());
+        long idBound = beforeId == null ? Long.MAX_VALUE : beforeId;
+        for (LoanSegment segment : segments) {
+            if (segment.minId() >= idBound) {
+                continue;
+            }
+            SegmentColumns columns = filter.getUserId() == null
+                    ? segment.decode()
+                    : segment.decodeUser(filter.getUserId());
+            if (columns == null) {
+                continue;
+            }
+            for (int row = 0; row < columns.size(); row++) {
+                if (columns.ids()[row] < idBound
+                        && (filter.getBookId() == null || columns.bookIds()[row] == filter.getBookId())
+                        && columns.borrowDates()[row] >= borrowedFrom
+                        && columns.borrowDates()[row] < borrowedBefore) {
+                    action.accept(columns.row(row));
+                }
+            }
+        }
+    }
+
+    /**
+     * Turns archived loans into detached borrow records, keeping their order. Loans whose user or book has
+     * been deleted since they were archived are left out.
+     */
+    private List<BorrowRecord> toRecords(List<ArchivedLoan> loans, User user) {
+        if (loans.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Book> books = bookRepository.findAllById(
+                        loans.stream().map(ArchivedLoan::bookId).distinct().toList()).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        Map<Long, User> users = user != null
+                ? Map.of(user.getId(), user)
+                : userRepository.findAllById(loans.stream().map(ArchivedLoan::userId).distinct().toList()).stream()
+                        .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        List<BorrowRecord> records = new ArrayList<>(loans.size());
+        for (ArchivedLoan loan : loans) {
+            Book book = books.get(loan.bookId());
+            User borrower = users.get(loan.userId());
+            if (book == null || borrower == null) {
+                continue;
+            }
+            BorrowRecord record = new BorrowRecord(borrower, book, TimeKeys.fromMicros(loan.borrowDate()),
+                    TimeKeys.fromMicros(loan.dueDate()), TimeKeys.fromMicros(loan.returnDate()));
+            record.setId(loan.id());
+            records.add(record);
+        }
+        return records;
+    }
+
+    private static ArchivedLoan toArchivedLoan(BorrowRecordRepository.ArchivableLoan loan) {
+        return new ArchivedLoan(loan.getId(), loan.getUserId(), loan.getBookId(),
+                TimeKeys.toMicros(loan.getBorrowDate()), TimeKeys.toMicros(loan.getDueDate()),
+                TimeKeys.toMicros(loan.getReturnDate()));
+    }
+
+    /**
+     * Id ranges covered by more than one segment, as inclusive [from, to] pairs
+     */
+    private static List<long[]> overlappingIdRanges(List<LoanSegment> segments) {
+        List<long[]> overlaps = new ArrayList<>();
+        long reach = Long.MIN_VALUE;
+        for (LoanSegment segment : segments.stream().sorted(Comparator.comparingLong(LoanSegment::minId)).toList()) {
+            if (segment.minId() <= reach) {
+                overlaps.add(new long[] {segment.minId(), Math.min(reach, segment.maxId())});
+            }
+            reach = Math.max(reach, segment.maxId());
+        }
+        return overlaps;
+    }
+
+    private static boolean isInAny(List<long[]> ranges, long id) {
+        for (long[] range : ranges) {
+            if (id >= range[0] && id <= range[1]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isSegmentFile(Path file) {
+        String name = file.getFileName().toString();
+        return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+    }
+
+    /**
+     * One archived loan, dates in epoch microseconds
+     */
+    record ArchivedLoan(long id, long userId, long bookId, long borrowDate, long dueDate, long returnDate) {
+    }
+
+    /**
+     * The loans of one segment as primitive arrays, one per column, sorted by user and then newest first
+     */
+    record SegmentColumns(long[] ids, long[] userIds, long[] bookIds,
+                          long[] borrowDates, long[] dueDates, long[] returnDates) {
+
+        private static final Comparator<ArchivedLoan> SEGMENT_ORDER = Comparator
+                .comparingLong(ArchivedLoan::userId).thenComparing(HISTORY_ORDER);
+
+        static SegmentColumns of(List<ArchivedLoan> loans) {
+            List<ArchivedLoan> sorted = loans.stream().sorted(SEGMENT_ORDER).toList();
+            int size = sorted.size();
+            SegmentColumns columns = new SegmentColumns(new long[size], new long[size], new long[size],
+                    new long[size], new long[size], new long[size]);
+            for (int row = 0; row < size; row++) {
+                ArchivedLoan loan = sorted.get(row);
+                columns.ids[row] = loan.id();
+                columns.userIds[row] = loan.userId();
+                columns.bookIds[row] = loan.bookId();
+                columns.borrowDates[row] = loan.borrowDate();
+                columns.dueDates[row] = loan.dueDate();
+                columns.returnDates[row] = loan.returnDate();
+            }
+            return columns;
+        }
+
+        int size() {
+            return ids.length;
+        }
+
+        ArchivedLoan row(int row) {
+            return new ArchivedLoan(ids[row], userIds[row], bookIds[row],
+                    borrowDates[row], dueDates[row], returnDates[row]);
+        }
+    }
+
+    /**
+     * A read-only, memory-mapped file of archived loans stored column by column. User ids are run-length
+     * encoded; every other column is a sequence of zigzag varint deltas: ids, book ids and borrow dates
+     * against the previous row of the same user, due dates against the row's borrow date and return dates
+     * against its due date. Loan periods repeat, so most due and return dates take a byte or two.
+     *
+     * Each entry of the user column also holds where the user's rows start in the other columns, as byte
+     * offsets relative to the previous user's. Deltas restart with every user, so one user's loans are
+     * decoded from those offsets without touching the rest of the segment.
+     *
+     * Layout: magic, version, row count, min and max user id, min and max loan id, the byte length of each
+     * column, then the columns in that order.
+     */
+    static final class LoanSegment {
+
+        static final int MAGIC = 0x4C4D5347;
+        static final int VERSION = 1;
+
+        private static final int USER_COLUMN = 0;
+        private static final int ID_COLUMN = 1;
+        private static final int BOOK_COLUMN = 2;
+        private static final int BORROW_DATE_COLUMN = 3;
+        private static final int DUE_DATE_COLUMN = 4;
+        private static final int RETURN_DATE_COLUMN = 5;
+        private static final int COLUMN_COUNT = 6;
+        private static final int HEADER_BYTES = 3 * Integer.BYTES + 4 * Long.BYTES + COLUMN_COUNT * Integer.BYTES;
+
+        private final Path path;
+        private final MappedByteBuffer buffer;
+        private final int rowCount;
+        private final long minUserId;
+        private final long maxUserId;
+        private final long minId;
+        private final long maxId;
+        private final int[] columnOffsets = new int[COLUMN_COUNT + 1];
+
+        private LoanSegment(Path path, MappedByteBuffer buffer) throws IOException {
+            this.path = path;
+            this.buffer = buffer;
+            if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IOException("Not a loan archive segment: " + path);
+            }
+            this.rowCount = buffer.getInt(8);
+            this.minUserId = buffer.getLong(12);
+            this.maxUserId = buffer.getLong(20);
+            this.minId = buffer.getLong(28);
+            this.maxId = buffer.getLong(36);
+            columnOffsets[0] = HEADER_BYTES;
+            for (int column = 0; column < COLUMN_COUNT; column++) {
+                columnOffsets[column + 1] = columnOffsets[column] + buffer.getInt(44 + column * Integer.BYTES);
+            }
+            if (columnOffsets[COLUMN_COUNT] != buffer.capacity()) {
+                throw new IOException("Truncated loan archive segment: " + path);
+            }
+        }
+
+        /**
+         * Writes the columns to a temporary file, syncs it and moves it into place, then maps it
+         */
+        static LoanSegment write(Path path, SegmentColumns columns) throws IOException {
+            int rows = columns.size();
+            ByteSink[] sinks = new ByteSink[COLUMN_COUNT];
+            Arrays.setAll(sinks, column -> new ByteSink());
+
+            long previousUser = 0;
+            int[] previousOffsets = new int[COLUMN_COUNT];
+            long minLoanId = Long.MAX_VALUE;
+            long maxLoanId = Long.MIN_VALUE;
+            for (int row = 0; row < rows; ) {
+                int runEnd = row;
+                while (runEnd < rows && columns.userIds()[runEnd] == columns.userIds()[row]) {
+                    runEnd++;
+                }
+                sinks[USER_COLUMN].writeVarLong(columns.userIds()[row] - previousUser);
+                sinks[USER_COLUMN].writeVarLong(runEnd - row);
+                for (int column = ID_COLUMN; column < COLUMN_COUNT; column++) {
+                    sinks[USER_COLUMN].writeVarLong(sinks[column].size - previousOffsets[column]);
+                    previousOffsets[column] = sinks[column].size;
+                }
+                previousUser = columns.userIds()[row];
+
+                for (int first = row; row < runEnd; row++) {
+                    sinks[ID_COLUMN].writeZigZag(columns.ids()[row] - (row == first ? 0 : columns.ids()[row - 1]));
+                    sinks[BOOK_COLUMN].writeZigZag(
+                            columns.bookIds()[row] - (row == first ? 0 : columns.bookIds()[row - 1]));
+                    sinks[BORROW_DATE_COLUMN].writeZigZag(
+                            columns.borrowDates()[row] - (row == first ? 0 : columns.borrowDates()[row - 1]));
+                    sinks[DUE_DATE_COLUMN].writeZigZag(columns.dueDates()[row] - columns.borrowDates()[row]);
+                    sinks[RETURN_DATE_COLUMN].writeZigZag(columns.returnDates()[row] - columns.dueDates()[row]);
+                    minLoanId = Math.min(minLoanId, columns.ids()[row]);
+                    maxLoanId = Math.max(maxLoanId, columns.ids()[row]);
+                }
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+                    .putInt(MAGIC).putInt(VERSION).putInt(rows)
+                    .putLong(columns.userIds()[0]).putLong(columns.userIds()[rows - 1])
+                    .putLong(minLoanId).putLong(maxLoanId);
+            for (ByteSink sink : sinks) {
+                header.putInt(sink.size);
+            }
+            header.flip();
+
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                writeFully(channel, header);
+                for (ByteSink sink : sinks) {
+                    writeFully(channel, ByteBuffer.wrap(sink.bytes, 0, sink.size));
+                }
+                channel.force(true);
+            }
+            Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            return open(path);
+        }
+
+        static LoanSegment open(Path path) throws IOException {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                // The mapping stays valid after the channel is closed
+                return new LoanSegment(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+            }
+        }
+
+        Path path() {
+            return path;
+        }
+
+        int rowCount() {
+            return rowCount;
+        }
+
+        long minId() {
+            return minId;
+        }
+
+        long maxId() {
+            return maxId;
+        }
+
+        /**
+         * Decodes the loans of one user only, starting each column at the user's offset
+         * @return null when the segment holds no loan of the user
+         */
+        SegmentColumns decodeUser(long userId) {
+            UserRows rows = findRows(userId);
+            if (rows == null) {
+                return null;
+            }
+            int count = rows.to() - rows.from();
+            long[] userIds = new long[count];
+            Arrays.fill(userIds, userId);
+            long[] ids = new long[count];
+            long[] bookIds = new long[count];
+            long[] borrowDates = new long[count];
+            long[] dueDates = new long[count];
+            long[] returnDates = new long[count];
+            decodeDeltas(column(ID_COLUMN, rows.offsets()), ids, 0, count, null);
+            decodeDeltas(column(BOOK_COLUMN, rows.offsets()), bookIds, 0, count, null);
+            decodeDeltas(column(BORROW_DATE_COLUMN, rows.offsets()), borrowDates, 0, count, null);
+            decodeDeltas(column(DUE_DATE_COLUMN, rows.offsets()), dueDates, 0, count, borrowDates);
+            decodeDeltas(column(RETURN_DATE_COLUMN, rows.offsets()), returnDates, 0, count, dueDates);
+            return new SegmentColumns(ids, userIds, bookIds, borrowDates, dueDates, returnDates);
+        }
+
+        /**
+         * Decodes every column into primitive arrays in one sequential pass over each column
+         */
+        SegmentColumns decode() {
+            long[] userIds = new long[rowCount];
+            // The deltas start again from zero at every user's first row
+            List<Integer> restarts = new ArrayList<>();
+            ByteBuffer users = column(USER_COLUMN);
+            long user = 0;
+            for (int row = 0; row < rowCount; ) {
+                user += readVarLong(users);
+                int run = (int) readVarLong(users);
+                for (int column = ID_COLUMN; column < COLUMN_COUNT; column++) {
+                    readVarLong(users);
+                }
+                restarts.add(row);
+                Arrays.fill(userIds, row, row + run, user);
+                row += run;
+            }
+            restarts.add(rowCount);
+
+            long[] ids = new long[rowCount];
+            long[] bookIds = new long[rowCount];
+            long[] borrowDates = new long[rowCount];
+            long[] dueDates = new long[rowCount];
+            long[] returnDates = new long[rowCount];
+            ByteBuffer[] in = new ByteBuffer[COLUMN_COUNT];
+            Arrays.setAll(in, this::column);
+            for (int i = 0; i + 1 < restarts.size(); i++) {
+                int from = restarts.get(i);
+                int to = restarts.get(i + 1);
+                decodeDeltas(in[ID_COLUMN], ids, from, to, null);
+                decodeDeltas(in[BOOK_COLUMN], bookIds, from, to, null);
+                decodeDeltas(in[BORROW_DATE_COLUMN], borrowDates, from, to, null);
+                decodeDeltas(in[DUE_DATE_COLUMN], dueDates, from, to, borrowDates);
+                decodeDeltas(in[RETURN_DATE_COLUMN], returnDates, from, to, dueDates);
+            }
+            return new SegmentColumns(ids, userIds, bookIds, borrowDates, dueDates, returnDates);
+        }
+
+        /**
+         * Finds the user's rows by walking the run-length encoded user column only
+         */
+        private UserRows findRows(long userId) {
+            if (userId < minUserId || userId > maxUserId) {
+                return null;
+            }
+            ByteBuffer in = column(USER_COLUMN);
+            int[] offsets = new int[COLUMN_COUNT];
+            long user = 0;
+            for (int row = 0; row < rowCount; ) {
+                user += readVarLong(in);
+                int run = (int) readVarLong(in);
+                for (int column = ID_COLUMN; column < COLUMN_COUNT; column++) {
+                    offsets[column] += (int) readVarLong(in);
+                }
+                if (user == userId) {
+                    return new UserRows(row, row + run, offsets);
+                }
+                if (user > userId) {
+                    return null;
+                }
+                row += run;
+            }
+            return null;
+        }
+
+        /**
+         * Decodes rows [from, to) of a delta column, against the previous row when base is null and against
+         * base otherwise. The first row is a delta from zero.
+         */
+        private static void decodeDeltas(ByteBuffer in, long[] values, int from, int to, long[] base) {
+            long previous = 0;
+            for (int row = from; row < to; row++) {
+                values[row] = (base == null ? previous : base[row]) + readZigZag(in);
+                previous = values[row];
+            }
+        }
+
+        private ByteBuffer column(int column, int[] offsets) {
+            return column(column).position(offsets[column]);
+        }
+
+        private ByteBuffer column(int column) {
+            return buffer.slice(columnOffsets[column], columnOffsets[column + 1] - columnOffsets[column]);
+        }
+
+        private static void writeFully(FileChannel channel, ByteBuffer bytes) throws IOException {
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+        }
+
+        private static long readVarLong(ByteBuffer in) {
+            long value = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = in.get();
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            return value;
+        }
+
+        private static long readZigZag(ByteBuffer in) {
+            long value = readVarLong(in);
+            return (value >>> 1) ^ -(value & 1);
+        }
+    }
+
+    /**
+     * The rows of one user in a segment and where they start in each column
+     */
+    private record UserRows(int from, int to, int[] offsets) {
+    }
+
+    /**
+     * Growable byte array that columns are encoded into before they are written
+     */
+    private static final class ByteSink {
+
+        private byte[] bytes = new byte[1024];
+        private int size;
+
+        void writeVarLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                put((byte) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            put((byte) value);
+        }
+
+        void writeZigZag(long value) {
+            writeVarLong((value << 1) ^ (value >> 63));
+        }
+
+        private void put(byte b) {
+            if (size == bytes.length) {
+                bytes = Arrays.copyOf(bytes, size * 2);
+            }
+            bytes[size++] = b;
+        }
+    }
+}
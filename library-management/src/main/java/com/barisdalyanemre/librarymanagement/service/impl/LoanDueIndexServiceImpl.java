@@ -0,0 +1,254 @@
+package com.barisdalyanemre.librarymanagement.service.impl;
+
+import com.barisdalyanemre.librarymanagement.repository.BorrowRecordRepository;
+import com.barisdalyanemre.librarymanagement.repository.BorrowRecordRepository.LoanDueDate;
+import com.barisdalyanemre.librarymanagement.service.LoanDueIndexService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+/**
+ * Open loans ordered by due date in a primitive min-heap, so overdue and due-soon lookups never scan
+ * borrow_records. Kept current by the borrow and return paths after their transactions commit, and
+ * periodically reseeded from the database. Callers re-check the loans they fetch by ID, so a stale
+ * entry only costs a lookup.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LoanDueIndexServiceImpl implements LoanDueIndexService {
+
+    private final BorrowRecordRepository borrowRecordRepository;
+
+    private final ReplayingSnapshot<DueDateHeap> heap = new ReplayingSnapshot<>(new DueDateHeap());
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reseed();
+    }
+
+    @Override
+    public void recordLoan(Long loanId, LocalDateTime dueDate) {
+        if (loanId != null && dueDate != null) {
+            long dueKey = TimeKeys.toMicros(dueDate);
+            AfterCommit.run(() -> heap.apply(index -> index.put(loanId, dueKey)));
+        }
+    }
+
+    @Override
+    public void removeLoans(Collection<Long> loanIds) {
+        if (!loanIds.isEmpty()) {
+            List<Long> ids = List.copyOf(loanIds);
+            AfterCommit.run(() -> heap.apply(index -> ids.forEach(index::remove)));
+        }
+    }
+
+    @Override
+    public List<Long> getOverdueLoanIds(LocalDateTime now) {
+        return read(Long.MIN_VALUE, TimeKeys.toMicros(now));
+    }
+
+    @Override
+    public int countOverdueLoans(LocalDateTime now) {
+        long toKey = TimeKeys.toMicros(now);
+        return heap.read(index -> index.countBetween(Long.MIN_VALUE, toKey));
+    }
+
+    @Override
+    public List<Long> getLoanIdsDueBetween(LocalDateTime from, LocalDateTime to) {
+        return read(TimeKeys.toMicros(from), TimeKeys.toMicros(to));
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${library.due-index.reseed-interval-ms:300000}",
+               initialDelayString = "${library.due-index.reseed-interval-ms:300000}")
+    public void reseed() {
+        heap.reseed(() -> {
+            List<LoanDueDate> loans = borrowRecordRepository.findActiveLoanDueDates();
+
+            DueDateHeap seeded = new DueDateHeap(loans.size());
+            loans.forEach(loan -> seeded.put(loan.getId(), TimeKeys.toMicros(loan.getDueDate())));
+            log.info("Due date index seeded with {} open loans", loans.size());
+            return seeded;
+        });
+    }
+
+    int size() {
+        return heap.read(DueDateHeap::size);
+    }
+
+    private List<Long> read(long fromKey, long toKey) {
+        return heap.read(index -> index.findBetween(fromKey, toKey));
+    }
+
+    /**
+     * Binary min-heap over parallel long arrays, ordered by due key and then loan ID. A position map
+     * makes removal by loan ID O(log n). Range queries walk the heap from the root and prune every
+     * subtree whose root is already past the upper bound, so they cost O(k) for k matches.
+     * Not thread-safe; guarded by the service's snapshot lock.
+     */
+    static final class DueDateHeap {
+
+        private long[] dueKeys;
+        private long[] loanIds;
+        private int size;
+        private final Map<Long, Integer> positions;
+
+        DueDateHeap() {
+            this(16);
+        }
+
+        DueDateHeap(int capacity) {
+            int initial = Math.max(capacity, 16);
+            dueKeys = new long[initial];
+            loanIds = new long[initial];
+            positions = new HashMap<>(initial * 4 / 3 + 1);
+        }
+
+        int size() {
+            return size;
+        }
+
+        void put(long loanId, long dueKey) {
+            Integer position = positions.get(loanId);
+            if (position != null) {
+                dueKeys[position] = dueKey;
+                siftDown(siftUp(position));
+                return;
+            }
+
+            if (size == dueKeys.length) {
+                int capacity = size + (size >> 1);
+                dueKeys = Arrays.copyOf(dueKeys, capacity);
+                loanIds = Arrays.copyOf(loanIds, capacity);
+            }
+            dueKeys[size] = dueKey;
+            loanIds[size] = loanId;
+            positions.put(loanId, size);
+            siftUp(size++);
+        }
+
+        boolean remove(long loanId) {
+            Integer position = positions.remove(loanId);
+            if (position == null) {
+                return false;
+            }
+
+            int last = --size;
+            if (position != last) {
+                move(last, position);
+                siftDown(siftUp(position));
+            }
+            return true;
+        }
+
+        List<Long> findBetween(long fromKey, long toKey) {
+            List<Integer> matches = new ArrayList<>();
+            walkBetween(fromKey, toKey, matches::add);
+
+            matches.sort((a, b) -> less(a, b) ? -1 : less(b, a) ? 1 : 0);
+            List<Long> ids = new ArrayList<>(matches.size());
+            for (int node : matches) {
+                ids.add(loanIds[node]);
+            }
+            return ids;
+        }
+
+        int countBetween(long fromKey, long toKey) {
+            int[] count = new int[1];
+            walkBetween(fromKey, toKey, node -> count[0]++);
+            return count[0];
+        }
+
+        /**
+         * Visits the nodes with a due key in [fromKey, toKey), in no particular order
+         */
+        private void walkBetween(long fromKey, long toKey, IntConsumer match) {
+            int[] stack = new int[32];
+            int top = 0;
+            if (size > 0) {
+                stack[top++] = 0;
+            }
+            while (top > 0) {
+                int node = stack[--top];
+                if (dueKeys[node] >= toKey) {
+                    continue;
+                }
+                if (dueKeys[node] >= fromKey) {
+                    match.accept(node);
+                }
+                int left = 2 * node + 1;
+                if (top + 2 > stack.length) {
+                    stack = Arrays.copyOf(stack, stack.length * 2);
+                }
+                if (left < size) {
+                    stack[top++] = left;
+                }
+                if (left + 1 < size) {
+                    stack[top++] = left + 1;
+                }
+            }
+        }
+
+        private int siftUp(int node) {
+            while (node > 0) {
+                int parent = (node - 1) >>> 1;
+                if (!less(node, parent)) {
+                    break;
+                }
+                swap(node, parent);
+                node = parent;
+            }
+            return node;
+        }
+
+        private void siftDown(int node) {
+            while (true) {
+                int left = 2 * node + 1;
+                if (left >= size) {
+                    return;
+                }
+                int smallest = left + 1 < size && less(left + 1, left) ? left + 1 : left;
+                if (!less(smallest, node)) {
+                    return;
+                }
+                swap(node, smallest);
+                node = smallest;
+            }
+        }
+
+        private boolean less(int a, int b) {
+            return dueKeys[a] < dueKeys[b] || (dueKeys[a] == dueKeys[b] && loanIds[a] < loanIds[b]);
+        }
+
+        private void swap(int a, int b) {
+            long dueKey = dueKeys[a];
+            long loanId = loanIds[a];
+            dueKeys[a] = dueKeys[b];
+            loanIds[a] = loanIds[b];
+            dueKeys[b] = dueKey;
+            loanIds[b] = loanId;
+            positions.put(loanIds[a], a);
+            positions.put(loanIds[b], b);
+        }
+
+        private void move(int from, int to) {
+            dueKeys[to] = dueKeys[from];
+            loanIds[to] = loanIds[from];
+            positions.put(loanIds[to], to);
+        }
+    }
+}
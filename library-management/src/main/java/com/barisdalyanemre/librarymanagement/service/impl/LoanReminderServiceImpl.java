@@ -0,0 +1,320 @@
+package com.barisdalyanemre.librarymanagement.service.impl;
+
+import com.barisdalyanemre.librarymanagement.entity.BorrowRecord;
+import com.barisdalyanemre.librarymanagement.enums.ReminderType;
+import com.barisdalyanemre.librarymanagement.event.LoanReminderEvent;
+import com.barisdalyanemre.librarymanagement.notification.ReminderNotificationSink;
+import com.barisdalyanemre.librarymanagement.repository.BorrowRecordRepository;
+import com.barisdalyanemre.librarymanagement.repository.BorrowRecordRepository.LoanDueDate;
+import com.barisdalyanemre.librarymanagement.service.LoanReminderService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Pending due-date reminders of open loans, held in a hierarchical timing wheel with one-minute
+ * ticks. Borrowing schedules a loan's reminders and returning cancels them, both in O(1); a
+ * scheduled tick sends whatever has come due in batches. The wheel lives in memory and is rebuilt
+ * from borrow_records on startup, so reminders whose moment passed while the application was down
+ * are not sent.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LoanReminderServiceImpl implements LoanReminderService {
+
+    private final BorrowRecordRepository borrowRecordRepository;
+    private final ReminderNotificationSink reminderNotificationSink;
+
+    @Value("${library.reminders.batch-size:500}")
+    private int batchSize;
+
+    private final ReplayingSnapshot<ReminderWheel> wheel =
+            new ReplayingSnapshot<>(new ReminderWheel(TimeKeys.toMinutes(LocalDateTime.now())));
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    @Override
+    public void scheduleReminders(Long loanId, LocalDateTime dueDate) {
+        if (loanId != null && dueDate != null) {
+            AfterCommit.run(() -> wheel.apply(reminders -> schedule(reminders, loanId, dueDate)));
+        }
+    }
+
+    @Override
+    public void cancelReminders(Collection<Long> loanIds) {
+        if (!loanIds.isEmpty()) {
+            List<Long> ids = List.copyOf(loanIds);
+            AfterCommit.run(() -> wheel.apply(reminders -> ids.forEach(reminders::cancel)));
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${library.reminders.tick-interval-ms:60000}")
+    public int dispatchDueReminders() {
+        return dispatchDueReminders(LocalDateTime.now());
+    }
+
+    int dispatchDueReminders(LocalDateTime now) {
+        // Advancing only concerns the current wheel; a rebuilt one starts at its own tick
+        List<ReminderWheel.Timer> due = wheel.update(reminders -> reminders.advanceTo(TimeKeys.toMinutes(now)));
+        if (due.isEmpty()) {
+            return 0;
+        }
+
+        int sent = 0;
+        for (int from = 0; from < due.size(); from += batchSize) {
+            List<ReminderWheel.Timer> batch = due.subList(from, Math.min(from + batchSize, due.size()));
+            try {
+                sent += dispatch(batch);
+            } catch (RuntimeException e) {
+                log.error("Failed to send a batch of {} loan reminders", batch.size(), e);
+            }
+        }
+        log.info("Sent {} loan reminders", sent);
+        return sent;
+    }
+
+    @Override
+    public void rebuild() {
+        wheel.reseed(() -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<LoanDueDate> loans = borrowRecordRepository.findActiveLoanDueDates();
+
+            ReminderWheel rebuilt = new ReminderWheel(TimeKeys.toMinutes(now));
+            loans.forEach(loan -> schedule(rebuilt, loan.getId(), loan.getDueDate()));
+            log.info("Reminder wheel rebuilt with {} pending reminders for {} open loans", rebuilt.size(), loans.size());
+            return rebuilt;
+        });
+    }
+
+    int pendingReminders() {
+        return wheel.read(ReminderWheel::size);
+    }
+
+    private int dispatch(List<ReminderWheel.Timer> batch) {
+        List<Long> loanIds = batch.stream().map(ReminderWheel.Timer::loanId).distinct().toList();
+        Map<Long, BorrowRecord> loans = borrowRecordRepository.findAllWithUserAndBookByIdIn(loanIds).stream()
+                .collect(Collectors.toMap(BorrowRecord::getId, Function.identity()));
+
+        // A loan returned after its reminder came due, but before this batch ran, gets no reminder
+        List<LoanReminderEvent> reminders = new ArrayList<>(batch.size());
+        for (ReminderWheel.Timer timer : batch) {
+            BorrowRecord loan = loans.get(timer.loanId());
+            if (loan != null && loan.getReturnDate() == null) {
+                reminders.add(LoanReminderEvent.builder()
+                        .loanId(loan.getId())
+                        .type(timer.type())
+                        .email(loan.getUser().getEmail())
+                        .title(loan.getBook().getTitle())
+                        .isbn(loan.getBook().getIsbn())
+                        .dueDate(loan.getDueDate())
+                        .build());
+            }
+        }
+        if (!reminders.isEmpty()) {
+            reminderNotificationSink.send(reminders);
+        }
+        return reminders.size();
+    }
+
+    private static void schedule(ReminderWheel reminders, long loanId, LocalDateTime dueDate) {
+        // Replaces the loan's timers, so a borrow replayed into a rebuilt wheel that already holds it is not doubled
+        reminders.cancel(loanId);
+        for (ReminderType type : ReminderType.values()) {
+            long deadline = TimeKeys.toMinutes(type.deadline(dueDate));
+            if (deadline > reminders.currentTick()) {
+                reminders.schedule(loanId, type, deadline);
+            }
+        }
+    }
+
+    /**
+     * Hierarchical timing wheel: four levels of 64 slots, level n covering 64^(n+1) ticks (about an hour,
+     * three days, half a year and thirty years). A timer goes into the lowest level whose span reaches its
+     * deadline; whenever the lower levels wrap around, the next slot of the level above is cascaded down.
+     * Slots are intrusive doubly-linked lists and each loan keeps its own timers, so scheduling and
+     * cancelling are O(1) and a tick only touches the timers that are actually due or cascading.
+     * Not thread-safe; guarded by the service's snapshot lock.
+     */
+    static final class ReminderWheel {
+
+        private static final int LEVELS = 4;
+        private static final int SLOT_BITS = 6;
+        private static final int SLOTS = 1 << SLOT_BITS;
+        private static final int SLOT_MASK = SLOTS - 1;
+
+        private final Timer[][] slots = new Timer[LEVELS][SLOTS];
+        private final Map<Long, Timer> timersByLoan = new HashMap<>();
+        private long currentTick;
+        private int size;
+
+        ReminderWheel(long startTick) {
+            this.currentTick = startTick;
+            for (Timer[] level : slots) {
+                for (int slot = 0; slot < SLOTS; slot++) {
+                    level[slot] = Timer.sentinel();
+                }
+            }
+        }
+
+        long currentTick() {
+            return currentTick;
+        }
+
+        int size() {
+            return size;
+        }
+
+        void schedule(long loanId, ReminderType type, long deadlineTick) {
+            Timer timer = new Timer(loanId, type, deadlineTick);
+            timer.nextForLoan = timersByLoan.put(loanId, timer);
+            place(timer);
+            size++;
+        }
+
+        boolean cancel(long loanId) {
+            Timer timer = timersByLoan.remove(loanId);
+            boolean cancelled = timer != null;
+            for (; timer != null; timer = timer.nextForLoan) {
+                timer.unlink();
+                size--;
+            }
+            return cancelled;
+        }
+
+        /**
+         * Moves the wheel forward to the given tick and returns the timers that came due on the way,
+         * in deadline order
+         */
+        List<Timer> advanceTo(long targetTick) {
+            List<Timer> expired = new ArrayList<>();
+            while (currentTick < targetTick) {
+                currentTick++;
+                // Higher levels first, so timers cascading through several levels land before their slot is read
+                for (int level = LEVELS - 1; level > 0; level--) {
+                    if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                        cascade(level, (int) ((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK));
+                    }
+                }
+
+                Timer head = slots[0][(int) (currentTick & SLOT_MASK)];
+                while (head.next != head) {
+                    Timer timer = head.next;
+                    timer.unlink();
+                    forget(timer);
+                    expired.add(timer);
+                }
+            }
+            return expired;
+        }
+
+        private void place(Timer timer) {
+            long delta = timer.deadlineTick - currentTick;
+            int level = 0;
+            while (level < LEVELS - 1 && delta >= 1L << (SLOT_BITS * (level + 1))) {
+                level++;
+            }
+            // Timers already due go into the next tick's slot
+            long tick = Math.max(timer.deadlineTick, currentTick + 1);
+            timer.linkAfter(slots[level][(int) ((tick >>> (SLOT_BITS * level)) & SLOT_MASK)]);
+        }
+
+        private void cascade(int level, int slot) {
+            Timer head = slots[level][slot];
+            Timer timer = head.next;
+            head.next = head;
+            head.prev = head;
+            while (timer != head) {
+                Timer next = timer.next;
+                place(timer);
+                timer = next;
+            }
+        }
+
+        private void forget(Timer expired) {
+            Timer first = timersByLoan.get(expired.loanId);
+            if (first == expired) {
+                if (expired.nextForLoan == null) {
+                    timersByLoan.remove(expired.loanId);
+                } else {
+                    timersByLoan.put(expired.loanId, expired.nextForLoan);
+                }
+            } else {
+                for (Timer timer = first; timer != null; timer = timer.nextForLoan) {
+                    if (timer.nextForLoan == expired) {
+                        timer.nextForLoan = expired.nextForLoan;
+                        break;
+                    }
+                }
+            }
+            size--;
+        }
+
+        static final class Timer {
+
+            private final long loanId;
+            private final ReminderType type;
+            private final long deadlineTick;
+            private Timer prev;
+            private Timer next;
+            private Timer nextForLoan;
+
+            private Timer(long loanId, ReminderType type, long deadlineTick) {
+                this.loanId = loanId;
+                this.type = type;
+                this.deadlineTick = deadlineTick;
+            }
+
+            private static Timer sentinel() {
+                Timer sentinel = new Timer(-1, null, Long.MAX_VALUE);
+                sentinel.prev = sentinel;
+                sentinel.next = sentinel;
+                return sentinel;
+            }
+
+            long loanId() {
+                return loanId;
+            }
+
+            ReminderType type() {
+                return type;
+            }
+
+            long deadlineTick() {
+                return deadlineTick;
+            }
+
+            private void linkAfter(Timer head) {
+                prev = head;
+                next = head.next;
+                head.next.prev = this;
+                head.next = this;
+            }
+
+            private void unlink() {
+                prev.next = next;
+                next.prev = prev;
+                prev = null;
+                next = null;
+            }
+        }
+    }
+}
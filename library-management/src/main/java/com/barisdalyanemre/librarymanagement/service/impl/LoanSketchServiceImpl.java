@@ -0,0 +1,595 @@
+package com.barisdalyanemre.librarymanagement.service.impl;
+
+import com.barisdalyanemre.librarymanagement.dto.response.LoanSketchDTO;
+import com.barisdalyanemre.librarymanagement.entity.Book;
+import com.barisdalyanemre.librarymanagement.entity.BorrowRecord;
+import com.barisdalyanemre.librarymanagement.entity.DailyLoanStats;
+import com.barisdalyanemre.librarymanagement.entity.LoanSketch;
+import com.barisdalyanemre.librarymanagement.enums.SketchDimension;
+import com.barisdalyanemre.librarymanagement.exception.BadRequestException;
+import com.barisdalyanemre.librarymanagement.repository.LoanSketchRepository;
+import com.barisdalyanemre.librarymanagement.service.LoanSketchService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Sketches of the months in use live in memory and are updated by the borrow and return paths after their
+ * transactions commit. Changed sketches are merged into loan_sketches at a fixed interval and on shutdown,
+ * so instances sharing the database add up their counts instead of overwriting each other's. The
+ * preload-months most recent months are loaded back on startup and kept in memory; older months are read
+ * from loan_sketches on every query and dropped from memory once written. A query merges at most
+ * MAX_MONTHS sketches of fixed size, however many loans they count.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LoanSketchServiceImpl implements LoanSketchService {
+
+    static final int MAX_MONTHS = 12;
+
+    private static final BigDecimal MINUTES_PER_DAY = BigDecimal.valueOf(Duration.ofDays(1).toMinutes());
+
+    private final LoanSketchRepository loanSketchRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${library.sketches.preload-months:2}")
+    private int preloadMonths;
+
+    private final Map<SketchKey, SketchState> sketches = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        YearMonth firstMonth = firstKeptMonth();
+        List<LoanSketch> rows = loanSketchRepository.findByPeriodGreaterThanEqual(firstMonth.atDay(1));
+        rows.forEach(this::load);
+        log.info("Loaded {} loan sketches from {}", rows.size(), firstMonth);
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void onContextClosed() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Could not write loan sketches on shutdown: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void recordBorrow(Long userId, Book book, LocalDateTime borrowDate) {
+        if (userId != null && book != null && borrowDate != null) {
+            List<SketchKey> keys = keysOf(book, YearMonth.from(borrowDate));
+            AfterCommit.run(() -> keys.forEach(key -> update(key, state -> state.addPatron(userId))));
+        }
+    }
+
+    @Override
+    public void recordReturns(Collection<BorrowRecord> loans, LocalDateTime returnDate) {
+        if (loans.isEmpty() || returnDate == null) {
+            return;
+        }
+        YearMonth month = YearMonth.from(returnDate);
+        List<Runnable> updates = new ArrayList<>();
+        for (BorrowRecord loan : loans) {
+            long minutes = Duration.between(loan.getBorrowDate(), returnDate).toMinutes();
+            List<SketchKey> keys = keysOf(loan.getBook(), month);
+            updates.add(() -> keys.forEach(key -> update(key, state -> state.addDuration(minutes))));
+        }
+        AfterCommit.run(() -> updates.forEach(Runnable::run));
+    }
+
+    @Override
+    public LoanSketchDTO getSketch(SketchDimension dimension, String key, YearMonth fromMonth, YearMonth toMonth,
+                                   List<Integer> percentiles) {
+        YearMonth to = toMonth != null ? toMonth : YearMonth.now();
+        YearMonth from = fromMonth != null ? fromMonth : to;
+        if (to.isBefore(from)) {
+            throw new BadRequestException("toMonth must not be before fromMonth");
+        }
+        if (from.plusMonths(MAX_MONTHS).isBefore(to.plusMonths(1))) {
+            throw new BadRequestException("A sketch query can span at most " + MAX_MONTHS + " months");
+        }
+        if (dimension != SketchDimension.ALL && (key == null || key.isBlank())) {
+            throw new BadRequestException("A key is required for the " + dimension.name().toLowerCase() + " dimension");
+        }
+        if (percentiles.isEmpty() || percentiles.stream().anyMatch(p -> p == null || p < 1 || p > 100)) {
+            throw new BadRequestException("Percentiles must be between 1 and 100");
+        }
+
+        String sketchKey = dimension == SketchDimension.ALL ? "" : key;
+        HyperLogLog patrons = new HyperLogLog();
+        DurationHistogram durations = new DurationHistogram();
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            SketchState state = find(new SketchKey(dimension, sketchKey, month));
+            if (state != null) {
+                state.mergeInto(patrons, durations);
+            }
+        }
+
+        Map<Integer, BigDecimal> loanDays = new LinkedHashMap<>();
+        for (Integer percentile : percentiles.stream().distinct().sorted().toList()) {
+            loanDays.put(percentile, durations.total() == 0 ? null : BigDecimal.valueOf(durations.valueAtPercentile(percentile))
+                    .divide(MINUTES_PER_DAY, 2, RoundingMode.HALF_UP));
+        }
+        return LoanSketchDTO.builder()
+                .dimension(dimension.name())
+                .key(dimension == SketchDimension.ALL ? null : key)
+                .fromMonth(from)
+                .toMonth(to)
+                .distinctPatrons(patrons.estimate())
+                .returnedLoans(durations.total())
+                .loanDaysPercentiles(loanDays)
+                .build();
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${library.sketches.flush-interval-ms:60000}",
+               initialDelayString = "${library.sketches.flush-interval-ms:60000}")
+    public synchronized int flush() {
+        Map<SketchKey, Snapshot> changed = new LinkedHashMap<>();
+        sketches.forEach((key, state) -> {
+            Snapshot snapshot = state.snapshotIfDirty();
+            if (snapshot != null) {
+                changed.put(key, snapshot);
+            }
+        });
+        if (changed.isEmpty()) {
+            evictOldMonths();
+            return 0;
+        }
+
+        // Each stored sketch is locked and merged with this instance's, so other instances' counts are kept.
+        // Two instances inserting the same new row make one flush fail, which then merges on its retry.
+        Map<SketchKey, LoanSketch> written = transactionTemplate.execute(status -> {
+            Map<SketchKey, LoanSketch> rows = new LinkedHashMap<>();
+            changed.forEach((key, snapshot) -> {
+                LoanSketch row = loanSketchRepository
+                        .findWithLockByDimensionAndSketchKeyAndPeriod(key.dimension(), key.key(), key.month().atDay(1))
+                        .orElse(null);
+                if (row == null) {
+                    row = new LoanSketch(key.dimension(), key.key(), key.month().atDay(1),
+                            snapshot.patrons().serialize(), snapshot.durations().serialize());
+                } else {
+                    HyperLogLog patrons = HyperLogLog.deserialize(row.getPatrons());
+                    patrons.merge(snapshot.patrons());
+                    DurationHistogram durations = DurationHistogram.deserialize(row.getDurations());
+                    durations.merge(snapshot.durations());
+                    row.setPatrons(patrons.serialize());
+                    row.setDurations(durations.serialize());
+                }
+                loanSketchRepository.save(row);
+                rows.put(key, row);
+            });
+            return rows;
+        });
+        // Only marked clean once written, so a failed flush is retried with everything it missed
+        changed.forEach((key, snapshot) -> sketches.get(key).markFlushed(snapshot, SketchState.from(written.get(key))));
+        evictOldMonths();
+
+        log.debug("Wrote {} loan sketches", changed.size());
+        return changed.size();
+    }
+
+    int cachedSketches() {
+        return sketches.size();
+    }
+
+    private void update(SketchKey key, Consumer<SketchState> change) {
+        // Changed inside the map's compute, so an eviction cannot drop the state between lookup and update
+        sketches.compute(key, (k, state) -> {
+            SketchState updated = state != null ? state : new SketchState();
+            change.accept(updated);
+            return updated;
+        });
+    }
+
+    private SketchState find(SketchKey key) {
+        SketchState state = sketches.get(key);
+        if (state != null) {
+            return state;
+        }
+        // Not cached, so a month another instance keeps writing to is never served stale
+        return loanSketchRepository.findByDimensionAndSketchKeyAndPeriod(key.dimension(), key.key(), key.month().atDay(1))
+                .map(SketchState::from)
+                .orElse(null);
+    }
+
+    /**
+     * Drops the written sketches of months before the kept ones; they are read from loan_sketches from then on
+     */
+    private void evictOldMonths() {
+        YearMonth firstKept = firstKeptMonth();
+        for (SketchKey key : List.copyOf(sketches.keySet())) {
+            if (key.month().isBefore(firstKept)) {
+                sketches.computeIfPresent(key, (k, state) -> state.isClean() ? null : state);
+            }
+        }
+    }
+
+    private YearMonth firstKeptMonth() {
+        return YearMonth.now().minusMonths(Math.max(preloadMonths, 1) - 1);
+    }
+
+    private SketchState load(LoanSketch row) {
+        SketchState loaded = SketchState.from(row);
+        // A sketch already updated in memory keeps its updates and takes in the stored ones
+        return sketches.merge(SketchKey.of(row), loaded, (existing, stored) -> existing.absorb(stored));
+    }
+
+    private static List<SketchKey> keysOf(Book book, YearMonth month) {
+        String genre = book.getGenre() == null ? DailyLoanStats.UNCATEGORIZED : book.getGenre();
+        return List.of(
+                new SketchKey(SketchDimension.ALL, "", month),
+                new SketchKey(SketchDimension.BOOK, String.valueOf(book.getId()), month),
+                new SketchKey(SketchDimension.GENRE, genre, month));
+    }
+
+    record SketchKey(SketchDimension dimension, String key, YearMonth month) {
+
+        static SketchKey of(LoanSketch row) {
+            return new SketchKey(row.getDimension(), row.getSketchKey(), YearMonth.from(row.getPeriod()));
+        }
+    }
+
+    /**
+     * What a flush merges into the stored sketch: all patrons seen, since merging them again changes nothing,
+     * but only the durations recorded since the last flush, since merging histograms adds them up
+     */
+    record Snapshot(HyperLogLog patrons, DurationHistogram durations, long changes) {
+    }
+
+    /**
+     * The two sketches of one key and month, with a change counter so a flush knows what it has written.
+     * The durations not yet written are also kept apart, so a flush adds only them to the stored histogram.
+     */
+    static final class SketchState {
+
+        private final HyperLogLog patrons;
+        private DurationHistogram durations;
+        private final DurationHistogram unflushedDurations = new DurationHistogram();
+        private long changes;
+        private long flushedChanges;
+
+        SketchState() {
+            this(new HyperLogLog(), new DurationHistogram());
+        }
+
+        private SketchState(HyperLogLog patrons, DurationHistogram durations) {
+            this.patrons = patrons;
+            this.durations = durations;
+        }
+
+        static SketchState from(LoanSketch row) {
+            return new SketchState(HyperLogLog.deserialize(row.getPatrons()),
+                    DurationHistogram.deserialize(row.getDurations()));
+        }
+
+        synchronized void addPatron(long userId) {
+            // A patron already seen usually leaves every register as it was
+            if (patrons.add(userId)) {
+                changes++;
+            }
+        }
+
+        synchronized void addDuration(long minutes) {
+            durations.record(minutes);
+            unflushedDurations.record(minutes);
+            changes++;
+        }
+
+        synchronized SketchState absorb(SketchState stored) {
+            patrons.merge(stored.patrons);
+            durations.merge(stored.durations);
+            changes++;
+            return this;
+        }
+
+        synchronized void mergeInto(HyperLogLog patronsTotal, DurationHistogram durationsTotal) {
+            patronsTotal.merge(patrons);
+            durationsTotal.merge(durations);
+        }
+
+        synchronized boolean isClean() {
+            return changes == flushedChanges;
+        }
+
+        synchronized Snapshot snapshotIfDirty() {
+            return isClean() ? null
+                    : new Snapshot(patrons.copy(), unflushedDurations.copy(), changes);
+        }
+
+        /**
+         * Takes the stored sketch as written by a flush, which includes other instances' counts, and keeps
+         * only the durations recorded after the snapshot as unwritten
+         */
+        synchronized void markFlushed(Snapshot flushed, SketchState stored) {
+            unflushedDurations.subtract(flushed.durations());
+            patrons.merge(stored.patrons);
+            durations = stored.durations;
+            durations.merge(unflushedDurations);
+            flushedChanges = Math.max(flushedChanges, flushed.changes());
+        }
+    }
+
+    /**
+     * HyperLogLog with 2^11 one-byte registers: about 2.3% standard error, 2 KB in memory and at most that
+     * serialized. Small sketches are serialized sparsely. Not thread-safe.
+     */
+    static final class HyperLogLog {
+
+        static final int PRECISION = 11;
+        static final int REGISTERS = 1 << PRECISION;
+
+        private static final byte SPARSE = 0;
+        private static final byte DENSE = 1;
+
+        private final byte[] registers = new byte[REGISTERS];
+
+        /**
+         * @return whether a register changed
+         */
+        boolean add(long value) {
+            long hash = mix(value);
+            int index = (int) (hash >>> (64 - PRECISION));
+            // Position of the first set bit after the index bits; the guard bit caps it when they are all zero
+            byte rank = (byte) (Long.numberOfLeadingZeros((hash << PRECISION) | (1L << (PRECISION - 1))) + 1);
+            if (rank > registers[index]) {
+                registers[index] = rank;
+                return true;
+            }
+            return false;
+        }
+
+        void merge(HyperLogLog other) {
+            for (int i = 0; i < REGISTERS; i++) {
+                registers[i] = (byte) Math.max(registers[i], other.registers[i]);
+            }
+        }
+
+        HyperLogLog copy() {
+            HyperLogLog copy = new HyperLogLog();
+            copy.merge(this);
+            return copy;
+        }
+
+        long estimate() {
+            double sum = 0;
+            int zeros = 0;
+            for (byte register : registers) {
+                sum += Math.scalb(1.0, -register);
+                if (register == 0) {
+                    zeros++;
+                }
+            }
+            double alpha = 0.7213 / (1 + 1.079 / REGISTERS);
+            double estimate = alpha * REGISTERS * REGISTERS / sum;
+            if (estimate <= 2.5 * REGISTERS && zeros > 0) {
+                // Linear counting is more accurate while many registers are still empty
+                estimate = REGISTERS * Math.log((double) REGISTERS / zeros);
+            }
+            return Math.round(estimate);
+        }
+
+        byte[] serialize() {
+            int used = 0;
+            for (byte register : registers) {
+                if (register != 0) {
+                    used++;
+                }
+            }
+            // A sparse entry takes at most three bytes: the index delta and the register
+            if (used * 3 + 3 >= REGISTERS) {
+                byte[] dense = new byte[REGISTERS + 1];
+                dense[0] = DENSE;
+                System.arraycopy(registers, 0, dense, 1, REGISTERS);
+                return dense;
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream(used * 2 + 3);
+            out.write(SPARSE);
+            writeVarint(out, used);
+            int previous = 0;
+            for (int i = 0; i < REGISTERS; i++) {
+                if (registers[i] != 0) {
+                    writeVarint(out, i - previous);
+                    out.write(registers[i]);
+                    previous = i;
+                }
+            }
+            return out.toByteArray();
+        }
+
+        static HyperLogLog deserialize(byte[] bytes) {
+            HyperLogLog sketch = new HyperLogLog();
+            ByteBuffer in = ByteBuffer.wrap(bytes);
+            if (in.get() == DENSE) {
+                in.get(sketch.registers);
+                return sketch;
+            }
+            int used = (int) readVarint(in);
+            int index = 0;
+            for (int i = 0; i < used; i++) {
+                index += (int) readVarint(in);
+                sketch.registers[index] = in.get();
+            }
+            return sketch;
+        }
+
+        // SplitMix64 finalizer; user IDs are sequential, so they need spreading over all 64 bits
+        static long mix(long value) {
+            long z = value + 0x9E3779B97F4A7C15L;
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            return z ^ (z >>> 31);
+        }
+    }
+
+    /**
+     * Log-linear histogram in the style of HdrHistogram: values below 128 have a bucket each, and every power
+     * of two above that is split into 64 buckets, so a bucket's midpoint is within 1% of any value in it.
+     * Counts grow with the largest value seen and are serialized as (index delta, count) varint pairs.
+     * Not thread-safe.
+     */
+    static final class DurationHistogram {
+
+        static final int SUB_BUCKET_BITS = 6;
+
+        private static final int LINEAR_LIMIT = 2 << SUB_BUCKET_BITS;
+
+        private long[] counts = new long[0];
+        private long total;
+
+        static int indexOf(long value) {
+            if (value < LINEAR_LIMIT) {
+                return (int) value;
+            }
+            int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+            return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+        }
+
+        static long lowestValueOf(int index) {
+            if (index < LINEAR_LIMIT) {
+                return index;
+            }
+            int shift = (index >> SUB_BUCKET_BITS) - 1;
+            return (long) (index - (shift << SUB_BUCKET_BITS)) << shift;
+        }
+
+        static long highestValueOf(int index) {
+            if (index < LINEAR_LIMIT) {
+                return index;
+            }
+            int shift = (index >> SUB_BUCKET_BITS) - 1;
+            return lowestValueOf(index) + (1L << shift) - 1;
+        }
+
+        void record(long value) {
+            int index = indexOf(Math.max(0, value));
+            ensureCapacity(index + 1);
+            counts[index]++;
+            total++;
+        }
+
+        void merge(DurationHistogram other) {
+            ensureCapacity(other.counts.length);
+            for (int i = 0; i < other.counts.length; i++) {
+                counts[i] += other.counts[i];
+            }
+            total += other.total;
+        }
+
+        /**
+         * Removes counts that were merged in before
+         */
+        void subtract(DurationHistogram other) {
+            ensureCapacity(other.counts.length);
+            for (int i = 0; i < other.counts.length; i++) {
+                counts[i] -= other.counts[i];
+            }
+            total -= other.total;
+        }
+
+        DurationHistogram copy() {
+            DurationHistogram copy = new DurationHistogram();
+            copy.merge(this);
+            return copy;
+        }
+
+        long total() {
+            return total;
+        }
+
+        /**
+         * Midpoint of the bucket holding the value at the given percentile (nearest rank)
+         */
+        long valueAtPercentile(double percentile) {
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return (lowestValueOf(i) + highestValueOf(i)) / 2;
+                }
+            }
+            return 0;
+        }
+
+        byte[] serialize() {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            int used = (int) Arrays.stream(counts).filter(count -> count != 0).count();
+            writeVarint(out, used);
+            int previous = 0;
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] != 0) {
+                    writeVarint(out, i - previous);
+                    writeVarint(out, counts[i]);
+                    previous = i;
+                }
+            }
+            return out.toByteArray();
+        }
+
+        static DurationHistogram deserialize(byte[] bytes) {
+            DurationHistogram histogram = new DurationHistogram();
+            ByteBuffer in = ByteBuffer.wrap(bytes);
+            int used = (int) readVarint(in);
+            int index = 0;
+            for (int i = 0; i < used; i++) {
+                index += (int) readVarint(in);
+                long count = readVarint(in);
+                histogram.ensureCapacity(index + 1);
+                histogram.counts[index] = count;
+                histogram.total += count;
+            }
+            return histogram;
+        }
+
+        private void ensureCapacity(int length) {
+            if (counts.length < length) {
+                counts = Arrays.copyOf(counts, length);
+            }
+        }
+    }
+
+    static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    static long readVarint(ByteBuffer in) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+}
@@ -0,0 +1,285 @@
+package com.barisdalyanemre.librarymanagement.service.impl;
+
+import com.barisdalyanemre.librarymanagement.dto.response.DailyLoanStatsDTO;
+import com.barisdalyanemre.librarymanagement.dto.response.LoanStatsSummaryDTO;
+import com.barisdalyanemre.librarymanagement.entity.DailyLoanStats;
+import com.barisdalyanemre.librarymanagement.entity.JobCheckpoint;
+import com.barisdalyanemre.librarymanagement.exception.BadRequestException;
+import com.barisdalyanemre.librarymanagement.repository.BorrowRecordRepository;
+import com.barisdalyanemre.librarymanagement.repository.BorrowRecordRepository.DailyLoanCount;
+import com.barisdalyanemre.librarymanagement.repository.BorrowRecordRepository.DailyReturnCount;
+import com.barisdalyanemre.librarymanagement.repository.DailyLoanStatsRepository;
+import com.barisdalyanemre.librarymanagement.repository.JobCheckpointRepository;
+import com.barisdalyanemre.librarymanagement.service.LoanStatsService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LoanStatsServiceImpl implements LoanStatsService {
+
+    static final String JOB_NAME = "loan-stats";
+
+    // A year, leap years included, so a range query reads at most this many rollup rows
+    static final int MAX_RANGE_DAYS = 366;
+
+    // Watermark of the first run, so the rollups start out with every loan still in borrow_records
+    private static final LocalDateTime FIRST_RUN_WATERMARK = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private static final BigDecimal SECONDS_PER_DAY = BigDecimal.valueOf(Duration.ofDays(1).toSeconds());
+
+    private final DailyLoanStatsRepository dailyLoanStatsRepository;
+    private final BorrowRecordRepository borrowRecordRepository;
+    private final JobCheckpointRepository jobCheckpointRepository;
+
+    @Value("${library.stats.tail-lag-ms:30000}")
+    private long tailLagMs;
+
+    @Value("${library.stats.reconcile-days:7}")
+    private int reconcileDays;
+
+    @Override
+    @Scheduled(fixedDelayString = "${library.stats.tail-interval-ms:60000}",
+               initialDelayString = "${library.stats.tail-interval-ms:60000}")
+    @Transactional
+    public long tailLoanActivity() {
+        JobCheckpoint checkpoint = jobCheckpointRepository.findByJobNameAndPartitionNo(JOB_NAME, 0)
+                .orElseGet(() -> new JobCheckpoint(JOB_NAME, 0, 1, FIRST_RUN_WATERMARK, 0, 0, true));
+
+        // The window ends tail-lag-ms in the past, so loans stamped just before its end have committed by now.
+        // A transaction slower than that is picked up by the nightly reconciliation.
+        LocalDateTime since = checkpoint.getCutoff();
+        LocalDateTime until = LocalDateTime.now().minus(Duration.ofMillis(tailLagMs));
+        if (!until.isAfter(since)) {
+            return 0;
+        }
+
+        Map<StatsKey, Counts> activity = countActivity(since, until);
+        Map<StatsKey, DailyLoanStats> rows = dailyLoanStatsRepository.findByStatDateIn(
+                        activity.keySet().stream().map(StatsKey::day).distinct().toList()).stream()
+                .collect(Collectors.toMap(StatsKey::of, Function.identity()));
+        long events = 0;
+        for (Map.Entry<StatsKey, Counts> entry : activity.entrySet()) {
+            DailyLoanStats row = rows.computeIfAbsent(entry.getKey(), StatsKey::newRow);
+            entry.getValue().addTo(row);
+            if (entry.getKey().genre().equals(DailyLoanStats.ALL_GENRES)) {
+                events += entry.getValue().events();
+            }
+        }
+        dailyLoanStatsRepository.saveAll(rows.values());
+
+        checkpoint.setCutoff(until);
+        checkpoint.setProcessedCount(checkpoint.getProcessedCount() + events);
+        jobCheckpointRepository.save(checkpoint);
+
+        log.debug("Loan stats: {} loan events up to {} added to {} rollup rows", events, until, rows.size());
+        return events;
+    }
+
+    @Override
+    @Scheduled(cron = "${library.stats.reconcile-cron:0 0 2 * * ?}")
+    @Transactional
+    public int reconcile() {
+        // The rollups hold everything up to the watermark, so that is what they are compared with
+        LocalDateTime until = jobCheckpointRepository.findByJobNameAndPartitionNo(JOB_NAME, 0)
+                .map(JobCheckpoint::getCutoff)
+                .orElse(null);
+        LocalDate firstDay = LocalDate.now().minusDays(reconcileDays);
+        if (until == null || !until.isAfter(firstDay.atStartOfDay())) {
+            return 0;
+        }
+
+        Map<StatsKey, Counts> actual = countActivity(firstDay.atStartOfDay(), until);
+        List<DailyLoanStats> corrected = new ArrayList<>();
+        for (DailyLoanStats row : dailyLoanStatsRepository.findByStatDateBetween(firstDay, until.toLocalDate())) {
+            Counts counts = actual.remove(StatsKey.of(row));
+            if (counts == null) {
+                counts = new Counts();
+            }
+            if (!counts.matches(row)) {
+                counts.copyTo(row);
+                corrected.add(row);
+            }
+        }
+        actual.forEach((key, counts) -> {
+            DailyLoanStats row = key.newRow();
+            counts.copyTo(row);
+            corrected.add(row);
+        });
+        dailyLoanStatsRepository.saveAll(corrected);
+
+        log.info("Loan stats reconciliation: {} rollup rows corrected since {}", corrected.size(), firstDay);
+        return corrected.size();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<DailyLoanStatsDTO> getDailyStats(LocalDate from, LocalDate to, String genre) {
+        validateRange(from, to);
+        String key = genreKey(genre);
+        Map<LocalDate, DailyLoanStats> rows = dailyLoanStatsRepository
+                .findByGenreAndStatDateBetweenOrderByStatDateAsc(key, from, to).stream()
+                .collect(Collectors.toMap(DailyLoanStats::getStatDate, Function.identity()));
+
+        // Days without any loan activity have no row and are reported as zeros
+        List<DailyLoanStatsDTO> days = new ArrayList<>();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            DailyLoanStats row = rows.get(day);
+            days.add(row == null
+                    ? DailyLoanStatsDTO.builder().date(day).genre(genre).build()
+                    : DailyLoanStatsDTO.builder()
+                            .date(day)
+                            .genre(genre)
+                            .borrows(row.getBorrows())
+                            .returns(row.getReturns())
+                            .fellOverdue(row.getFellOverdue())
+                            .averageLoanDays(averageLoanDays(row.getLoanSeconds(), row.getReturns()))
+                            .build());
+        }
+        return days;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public LoanStatsSummaryDTO getSummary(LocalDate from, LocalDate to, String genre) {
+        validateRange(from, to);
+        long borrows = 0;
+        long returns = 0;
+        long fellOverdue = 0;
+        long loanSeconds = 0;
+        for (DailyLoanStats row : dailyLoanStatsRepository.findByGenreAndStatDateBetweenOrderByStatDateAsc(
+                genreKey(genre), from, to)) {
+            borrows += row.getBorrows();
+            returns += row.getReturns();
+            fellOverdue += row.getFellOverdue();
+            loanSeconds += row.getLoanSeconds();
+        }
+        return LoanStatsSummaryDTO.builder()
+                .from(from)
+                .to(to)
+                .genre(genre)
+                .borrows(borrows)
+                .returns(returns)
+                .fellOverdue(fellOverdue)
+                .averageLoanDays(averageLoanDays(loanSeconds, returns))
+                .build();
+    }
+
+    /**
+     * Counts the loan activity in [from, to) per day and genre, and per day for all genres together.
+     * Overdue loans are counted on the day they fell due, once the loan was either still open or returned late.
+     */
+    private Map<StatsKey, Counts> countActivity(LocalDateTime from, LocalDateTime to) {
+        Map<StatsKey, Counts> activity = new HashMap<>();
+        for (DailyLoanCount borrows : borrowRecordRepository.countBorrowsByDay(from, to)) {
+            forDay(activity, borrows).forEach(counts -> counts.borrows += borrows.getLoans());
+        }
+        for (DailyReturnCount returns : borrowRecordRepository.countReturnsByDay(from, to)) {
+            long loanSeconds = returns.getLoanSeconds() == null ? 0 : returns.getLoanSeconds();
+            forDay(activity, returns).forEach(counts -> {
+                counts.returns += returns.getLoans();
+                counts.loanSeconds += loanSeconds;
+            });
+        }
+        List<DailyLoanCount> fellOverdue = new ArrayList<>(borrowRecordRepository.countOpenLoansFallenDueByDay(from, to));
+        fellOverdue.addAll(borrowRecordRepository.countLateReturnsFallenDueByDay(from, to));
+        for (DailyLoanCount overdue : fellOverdue) {
+            forDay(activity, overdue).forEach(counts -> counts.fellOverdue += overdue.getLoans());
+        }
+        return activity;
+    }
+
+    private static List<Counts> forDay(Map<StatsKey, Counts> activity, DailyLoanCount count) {
+        String genre = count.getGenre() == null ? DailyLoanStats.UNCATEGORIZED : count.getGenre();
+        return List.of(
+                activity.computeIfAbsent(new StatsKey(count.getDay(), genre), key -> new Counts()),
+                activity.computeIfAbsent(new StatsKey(count.getDay(), DailyLoanStats.ALL_GENRES), key -> new Counts()));
+    }
+
+    private static void validateRange(LocalDate from, LocalDate to) {
+        if (from == null || to == null) {
+            throw new BadRequestException("Both from and to dates are required");
+        }
+        if (to.isBefore(from)) {
+            throw new BadRequestException("The to date must not be before the from date");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS) {
+            throw new BadRequestException("Date range must not exceed " + MAX_RANGE_DAYS + " days");
+        }
+    }
+
+    private static String genreKey(String genre) {
+        return genre == null || genre.isBlank() ? DailyLoanStats.ALL_GENRES : genre;
+    }
+
+    private static BigDecimal averageLoanDays(long loanSeconds, long returns) {
+        if (returns == 0) {
+            return null;
+        }
+        return BigDecimal.valueOf(loanSeconds)
+                .divide(SECONDS_PER_DAY.multiply(BigDecimal.valueOf(returns)), 2, RoundingMode.HALF_UP);
+    }
+
+    record StatsKey(LocalDate day, String genre) {
+
+        static StatsKey of(DailyLoanStats row) {
+            return new StatsKey(row.getStatDate(), row.getGenre());
+        }
+
+        DailyLoanStats newRow() {
+            DailyLoanStats row = new DailyLoanStats();
+            row.setStatDate(day);
+            row.setGenre(genre);
+            return row;
+        }
+    }
+
+    static class Counts {
+        long borrows;
+        long returns;
+        long fellOverdue;
+        long loanSeconds;
+
+        long events() {
+            return borrows + returns + fellOverdue;
+        }
+
+        void addTo(DailyLoanStats row) {
+            row.setBorrows(row.getBorrows() + (int) borrows);
+            row.setReturns(row.getReturns() + (int) returns);
+            row.setFellOverdue(row.getFellOverdue() + (int) fellOverdue);
+            row.setLoanSeconds(row.getLoanSeconds() + loanSeconds);
+        }
+
+        void copyTo(DailyLoanStats row) {
+            row.setBorrows((int) borrows);
+            row.setReturns((int) returns);
+            row.setFellOverdue((int) fellOverdue);
+            row.setLoanSeconds(loanSeconds);
+        }
+
+        boolean matches(DailyLoanStats row) {
+            return row.getBorrows() == borrows && row.getReturns() == returns
+                   && row.getFellOverdue() == fellOverdue && row.getLoanSeconds() == loanSeconds;
+        }
+    }
+}
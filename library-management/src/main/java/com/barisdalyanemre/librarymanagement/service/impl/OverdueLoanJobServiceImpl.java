@@ -0,0 +1,127 @@
+package com.barisdalyanemre.librarymanagement.service.impl;
+
+import com.barisdalyanemre.librarymanagement.entity.BorrowRecord;
+import com.barisdalyanemre.librarymanagement.entity.JobCheckpoint;
+import com.barisdalyanemre.librarymanagement.repository.BorrowRecordRepository;
+import com.barisdalyanemre.librarymanagement.repository.JobCheckpointRepository;
+import com.barisdalyanemre.librarymanagement.service.OverdueLoanJobService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OverdueLoanJobServiceImpl implements OverdueLoanJobService {
+
+    static final String JOB_NAME = "overdue-loans";
+
+    private final BorrowRecordRepository borrowRecordRepository;
+    private final JobCheckpointRepository jobCheckpointRepository;
+
+    @Value("${library.overdue-job.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${library.overdue-job.partitions:1}")
+    private int partitions;
+
+    @Override
+    public long processOverdueLoans() {
+        LocalDateTime now = LocalDateTime.now();
+        int partitionCount = Math.max(partitions, 1);
+        if (partitionCount == 1) {
+            return processPartition(0, 1, now);
+        }
+
+        // Partitions split the loans by ID, so they never touch the same rows or checkpoint
+        ExecutorService executor = Executors.newFixedThreadPool(partitionCount);
+        try {
+            List<Future<Long>> futures = new ArrayList<>();
+            for (int partition = 0; partition < partitionCount; partition++) {
+                int current = partition;
+                futures.add(executor.submit(() -> processPartition(current, partitionCount, now)));
+            }
+
+            long processed = 0;
+            for (int partition = 0; partition < partitionCount; partition++) {
+                try {
+                    processed += futures.get(partition).get();
+                } catch (ExecutionException e) {
+                    log.error("Overdue loan partition {} failed; it will resume from its checkpoint on the next run",
+                            partition, e.getCause());
+                }
+            }
+            return processed;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Overdue loan processing was interrupted", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    long processPartition(int partition, int partitionCount, LocalDateTime now) {
+        JobCheckpoint checkpoint = startOrResume(partition, partitionCount, now);
+        long processed = 0;
+
+        // Keyset pagination: each chunk starts after the last ID of the previous one, and only one chunk is in memory
+        List<BorrowRecord> chunk;
+        do {
+            chunk = borrowRecordRepository.findOverdueChunk(checkpoint.getCutoff(), checkpoint.getLastProcessedId(),
+                    partitionCount, partition, chunkSize);
+            for (BorrowRecord record : chunk) {
+                processOverdueLoan(record);
+            }
+
+            if (!chunk.isEmpty()) {
+                checkpoint.setLastProcessedId(chunk.get(chunk.size() - 1).getId());
+                checkpoint.setProcessedCount(checkpoint.getProcessedCount() + chunk.size());
+                processed += chunk.size();
+            }
+            checkpoint.setCompleted(chunk.size() < chunkSize);
+            checkpoint = jobCheckpointRepository.save(checkpoint);
+        } while (!checkpoint.isCompleted());
+
+        log.info("Overdue loan partition {}/{} done: {} loans overdue at {}", partition + 1, partitionCount,
+                checkpoint.getProcessedCount(), checkpoint.getCutoff());
+        return processed;
+    }
+
+    private JobCheckpoint startOrResume(int partition, int partitionCount, LocalDateTime now) {
+        JobCheckpoint checkpoint = jobCheckpointRepository.findByJobNameAndPartitionNo(JOB_NAME, partition)
+                .orElseGet(JobCheckpoint::new);
+
+        if (checkpoint.getId() != null && !checkpoint.isCompleted() && checkpoint.getPartitionCount() == partitionCount) {
+            log.info("Resuming overdue loan partition {}/{} after loan {}", partition + 1, partitionCount,
+                    checkpoint.getLastProcessedId());
+            return checkpoint;
+        }
+
+        checkpoint.setJobName(JOB_NAME);
+        checkpoint.setPartitionNo(partition);
+        checkpoint.setPartitionCount(partitionCount);
+        checkpoint.setCutoff(now);
+        checkpoint.setLastProcessedId(0);
+        checkpoint.setProcessedCount(0);
+        checkpoint.setCompleted(false);
+        return checkpoint;
+    }
+
+    private void processOverdueLoan(BorrowRecord record) {
+        log.debug("Overdue book: '{}' borrowed by {} {}, due date was {}",
+                record.getBook().getTitle(),
+                record.getUser().getFirstName(),
+                record.getUser().getLastName(),
+                record.getDueDate());
+    }
+}
@@ -0,0 +1,163 @@
+package com.barisdalyanemre.librarymanagement.service.impl;
+
+import com.barisdalyanemre.librarymanagement.dto.response.OverdueLoanRowDTO;
+import com.barisdalyanemre.librarymanagement.dto.response.OverdueReportSummaryDTO;
+import com.barisdalyanemre.librarymanagement.enums.ReportFormat;
+import com.barisdalyanemre.librarymanagement.repository.BorrowRecordRepository;
+import com.barisdalyanemre.librarymanagement.service.OverdueReportService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OverdueReportServiceImpl implements OverdueReportService {
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    private static final DateTimeFormatter GENERATED_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final String CSV_HEADER =
+            "book_title,isbn,author,patron_name,patron_email,borrow_date,due_date,days_overdue";
+
+    private final BorrowRecordRepository borrowRecordRepository;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public void writeOverdueReport(ReportFormat format, Writer writer) throws IOException {
+        LocalDateTime now = LocalDateTime.now();
+
+        // Totals and age buckets come from one aggregate query, so the rows below are only read once. The
+        // transaction is repeatable read, so the totals and the streamed rows see the same overdue loans.
+        OverdueReportSummaryDTO summary = borrowRecordRepository.summarizeOverdue(
+                now, now.minusDays(7), now.minusDays(14), now.minusDays(30));
+
+        try (Stream<OverdueLoanRowDTO> rows = summary.getTotalOverdue() > 0
+                ? borrowRecordRepository.streamOverdueReportRows(now)
+                : Stream.empty()) {
+            switch (format) {
+                case CSV -> writeCsv(rows.iterator(), now, writer);
+                case JSON -> writeJson(summary, rows.iterator(), now, writer);
+                default -> writeText(summary, rows.iterator(), now, writer);
+            }
+        }
+        writer.flush();
+        log.info("Overdue report written as {} with {} overdue books", format, summary.getTotalOverdue());
+    }
+
+    private void writeText(OverdueReportSummaryDTO summary, Iterator<OverdueLoanRowDTO> rows, LocalDateTime now,
+                           Writer writer) throws IOException {
+        writer.write("LIBRARY OVERDUE BOOKS REPORT\n");
+        writer.write("--------------------------\n");
+
+        if (summary.getTotalOverdue() == 0) {
+            writer.write("No overdue books found\n\n");
+            writer.write("Generated: " + now.format(GENERATED_FORMATTER));
+            return;
+        }
+
+        writer.write("Total Overdue Books: " + summary.getTotalOverdue() + "\n");
+        writer.write("Unique Patrons with Overdue Books: " + summary.getUniquePatrons() + "\n");
+        writer.write("\n");
+        writer.write("OVERDUE BREAKDOWN:\n");
+        writer.write("< 7 days overdue: " + summary.getLessThan7Days() + "\n");
+        writer.write("7-14 days overdue: " + summary.getBetween7And14Days() + "\n");
+        writer.write("14-30 days overdue: " + summary.getBetween14And30Days() + "\n");
+        writer.write("> 30 days overdue: " + summary.getMoreThan30Days() + "\n");
+        writer.write("\n");
+
+        writer.write("DETAILED OVERDUE RECORDS:\n");
+        writer.write("-----------------------\n");
+
+        int recordCount = 1;
+        while (rows.hasNext()) {
+            OverdueLoanRowDTO row = rows.next();
+            writer.write(recordCount++ + ". ");
+            writer.write("Book: \"" + row.getBookTitle() + "\" (ISBN: " + row.getIsbn() + ")\n");
+            writer.write("   Author: " + row.getAuthor() + "\n");
+            writer.write("   Patron: " + row.getPatronFirstName() + " " + row.getPatronLastName());
+            writer.write(" (" + row.getPatronEmail() + ")\n");
+            writer.write("   Borrowed: " + row.getBorrowDate().format(DATE_FORMATTER) + "\n");
+            writer.write("   Due: " + row.getDueDate().format(DATE_FORMATTER) + "\n");
+            writer.write("   Days Overdue: " + daysOverdue(row, now) + "\n");
+            writer.write("\n");
+        }
+
+        writer.write("\nGenerated: " + now.format(GENERATED_FORMATTER));
+    }
+
+    private void writeCsv(Iterator<OverdueLoanRowDTO> rows, LocalDateTime now, Writer writer) throws IOException {
+        writer.write(CSV_HEADER);
+        writer.write("\r\n");
+        while (rows.hasNext()) {
+            OverdueLoanRowDTO row = rows.next();
+            writer.write(csv(row.getBookTitle()) + ',' + csv(row.getIsbn()) + ',' + csv(row.getAuthor()) + ','
+                    + csv(row.getPatronFirstName() + " " + row.getPatronLastName()) + ',' + csv(row.getPatronEmail()) + ','
+                    + row.getBorrowDate().format(DATE_FORMATTER) + ',' + row.getDueDate().format(DATE_FORMATTER) + ','
+                    + daysOverdue(row, now));
+            writer.write("\r\n");
+        }
+    }
+
+    private void writeJson(OverdueReportSummaryDTO summary, Iterator<OverdueLoanRowDTO> rows, LocalDateTime now,
+                           Writer writer) throws IOException {
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(writer)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+            json.writeStartObject();
+            json.writeStringField("generatedAt", now.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+            json.writeObjectFieldStart("summary");
+            json.writeNumberField("totalOverdue", summary.getTotalOverdue());
+            json.writeNumberField("uniquePatrons", summary.getUniquePatrons());
+            json.writeNumberField("lessThan7Days", summary.getLessThan7Days());
+            json.writeNumberField("between7And14Days", summary.getBetween7And14Days());
+            json.writeNumberField("between14And30Days", summary.getBetween14And30Days());
+            json.writeNumberField("moreThan30Days", summary.getMoreThan30Days());
+            json.writeEndObject();
+
+            json.writeArrayFieldStart("records");
+            while (rows.hasNext()) {
+                OverdueLoanRowDTO row = rows.next();
+                json.writeStartObject();
+                json.writeStringField("bookTitle", row.getBookTitle());
+                json.writeStringField("isbn", row.getIsbn());
+                json.writeStringField("author", row.getAuthor());
+                json.writeStringField("patronName", row.getPatronFirstName() + " " + row.getPatronLastName());
+                json.writeStringField("patronEmail", row.getPatronEmail());
+                json.writeStringField("borrowDate", row.getBorrowDate().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+                json.writeStringField("dueDate", row.getDueDate().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+                json.writeNumberField("daysOverdue", daysOverdue(row, now));
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        }
+    }
+
+    private static long daysOverdue(OverdueLoanRowDTO row, LocalDateTime now) {
+        return ChronoUnit.DAYS.between(row.getDueDate(), now);
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+        return value;
+    }
+}
@@ -0,0 +1,90 @@
+package com.barisdalyanemre.librarymanagement.service.impl;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * An in-memory structure that is kept current by incremental changes and periodically replaced by a copy
+ * rebuilt from the database. Changes applied while a rebuild is loading are replayed on top of the new copy,
+ * otherwise a change committed after the load's query would be dropped by the swap. The structure itself need
+ * not be thread-safe: changes hold the write lock and queries the read lock.
+ */
+final class ReplayingSnapshot<T> {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private T current;
+    private volatile Queue<Consumer<T>> changesDuringReseed;
+
+    ReplayingSnapshot(T initial) {
+        this.current = initial;
+    }
+
+    /**
+     * Applies a change now and, if a rebuild is loading, again once its copy is swapped in. The loaded copy
+     * may already contain the change, so changes must be idempotent.
+     */
+    void apply(Consumer<T> change) {
+        lock.writeLock().lock();
+        try {
+            change.accept(current);
+            Queue<Consumer<T>> pending = changesDuringReseed;
+            if (pending != null) {
+                pending.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Runs a mutating operation under the write lock without recording it for replay, for operations
+     * that only concern the current copy (such as draining expired entries)
+     */
+    <R> R update(Function<T, R> operation) {
+        lock.writeLock().lock();
+        try {
+            return operation.apply(current);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    <R> R read(Function<T, R> query) {
+        lock.readLock().lock();
+        try {
+            return query.apply(current);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Loads a new copy without holding the lock, then swaps it in and replays the changes applied meanwhile
+     */
+    synchronized void reseed(Supplier<T> loader) {
+        Queue<Consumer<T>> pending = new ConcurrentLinkedQueue<>();
+        changesDuringReseed = pending;
+        try {
+            T seeded = loader.get();
+
+            lock.writeLock().lock();
+            try {
+                current = seeded;
+                changesDuringReseed = null;
+                Consumer<T> change;
+                while ((change = pending.poll()) != null) {
+                    change.accept(current);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            changesDuringReseed = null;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.barisdalyanemre.librarymanagement.service.impl;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Dates as primitive longs for the in-memory indexes and the loan archive. The local date-times are read
+ * as UTC; only ordering and differences matter, so the zone is irrelevant.
+ */
+final class TimeKeys {
+
+    private TimeKeys() {
+    }
+
+    // Microseconds since the epoch, the precision of the database timestamps
+    static long toMicros(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + dateTime.getNano() / 1_000;
+    }
+
+    static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+
+    static long toSeconds(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    static long toMinutes(LocalDateTime dateTime) {
+        return Math.floorDiv(toSeconds(dateTime), 60);
+    }
+}
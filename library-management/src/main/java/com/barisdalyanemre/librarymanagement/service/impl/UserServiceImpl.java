@@ -9,6 +9,7 @@ import com.barisdalyanemre.librarymanagement.exception.ForbiddenException;
 import com.barisdalyanemre.librarymanagement.exception.ResourceNotFoundException;
 import com.barisdalyanemre.librarymanagement.mapper.UserMapper;
 import com.barisdalyanemre.librarymanagement.repository.UserRepository;
+import com.barisdalyanemre.librarymanagement.service.DashboardService;
 import com.barisdalyanemre.librarymanagement.service.UserService;
 
 import lombok.RequiredArgsConstructor;
@@ -28,8 +29,10 @@ public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
     private final UserMapper userMapper;
+    private final DashboardService dashboardService;
 
     @Override
+    @Transactional(readOnly = true)
     public UserDTO getUserById(Long id) {
         User user = findUserById(id);
         validateUserAccess(user);
@@ -37,6 +40,7 @@ public class UserServiceImpl implements UserService {
     }
     
     @Override
+    @Transactional(readOnly = true)
     public List<UserDTO> getAllUsers() {
         return userRepository.findAll().stream()
                 .map(userMapper::toDTO)
@@ -73,6 +77,7 @@ public class UserServiceImpl implements UserService {
         }
         
         userRepository.delete(user);
+        dashboardService.recordPatronRemoved();
         log.info("User with ID: {} has been deleted", id);
     }
 
@@ -0,0 +1,16 @@
+-- Monthly sketches per book, genre and the whole library: a HyperLogLog of the patrons who borrowed and a
+-- log-linear histogram of how long returned loans lasted, both in compact binary form
+CREATE TABLE loan_sketches (
+    id BIGSERIAL PRIMARY KEY,
+    dimension VARCHAR(10) NOT NULL,
+    sketch_key VARCHAR(100) NOT NULL,
+    period DATE NOT NULL,
+    patrons BYTEA NOT NULL,
+    durations BYTEA NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    version BIGINT NOT NULL DEFAULT 0,
+    CONSTRAINT uk_loan_sketches_dimension_key_period UNIQUE (dimension, sketch_key, period)
+);
+
+CREATE INDEX idx_loan_sketches_period ON loan_sketches (period);
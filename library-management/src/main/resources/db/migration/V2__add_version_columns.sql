@@ -0,0 +1,4 @@
+-- Optimistic locking version counters
+ALTER TABLE users ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE books ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE borrow_records ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,16 @@
+-- Create BookHolds table: per-book FIFO queue of patrons waiting for a copy
+CREATE TABLE book_holds (
+    id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT NOT NULL REFERENCES users(id),
+    book_id BIGINT NOT NULL REFERENCES books(id),
+    status VARCHAR(20) NOT NULL,
+    ready_at TIMESTAMP,
+    expires_at TIMESTAMP,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    version BIGINT NOT NULL DEFAULT 0
+);
+
+-- Queue head lookup and position counting per book
+CREATE INDEX idx_book_holds_book_status_id ON book_holds (book_id, status, id);
+CREATE INDEX idx_book_holds_user_status ON book_holds (user_id, status);
@@ -0,0 +1,8 @@
+-- Per-user loan counters so borrow eligibility is a single-row read
+ALTER TABLE users ADD COLUMN active_loan_count INT NOT NULL DEFAULT 0;
+ALTER TABLE users ADD COLUMN earliest_due_date TIMESTAMP;
+
+-- Backfill from the loans that are currently open
+UPDATE users SET
+    active_loan_count = (SELECT COUNT(*) FROM borrow_records br WHERE br.user_id = users.id AND br.return_date IS NULL),
+    earliest_due_date = (SELECT MIN(br.due_date) FROM borrow_records br WHERE br.user_id = users.id AND br.return_date IS NULL);
@@ -0,0 +1,15 @@
+-- Progress of long-running batch jobs, one row per job partition, so an interrupted run can resume
+CREATE TABLE job_checkpoints (
+    id BIGSERIAL PRIMARY KEY,
+    job_name VARCHAR(100) NOT NULL,
+    partition_no INT NOT NULL,
+    partition_count INT NOT NULL,
+    cutoff TIMESTAMP NOT NULL,
+    last_processed_id BIGINT NOT NULL DEFAULT 0,
+    processed_count BIGINT NOT NULL DEFAULT 0,
+    completed BOOLEAN NOT NULL DEFAULT FALSE,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    version BIGINT NOT NULL DEFAULT 0,
+    CONSTRAINT uk_job_checkpoints_job_partition UNIQUE (job_name, partition_no)
+);
@@ -0,0 +1,34 @@
+-- Fine accrual state per overdue loan; a fine is only revisited once its next accrual moment has passed
+CREATE TABLE loan_fines (
+    id BIGSERIAL PRIMARY KEY,
+    borrow_record_id BIGINT NOT NULL REFERENCES borrow_records(id),
+    user_id BIGINT NOT NULL REFERENCES users(id),
+    due_date TIMESTAMP NOT NULL,
+    accrued_days INT NOT NULL DEFAULT 0,
+    amount DECIMAL(10, 2) NOT NULL DEFAULT 0,
+    next_accrual_at TIMESTAMP,
+    finalized BOOLEAN NOT NULL DEFAULT FALSE,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    version BIGINT NOT NULL DEFAULT 0,
+    CONSTRAINT uk_loan_fines_borrow_record UNIQUE (borrow_record_id)
+);
+
+CREATE INDEX idx_loan_fines_next_accrual ON loan_fines (next_accrual_at);
+
+-- Append-only record of every change to a patron's fine balance
+CREATE TABLE fine_ledger_entries (
+    id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT NOT NULL REFERENCES users(id),
+    loan_fine_id BIGINT REFERENCES loan_fines(id),
+    entry_type VARCHAR(20) NOT NULL,
+    amount DECIMAL(10, 2) NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    version BIGINT NOT NULL DEFAULT 0
+);
+
+CREATE INDEX idx_fine_ledger_entries_user ON fine_ledger_entries (user_id, id);
+
+-- Running balance of the ledger, so reading a patron's balance is a single-row read
+ALTER TABLE users ADD COLUMN fine_balance DECIMAL(10, 2) NOT NULL DEFAULT 0;
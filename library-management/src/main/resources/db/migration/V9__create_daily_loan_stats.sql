@@ -0,0 +1,18 @@
+-- Daily loan statistics per genre, plus one row per day with genre '' for all genres together.
+-- Each range query reads at most one row per day; average loan duration is loan_seconds / returns.
+CREATE TABLE daily_loan_stats (
+    id BIGSERIAL PRIMARY KEY,
+    stat_date DATE NOT NULL,
+    genre VARCHAR(100) NOT NULL,
+    borrows INT NOT NULL DEFAULT 0,
+    returns INT NOT NULL DEFAULT 0,
+    fell_overdue INT NOT NULL DEFAULT 0,
+    loan_seconds BIGINT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    version BIGINT NOT NULL DEFAULT 0,
+    CONSTRAINT uk_daily_loan_stats_genre_date UNIQUE (genre, stat_date)
+);
+
+-- The stats job tails borrow_records by borrow and return time
+CREATE INDEX idx_borrow_records_borrow_date ON borrow_records (borrow_date);
@@ -1,9 +1,13 @@
 package com.barisdalyanemre.librarymanagement.controller;
 
+import com.barisdalyanemre.librarymanagement.dto.request.BorrowRecordSearchRequest;
 import com.barisdalyanemre.librarymanagement.dto.response.BorrowRecordDTO;
+import com.barisdalyanemre.librarymanagement.dto.response.CursorPageDTO;
 import com.barisdalyanemre.librarymanagement.entity.Book;
 import com.barisdalyanemre.librarymanagement.entity.BorrowRecord;
 import com.barisdalyanemre.librarymanagement.entity.User;
+import com.barisdalyanemre.librarymanagement.enums.LoanStatus;
+import com.barisdalyanemre.librarymanagement.enums.ReportFormat;
 import com.barisdalyanemre.librarymanagement.enums.Role;
 import com.barisdalyanemre.librarymanagement.repository.BookRepository;
 import com.barisdalyanemre.librarymanagement.repository.BorrowRecordRepository;
@@ -11,6 +15,7 @@ import com.barisdalyanemre.librarymanagement.repository.UserRepository;
 import com.barisdalyanemre.librarymanagement.security.JwtAuthenticationFilter;
 import com.barisdalyanemre.librarymanagement.security.JwtUtils;
 import com.barisdalyanemre.librarymanagement.service.BorrowService;
+import com.barisdalyanemre.librarymanagement.service.OverdueReportService;
 import com.barisdalyanemre.librarymanagement.service.UserService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -24,14 +29,21 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.Writer;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -49,6 +61,9 @@ class BorrowControllerIntegrationTest {
 
     @MockBean
     private BorrowService borrowService;
+
+    @MockBean
+    private OverdueReportService overdueReportService;
     
     @MockBean
     private UserService userService;
@@ -178,13 +193,17 @@ class BorrowControllerIntegrationTest {
         record1.setReturnDate(LocalDateTime.now().minusDays(8));
         borrowHistory.add(record1);
         
-        when(borrowService.getCurrentUserBorrowHistory()).thenReturn(borrowHistory);
+        when(borrowService.getCurrentUserBorrowHistory(null, 20)).thenReturn(CursorPageDTO.<BorrowRecordDTO>builder()
+                .items(borrowHistory)
+                .size(1)
+                .build());
         
         mockMvc.perform(get("/api/v1/borrow/history")
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].bookId").value(testBook.getId()))
-                .andExpect(jsonPath("$[0].userId").value(testUser.getId()));
+                .andExpect(jsonPath("$.items[0].bookId").value(testBook.getId()))
+                .andExpect(jsonPath("$.items[0].userId").value(testUser.getId()))
+                .andExpect(jsonPath("$.hasMore").value(false));
     }
 
     @Test
@@ -198,13 +217,21 @@ class BorrowControllerIntegrationTest {
         record1.setDueDate(LocalDateTime.now().plusDays(7));
         activeLoans.add(record1);
         
-        when(borrowService.getCurrentUserActiveLoans()).thenReturn(activeLoans);
+        when(borrowService.getCurrentUserActiveLoans(7L, 5)).thenReturn(CursorPageDTO.<BorrowRecordDTO>builder()
+                .items(activeLoans)
+                .size(1)
+                .nextCursor(1L)
+                .hasMore(true)
+                .build());
         
         mockMvc.perform(get("/api/v1/borrow/active")
+                .param("cursor", "7")
+                .param("size", "5")
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].bookId").value(testBook.getId()))
-                .andExpect(jsonPath("$[0].userId").value(testUser.getId()));
+                .andExpect(jsonPath("$.items[0].bookId").value(testBook.getId()))
+                .andExpect(jsonPath("$.items[0].userId").value(testUser.getId()))
+                .andExpect(jsonPath("$.nextCursor").value(1));
     }
 
     @Test
@@ -218,14 +245,55 @@ class BorrowControllerIntegrationTest {
         record1.setBorrowDate(LocalDateTime.now().minusDays(7));
         record1.setDueDate(LocalDateTime.now().plusDays(7));
         allRecords.add(record1);
+        CursorPageDTO<BorrowRecordDTO> page = CursorPageDTO.<BorrowRecordDTO>builder()
+                .items(allRecords)
+                .size(1)
+                .nextCursor(1L)
+                .hasMore(true)
+                .build();
         
-        when(borrowService.getAllBorrowRecords()).thenReturn(allRecords);
+        when(borrowService.searchBorrowRecords(any(BorrowRecordSearchRequest.class), eq(10L), eq(1))).thenReturn(page);
         
         mockMvc.perform(get("/api/v1/borrow/history/all")
+                .param("cursor", "10")
+                .param("size", "1")
+                .param("status", "active")
+                .param("borrowedFrom", "2024-01-01")
                 .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].bookId").value(testBook.getId()))
-                .andExpect(jsonPath("$[0].userId").value(testUser.getId()));
+                .andExpect(jsonPath("$.items[0].bookId").value(testBook.getId()))
+                .andExpect(jsonPath("$.items[0].userId").value(testUser.getId()))
+                .andExpect(jsonPath("$.nextCursor").value(1))
+                .andExpect(jsonPath("$.hasMore").value(true));
+        verify(borrowService).searchBorrowRecords(argThat(filter -> filter.getStatus() == LoanStatus.ACTIVE
+                && LocalDate.of(2024, 1, 1).equals(filter.getBorrowedFrom())), eq(10L), eq(1));
+    }
+
+    @Test
+    @WithMockUser(roles = "LIBRARIAN")
+    void getAllBorrowRecords_UnsupportedStatus() throws Exception {
+        mockMvc.perform(get("/api/v1/borrow/history/all").param("status", "lost"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(roles = "LIBRARIAN")
+    void streamAllBorrowRecords_Ndjson() throws Exception {
+        doAnswer(invocation -> {
+            Writer writer = invocation.getArgument(1);
+            writer.write("{\"id\":1}\n{\"id\":2}\n");
+            writer.flush();
+            return null;
+        }).when(borrowService).writeBorrowRecords(any(BorrowRecordSearchRequest.class), any(Writer.class));
+
+        MvcResult result = mockMvc.perform(get("/api/v1/borrow/history/all/stream").param("userId", "1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"id\":1}\n{\"id\":2}\n"));
     }
 
     @Test
@@ -245,11 +313,47 @@ class BorrowControllerIntegrationTest {
     @Test
     @WithMockUser(roles = "LIBRARIAN")
     void getOverdueReport_Success() throws Exception {
-        when(borrowService.generateOverdueReportText()).thenReturn("Overdue Report Content");
+        doAnswer(invocation -> {
+            Writer writer = invocation.getArgument(1);
+            writer.write("Overdue Report Content");
+            writer.flush();
+            return null;
+        }).when(overdueReportService).writeOverdueReport(eq(ReportFormat.TEXT), any(Writer.class));
         
-        mockMvc.perform(get("/api/v1/borrow/overdue/report")
-                .contentType(MediaType.APPLICATION_JSON))
+        MvcResult result = mockMvc.perform(get("/api/v1/borrow/overdue/report"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
                 .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_PLAIN))
                 .andExpect(content().string("Overdue Report Content"));
     }
+
+    @Test
+    @WithMockUser(roles = "LIBRARIAN")
+    void getOverdueReport_Json() throws Exception {
+        doAnswer(invocation -> {
+            Writer writer = invocation.getArgument(1);
+            writer.write("{\"summary\":{\"totalOverdue\":0},\"records\":[]}");
+            writer.flush();
+            return null;
+        }).when(overdueReportService).writeOverdueReport(eq(ReportFormat.JSON), any(Writer.class));
+
+        MvcResult result = mockMvc.perform(get("/api/v1/borrow/overdue/report").param("format", "json"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.summary.totalOverdue").value(0));
+    }
+
+    @Test
+    @WithMockUser(roles = "LIBRARIAN")
+    void getOverdueReport_UnsupportedFormat() throws Exception {
+        mockMvc.perform(get("/api/v1/borrow/overdue/report").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+    }
 }
@@ -1,7 +1,17 @@
 package com.barisdalyanemre.librarymanagement.controller;
 
+import com.barisdalyanemre.librarymanagement.dto.request.BatchBorrowRequest;
+import com.barisdalyanemre.librarymanagement.dto.request.BatchReturnRequest;
+import com.barisdalyanemre.librarymanagement.dto.request.BorrowRecordSearchRequest;
+import com.barisdalyanemre.librarymanagement.dto.response.BatchResultDTO;
 import com.barisdalyanemre.librarymanagement.dto.response.BorrowRecordDTO;
+import com.barisdalyanemre.librarymanagement.dto.response.CursorPageDTO;
+import com.barisdalyanemre.librarymanagement.enums.BatchMode;
+import com.barisdalyanemre.librarymanagement.enums.LoanStatus;
+import com.barisdalyanemre.librarymanagement.enums.ReportFormat;
+import com.barisdalyanemre.librarymanagement.exception.BadRequestException;
 import com.barisdalyanemre.librarymanagement.service.BorrowService;
+import com.barisdalyanemre.librarymanagement.service.OverdueReportService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -12,15 +22,27 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.ByteArrayOutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -29,6 +51,9 @@ class BorrowControllerTest {
     @Mock
     private BorrowService borrowService;
 
+    @Mock
+    private OverdueReportService overdueReportService;
+
     @InjectMocks
     private BorrowController borrowController;
 
@@ -64,6 +89,39 @@ class BorrowControllerTest {
         verify(borrowService).borrowBook(1L);
     }
 
+    @Test
+    void borrowBooks_CreatedWhenAnyBookBorrowed() {
+        BatchBorrowRequest request = BatchBorrowRequest.builder().bookIds(List.of(1L, 2L)).mode(BatchMode.BEST_EFFORT).build();
+        when(borrowService.borrowBooks(request)).thenReturn(BatchResultDTO.builder().requested(2).succeeded(1).failed(1).build());
+
+        ResponseEntity<BatchResultDTO> response = borrowController.borrowBooks(request);
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals(1, response.getBody().getSucceeded());
+    }
+
+    @Test
+    void borrowBooks_ConflictWhenNothingBorrowed() {
+        BatchBorrowRequest request = BatchBorrowRequest.builder().bookIds(List.of(1L, 2L)).build();
+        when(borrowService.borrowBooks(request)).thenReturn(BatchResultDTO.builder().requested(2).succeeded(0).failed(2).build());
+
+        ResponseEntity<BatchResultDTO> response = borrowController.borrowBooks(request);
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertEquals(2, response.getBody().getFailed());
+    }
+
+    @Test
+    void returnBooks_Success() {
+        BatchReturnRequest request = BatchReturnRequest.builder().bookIds(List.of(1L, 2L)).build();
+        when(borrowService.returnBooks(request)).thenReturn(BatchResultDTO.builder().requested(2).succeeded(2).build());
+
+        ResponseEntity<BatchResultDTO> response = borrowController.returnBooks(request);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(2, response.getBody().getSucceeded());
+    }
+
     @Test
     void returnBook_Success() {
         when(borrowService.returnBook(anyLong())).thenReturn(testBorrowRecordDTO);
@@ -78,38 +136,51 @@ class BorrowControllerTest {
 
     @Test
     void getUserBorrowHistory_Success() {
-        when(borrowService.getCurrentUserBorrowHistory()).thenReturn(testBorrowRecordDTOList);
+        when(borrowService.getCurrentUserBorrowHistory(null, 20)).thenReturn(CursorPageDTO.<BorrowRecordDTO>builder()
+                .items(testBorrowRecordDTOList)
+                .size(1)
+                .build());
 
-        ResponseEntity<List<BorrowRecordDTO>> response = borrowController.getUserBorrowHistory();
+        ResponseEntity<CursorPageDTO<BorrowRecordDTO>> response = borrowController.getUserBorrowHistory(null, 20);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
-        assertEquals(1, response.getBody().size());
-        verify(borrowService).getCurrentUserBorrowHistory();
+        assertEquals(1, response.getBody().getItems().size());
+        verify(borrowService).getCurrentUserBorrowHistory(null, 20);
     }
 
     @Test
     void getUserActiveLoans_Success() {
-        when(borrowService.getCurrentUserActiveLoans()).thenReturn(testBorrowRecordDTOList);
+        when(borrowService.getCurrentUserActiveLoans(null, 20)).thenReturn(CursorPageDTO.<BorrowRecordDTO>builder()
+                .items(testBorrowRecordDTOList)
+                .size(1)
+                .build());
 
-        ResponseEntity<List<BorrowRecordDTO>> response = borrowController.getUserActiveLoans();
+        ResponseEntity<CursorPageDTO<BorrowRecordDTO>> response = borrowController.getUserActiveLoans(null, 20);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
-        assertEquals(1, response.getBody().size());
-        verify(borrowService).getCurrentUserActiveLoans();
+        assertEquals(1, response.getBody().getItems().size());
+        verify(borrowService).getCurrentUserActiveLoans(null, 20);
     }
 
     @Test
     void getAllBorrowRecords_Success() {
-        when(borrowService.getAllBorrowRecords()).thenReturn(testBorrowRecordDTOList);
+        CursorPageDTO<BorrowRecordDTO> page = CursorPageDTO.<BorrowRecordDTO>builder()
+                .items(testBorrowRecordDTOList)
+                .size(1)
+                .hasMore(false)
+                .build();
+        when(borrowService.searchBorrowRecords(any(BorrowRecordSearchRequest.class), isNull(), eq(20))).thenReturn(page);
 
-        ResponseEntity<List<BorrowRecordDTO>> response = borrowController.getAllBorrowRecords();
+        ResponseEntity<CursorPageDTO<BorrowRecordDTO>> response =
+                borrowController.getAllBorrowRecords(1L, null, "overdue", null, null, null, 20);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
-        assertEquals(1, response.getBody().size());
-        verify(borrowService).getAllBorrowRecords();
+        assertEquals(1, response.getBody().getItems().size());
+        verify(borrowService).searchBorrowRecords(argThat(filter -> filter.getUserId() == 1L
+                && filter.getStatus() == LoanStatus.OVERDUE), isNull(), eq(20));
     }
 
     @Test
@@ -125,19 +196,49 @@ class BorrowControllerTest {
     }
 
     @Test
-    void getOverdueReport_Success() {
-        String reportText = "Test Report";
-        when(borrowService.generateOverdueReportText()).thenReturn(reportText);
+    void getLoansDueSoon_Success() {
+        when(borrowService.getLoansDueWithin(48)).thenReturn(testBorrowRecordDTOList);
+
+        ResponseEntity<List<BorrowRecordDTO>> response = borrowController.getLoansDueSoon(48);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(1, response.getBody().size());
+        verify(borrowService).getLoansDueWithin(48);
+    }
+
+    @Test
+    void getOverdueReport_Success() throws Exception {
+        doAnswer(invocation -> {
+            Writer writer = invocation.getArgument(1);
+            writer.write("Test Report");
+            writer.flush();
+            return null;
+        }).when(overdueReportService).writeOverdueReport(eq(ReportFormat.TEXT), any(Writer.class));
 
-        ResponseEntity<String> response = borrowController.getOverdueReport();
+        ResponseEntity<StreamingResponseBody> response = borrowController.getOverdueReport("text");
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
-        assertEquals(reportText, response.getBody());
-        
+
         HttpHeaders headers = response.getHeaders();
-        assertEquals(MediaType.TEXT_PLAIN, headers.getContentType());
-        
-        verify(borrowService).generateOverdueReportText();
+        assertTrue(MediaType.TEXT_PLAIN.isCompatibleWith(headers.getContentType()));
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        response.getBody().writeTo(output);
+        assertEquals("Test Report", output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void getOverdueReport_CsvIsSentAsAttachment() {
+        ResponseEntity<StreamingResponseBody> response = borrowController.getOverdueReport("CSV");
+
+        assertEquals("text/csv;charset=UTF-8", response.getHeaders().getContentType().toString());
+        assertEquals("overdue-report.csv", response.getHeaders().getContentDisposition().getFilename());
+    }
+
+    @Test
+    void getOverdueReport_UnsupportedFormat() {
+        assertThrows(BadRequestException.class, () -> borrowController.getOverdueReport("xml"));
+        verifyNoInteractions(overdueReportService);
     }
 }
@@ -0,0 +1,169 @@
+package com.barisdalyanemre.librarymanagement.datasource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplicaRoutingDataSourceTest {
+
+    private DataSource primary;
+    private DataSource replica;
+    private ReplicaLagGuard lagGuard;
+    private ReplicaRoutingDataSource routingDataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate writeTransaction;
+    private TransactionTemplate readOnlyTransaction;
+
+    @BeforeEach
+    void setUp() {
+        primary = createDatabase("primary");
+        replica = createDatabase("replica");
+
+        lagGuard = new ReplicaLagGuard(Duration.ofMinutes(1), Clock.systemUTC());
+        routingDataSource = new ReplicaRoutingDataSource(primary, List.of(replica), lagGuard);
+        configure(routingDataSource);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        new JdbcTemplate(primary).execute("DROP ALL OBJECTS");
+        new JdbcTemplate(replica).execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void readOnlyTransactions_GoToReplica() {
+        assertEquals("replica", readOnlyTransaction.execute(status -> currentNode()));
+    }
+
+    @Test
+    void writeTransactions_GoToPrimary() {
+        assertEquals("primary", writeTransaction.execute(status -> currentNode()));
+        assertEquals("primary", currentNode());
+    }
+
+    @Test
+    void readOnlyTransactions_RoundRobinAcrossReplicas() {
+        DataSource secondReplica = createDatabase("replica2");
+        configure(new ReplicaRoutingDataSource(primary, List.of(replica, secondReplica), lagGuard));
+
+        String first = readOnlyTransaction.execute(status -> currentNode());
+        String second = readOnlyTransaction.execute(status -> currentNode());
+
+        assertNotEquals(first, second);
+        new JdbcTemplate(secondReplica).execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void failingReplica_IsEjectedAndRejoinsAfterHealthCheck() {
+        AtomicBoolean down = new AtomicBoolean(true);
+        DataSource flakyReplica = new FlakyDataSource(replica, down);
+        routingDataSource = new ReplicaRoutingDataSource(primary, List.of(flakyReplica), lagGuard);
+        configure(routingDataSource);
+
+        assertEquals("primary", readOnlyTransaction.execute(status -> currentNode()));
+        assertEquals(0, routingDataSource.getHealthyReplicaCount());
+
+        down.set(false);
+        routingDataSource.checkReplicaHealth();
+
+        assertEquals(1, routingDataSource.getHealthyReplicaCount());
+        assertEquals("replica", readOnlyTransaction.execute(status -> currentNode()));
+    }
+
+    @Test
+    void recentWriter_ReadsFromPrimaryUntilWindowPasses() {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("user@example.com", null, List.of()));
+
+        lagGuard.recordWrite();
+        assertEquals("primary", readOnlyTransaction.execute(status -> currentNode()));
+
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("other@example.com", null, List.of()));
+        assertEquals("replica", readOnlyTransaction.execute(status -> currentNode()));
+    }
+
+    @Test
+    void expiredWrite_NoLongerPinsToPrimary() {
+        lagGuard = new ReplicaLagGuard(Duration.ofMillis(1), Clock.systemUTC());
+        configure(new ReplicaRoutingDataSource(primary, List.of(replica), lagGuard));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("user@example.com", null, List.of()));
+
+        lagGuard.recordWrite();
+        sleepPastWindow();
+
+        assertFalse(lagGuard.requiresPrimary());
+        assertEquals("replica", readOnlyTransaction.execute(status -> currentNode()));
+    }
+
+    private void configure(ReplicaRoutingDataSource routing) {
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(routing);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(proxy);
+
+        jdbcTemplate = new JdbcTemplate(proxy);
+        writeTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    private String currentNode() {
+        return jdbcTemplate.queryForObject("SELECT name FROM node", String.class);
+    }
+
+    private static DataSource createDatabase(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        dataSource.setUser("sa");
+
+        JdbcTemplate template = new JdbcTemplate(dataSource);
+        template.execute("CREATE TABLE node (name VARCHAR(20))");
+        template.update("INSERT INTO node VALUES (?)", name);
+        return dataSource;
+    }
+
+    private static void sleepPastWindow() {
+        try {
+            Thread.sleep(5);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class FlakyDataSource extends DelegatingDataSource {
+
+        private final AtomicBoolean down;
+
+        private FlakyDataSource(DataSource target, AtomicBoolean down) {
+            super(target);
+            this.down = down;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (down.get()) {
+                throw new SQLException("Replica unreachable");
+            }
+            return super.getConnection();
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.barisdalyanemre.librarymanagement.exception;
 
 import com.barisdalyanemre.librarymanagement.dto.response.ApiError;
+import com.barisdalyanemre.librarymanagement.entity.Book;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.http.HttpServletRequest;
 import org.junit.jupiter.api.BeforeEach;
@@ -12,6 +13,7 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.context.request.WebRequest;
@@ -104,6 +106,18 @@ class GlobalExceptionHandlerTest {
         assertEquals("Book is already borrowed", ((ApiError) response.getBody()).getMessage());
     }
     
+    @Test
+    void handleOptimisticLockingFailureException() {
+        ObjectOptimisticLockingFailureException exception = new ObjectOptimisticLockingFailureException(Book.class, 1L);
+
+        ResponseEntity<Object> response = globalExceptionHandler.handleOptimisticLockingFailureException(exception, webRequest);
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertEquals("The resource was modified by another request. Please try again.",
+                ((ApiError) response.getBody()).getMessage());
+    }
+
     @Test
     void handleBadRequestException() {
         BadRequestException exception = new BadRequestException("Invalid request parameters");
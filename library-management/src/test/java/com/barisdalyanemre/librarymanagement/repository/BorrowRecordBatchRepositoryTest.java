@@ -0,0 +1,60 @@
+package com.barisdalyanemre.librarymanagement.repository;
+
+import com.barisdalyanemre.librarymanagement.dto.request.BorrowRecordSearchRequest;
+import com.barisdalyanemre.librarymanagement.entity.BorrowRecord;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The stateless-session scans must run on the surrounding transaction's connection
+ */
+@SpringBootTest
+class BorrowRecordBatchRepositoryTest {
+
+    @Autowired
+    private BorrowRecordRepository borrowRecordRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    @Transactional
+    @DisplayName("Listing and export should see the transaction's uncommitted loans and hold one connection")
+    void scansShareTransactionConnection() {
+        Long userId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM users", Long.class);
+        Long bookId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM books", Long.class);
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.update("INSERT INTO borrow_records (user_id, book_id, borrow_date, due_date, return_date) " +
+                "VALUES (?, ?, ?, ?, ?)", userId, bookId, now, now.plusDays(14), now);
+        Long loanId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM borrow_records", Long.class);
+        BorrowRecordSearchRequest filter = BorrowRecordSearchRequest.builder().userId(userId).bookId(bookId).build();
+
+        // The loan is not committed, so only a read on this transaction's connection can find it
+        List<BorrowRecord> page = borrowRecordRepository.findRecordsPage(filter, now, null, 1);
+        assertEquals(loanId, page.get(0).getId());
+
+        List<Integer> activeConnections = new ArrayList<>();
+        List<Long> exported = new ArrayList<>();
+        borrowRecordRepository.forEachRecord(filter, now, record -> {
+            exported.add(record.getId());
+            activeConnections.add(((HikariDataSource) dataSource).getHikariPoolMXBean().getActiveConnections());
+        });
+        assertEquals(loanId, exported.get(0));
+        assertTrue(activeConnections.stream().allMatch(active -> active == 1), activeConnections.toString());
+    }
+}
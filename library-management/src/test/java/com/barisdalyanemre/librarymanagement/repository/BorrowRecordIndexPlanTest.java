@@ -0,0 +1,103 @@
+package com.barisdalyanemre.librarymanagement.repository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the H2 query plans of the borrow record repository queries against the indexes added by
+ * the V5 migration. The SQL mirrors what Hibernate generates for each repository method.
+ */
+@SpringBootTest
+class BorrowRecordIndexPlanTest {
+
+    private static final String ACTIVE_BOOK_INDEX = "IDX_BORROW_RECORDS_BOOK_RETURN_DATE";
+    private static final String ACTIVE_DUE_DATE_INDEX = "IDX_BORROW_RECORDS_ACTIVE_DUE_DATE";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("findByBookAndReturnDateIsNull should use the open-loan-by-book index")
+    void findByBookAndReturnDateIsNull() {
+        assertUsesIndex(ACTIVE_BOOK_INDEX,
+                "SELECT * FROM borrow_records br WHERE br.book_id = 1 AND br.return_date IS NULL");
+    }
+
+    @Test
+    @DisplayName("findActiveLoansByBookIds should use the open-loan-by-book index")
+    void findActiveLoansByBookIds() {
+        assertUsesIndex(ACTIVE_BOOK_INDEX,
+                "SELECT * FROM borrow_records br JOIN books b ON b.id = br.book_id JOIN users u ON u.id = br.user_id " +
+                "WHERE br.return_date IS NULL AND br.book_id IN (1, 2, 3)");
+    }
+
+    @Test
+    @DisplayName("findActiveLoanBookIds should prefer the open-loan-by-book index over the user")
+    void findActiveLoanBookIds() {
+        assertUsesIndex(ACTIVE_BOOK_INDEX, "SELECT br.book_id FROM borrow_records br " +
+                "WHERE br.user_id = 1 AND br.return_date IS NULL AND br.book_id IN (1, 2)");
+    }
+
+    @Test
+    @DisplayName("findAllOverdue should use the open-loan due date index")
+    void findAllOverdue() {
+        assertUsesIndex(ACTIVE_DUE_DATE_INDEX,
+                "SELECT * FROM borrow_records br WHERE br.return_date IS NULL AND br.due_date < CURRENT_TIMESTAMP");
+    }
+
+    @Test
+    @DisplayName("findAllOverdueWithUserAndBookDetails should use the open-loan due date index")
+    void findAllOverdueWithUserAndBookDetails() {
+        assertUsesIndex(ACTIVE_DUE_DATE_INDEX,
+                "SELECT * FROM borrow_records br JOIN users u ON u.id = br.user_id JOIN books b ON b.id = br.book_id " +
+                "WHERE br.return_date IS NULL AND br.due_date < CURRENT_TIMESTAMP ORDER BY br.due_date");
+    }
+
+    @Test
+    @DisplayName("Per-user queries should look loans up by user")
+    void perUserQueries() {
+        assertLooksUpUser("SELECT * FROM borrow_records br WHERE br.user_id = 1 ORDER BY br.borrow_date DESC");
+        assertLooksUpUser("SELECT * FROM borrow_records br WHERE br.user_id = 1 AND br.return_date IS NULL ORDER BY br.due_date");
+        assertLooksUpUser("SELECT COUNT(*) FROM borrow_records br WHERE br.user_id = 1 AND br.return_date IS NULL");
+    }
+
+    @Test
+    @Transactional
+    @DisplayName("A book should not be on two open loans at once")
+    void oneOpenLoanPerBook() {
+        Long userId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM users", Long.class);
+        Long bookId = jdbcTemplate.queryForObject(
+                "SELECT MIN(id) FROM books b WHERE NOT EXISTS " +
+                "(SELECT 1 FROM borrow_records br WHERE br.book_id = b.id AND br.return_date IS NULL)", Long.class);
+        String insert = "INSERT INTO borrow_records (user_id, book_id, borrow_date, due_date, return_date) " +
+                "VALUES (?, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, ?)";
+
+        jdbcTemplate.update(insert, userId, bookId, java.sql.Timestamp.valueOf("2020-01-01 00:00:00"));
+        jdbcTemplate.update(insert, userId, bookId, null);
+
+        assertThrows(DataIntegrityViolationException.class, () -> jdbcTemplate.update(insert, userId, bookId, null));
+    }
+
+    private void assertUsesIndex(String index, String sql) {
+        String plan = explain(sql);
+        assertTrue(plan.contains("PUBLIC." + index), () -> "Expected " + index + " in plan:\n" + plan);
+    }
+
+    private void assertLooksUpUser(String sql) {
+        String plan = explain(sql);
+        assertTrue(plan.contains(": USER_ID ="), () -> "Expected an index lookup on USER_ID in plan:\n" + plan);
+    }
+
+    private String explain(String sql) {
+        String plan = jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+        assertFalse(plan.contains("BORROW_RECORDS.tableScan"), () -> "Unexpected table scan in plan:\n" + plan);
+        return plan;
+    }
+}
@@ -0,0 +1,143 @@
+package com.barisdalyanemre.librarymanagement.repository;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the PostgreSQL migrations on an embedded PostgreSQL and checks that the partitioned borrow_records
+ * still enforce what V8 had to drop (see V12): fines reference existing loans, and a book is on at most one
+ * open loan. Also checks that old partitions holding open or fined loans are not detached.
+ */
+class PostgresBorrowRecordPartitionTest {
+
+    private static final String FOREIGN_KEY_VIOLATION = "23503";
+    private static final String UNIQUE_VIOLATION = "23505";
+
+    private static EmbeddedPostgres postgres;
+    private static JdbcTemplate jdbcTemplate;
+    private static long userId;
+    private static final AtomicInteger books = new AtomicInteger();
+
+    @BeforeAll
+    static void startPostgres() throws Exception {
+        postgres = EmbeddedPostgres.builder().start();
+        Flyway.configure()
+                .dataSource(postgres.getPostgresDatabase())
+                .locations("classpath:db/migration", "classpath:db/vendor/postgresql")
+                .configuration(Map.of("flyway.postgresql.transactional.lock", "false"))
+                .load()
+                .migrate();
+        jdbcTemplate = new JdbcTemplate(postgres.getPostgresDatabase());
+        userId = jdbcTemplate.queryForObject("INSERT INTO users (first_name, last_name, email, password, role) " +
+                "VALUES ('Pat', 'Ron', 'pat@example.com', 'secret', 'PATRON') RETURNING id", Long.class);
+        jdbcTemplate.queryForObject("SELECT borrow_records_create_partitions(CAST(? AS DATE), 3)", Integer.class,
+                LocalDate.now().minusMonths(40));
+    }
+
+    @AfterAll
+    static void stopPostgres() throws Exception {
+        postgres.close();
+    }
+
+    @Test
+    @DisplayName("Should only detach old partitions without open or fined loans")
+    void detachPartitions_KeepsOpenAndFinedLoans() {
+        LocalDateTime clean = monthsAgo(38);
+        LocalDateTime fined = monthsAgo(37);
+        LocalDateTime open = monthsAgo(36);
+        insertLoan(book(), clean, clean.plusDays(10));
+        long finedLoan = insertLoan(book(), fined, fined.plusDays(30));
+        insertFine(finedLoan);
+        insertLoan(book(), open, null);
+
+        List<String> detached = jdbcTemplate.queryForList("SELECT borrow_records_detach_partitions(CAST(? AS DATE))",
+                String.class, LocalDate.now().withDayOfMonth(1).minusMonths(24));
+
+        assertTrue(detached.contains(partition(clean)));
+        assertFalse(detached.contains(partition(fined)));
+        assertFalse(detached.contains(partition(open)));
+        assertEquals(1, count("SELECT COUNT(*) FROM borrow_records WHERE id = ?", finedLoan));
+    }
+
+    @Test
+    @DisplayName("Should reject fines of missing loans and deleting fined loans")
+    void loanFines_ReferenceExistingLoans() {
+        LocalDateTime borrowed = LocalDateTime.now().minusDays(30);
+        long finedLoan = insertLoan(book(), borrowed, borrowed.plusDays(20));
+        long unfinedLoan = insertLoan(book(), borrowed, borrowed.plusDays(20));
+        insertFine(finedLoan);
+
+        assertSqlState(FOREIGN_KEY_VIOLATION, () -> insertFine(-1L));
+        assertSqlState(FOREIGN_KEY_VIOLATION, () -> jdbcTemplate.update("DELETE FROM borrow_records WHERE id = ?", finedLoan));
+        assertEquals(1, jdbcTemplate.update("DELETE FROM borrow_records WHERE id = ?", unfinedLoan));
+    }
+
+    @Test
+    @DisplayName("Should keep a book on at most one open loan across partitions")
+    void oneOpenLoanPerBook() {
+        long book = book();
+        LocalDateTime lastMonth = LocalDateTime.now().minusMonths(1);
+        long returned = insertLoan(book, lastMonth, lastMonth.plusDays(5));
+        long open = insertLoan(book, lastMonth.plusDays(10), null);
+
+        assertSqlState(UNIQUE_VIOLATION, () -> insertLoan(book, LocalDateTime.now(), null));
+        assertSqlState(UNIQUE_VIOLATION, () ->
+                jdbcTemplate.update("UPDATE borrow_records SET return_date = NULL WHERE id = ?", returned));
+
+        jdbcTemplate.update("UPDATE borrow_records SET return_date = ? WHERE id = ?", LocalDateTime.now(), open);
+        insertLoan(book, LocalDateTime.now(), null);
+    }
+
+    private static long book() {
+        return jdbcTemplate.queryForObject("INSERT INTO books (title, author, isbn) " +
+                "VALUES ('Title', 'Author', ?) RETURNING id", Long.class, "978-" + books.incrementAndGet());
+    }
+
+    private static long insertLoan(long bookId, LocalDateTime borrowDate, LocalDateTime returnDate) {
+        return jdbcTemplate.queryForObject("INSERT INTO borrow_records (user_id, book_id, borrow_date, due_date, return_date) " +
+                "VALUES (?, ?, ?, ?, ?) RETURNING id", Long.class,
+                userId, bookId, borrowDate, borrowDate.plusDays(14), returnDate);
+    }
+
+    private static void insertFine(long loanId) {
+        jdbcTemplate.update("INSERT INTO loan_fines (borrow_record_id, user_id, due_date) VALUES (?, ?, ?)",
+                loanId, userId, LocalDateTime.now());
+    }
+
+    private static long count(String sql, Object... arguments) {
+        return jdbcTemplate.queryForObject(sql, Long.class, arguments);
+    }
+
+    private static LocalDateTime monthsAgo(int months) {
+        return LocalDate.now().withDayOfMonth(1).minusMonths(months).atTime(12, 0);
+    }
+
+    private static String partition(LocalDateTime borrowDate) {
+        return "borrow_records_" + borrowDate.format(DateTimeFormatter.ofPattern("yyyy_MM"));
+    }
+
+    private static void assertSqlState(String sqlState, Runnable statement) {
+        Exception exception = assertThrows(Exception.class, statement::run);
+        Throwable cause = exception;
+        while (cause != null && !(cause instanceof SQLException)) {
+            cause = cause.getCause();
+        }
+        assertNotNull(cause, "No SQLException in " + exception);
+        assertEquals(sqlState, ((SQLException) cause).getSQLState(), cause.getMessage());
+    }
+}
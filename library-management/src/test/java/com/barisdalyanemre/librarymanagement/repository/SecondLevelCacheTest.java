@@ -0,0 +1,94 @@
+package com.barisdalyanemre.librarymanagement.repository;
+
+import com.barisdalyanemre.librarymanagement.entity.Book;
+import com.barisdalyanemre.librarymanagement.entity.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Borrowing updates availability and loan counters; only the borrowed book and the borrower may leave
+ * the second-level cache
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class SecondLevelCacheTest {
+
+    private static final String BORROWER = "bob@example.com";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    @WithMockUser(username = BORROWER, roles = "LIBRARIAN")
+    @DisplayName("Cached books, users and email lookups not touched by a borrow should stay cached")
+    void cacheHitsSurviveBorrow() throws Exception {
+        Long borrowedId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM books b WHERE b.available = true " +
+                "AND NOT EXISTS (SELECT 1 FROM borrow_records br WHERE br.book_id = b.id AND br.return_date IS NULL)",
+                Long.class);
+        Long otherBookId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM books WHERE id <> ?", Long.class, borrowedId);
+        String otherEmail = jdbcTemplate.queryForObject("SELECT MIN(email) FROM users WHERE email <> ?",
+                String.class, BORROWER);
+        Long otherUserId = jdbcTemplate.queryForObject("SELECT id FROM users WHERE email = ?", Long.class, otherEmail);
+        readEntities(borrowedId, otherBookId, otherUserId);
+        transactionTemplate.executeWithoutResult(status -> userRepository.findByEmail(otherEmail).orElseThrow());
+
+        mockMvc.perform(post("/api/v1/borrow/{bookId}", borrowedId)).andExpect(status().is2xxSuccessful());
+        try {
+            Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+            long bookHits = statistics.getCacheRegionStatistics("books").getHitCount();
+            long userHits = statistics.getCacheRegionStatistics("users").getHitCount();
+            long lookupHits = statistics.getCacheRegionStatistics("user-lookups").getHitCount();
+
+            Book borrowed = readEntities(borrowedId, otherBookId, otherUserId);
+            transactionTemplate.executeWithoutResult(status -> userRepository.findByEmail(otherEmail).orElseThrow());
+
+            assertEquals(bookHits + 1, statistics.getCacheRegionStatistics("books").getHitCount());
+            assertEquals(userHits + 1, statistics.getCacheRegionStatistics("users").getHitCount());
+            assertEquals(lookupHits + 1, statistics.getCacheRegionStatistics("user-lookups").getHitCount());
+            // The borrowed book's own entry was invalidated, so it reads the new availability
+            assertFalse(borrowed.getAvailable());
+        } finally {
+            mockMvc.perform(put("/api/v1/borrow/return/{bookId}", borrowedId)).andExpect(status().is2xxSuccessful());
+        }
+        Book returned = transactionTemplate.execute(status -> bookRepository.findById(borrowedId).orElseThrow());
+        assertTrue(returned.getAvailable());
+    }
+
+    private Book readEntities(Long borrowedId, Long otherBookId, Long otherUserId) {
+        return transactionTemplate.execute(status -> {
+            bookRepository.findById(otherBookId).orElseThrow();
+            userRepository.findById(otherUserId).orElseThrow();
+            return bookRepository.findById(borrowedId).orElseThrow();
+        });
+    }
+}
@@ -9,6 +9,7 @@ import com.barisdalyanemre.librarymanagement.exception.BadRequestException;
 import com.barisdalyanemre.librarymanagement.exception.ResourceNotFoundException;
 import com.barisdalyanemre.librarymanagement.repository.UserRepository;
 import com.barisdalyanemre.librarymanagement.security.JwtUtils;
+import com.barisdalyanemre.librarymanagement.service.DashboardService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -50,6 +51,9 @@ class AuthServiceImplTest {
     @Mock
     private UserDetailsService userDetailsService;
 
+    @Mock
+    private DashboardService dashboardService;
+
     @Mock
     private UserDetails userDetails;
 
@@ -113,6 +117,7 @@ class AuthServiceImplTest {
         assertEquals("Test", response.getFirstName());
         assertEquals("User", response.getLastName());
         assertEquals("PATRON", response.getRole());
+        verify(dashboardService).recordPatronAdded();
     }
 
     @Test
@@ -175,6 +180,7 @@ class AuthServiceImplTest {
         verify(userRepository).save(userCaptor.capture());
         User capturedUser = userCaptor.getValue();
         assertEquals(Role.LIBRARIAN, capturedUser.getRole());
+        verify(dashboardService).recordPatronRemoved();
     }
 
     @Test
@@ -0,0 +1,89 @@
+package com.barisdalyanemre.librarymanagement.service.impl;
+
+import com.barisdalyanemre.librarymanagement.event.BookAvailabilityEvent;
+import com.barisdalyanemre.librarymanagement.repository.BookRepository;
+import com.barisdalyanemre.librarymanagement.service.BookAvailabilityService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookAvailabilityIndexServiceImplTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private BookAvailabilityService bookAvailabilityService;
+
+    @InjectMocks
+    private BookAvailabilityIndexServiceImpl bookAvailabilityIndexService;
+
+    @Test
+    @DisplayName("Should seed checked-out books from the database")
+    void reseed() {
+        when(bookRepository.findUnavailableBookIds()).thenReturn(List.of(3L, 70_000L));
+
+        bookAvailabilityIndexService.reseed();
+
+        assertTrue(bookAvailabilityIndexService.isKnownUnavailable(3L));
+        assertTrue(bookAvailabilityIndexService.isKnownUnavailable(70_000L));
+        assertFalse(bookAvailabilityIndexService.isKnownUnavailable(4L));
+        assertFalse(bookAvailabilityIndexService.isKnownUnavailable(null));
+    }
+
+    @Test
+    @DisplayName("Should follow availability events")
+    void apply() {
+        bookAvailabilityIndexService.apply(event(5L, false));
+        assertTrue(bookAvailabilityIndexService.isKnownUnavailable(5L));
+
+        bookAvailabilityIndexService.apply(event(5L, true));
+        assertFalse(bookAvailabilityIndexService.isKnownUnavailable(5L));
+    }
+
+    @Test
+    @DisplayName("Should treat IDs outside the bitmap as unknown")
+    void outOfRangeIds() {
+        bookAvailabilityIndexService.updateAvailability(Long.MAX_VALUE, false);
+        bookAvailabilityIndexService.updateAvailability(-1L, false);
+
+        assertFalse(bookAvailabilityIndexService.isKnownUnavailable(Long.MAX_VALUE));
+        assertFalse(bookAvailabilityIndexService.isKnownUnavailable(-1L));
+    }
+
+    @Test
+    @DisplayName("Should not lose concurrent updates to neighbouring bits")
+    void concurrentUpdates() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        IntStream.range(0, 10_000).forEach(id ->
+                executor.execute(() -> bookAvailabilityIndexService.updateAvailability((long) id, false)));
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertTrue(IntStream.range(0, 10_000).allMatch(id -> bookAvailabilityIndexService.isKnownUnavailable((long) id)));
+    }
+
+    private BookAvailabilityEvent event(Long bookId, boolean available) {
+        return BookAvailabilityEvent.builder()
+                .bookId(bookId)
+                .title("Book " + bookId)
+                .isbn("isbn-" + bookId)
+                .available(available)
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+}
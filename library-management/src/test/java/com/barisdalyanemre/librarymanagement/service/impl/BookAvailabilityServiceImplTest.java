@@ -5,10 +5,16 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import reactor.core.publisher.Flux;
 import reactor.test.StepVerifier;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
 @ExtendWith(MockitoExtension.class)
 class BookAvailabilityServiceImplTest {
@@ -84,4 +90,34 @@ class BookAvailabilityServiceImplTest {
                 .expectNextMatches(event -> event.getBookId().equals(testEvent.getBookId()))
                 .verifyComplete();
     }
+
+    @Test
+    void publishAvailabilityEvents_EmittedTogetherAfterCommit() {
+        BookAvailabilityEvent event2 = BookAvailabilityEvent.builder()
+                .bookId(2L)
+                .title("Book 2")
+                .isbn("2222222222")
+                .available(true)
+                .timestamp(LocalDateTime.now())
+                .build();
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            bookAvailabilityService.publishAvailabilityEvents(List.of(testEvent, event2));
+
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            assertEquals(1, synchronizations.size());
+            StepVerifier.create(bookAvailabilityService.getAvailabilityEventStream().take(Duration.ofMillis(50)))
+                    .verifyComplete();
+
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        StepVerifier.create(bookAvailabilityService.getAvailabilityEventStream().take(2))
+                .expectNextMatches(event -> event.getBookId().equals(1L))
+                .expectNextMatches(event -> event.getBookId().equals(2L))
+                .verifyComplete();
+    }
 }
@@ -0,0 +1,108 @@
+package com.barisdalyanemre.librarymanagement.service.impl;
+
+import com.barisdalyanemre.librarymanagement.entity.Book;
+import com.barisdalyanemre.librarymanagement.repository.BookRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BookSearchIndexServiceImplTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @InjectMocks
+    private BookSearchIndexServiceImpl bookSearchIndexService;
+
+    @BeforeEach
+    void setUp() {
+        bookSearchIndexService.indexBook(createBook(1L, "1984", "George Orwell"));
+        bookSearchIndexService.indexBook(createBook(2L, "Animal Farm", "George Orwell"));
+        bookSearchIndexService.indexBook(createBook(3L, "The Great Gatsby", "F. Scott Fitzgerald"));
+        bookSearchIndexService.indexBook(createBook(4L, "Pride and Prejudice", "Jane Austen"));
+    }
+
+    @Test
+    @DisplayName("Should match misspelled author names")
+    void findMatchingBookIds_MisspelledAuthor() {
+        assertEquals(List.of(1L, 2L), bookSearchIndexService.findMatchingBookIds(null, "Orwel", 10));
+        assertEquals(List.of(3L), bookSearchIndexService.findMatchingBookIds(null, "Fitzgerlad", 10));
+    }
+
+    @Test
+    @DisplayName("Should rank exact matches before approximate ones")
+    void findMatchingBookIds_RankedByDistance() {
+        bookSearchIndexService.indexBook(createBook(5L, "Farms of England", "Someone Else"));
+
+        List<Long> result = bookSearchIndexService.findMatchingBookIds("farm", null, 10);
+
+        assertEquals(List.of(2L, 5L), result);
+    }
+
+    @Test
+    @DisplayName("Should require every query field to match")
+    void findMatchingBookIds_TitleAndAuthor() {
+        assertEquals(List.of(2L), bookSearchIndexService.findMatchingBookIds("Animl", "Orwell", 10));
+        assertTrue(bookSearchIndexService.findMatchingBookIds("Gatsby", "Orwell", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should not match terms that are too far away")
+    void findMatchingBookIds_NoMatch() {
+        assertTrue(bookSearchIndexService.findMatchingBookIds(null, "Tolstoy", 10).isEmpty());
+        assertTrue(bookSearchIndexService.findMatchingBookIds(null, "  ", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should reflect updates and removals")
+    void indexBook_UpdateAndRemove() {
+        bookSearchIndexService.indexBook(createBook(4L, "Pride and Prejudice", "Jane Austin"));
+        assertEquals(List.of(4L), bookSearchIndexService.findMatchingBookIds(null, "Austin", 10));
+
+        bookSearchIndexService.removeBook(1L);
+        assertEquals(List.of(2L), bookSearchIndexService.findMatchingBookIds(null, "Orwell", 10));
+    }
+
+    @Test
+    @DisplayName("Should rebuild the index from the repository")
+    void rebuildIndex() {
+        when(bookRepository.findAll(any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(createBook(10L, "Dune", "Frank Herbert"))));
+
+        bookSearchIndexService.rebuildIndex();
+
+        assertEquals(List.of(10L), bookSearchIndexService.findMatchingBookIds(null, "Hebert", 10));
+        assertTrue(bookSearchIndexService.findMatchingBookIds(null, "Orwell", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should count adjacent transpositions as a single edit")
+    void boundedDistance() {
+        assertEquals(1, BookSearchIndexServiceImpl.boundedDistance("fitzgerlad", "fitzgerald", 2));
+        assertEquals(1, BookSearchIndexServiceImpl.boundedDistance("orwel", "orwell", 1));
+        assertEquals(3, BookSearchIndexServiceImpl.boundedDistance("tolstoy", "orwell", 2));
+    }
+
+    private Book createBook(Long id, String title, String author) {
+        Book book = new Book();
+        book.setId(id);
+        book.setTitle(title);
+        book.setAuthor(author);
+        book.setIsbn("isbn-" + id);
+        book.setAvailable(true);
+        return book;
+    }
+}
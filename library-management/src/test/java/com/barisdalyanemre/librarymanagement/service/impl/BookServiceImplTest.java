@@ -11,6 +11,8 @@ import com.barisdalyanemre.librarymanagement.exception.ResourceNotFoundException
 import com.barisdalyanemre.librarymanagement.mapper.BookMapper;
 import com.barisdalyanemre.librarymanagement.repository.BookRepository;
 import com.barisdalyanemre.librarymanagement.service.BookAvailabilityService;
+import com.barisdalyanemre.librarymanagement.service.BookSearchIndexService;
+import com.barisdalyanemre.librarymanagement.service.DashboardService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -24,12 +26,16 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -47,6 +53,12 @@ class BookServiceImplTest {
     @Mock
     private BookAvailabilityService bookAvailabilityService;
 
+    @Mock
+    private BookSearchIndexService bookSearchIndexService;
+
+    @Mock
+    private DashboardService dashboardService;
+
     @InjectMocks
     private BookServiceImpl bookService;
 
@@ -116,6 +128,8 @@ class BookServiceImplTest {
         assertEquals(testBook.getTitle(), event.getTitle());
         assertEquals(testBook.getIsbn(), event.getIsbn());
         assertEquals(testBook.getAvailable(), event.isAvailable());
+        verify(bookSearchIndexService).indexBook(testBook);
+        verify(dashboardService).recordBookAdded();
     }
 
     @Test
@@ -212,6 +226,95 @@ class BookServiceImplTest {
         assertEquals(testBookDTO, result.getContent().get(0));
     }
 
+    @Test
+    @DisplayName("Should return fuzzy search results in index rank order")
+    void searchBooksFuzzy() {
+        Book otherBook = new Book();
+        otherBook.setId(2L);
+        otherBook.setTitle("Other Book");
+        otherBook.setAuthor("Test Authors");
+        otherBook.setGenre("Fiction");
+        otherBook.setAvailable(false);
+        
+        BookDTO otherBookDTO = new BookDTO();
+        otherBookDTO.setId(2L);
+        
+        BookSearchRequest searchRequest = BookSearchRequest.builder()
+                .author("Autor")
+                .fuzzy(true)
+                .build();
+        
+        when(bookSearchIndexService.findMatchingBookIds(isNull(), eq("Autor"), anyInt())).thenReturn(List.of(2L, 1L));
+        when(bookRepository.findAllById(List.of(2L, 1L))).thenReturn(List.of(testBook, otherBook));
+        when(bookMapper.toDTO(testBook)).thenReturn(testBookDTO);
+        when(bookMapper.toDTO(otherBook)).thenReturn(otherBookDTO);
+        
+        Page<BookDTO> result = bookService.searchBooks(searchRequest, PageRequest.of(0, 10));
+        
+        assertEquals(2, result.getTotalElements());
+        assertEquals(List.of(otherBookDTO, testBookDTO), result.getContent());
+        verify(bookRepository, never()).searchBooks(any(), any(), any(), any(), any(), any(), any(Pageable.class));
+    }
+
+    @Test
+    @DisplayName("Should apply remaining criteria to fuzzy search candidates")
+    void searchBooksFuzzyWithFilters() {
+        Book unavailableBook = new Book();
+        unavailableBook.setId(2L);
+        unavailableBook.setAvailable(false);
+        
+        BookSearchRequest searchRequest = BookSearchRequest.builder()
+                .title("Tset")
+                .available(true)
+                .fuzzy(true)
+                .build();
+        
+        when(bookSearchIndexService.findMatchingBookIds(eq("Tset"), isNull(), anyInt())).thenReturn(List.of(1L, 2L));
+        when(bookRepository.findIdsMatchingFilters(List.of(1L, 2L), null, true, null, null)).thenReturn(List.of(1L));
+        when(bookRepository.findAllById(List.of(1L))).thenReturn(List.of(testBook));
+        when(bookMapper.toDTO(testBook)).thenReturn(testBookDTO);
+        
+        Page<BookDTO> result = bookService.searchBooks(searchRequest, PageRequest.of(0, 10));
+        
+        assertEquals(1, result.getTotalElements());
+        assertEquals(testBookDTO, result.getContent().get(0));
+        verify(bookRepository, never()).findAllById(List.of(1L, 2L));
+    }
+
+    @Test
+    @DisplayName("Should page through filtered fuzzy matches past the first batch of candidates, loading only the page")
+    void searchBooksFuzzyFilteredPage() {
+        List<Long> rankedIds = LongStream.rangeClosed(1, 1500).boxed().toList();
+        BookSearchRequest searchRequest = BookSearchRequest.builder()
+                .title("Tset")
+                .genre("Poetry")
+                .fuzzy(true)
+                .build();
+        
+        when(bookSearchIndexService.findMatchingBookIds(eq("Tset"), isNull(), anyInt())).thenReturn(rankedIds);
+        when(bookRepository.findIdsMatchingFilters(anyCollection(), eq("Poetry"), isNull(), isNull(), isNull()))
+                .thenAnswer(invocation -> invocation.<Collection<Long>>getArgument(0).stream()
+                        .filter(id -> id > 1200 && id % 2 == 0)
+                        .toList());
+        Book first = new Book();
+        first.setId(1206L);
+        Book second = new Book();
+        second.setId(1208L);
+        when(bookRepository.findAllById(List.of(1206L, 1208L))).thenReturn(List.of(second, first));
+        when(bookMapper.toDTO(any(Book.class))).thenAnswer(invocation -> {
+            BookDTO dto = new BookDTO();
+            dto.setId(invocation.<Book>getArgument(0).getId());
+            return dto;
+        });
+        
+        Page<BookDTO> result = bookService.searchBooks(searchRequest, PageRequest.of(1, 2));
+        
+        assertEquals(150, result.getTotalElements());
+        assertEquals(List.of(1206L, 1208L), result.getContent().stream().map(BookDTO::getId).toList());
+        verify(bookRepository, times(2)).findIdsMatchingFilters(anyCollection(), any(), any(), any(), any());
+        verify(bookRepository).findAllById(List.of(1206L, 1208L));
+    }
+
     @Test
     @DisplayName("Should update book successfully")
     void updateBook() {
@@ -269,6 +372,24 @@ class BookServiceImplTest {
         bookService.deleteBook(1L);
         
         verify(bookRepository).delete(testBook);
+        verify(bookSearchIndexService).removeBook(1L);
+        verify(dashboardService).recordBookRemoved(1L);
+    }
+
+    @Test
+    @DisplayName("Should only remove a deleted book from the search index once the delete commits")
+    void deleteBook_IndexWaitsForCommit() {
+        when(bookRepository.findById(anyLong())).thenReturn(Optional.of(testBook));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            bookService.deleteBook(1L);
+            verify(bookSearchIndexService, never()).removeBook(anyLong());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(bookSearchIndexService).removeBook(1L);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
     }
 
     @Test
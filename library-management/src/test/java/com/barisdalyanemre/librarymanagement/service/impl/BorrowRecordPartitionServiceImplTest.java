@@ -0,0 +1,58 @@
+package com.barisdalyanemre.librarymanagement.service.impl;
+
+import com.barisdalyanemre.librarymanagement.repository.BorrowRecordRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BorrowRecordPartitionServiceImplTest {
+
+    @Mock
+    private BorrowRecordRepository borrowRecordRepository;
+
+    @InjectMocks
+    private BorrowRecordPartitionServiceImpl borrowRecordPartitionService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(borrowRecordPartitionService, "enabled", true);
+        ReflectionTestUtils.setField(borrowRecordPartitionService, "monthsAhead", 3);
+        ReflectionTestUtils.setField(borrowRecordPartitionService, "retentionMonths", 24);
+    }
+
+    @Test
+    @DisplayName("Should create upcoming partitions and detach months past the retention period")
+    void maintainPartitions_Success() {
+        LocalDate today = LocalDate.now();
+        LocalDate cutoff = today.withDayOfMonth(1).minusMonths(24);
+        when(borrowRecordRepository.createPartitions(any(LocalDate.class), eq(3))).thenReturn(1);
+        when(borrowRecordRepository.detachPartitions(any(LocalDate.class))).thenReturn(List.of("borrow_records_2023_01"));
+
+        borrowRecordPartitionService.maintainPartitions();
+
+        verify(borrowRecordRepository).createPartitions(argThat(date -> !date.isBefore(today)), eq(3));
+        verify(borrowRecordRepository).detachPartitions(argThat(date -> date.getDayOfMonth() == 1 && !date.isBefore(cutoff)));
+    }
+
+    @Test
+    @DisplayName("Should leave the table alone when partitioning is disabled")
+    void maintainPartitions_Disabled() {
+        ReflectionTestUtils.setField(borrowRecordPartitionService, "enabled", false);
+
+        borrowRecordPartitionService.maintainPartitions();
+
+        verifyNoInteractions(borrowRecordRepository);
+    }
+}
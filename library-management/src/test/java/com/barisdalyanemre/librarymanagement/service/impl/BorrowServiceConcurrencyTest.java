@@ -0,0 +1,215 @@
+package com.barisdalyanemre.librarymanagement.service.impl;
+
+import com.barisdalyanemre.librarymanagement.dto.request.UpdateBookRequest;
+import com.barisdalyanemre.librarymanagement.entity.Book;
+import com.barisdalyanemre.librarymanagement.entity.User;
+import com.barisdalyanemre.librarymanagement.enums.Role;
+import com.barisdalyanemre.librarymanagement.exception.BadRequestException;
+import com.barisdalyanemre.librarymanagement.exception.ConflictException;
+import com.barisdalyanemre.librarymanagement.repository.BookRepository;
+import com.barisdalyanemre.librarymanagement.repository.BorrowRecordRepository;
+import com.barisdalyanemre.librarymanagement.repository.UserRepository;
+import com.barisdalyanemre.librarymanagement.service.BookService;
+import com.barisdalyanemre.librarymanagement.service.BorrowService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class BorrowServiceConcurrencyTest {
+
+    private static final int THREADS = 8;
+
+    @Autowired
+    private BorrowService borrowService;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private BorrowRecordRepository borrowRecordRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Book book;
+    private final List<User> patrons = new ArrayList<>();
+    private final List<Book> extraBooks = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        book = new Book();
+        book.setTitle("Contended Book");
+        book.setAuthor("Test Author");
+        book.setIsbn("concurrency-0001");
+        book.setAvailable(true);
+        book = bookRepository.save(book);
+
+        for (int i = 0; i < THREADS; i++) {
+            User patron = new User();
+            patron.setFirstName("Patron");
+            patron.setLastName(String.valueOf(i));
+            patron.setEmail("patron" + i + "@concurrency.test");
+            patron.setPassword("password");
+            patron.setRole(Role.PATRON);
+            patron.setEnabled(true);
+            patrons.add(userRepository.save(patron));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        List<Long> bookIds = new ArrayList<>(extraBooks.stream().map(Book::getId).toList());
+        bookIds.add(book.getId());
+        borrowRecordRepository.deleteAll(borrowRecordRepository.findAll().stream()
+                .filter(record -> bookIds.contains(record.getBook().getId()))
+                .toList());
+        bookRepository.deleteAllById(bookIds);
+        userRepository.deleteAll(patrons);
+    }
+
+    @Test
+    @DisplayName("Only one of many concurrent borrowers should get the book")
+    void borrowBook_ConcurrentBorrowers() throws Exception {
+        AtomicInteger conflicts = new AtomicInteger();
+        List<Callable<Boolean>> tasks = new ArrayList<>();
+        for (User patron : patrons) {
+            tasks.add(() -> {
+                SecurityContextHolder.getContext().setAuthentication(
+                        new UsernamePasswordAuthenticationToken(patron.getEmail(), null, List.of()));
+                try {
+                    borrowService.borrowBook(book.getId());
+                    return true;
+                } catch (ConflictException e) {
+                    conflicts.incrementAndGet();
+                    return false;
+                } finally {
+                    SecurityContextHolder.clearContext();
+                }
+            });
+        }
+
+        long successes = runConcurrently(tasks);
+
+        assertEquals(1, successes);
+        assertEquals(THREADS - 1, conflicts.get());
+        assertEquals(1, borrowRecordRepository.findAll().stream()
+                .filter(record -> record.getBook().getId().equals(book.getId()))
+                .count());
+
+        Book reloaded = bookRepository.findById(book.getId()).orElseThrow();
+        assertFalse(reloaded.getAvailable());
+        assertEquals(1L, reloaded.getVersion());
+
+        long borrowersWithLoan = patrons.stream()
+                .map(patron -> userRepository.findById(patron.getId()).orElseThrow())
+                .filter(patron -> patron.getActiveLoanCount() == 1 && patron.getEarliestDueDate() != null)
+                .count();
+        assertEquals(1, borrowersWithLoan);
+    }
+
+    @Test
+    @DisplayName("Concurrent borrows by one user should never exceed the loan limit")
+    void borrowBook_ConcurrentBorrowsBySameUser() throws Exception {
+        User patron = patrons.get(0);
+        List<Callable<Boolean>> tasks = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            Book extra = new Book();
+            extra.setTitle("Extra Book " + i);
+            extra.setAuthor("Test Author");
+            extra.setIsbn("concurrency-1" + i);
+            extra.setAvailable(true);
+            Long extraId = bookRepository.save(extra).getId();
+            extraBooks.add(extra);
+            tasks.add(() -> {
+                SecurityContextHolder.getContext().setAuthentication(
+                        new UsernamePasswordAuthenticationToken(patron.getEmail(), null, List.of()));
+                try {
+                    borrowService.borrowBook(extraId);
+                    return true;
+                } catch (BadRequestException e) {
+                    return false;
+                } finally {
+                    SecurityContextHolder.clearContext();
+                }
+            });
+        }
+
+        long successes = runConcurrently(tasks);
+
+        assertEquals(5, successes);
+        User reloaded = userRepository.findById(patron.getId()).orElseThrow();
+        assertEquals(5, reloaded.getActiveLoanCount());
+        assertEquals(5, borrowRecordRepository.findByUserAndReturnDateIsNullOrderByDueDateAsc(reloaded).size());
+    }
+
+    @Test
+    @DisplayName("Concurrent book updates should never silently overwrite each other")
+    void updateBook_ConcurrentWritersAreDetected() throws Exception {
+        AtomicInteger conflicts = new AtomicInteger();
+        List<Callable<Boolean>> tasks = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            UpdateBookRequest request = UpdateBookRequest.builder().genre("Genre " + i).build();
+            tasks.add(() -> {
+                try {
+                    bookService.updateBook(book.getId(), request);
+                    return true;
+                } catch (OptimisticLockingFailureException e) {
+                    conflicts.incrementAndGet();
+                    return false;
+                }
+            });
+        }
+
+        long successes = runConcurrently(tasks);
+
+        assertEquals(THREADS, successes + conflicts.get());
+        assertEquals(successes, bookRepository.findById(book.getId()).orElseThrow().getVersion());
+    }
+
+    private long runConcurrently(List<Callable<Boolean>> tasks) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(tasks.size());
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for (Callable<Boolean> task : tasks) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+
+            long successes = 0;
+            for (Future<Boolean> future : futures) {
+                if (future.get(30, TimeUnit.SECONDS)) {
+                    successes++;
+                }
+            }
+            return successes;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -1,9 +1,18 @@
 package com.barisdalyanemre.librarymanagement.service.impl;
 
+import com.barisdalyanemre.librarymanagement.datasource.ReplicaLagGuard;
+import com.barisdalyanemre.librarymanagement.dto.request.BatchBorrowRequest;
+import com.barisdalyanemre.librarymanagement.dto.request.BatchReturnRequest;
+import com.barisdalyanemre.librarymanagement.dto.request.BorrowRecordSearchRequest;
+import com.barisdalyanemre.librarymanagement.dto.response.BatchItemResultDTO;
+import com.barisdalyanemre.librarymanagement.dto.response.BatchResultDTO;
 import com.barisdalyanemre.librarymanagement.dto.response.BorrowRecordDTO;
+import com.barisdalyanemre.librarymanagement.dto.response.CursorPageDTO;
 import com.barisdalyanemre.librarymanagement.entity.Book;
 import com.barisdalyanemre.librarymanagement.entity.BorrowRecord;
 import com.barisdalyanemre.librarymanagement.entity.User;
+import com.barisdalyanemre.librarymanagement.enums.BatchMode;
+import com.barisdalyanemre.librarymanagement.enums.LoanStatus;
 import com.barisdalyanemre.librarymanagement.enums.Role;
 import com.barisdalyanemre.librarymanagement.event.BookAvailabilityEvent;
 import com.barisdalyanemre.librarymanagement.exception.BadRequestException;
@@ -14,21 +23,41 @@ import com.barisdalyanemre.librarymanagement.mapper.BorrowRecordMapper;
 import com.barisdalyanemre.librarymanagement.repository.BookRepository;
 import com.barisdalyanemre.librarymanagement.repository.BorrowRecordRepository;
 import com.barisdalyanemre.librarymanagement.repository.UserRepository;
+import com.barisdalyanemre.librarymanagement.service.BookAvailabilityIndexService;
 import com.barisdalyanemre.librarymanagement.service.BookAvailabilityService;
+import com.barisdalyanemre.librarymanagement.service.DashboardService;
+import com.barisdalyanemre.librarymanagement.service.FineService;
+import com.barisdalyanemre.librarymanagement.service.HoldService;
+import com.barisdalyanemre.librarymanagement.service.LoanAnalyticsService;
+import com.barisdalyanemre.librarymanagement.service.LoanSketchService;
+import com.barisdalyanemre.librarymanagement.service.LoanArchiveService;
+import com.barisdalyanemre.librarymanagement.service.LoanDueIndexService;
+import com.barisdalyanemre.librarymanagement.service.LoanReminderService;
+import com.barisdalyanemre.librarymanagement.service.OverdueLoanJobService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -52,6 +81,45 @@ class BorrowServiceImplTest {
     @Mock
     private BookAvailabilityService bookAvailabilityService;
 
+    @Mock
+    private BookAvailabilityIndexService bookAvailabilityIndexService;
+
+    @Mock
+    private HoldService holdService;
+
+    @Mock
+    private OverdueLoanJobService overdueLoanJobService;
+
+    @Mock
+    private LoanDueIndexService loanDueIndexService;
+
+    @Mock
+    private LoanReminderService loanReminderService;
+
+    @Mock
+    private FineService fineService;
+
+    @Mock
+    private LoanArchiveService loanArchiveService;
+
+    @Mock
+    private LoanAnalyticsService loanAnalyticsService;
+
+    @Mock
+    private LoanSketchService loanSketchService;
+
+    @Mock
+    private DashboardService dashboardService;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Mock
+    private ReplicaLagGuard replicaLagGuard;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
     @Mock
     private Authentication authentication;
 
@@ -72,6 +140,8 @@ class BorrowServiceImplTest {
         lenient().when(securityContext.getAuthentication()).thenReturn(authentication);
         SecurityContextHolder.setContext(securityContext);
         lenient().when(authentication.getName()).thenReturn("user@example.com");
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
 
         testUser = new User();
         testUser.setId(1L);
@@ -123,10 +193,13 @@ class BorrowServiceImplTest {
 
     @Test
     void borrowBook_Success() {
+        when(userRepository.addLoansIfEligible(eq(1L), eq(1), any(LocalDateTime.class), any(LocalDateTime.class), eq(5)))
+                .thenReturn(1);
+        when(bookRepository.markUnavailableIfAvailable(1L)).thenAnswer(invocation -> {
+            testBook.setAvailable(false);
+            return 1;
+        });
         when(bookRepository.findById(1L)).thenReturn(Optional.of(testBook));
-        when(borrowRecordRepository.countByUserAndReturnDateIsNull(eq(testUser))).thenReturn(0L);
-        when(borrowRecordRepository.hasOverdueBooks(eq(testUser), any(LocalDateTime.class))).thenReturn(false);
-        when(borrowRecordRepository.existsByUserAndBookAndReturnDateIsNull(eq(testUser), eq(testBook))).thenReturn(false);
         when(borrowRecordRepository.save(any(BorrowRecord.class))).thenReturn(testBorrowRecord);
         when(borrowRecordMapper.toDTO(any(BorrowRecord.class))).thenReturn(testBorrowRecordDTO);
 
@@ -136,15 +209,24 @@ class BorrowServiceImplTest {
         assertEquals(testBorrowRecordDTO.getId(), result.getId());
         assertEquals(testBorrowRecordDTO.getBookTitle(), result.getBookTitle());
 
-        verify(bookRepository).save(testBook);
+        verify(bookRepository).markUnavailableIfAvailable(1L);
+        verify(bookRepository, never()).save(any(Book.class));
         assertFalse(testBook.getAvailable());
 
-        verify(bookAvailabilityService).publishAvailabilityEvent(any(BookAvailabilityEvent.class));
+        verify(bookAvailabilityService).publishAvailabilityEvent(argThat(event -> !event.isAvailable()));
+        verify(replicaLagGuard).recordWrite();
+        verify(borrowRecordRepository, never()).findActiveLoanBookIds(any(), any());
+        verify(loanDueIndexService).recordLoan(testBorrowRecord.getId(), testBorrowRecord.getDueDate());
+        verify(loanAnalyticsService).recordLoan(eq(testBorrowRecord.getId()), eq(testUser.getId()), eq(testBook), any(LocalDateTime.class));
+        verify(loanSketchService).recordBorrow(eq(testUser.getId()), eq(testBook), any(LocalDateTime.class));
+        verify(dashboardService).recordLoansOpened(1);
+        verify(loanReminderService).scheduleReminders(testBorrowRecord.getId(), testBorrowRecord.getDueDate());
     }
 
     @Test
     void borrowBook_BookNotFound() {
-        when(bookRepository.findById(1L)).thenReturn(Optional.empty());
+        when(bookRepository.markUnavailableIfAvailable(1L)).thenReturn(0);
+        when(bookRepository.existsById(1L)).thenReturn(false);
 
         assertThrows(ResourceNotFoundException.class, () -> borrowService.borrowBook(1L));
     }
@@ -158,37 +240,79 @@ class BorrowServiceImplTest {
 
     @Test
     void borrowBook_MaxLoansReached() {
-        when(borrowRecordRepository.countByUserAndReturnDateIsNull(eq(testUser))).thenReturn(5L);
+        testUser.setActiveLoanCount(5);
 
         assertThrows(BadRequestException.class, () -> borrowService.borrowBook(1L));
+        verify(bookRepository, never()).markUnavailableIfAvailable(anyLong());
     }
 
     @Test
     void borrowBook_HasOverdueBooks() {
-        when(borrowRecordRepository.countByUserAndReturnDateIsNull(eq(testUser))).thenReturn(1L);
-        when(borrowRecordRepository.hasOverdueBooks(eq(testUser), any(LocalDateTime.class))).thenReturn(true);
+        testUser.setActiveLoanCount(1);
+        testUser.setEarliestDueDate(LocalDateTime.now().minusDays(1));
 
         assertThrows(BadRequestException.class, () -> borrowService.borrowBook(1L));
+        verify(bookRepository, never()).markUnavailableIfAvailable(anyLong());
     }
 
     @Test
     void borrowBook_BookNotAvailable() {
+        when(bookRepository.markUnavailableIfAvailable(1L)).thenReturn(0);
+        when(bookRepository.existsById(1L)).thenReturn(true);
+
+        assertThrows(ConflictException.class, () -> borrowService.borrowBook(1L));
+        verify(borrowRecordRepository, never()).save(any(BorrowRecord.class));
+        verify(bookAvailabilityService, never()).publishAvailabilityEvent(any());
+        verify(bookAvailabilityIndexService).updateAvailability(1L, false);
+    }
+
+    @Test
+    void borrowBook_ReadyHoldFulfilled() {
         testBook.setAvailable(false);
+        when(bookAvailabilityIndexService.isKnownUnavailable(1L)).thenReturn(true);
+        when(holdService.isReservedFor(1L, "user@example.com")).thenReturn(true);
+        when(userRepository.addLoansIfEligible(eq(1L), eq(1), any(LocalDateTime.class), any(LocalDateTime.class), eq(5)))
+                .thenReturn(1);
+        when(bookRepository.markUnavailableIfAvailable(1L)).thenReturn(0);
+        when(holdService.fulfilReadyHold(testUser, 1L)).thenReturn(true);
         when(bookRepository.findById(1L)).thenReturn(Optional.of(testBook));
-        when(borrowRecordRepository.countByUserAndReturnDateIsNull(eq(testUser))).thenReturn(0L);
-        when(borrowRecordRepository.hasOverdueBooks(eq(testUser), any(LocalDateTime.class))).thenReturn(false);
+        when(borrowRecordRepository.save(any(BorrowRecord.class))).thenReturn(testBorrowRecord);
+        when(borrowRecordMapper.toDTO(any(BorrowRecord.class))).thenReturn(testBorrowRecordDTO);
+
+        assertNotNull(borrowService.borrowBook(1L));
+        verify(borrowRecordRepository).save(any(BorrowRecord.class));
+    }
+
+    @Test
+    void borrowBook_KnownUnavailableRejectedWithoutQueries() {
+        when(bookAvailabilityIndexService.isKnownUnavailable(1L)).thenReturn(true);
 
         assertThrows(ConflictException.class, () -> borrowService.borrowBook(1L));
+        verifyNoInteractions(userRepository, borrowRecordRepository, bookRepository, transactionTemplate);
     }
 
     @Test
     void borrowBook_AlreadyBorrowed() {
+        testUser.setActiveLoanCount(1);
+        when(bookRepository.markUnavailableIfAvailable(1L)).thenReturn(0);
+        when(bookRepository.existsById(1L)).thenReturn(true);
+        when(borrowRecordRepository.findActiveLoanBookIds(testUser, List.of(1L))).thenReturn(List.of(1L));
+
+        ConflictException exception = assertThrows(ConflictException.class, () -> borrowService.borrowBook(1L));
+        assertEquals("You already have an active loan for this book", exception.getMessage());
+        verify(userRepository, never()).addLoansIfEligible(any(), anyInt(), any(), any(), anyInt());
+    }
+
+    @Test
+    void borrowBook_ConcurrentBorrowExceedsLimit() {
+        testUser.setActiveLoanCount(4);
+        when(bookRepository.markUnavailableIfAvailable(1L)).thenReturn(1);
         when(bookRepository.findById(1L)).thenReturn(Optional.of(testBook));
-        when(borrowRecordRepository.countByUserAndReturnDateIsNull(eq(testUser))).thenReturn(0L);
-        when(borrowRecordRepository.hasOverdueBooks(eq(testUser), any(LocalDateTime.class))).thenReturn(false);
-        when(borrowRecordRepository.existsByUserAndBookAndReturnDateIsNull(eq(testUser), eq(testBook))).thenReturn(true);
+        when(userRepository.addLoansIfEligible(eq(1L), eq(1), any(LocalDateTime.class), any(LocalDateTime.class), eq(5)))
+                .thenReturn(0);
 
-        assertThrows(ConflictException.class, () -> borrowService.borrowBook(1L));
+        assertThrows(BadRequestException.class, () -> borrowService.borrowBook(1L));
+        verify(borrowRecordRepository, never()).save(any(BorrowRecord.class));
     }
 
     @Test
@@ -208,10 +332,31 @@ class BorrowServiceImplTest {
         
         verify(borrowRecordRepository).save(testBorrowRecord);
         assertNotNull(testBorrowRecord.getReturnDate());
+        verify(userRepository).refreshLoanCounters(List.of(testUser.getId()));
+        verify(loanDueIndexService).removeLoans(List.of(testBorrowRecord.getId()));
+        verify(loanAnalyticsService).recordReturns(eq(List.of(testBorrowRecord.getId())), any(LocalDateTime.class));
+        verify(loanSketchService).recordReturns(eq(List.of(testBorrowRecord)), any(LocalDateTime.class));
+        verify(dashboardService).recordLoansClosed(eq(List.of(testBorrowRecord)), any(LocalDateTime.class));
+        verify(loanReminderService).cancelReminders(List.of(testBorrowRecord.getId()));
         
         verify(bookAvailabilityService).publishAvailabilityEvent(any(BookAvailabilityEvent.class));
     }
 
+    @Test
+    void returnBook_AllocatedToWaitingHold() {
+        testBook.setAvailable(false);
+        when(bookRepository.findById(1L)).thenReturn(Optional.of(testBook));
+        when(borrowRecordRepository.findByBookAndReturnDateIsNull(testBook)).thenReturn(Optional.of(testBorrowRecord));
+        when(holdService.allocateReturnedCopy(testBook)).thenReturn(true);
+        when(borrowRecordMapper.toDTO(testBorrowRecord)).thenReturn(testBorrowRecordDTO);
+
+        borrowService.returnBook(1L);
+
+        assertFalse(testBook.getAvailable());
+        verify(bookRepository, never()).save(any(Book.class));
+        verify(bookAvailabilityService, never()).publishAvailabilityEvent(any());
+    }
+
     @Test
     void returnBook_BookNotFound() {
         when(bookRepository.findById(1L)).thenReturn(Optional.empty());
@@ -246,6 +391,7 @@ class BorrowServiceImplTest {
         when(authentication.getName()).thenReturn("librarian@example.com");
         
         BorrowRecord otherUserRecord = new BorrowRecord();
+        otherUserRecord.setId(3L);
         User otherUser = new User();
         otherUser.setId(3L);
         otherUserRecord.setUser(otherUser);
@@ -265,56 +411,209 @@ class BorrowServiceImplTest {
     }
 
     @Test
-    void getCurrentUserBorrowHistory_Success() {
-        List<BorrowRecord> borrowRecords = new ArrayList<>();
-        borrowRecords.add(testBorrowRecord);
-        
-        when(borrowRecordRepository.findByUserOrderByBorrowDateDesc(testUser)).thenReturn(borrowRecords);
+    void getCurrentUserBorrowHistory_FirstPage() {
+        when(borrowRecordRepository.findHistoryPage(testUser, Limit.of(21))).thenReturn(List.of(testBorrowRecord));
         when(borrowRecordMapper.toDTO(testBorrowRecord)).thenReturn(testBorrowRecordDTO);
 
-        List<BorrowRecordDTO> result = borrowService.getCurrentUserBorrowHistory();
+        CursorPageDTO<BorrowRecordDTO> result = borrowService.getCurrentUserBorrowHistory(null, 20);
 
         assertNotNull(result);
-        assertEquals(1, result.size());
-        assertEquals(testBorrowRecordDTO.getId(), result.get(0).getId());
+        assertEquals(1, result.getItems().size());
+        assertEquals(testBorrowRecordDTO.getId(), result.getItems().get(0).getId());
+        assertFalse(result.isHasMore());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    void getCurrentUserBorrowHistory_FirstPageMergesArchivedLoans() {
+        BorrowRecord archived = new BorrowRecord(testUser, testBook, testBorrowRecord.getBorrowDate().minusYears(2),
+                testBorrowRecord.getBorrowDate().minusYears(2).plusDays(14), testBorrowRecord.getBorrowDate().minusYears(2).plusDays(10));
+        archived.setId(0L);
+        BorrowRecordDTO archivedDTO = new BorrowRecordDTO();
+        archivedDTO.setId(0L);
+        when(borrowRecordRepository.findHistoryPage(testUser, Limit.of(21))).thenReturn(List.of(testBorrowRecord));
+        when(loanArchiveService.findUserHistory(testUser, null, null, 21)).thenReturn(List.of(archived));
+        when(borrowRecordMapper.toDTO(testBorrowRecord)).thenReturn(testBorrowRecordDTO);
+        when(borrowRecordMapper.toDTO(archived)).thenReturn(archivedDTO);
+
+        CursorPageDTO<BorrowRecordDTO> result = borrowService.getCurrentUserBorrowHistory(null, 20);
+
+        assertEquals(2, result.getSize());
+        assertEquals(1L, result.getItems().get(0).getId());
+        assertEquals(0L, result.getItems().get(1).getId());
+    }
+
+    @Test
+    void getCurrentUserBorrowHistory_AfterArchivedCursor() {
+        BorrowRecord cursorLoan = new BorrowRecord(testUser, testBook, LocalDateTime.of(2023, 5, 1, 10, 0),
+                LocalDateTime.of(2023, 5, 15, 10, 0), LocalDateTime.of(2023, 5, 10, 10, 0));
+        cursorLoan.setId(7L);
+        when(borrowRecordRepository.findById(7L)).thenReturn(Optional.empty());
+        when(loanArchiveService.findUserLoan(testUser, 7L)).thenReturn(Optional.of(cursorLoan));
+        when(borrowRecordRepository.findHistoryPageAfter(testUser, cursorLoan.getBorrowDate(), 7L, Limit.of(21)))
+                .thenReturn(List.of());
+        when(loanArchiveService.findUserHistory(testUser, cursorLoan.getBorrowDate(), 7L, 21)).thenReturn(List.of());
+
+        CursorPageDTO<BorrowRecordDTO> result = borrowService.getCurrentUserBorrowHistory(7L, 20);
+
+        assertTrue(result.getItems().isEmpty());
+        assertFalse(result.isHasMore());
+    }
+
+    @Test
+    void getCurrentUserBorrowHistory_AfterCursor() {
+        BorrowRecord cursorLoan = new BorrowRecord();
+        cursorLoan.setId(9L);
+        cursorLoan.setUser(testUser);
+        cursorLoan.setBorrowDate(LocalDateTime.now().plusMinutes(1));
+        BorrowRecord older = new BorrowRecord();
+        older.setId(0L);
+        older.setBorrowDate(LocalDateTime.now().minusDays(1));
+        when(borrowRecordRepository.findById(9L)).thenReturn(Optional.of(cursorLoan));
+        when(borrowRecordRepository.findHistoryPageAfter(testUser, cursorLoan.getBorrowDate(), 9L, Limit.of(2)))
+                .thenReturn(List.of(testBorrowRecord, older));
+        when(borrowRecordMapper.toDTO(testBorrowRecord)).thenReturn(testBorrowRecordDTO);
+
+        CursorPageDTO<BorrowRecordDTO> result = borrowService.getCurrentUserBorrowHistory(9L, 1);
+
+        assertEquals(1, result.getSize());
+        assertTrue(result.isHasMore());
+        assertEquals(testBorrowRecordDTO.getId(), result.getNextCursor());
+        verify(borrowRecordRepository, never()).findHistoryPage(any(), any());
+    }
+
+    @Test
+    void getCurrentUserBorrowHistory_InvalidPageSize() {
+        assertThrows(BadRequestException.class, () -> borrowService.getCurrentUserBorrowHistory(null, 0));
+        verify(borrowRecordRepository, never()).findHistoryPage(any(), any());
     }
 
     @Test
     void getCurrentUserActiveLoans_Success() {
-        List<BorrowRecord> borrowRecords = new ArrayList<>();
-        borrowRecords.add(testBorrowRecord);
-        
-        when(borrowRecordRepository.findByUserAndReturnDateIsNullOrderByDueDateAsc(testUser)).thenReturn(borrowRecords);
+        LocalDateTime earliestDueDate = LocalDateTime.of(2025, 3, 15, 10, 0);
+        testUser.setEarliestDueDate(earliestDueDate);
+        // No open loan can have been borrowed more than a loan period before the earliest due date
+        when(borrowRecordRepository.findActiveLoansPage(testUser, earliestDueDate.minusDays(14), Limit.of(21)))
+                .thenReturn(List.of(testBorrowRecord));
         when(borrowRecordMapper.toDTO(testBorrowRecord)).thenReturn(testBorrowRecordDTO);
 
-        List<BorrowRecordDTO> result = borrowService.getCurrentUserActiveLoans();
+        CursorPageDTO<BorrowRecordDTO> result = borrowService.getCurrentUserActiveLoans(null, 20);
 
         assertNotNull(result);
-        assertEquals(1, result.size());
-        assertEquals(testBorrowRecordDTO.getId(), result.get(0).getId());
+        assertEquals(1, result.getItems().size());
+        assertEquals(testBorrowRecordDTO.getId(), result.getItems().get(0).getId());
     }
 
     @Test
-    void getAllBorrowRecords_Success() {
-        List<BorrowRecord> borrowRecords = new ArrayList<>();
-        borrowRecords.add(testBorrowRecord);
-        
-        when(borrowRecordRepository.findAll()).thenReturn(borrowRecords);
+    void getCurrentUserActiveLoans_AfterCursor() {
+        when(borrowRecordRepository.findActiveLoansPageAfter(testUser, LocalDateTime.of(1970, 1, 1, 0, 0), 3L, Limit.of(21)))
+                .thenReturn(List.of());
+
+        CursorPageDTO<BorrowRecordDTO> result = borrowService.getCurrentUserActiveLoans(3L, 20);
+
+        assertTrue(result.getItems().isEmpty());
+        assertFalse(result.isHasMore());
+    }
+
+    @Test
+    void searchBorrowRecords_FirstPageWithMore() {
+        BorrowRecordSearchRequest filter = BorrowRecordSearchRequest.builder().status(LoanStatus.ACTIVE).build();
+        BorrowRecord older = new BorrowRecord();
+        older.setId(0L);
+        when(borrowRecordRepository.findRecordsPage(eq(filter), any(LocalDateTime.class), isNull(), eq(2)))
+                .thenReturn(List.of(testBorrowRecord, older));
         when(borrowRecordMapper.toDTO(testBorrowRecord)).thenReturn(testBorrowRecordDTO);
 
-        List<BorrowRecordDTO> result = borrowService.getAllBorrowRecords();
+        CursorPageDTO<BorrowRecordDTO> result = borrowService.searchBorrowRecords(filter, null, 1);
 
-        assertNotNull(result);
-        assertEquals(1, result.size());
-        assertEquals(testBorrowRecordDTO.getId(), result.get(0).getId());
+        assertEquals(1, result.getItems().size());
+        assertTrue(result.isHasMore());
+        assertEquals(testBorrowRecordDTO.getId(), result.getNextCursor());
+        verify(borrowRecordMapper, never()).toDTO(older);
+    }
+
+    @Test
+    void searchBorrowRecords_LastPage() {
+        BorrowRecordSearchRequest filter = new BorrowRecordSearchRequest();
+        when(borrowRecordRepository.findRecordsPage(eq(filter), any(LocalDateTime.class), eq(5L), eq(21)))
+                .thenReturn(List.of(testBorrowRecord));
+        when(borrowRecordMapper.toDTO(testBorrowRecord)).thenReturn(testBorrowRecordDTO);
+
+        CursorPageDTO<BorrowRecordDTO> result = borrowService.searchBorrowRecords(filter, 5L, 20);
+
+        assertEquals(1, result.getSize());
+        assertFalse(result.isHasMore());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    void searchBorrowRecords_InvalidInput() {
+        BorrowRecordSearchRequest reversed = BorrowRecordSearchRequest.builder()
+                .borrowedFrom(LocalDate.now())
+                .borrowedTo(LocalDate.now().minusDays(1))
+                .build();
+
+        assertThrows(BadRequestException.class, () -> borrowService.searchBorrowRecords(new BorrowRecordSearchRequest(), null, 0));
+        assertThrows(BadRequestException.class, () -> borrowService.searchBorrowRecords(new BorrowRecordSearchRequest(), null, 101));
+        assertThrows(BadRequestException.class, () -> borrowService.searchBorrowRecords(reversed, null, 20));
+        verify(borrowRecordRepository, never()).findRecordsPage(any(), any(), any(), anyInt());
+    }
+
+    @Test
+    void writeBorrowRecords_OneJsonObjectPerLine() throws IOException {
+        BorrowRecordSearchRequest filter = new BorrowRecordSearchRequest();
+        doAnswer(invocation -> {
+            Consumer<BorrowRecord> consumer = invocation.getArgument(2);
+            consumer.accept(testBorrowRecord);
+            consumer.accept(testBorrowRecord);
+            return null;
+        }).when(borrowRecordRepository).forEachRecord(eq(filter), any(LocalDateTime.class), any());
+        when(borrowRecordMapper.toDTO(testBorrowRecord)).thenReturn(testBorrowRecordDTO);
+        StringWriter writer = new StringWriter();
+
+        borrowService.writeBorrowRecords(filter, writer);
+
+        String[] lines = writer.toString().split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(testBorrowRecordDTO.getId(), objectMapper.readValue(lines[0], BorrowRecordDTO.class).getId());
+    }
+
+    @Test
+    void writeBorrowRecords_SkipsArchivedCopiesOfLiveLoans() throws IOException {
+        BorrowRecordSearchRequest filter = new BorrowRecordSearchRequest();
+        LocalDateTime longAgo = LocalDateTime.now().minusYears(2);
+        BorrowRecord liveAndArchived = new BorrowRecord(testUser, testBook, longAgo, longAgo.plusDays(14), longAgo.plusDays(10));
+        liveAndArchived.setId(5L);
+        BorrowRecord archivedOnly = new BorrowRecord(testUser, testBook, longAgo, longAgo.plusDays(14), longAgo.plusDays(12));
+        archivedOnly.setId(4L);
+        when(loanArchiveService.archivableBefore()).thenReturn(LocalDateTime.now().minusMonths(12));
+        doAnswer(invocation -> {
+            invocation.<Consumer<BorrowRecord>>getArgument(2).accept(liveAndArchived);
+            return null;
+        }).when(borrowRecordRepository).forEachRecord(eq(filter), any(LocalDateTime.class), any());
+        doAnswer(invocation -> {
+            Consumer<BorrowRecord> consumer = invocation.getArgument(1);
+            consumer.accept(liveAndArchived);
+            consumer.accept(archivedOnly);
+            return null;
+        }).when(loanArchiveService).forEachRecord(eq(filter), any());
+        when(borrowRecordMapper.toDTO(any(BorrowRecord.class))).thenAnswer(invocation ->
+                BorrowRecordDTO.builder().id(invocation.<BorrowRecord>getArgument(0).getId()).build());
+        StringWriter writer = new StringWriter();
+
+        borrowService.writeBorrowRecords(filter, writer);
+
+        String[] lines = writer.toString().split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(5L, objectMapper.readValue(lines[0], BorrowRecordDTO.class).getId());
+        assertEquals(4L, objectMapper.readValue(lines[1], BorrowRecordDTO.class).getId());
     }
 
     @Test
     void getAllOverdueRecords_Success() {
-        List<BorrowRecord> borrowRecords = new ArrayList<>();
-        borrowRecords.add(testBorrowRecord);
-        
-        when(borrowRecordRepository.findAllOverdue(any(LocalDateTime.class))).thenReturn(borrowRecords);
+        testBorrowRecord.setDueDate(LocalDateTime.now().minusDays(2));
+        when(loanDueIndexService.getOverdueLoanIds(any(LocalDateTime.class))).thenReturn(List.of(1L));
+        when(borrowRecordRepository.findAllWithUserAndBookByIdIn(List.of(1L))).thenReturn(List.of(testBorrowRecord));
         when(borrowRecordMapper.toDTO(testBorrowRecord)).thenReturn(testBorrowRecordDTO);
 
         List<BorrowRecordDTO> result = borrowService.getAllOverdueRecords();
@@ -322,43 +621,218 @@ class BorrowServiceImplTest {
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals(testBorrowRecordDTO.getId(), result.get(0).getId());
+        verify(borrowRecordRepository, never()).findAllOverdue(any(LocalDateTime.class));
     }
 
     @Test
-    void generateOverdueReportText_WithOverdueBooks() {
-        List<BorrowRecord> borrowRecords = new ArrayList<>();
-        borrowRecords.add(testBorrowRecord);
-        
-        when(borrowRecordRepository.findAllOverdue(any(LocalDateTime.class))).thenReturn(borrowRecords);
+    void getAllOverdueRecords_SkipsLoansReturnedSinceIndexed() {
+        BorrowRecord returned = new BorrowRecord();
+        returned.setId(2L);
+        returned.setUser(testUser);
+        returned.setBook(testBook);
+        returned.setDueDate(LocalDateTime.now().minusDays(5));
+        returned.setReturnDate(LocalDateTime.now());
+        testBorrowRecord.setDueDate(LocalDateTime.now().minusDays(2));
+        when(loanDueIndexService.getOverdueLoanIds(any(LocalDateTime.class))).thenReturn(List.of(2L, 1L, 3L));
+        when(borrowRecordRepository.findAllWithUserAndBookByIdIn(List.of(2L, 1L, 3L)))
+                .thenReturn(List.of(testBorrowRecord, returned));
+        when(borrowRecordMapper.toDTO(testBorrowRecord)).thenReturn(testBorrowRecordDTO);
 
-        String result = borrowService.generateOverdueReportText();
+        List<BorrowRecordDTO> result = borrowService.getAllOverdueRecords();
 
-        assertNotNull(result);
-        assertTrue(result.contains("LIBRARY OVERDUE BOOKS REPORT"));
-        assertTrue(result.contains("Total Overdue Books: 1"));
-        assertTrue(result.contains("Test Book"));
+        assertEquals(List.of(testBorrowRecordDTO), result);
     }
 
     @Test
-    void generateOverdueReportText_NoOverdueBooks() {
-        when(borrowRecordRepository.findAllOverdue(any(LocalDateTime.class))).thenReturn(new ArrayList<>());
+    void getLoansDueWithin_Success() {
+        testBorrowRecord.setDueDate(LocalDateTime.now().plusHours(3));
+        when(loanDueIndexService.getLoanIdsDueBetween(any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(List.of(1L));
+        when(borrowRecordRepository.findAllWithUserAndBookByIdIn(List.of(1L))).thenReturn(List.of(testBorrowRecord));
+        when(borrowRecordMapper.toDTO(testBorrowRecord)).thenReturn(testBorrowRecordDTO);
 
-        String result = borrowService.generateOverdueReportText();
+        List<BorrowRecordDTO> result = borrowService.getLoansDueWithin(24);
 
-        assertNotNull(result);
-        assertTrue(result.contains("LIBRARY OVERDUE BOOKS REPORT"));
-        assertTrue(result.contains("No overdue books found"));
+        assertEquals(1, result.size());
+        verify(loanDueIndexService).getLoanIdsDueBetween(any(LocalDateTime.class),
+                argThat(to -> to.isAfter(LocalDateTime.now().plusHours(23))));
+    }
+
+    @Test
+    void getLoansDueWithin_InvalidWindow() {
+        assertThrows(BadRequestException.class, () -> borrowService.getLoansDueWithin(0));
+        assertThrows(BadRequestException.class, () -> borrowService.getLoansDueWithin(721));
+        verifyNoInteractions(loanDueIndexService);
     }
 
     @Test
     void processOverdueBooks_Success() {
-        List<BorrowRecord> borrowRecords = new ArrayList<>();
-        borrowRecords.add(testBorrowRecord);
-        
-        when(borrowRecordRepository.findAllOverdue(any(LocalDateTime.class))).thenReturn(borrowRecords);
+        when(overdueLoanJobService.processOverdueLoans()).thenReturn(1L);
 
         borrowService.processOverdueBooks();
 
-        verify(borrowRecordRepository).findAllOverdue(any(LocalDateTime.class));
+        verify(overdueLoanJobService).processOverdueLoans();
+        verify(borrowRecordRepository, never()).findAllOverdue(any(LocalDateTime.class));
+    }
+
+    @Test
+    void borrowBooks_AllBorrowedInOneBatch() {
+        Book secondBook = createBook(2L, true);
+        when(bookRepository.findAllByIdForUpdate(List.of(1L, 2L))).thenReturn(List.of(testBook, secondBook));
+        when(userRepository.addLoansIfEligible(eq(1L), eq(2), any(LocalDateTime.class), any(LocalDateTime.class), eq(5)))
+                .thenReturn(1);
+        when(bookRepository.markAllUnavailableIfAvailable(List.of(1L, 2L))).thenReturn(2);
+        BorrowRecord secondRecord = new BorrowRecord();
+        secondRecord.setBook(secondBook);
+        when(borrowRecordRepository.findActiveLoansByUserAndBookIds(testUser, List.of(1L, 2L)))
+                .thenReturn(List.of(testBorrowRecord, secondRecord));
+        when(borrowRecordMapper.toDTO(any(BorrowRecord.class))).thenAnswer(invocation -> {
+            BorrowRecord record = invocation.getArgument(0);
+            return BorrowRecordDTO.builder().bookId(record.getBook().getId()).build();
+        });
+
+        BatchResultDTO result = borrowService.borrowBooks(BatchBorrowRequest.builder().bookIds(List.of(1L, 2L, 1L)).build());
+
+        assertEquals(2, result.getRequested());
+        assertEquals(2, result.getSucceeded());
+        assertTrue(result.getResults().stream().allMatch(BatchItemResultDTO::isSuccess));
+        verify(borrowRecordRepository).insertLoans(eq(1L), eq(List.of(1L, 2L)), any(LocalDateTime.class), any(LocalDateTime.class));
+        verify(bookAvailabilityService, times(2)).publishAvailabilityEvent(argThat(event -> !event.isAvailable()));
+        verify(dashboardService).recordLoansOpened(2);
+        verify(replicaLagGuard).recordWrite();
+    }
+
+    @Test
+    void borrowBooks_AllOrNothingRejectsWholeBatch() {
+        when(bookRepository.findAllByIdForUpdate(List.of(1L, 2L, 3L))).thenReturn(List.of(testBook, createBook(2L, false)));
+
+        BatchResultDTO result = borrowService.borrowBooks(BatchBorrowRequest.builder().bookIds(List.of(1L, 2L, 3L)).build());
+
+        assertEquals(0, result.getSucceeded());
+        assertEquals(3, result.getFailed());
+        assertEquals("Not borrowed because other books in the batch failed", result.getResults().get(0).getMessage());
+        assertEquals("Book is not available for borrowing", result.getResults().get(1).getMessage());
+        assertEquals("Book not found with id: 3", result.getResults().get(2).getMessage());
+        verify(bookRepository, never()).markAllUnavailableIfAvailable(any());
+        verify(borrowRecordRepository, never()).insertLoans(any(), any(), any(), any());
+        verify(bookAvailabilityService, never()).publishAvailabilityEvent(any());
+    }
+
+    @Test
+    void borrowBooks_BestEffortBorrowsWhatItCan() {
+        Book heldBook = createBook(3L, false);
+        testUser.setActiveLoanCount(3);
+        when(bookRepository.findAllByIdForUpdate(List.of(1L, 2L, 3L)))
+                .thenReturn(List.of(testBook, createBook(2L, false), heldBook));
+        when(borrowRecordRepository.findActiveLoanBookIds(testUser, List.of(2L, 3L))).thenReturn(List.of(2L));
+        when(userRepository.addLoansIfEligible(eq(1L), eq(2), any(LocalDateTime.class), any(LocalDateTime.class), eq(5)))
+                .thenReturn(1);
+        when(holdService.getReadyHoldBookIds(testUser, List.of(2L, 3L))).thenReturn(Set.of(3L));
+        when(bookRepository.markAllUnavailableIfAvailable(List.of(1L))).thenReturn(1);
+        when(holdService.fulfilReadyHold(testUser, 3L)).thenReturn(true);
+        BorrowRecord heldRecord = new BorrowRecord();
+        heldRecord.setBook(heldBook);
+        when(borrowRecordRepository.findActiveLoansByUserAndBookIds(testUser, List.of(1L, 3L)))
+                .thenReturn(List.of(testBorrowRecord, heldRecord));
+        when(borrowRecordMapper.toDTO(any(BorrowRecord.class))).thenAnswer(invocation -> {
+            BorrowRecord record = invocation.getArgument(0);
+            return BorrowRecordDTO.builder().bookId(record.getBook().getId()).build();
+        });
+
+        BatchResultDTO result = borrowService.borrowBooks(BatchBorrowRequest.builder()
+                .bookIds(List.of(1L, 2L, 3L))
+                .mode(BatchMode.BEST_EFFORT)
+                .build());
+
+        assertEquals(2, result.getSucceeded());
+        assertEquals(1, result.getFailed());
+        assertEquals("You already have an active loan for this book", result.getResults().get(1).getMessage());
+        verify(borrowRecordRepository).insertLoans(eq(1L), eq(List.of(1L, 3L)), any(LocalDateTime.class), any(LocalDateTime.class));
+        verify(bookAvailabilityService).publishAvailabilityEvent(argThat(event -> event.getBookId().equals(1L)));
+    }
+
+    @Test
+    void borrowBooks_LoanLimitAppliesAcrossBatch() {
+        testUser.setActiveLoanCount(4);
+        when(bookRepository.findAllByIdForUpdate(List.of(1L, 2L))).thenReturn(List.of(testBook, createBook(2L, true)));
+
+        BatchResultDTO result = borrowService.borrowBooks(BatchBorrowRequest.builder().bookIds(List.of(1L, 2L)).build());
+
+        assertEquals(0, result.getSucceeded());
+        assertTrue(result.getResults().get(1).getMessage().contains("maximum limit"));
+        verify(borrowRecordRepository, never()).insertLoans(any(), any(), any(), any());
+    }
+
+    @Test
+    void returnBooks_ClosesLoansAndShelvesBooksInBulk() {
+        when(authentication.getName()).thenReturn("librarian@example.com");
+        Book heldBook = createBook(2L, false);
+        BorrowRecord heldLoan = new BorrowRecord();
+        heldLoan.setId(2L);
+        heldLoan.setUser(testUser);
+        heldLoan.setBook(heldBook);
+        heldLoan.setBorrowDate(LocalDateTime.now().minusDays(3));
+        heldLoan.setDueDate(LocalDateTime.now().plusDays(11));
+        when(borrowRecordRepository.findActiveLoansByBookIds(List.of(1L, 2L, 3L)))
+                .thenReturn(List.of(testBorrowRecord, heldLoan));
+        when(borrowRecordRepository.closeLoans(eq(List.of(1L, 2L)), any(LocalDateTime.class))).thenReturn(2);
+        when(holdService.getBooksWithWaitingHolds(Set.of(1L, 2L))).thenReturn(Set.of(2L));
+        when(holdService.allocateReturnedCopy(heldBook)).thenReturn(true);
+        when(borrowRecordMapper.toDTO(any(BorrowRecord.class))).thenAnswer(invocation -> {
+            BorrowRecord record = invocation.getArgument(0);
+            return BorrowRecordDTO.builder().bookId(record.getBook().getId()).returnDate(record.getReturnDate()).build();
+        });
+
+        BatchResultDTO result = borrowService.returnBooks(BatchReturnRequest.builder().bookIds(List.of(1L, 2L, 3L)).build());
+
+        assertEquals(2, result.getSucceeded());
+        assertEquals(1, result.getFailed());
+        assertEquals("Returned", result.getResults().get(0).getMessage());
+        assertNotNull(result.getResults().get(0).getBorrowRecord().getReturnDate());
+        assertEquals("No active loan found for book with id: 3", result.getResults().get(2).getMessage());
+
+        verify(bookRepository).markAllAvailable(List.of(1L));
+        verify(userRepository).refreshLoanCounters(Set.of(testUser.getId()));
+        verify(loanDueIndexService).removeLoans(List.of(1L, 2L));
+        verify(loanAnalyticsService).recordReturns(eq(List.of(1L, 2L)), any(LocalDateTime.class));
+        verify(loanSketchService).recordReturns(eq(List.of(testBorrowRecord, heldLoan)), any(LocalDateTime.class));
+        verify(dashboardService).recordLoansClosed(eq(List.of(testBorrowRecord, heldLoan)), any(LocalDateTime.class));
+        verify(loanReminderService).cancelReminders(List.of(1L, 2L));
+        verify(holdService, never()).allocateReturnedCopy(testBook);
+        verify(bookAvailabilityService).publishAvailabilityEvents(argThat(events ->
+                events.size() == 1 && events.get(0).getBookId().equals(1L) && events.get(0).isAvailable()));
+        verify(borrowRecordRepository, never()).save(any(BorrowRecord.class));
+        verify(bookRepository, never()).save(any(Book.class));
+    }
+
+    @Test
+    void returnBooks_NothingOnLoan() {
+        when(borrowRecordRepository.findActiveLoansByBookIds(List.of(5L))).thenReturn(List.of());
+
+        BatchResultDTO result = borrowService.returnBooks(BatchReturnRequest.builder().bookIds(List.of(5L)).build());
+
+        assertEquals(0, result.getSucceeded());
+        verify(borrowRecordRepository, never()).closeLoans(any(), any());
+        verify(bookAvailabilityService, never()).publishAvailabilityEvents(any());
+    }
+
+    @Test
+    void returnBooks_ConcurrentReturnConflicts() {
+        when(borrowRecordRepository.findActiveLoansByBookIds(List.of(1L))).thenReturn(List.of(testBorrowRecord));
+        when(borrowRecordRepository.closeLoans(eq(List.of(1L)), any(LocalDateTime.class))).thenReturn(0);
+
+        assertThrows(ConflictException.class,
+                () -> borrowService.returnBooks(BatchReturnRequest.builder().bookIds(List.of(1L)).build()));
+        verify(bookRepository, never()).markAllAvailable(any());
+    }
+
+    private Book createBook(Long id, boolean available) {
+        Book book = new Book();
+        book.setId(id);
+        book.setTitle("Book " + id);
+        book.setAuthor("Test Author");
+        book.setIsbn("isbn-" + id);
+        book.setAvailable(available);
+        return book;
     }
 }
@@ -0,0 +1,78 @@
+package com.barisdalyanemre.librarymanagement.service.impl;
+
+import com.barisdalyanemre.librarymanagement.dto.response.CacheStatisticsDTO;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CacheStatisticsServiceImplTest {
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock
+    private SessionFactory sessionFactory;
+
+    @Mock
+    private Statistics statistics;
+
+    private CacheStatisticsServiceImpl cacheStatisticsService;
+
+    @BeforeEach
+    void setUp() {
+        // SessionFactory is itself an EntityManagerFactory, so the service is built by hand rather than with @InjectMocks
+        cacheStatisticsService = new CacheStatisticsServiceImpl(entityManagerFactory);
+        when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+        when(sessionFactory.getStatistics()).thenReturn(statistics);
+    }
+
+    @Test
+    @DisplayName("Should report totals and per-region statistics sorted by region name")
+    void getStatistics_Success() {
+        CacheRegionStatistics books = mock(CacheRegionStatistics.class);
+        when(books.getHitCount()).thenReturn(3L);
+        when(books.getMissCount()).thenReturn(1L);
+        when(books.getPutCount()).thenReturn(1L);
+
+        when(statistics.getSecondLevelCacheRegionNames()).thenReturn(new String[]{"users", "books"});
+        when(statistics.getCacheRegionStatistics("books")).thenReturn(books);
+        when(statistics.getCacheRegionStatistics("users")).thenReturn(null);
+        when(statistics.getSecondLevelCacheHitCount()).thenReturn(3L);
+        when(statistics.getSecondLevelCacheMissCount()).thenReturn(1L);
+        when(statistics.getSecondLevelCachePutCount()).thenReturn(1L);
+        when(statistics.getQueryCacheHitCount()).thenReturn(2L);
+
+        CacheStatisticsDTO result = cacheStatisticsService.getStatistics();
+
+        assertEquals(3L, result.getHitCount());
+        assertEquals(0.75, result.getHitRatio());
+        assertEquals(2L, result.getQueryCacheHitCount());
+        assertEquals(2, result.getRegions().size());
+        assertEquals("books", result.getRegions().get(0).getRegion());
+        assertEquals(0.75, result.getRegions().get(0).getHitRatio());
+        assertEquals("users", result.getRegions().get(1).getRegion());
+        assertEquals(0L, result.getRegions().get(1).getHitCount());
+    }
+
+    @Test
+    @DisplayName("Should report a zero hit ratio before the cache has been used")
+    void getStatistics_Empty() {
+        when(statistics.getSecondLevelCacheRegionNames()).thenReturn(new String[0]);
+
+        CacheStatisticsDTO result = cacheStatisticsService.getStatistics();
+
+        assertEquals(0.0, result.getHitRatio());
+        assertTrue(result.getRegions().isEmpty());
+    }
+}
@@ -0,0 +1,169 @@
+package com.barisdalyanemre.librarymanagement.service.impl;
+
+import com.barisdalyanemre.librarymanagement.dto.response.DashboardDTO;
+import com.barisdalyanemre.librarymanagement.entity.BorrowRecord;
+import com.barisdalyanemre.librarymanagement.enums.Role;
+import com.barisdalyanemre.librarymanagement.event.BookAvailabilityEvent;
+import com.barisdalyanemre.librarymanagement.repository.BookRepository;
+import com.barisdalyanemre.librarymanagement.repository.BorrowRecordRepository;
+import com.barisdalyanemre.librarymanagement.repository.UserRepository;
+import com.barisdalyanemre.librarymanagement.service.BookAvailabilityService;
+import com.barisdalyanemre.librarymanagement.service.LoanDueIndexService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class DashboardServiceImplTest {
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private BorrowRecordRepository borrowRecordRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private BookAvailabilityService bookAvailabilityService;
+
+    @Mock
+    private LoanDueIndexService loanDueIndexService;
+
+    @InjectMocks
+    private DashboardServiceImpl dashboardService;
+
+    @BeforeEach
+    void setUp() {
+        when(bookRepository.count()).thenReturn(10L);
+        when(bookRepository.findUnavailableBookIds()).thenReturn(List.of(1L, 2L, 3L));
+        when(borrowRecordRepository.countByReturnDateIsNull()).thenReturn(3L);
+        when(borrowRecordRepository.countByReturnDateIsNullAndDueDateBefore(any())).thenReturn(1L);
+        when(userRepository.countByRole(Role.PATRON)).thenReturn(4L);
+        dashboardService.reconcile();
+    }
+
+    @Test
+    @DisplayName("Should seed every total from the database")
+    void reconcile_Seeds() {
+        assertEquals(totals(10, 7, 3, 1, 4), totals(dashboardService.getDashboard()));
+    }
+
+    @Test
+    @DisplayName("Should follow book, loan and patron updates")
+    void record_UpdatesCounters() {
+        BorrowRecord overdue = loan(LocalDateTime.now().minusDays(1));
+        BorrowRecord onTime = loan(LocalDateTime.now().plusDays(1));
+
+        dashboardService.recordBookAdded();
+        dashboardService.recordBookRemoved(3L);
+        dashboardService.recordLoansOpened(2);
+        dashboardService.recordLoansClosed(List.of(overdue, onTime), LocalDateTime.now());
+        dashboardService.recordPatronAdded();
+        dashboardService.recordPatronRemoved();
+        dashboardService.recordPatronAdded();
+
+        // Book 3 was checked out, so removing it leaves the available count alone
+        assertEquals(totals(10, 8, 3, 0, 5), totals(dashboardService.getDashboard()));
+    }
+
+    @Test
+    @DisplayName("Should count a book once however often the same availability is announced")
+    void apply_RepeatedEvents() {
+        dashboardService.apply(event(4L, false));
+        dashboardService.apply(event(4L, false));
+        dashboardService.apply(event(1L, true));
+        dashboardService.apply(event(99L, true));
+
+        assertEquals(7, dashboardService.getDashboard().getAvailableBooks());
+    }
+
+    @Test
+    @DisplayName("Should correct drifted counters and report the drift")
+    void reconcile_CorrectsDrift() {
+        dashboardService.recordLoansOpened(5);
+        dashboardService.recordPatronRemoved();
+
+        assertEquals(6, dashboardService.reconcile());
+        assertEquals(totals(10, 7, 3, 1, 4), totals(dashboardService.getDashboard()));
+        assertEquals(0, dashboardService.reconcile());
+    }
+
+    @Test
+    @DisplayName("Should recount overdue loans from the due date index")
+    void refreshOverdueLoans() {
+        when(loanDueIndexService.countOverdueLoans(any())).thenReturn(2);
+
+        dashboardService.refreshOverdueLoans();
+
+        assertEquals(2, dashboardService.getDashboard().getOverdueLoans());
+    }
+
+    @Test
+    @DisplayName("Should not lose concurrent updates")
+    void concurrentUpdates() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        IntStream.range(0, 10_000).forEach(i -> executor.execute(() -> dashboardService.recordLoansOpened(1)));
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(10_003, dashboardService.getDashboard().getActiveLoans());
+    }
+
+    @Test
+    @DisplayName("Should stream the current totals first and then only changes")
+    void getDashboardStream() {
+        StepVerifier.create(dashboardService.getDashboardStream())
+                .assertNext(dashboard -> assertEquals(3, dashboard.getActiveLoans()))
+                .then(() -> dashboardService.recordLoansOpened(1))
+                .assertNext(dashboard -> assertEquals(4, dashboard.getActiveLoans()))
+                .then(() -> {
+                    dashboardService.apply(event(4L, false));
+                    dashboardService.apply(event(4L, false));
+                })
+                .assertNext(dashboard -> assertEquals(6, dashboard.getAvailableBooks()))
+                .expectNoEvent(Duration.ofMillis(200))
+                .thenCancel()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    private static List<Long> totals(DashboardDTO dashboard) {
+        return totals(dashboard.getTotalBooks(), dashboard.getAvailableBooks(), dashboard.getActiveLoans(),
+                dashboard.getOverdueLoans(), dashboard.getPatrons());
+    }
+
+    private static List<Long> totals(long books, long available, long loans, long overdue, long patrons) {
+        return List.of(books, available, loans, overdue, patrons);
+    }
+
+    private static BorrowRecord loan(LocalDateTime dueDate) {
+        BorrowRecord record = new BorrowRecord();
+        record.setDueDate(dueDate);
+        return record;
+    }
+
+    private static BookAvailabilityEvent event(Long bookId, boolean available) {
+        return BookAvailabilityEvent.builder().bookId(bookId).available(available).timestamp(LocalDateTime.now()).build();
+    }
+}
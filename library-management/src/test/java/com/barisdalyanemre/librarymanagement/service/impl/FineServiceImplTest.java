@@ -0,0 +1,224 @@
+package com.barisdalyanemre.librarymanagement.service.impl;
+
+import com.barisdalyanemre.librarymanagement.dto.request.FinePaymentRequest;
+import com.barisdalyanemre.librarymanagement.dto.response.FineBalanceDTO;
+import com.barisdalyanemre.librarymanagement.entity.BorrowRecord;
+import com.barisdalyanemre.librarymanagement.entity.FineLedgerEntry;
+import com.barisdalyanemre.librarymanagement.entity.JobCheckpoint;
+import com.barisdalyanemre.librarymanagement.entity.LoanFine;
+import com.barisdalyanemre.librarymanagement.entity.User;
+import com.barisdalyanemre.librarymanagement.enums.FineEntryType;
+import com.barisdalyanemre.librarymanagement.exception.BadRequestException;
+import com.barisdalyanemre.librarymanagement.repository.BorrowRecordRepository;
+import com.barisdalyanemre.librarymanagement.repository.FineLedgerEntryRepository;
+import com.barisdalyanemre.librarymanagement.repository.JobCheckpointRepository;
+import com.barisdalyanemre.librarymanagement.repository.LoanFineRepository;
+import com.barisdalyanemre.librarymanagement.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FineServiceImplTest {
+
+    @Mock
+    private LoanFineRepository loanFineRepository;
+
+    @Mock
+    private FineLedgerEntryRepository fineLedgerEntryRepository;
+
+    @Mock
+    private BorrowRecordRepository borrowRecordRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private JobCheckpointRepository jobCheckpointRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private FineServiceImpl fineService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(fineService, "dailyRate", new BigDecimal("0.50"));
+        ReflectionTestUtils.setField(fineService, "maxPerLoan", new BigDecimal("20.00"));
+        ReflectionTestUtils.setField(fineService, "chunkSize", 2);
+        ReflectionTestUtils.setField(fineService, "blockBorrowing", true);
+        ReflectionTestUtils.setField(fineService, "blockThreshold", new BigDecimal("10.00"));
+
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    @DisplayName("Should open fines only for loans that fell due since the last run and skip loans that already have one")
+    void accrueFines_OpensFinesSinceWatermark() {
+        LocalDateTime lastRun = LocalDateTime.now().minusDays(1);
+        when(jobCheckpointRepository.findByJobNameAndPartitionNo(FineServiceImpl.JOB_NAME, 0))
+                .thenReturn(Optional.of(new JobCheckpoint(FineServiceImpl.JOB_NAME, 0, 1, lastRun, 0, 0, true)));
+        LocalDateTime dueDate = lastRun.plusHours(2);
+        when(borrowRecordRepository.findLoansFallenDueBetween(eq(lastRun), any(LocalDateTime.class)))
+                .thenReturn(List.of(overdueLoan(1L, 10L, dueDate), overdueLoan(2L, 10L, dueDate)));
+        when(loanFineRepository.findBorrowRecordIdsIn(List.of(1L, 2L))).thenReturn(List.of(2L));
+        when(loanFineRepository.findAccruable(any(LocalDateTime.class), any(Pageable.class))).thenReturn(List.of());
+
+        assertEquals(0, fineService.accrueFines());
+
+        ArgumentCaptor<List<LoanFine>> opened = ArgumentCaptor.captor();
+        verify(loanFineRepository).saveAll(opened.capture());
+        assertEquals(1, opened.getValue().size());
+        assertEquals(1L, opened.getValue().get(0).getBorrowRecordId());
+        assertEquals(dueDate.plusDays(1), opened.getValue().get(0).getNextAccrualAt());
+        verify(jobCheckpointRepository).save(argThat(checkpoint -> checkpoint.getCutoff().isAfter(lastRun)));
+    }
+
+    @Test
+    @DisplayName("Should accrue due fines in chunks and post one ledger entry per fine and one balance update per user")
+    void accrueFines_AccruesInChunks() {
+        when(jobCheckpointRepository.findByJobNameAndPartitionNo(FineServiceImpl.JOB_NAME, 0)).thenReturn(Optional.empty());
+        when(borrowRecordRepository.findLoansFallenDueBetween(any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(List.of());
+        LocalDateTime now = LocalDateTime.now();
+        LoanFine first = fine(1L, 10L, now.minusDays(3).minusHours(1), "1.00");
+        LoanFine second = fine(2L, 10L, now.minusDays(1).minusHours(1), "0.00");
+        LoanFine third = fine(3L, 20L, now.minusDays(60), "19.50");
+        when(loanFineRepository.findAccruable(any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(first, second), List.of(third));
+
+        assertEquals(3, fineService.accrueFines());
+
+        assertEquals(new BigDecimal("1.50"), first.getAmount());
+        assertEquals(3, first.getAccruedDays());
+        assertEquals(first.getDueDate().plusDays(4), first.getNextAccrualAt());
+        assertEquals(new BigDecimal("0.50"), second.getAmount());
+        assertEquals(new BigDecimal("20.00"), third.getAmount());
+        assertNull(third.getNextAccrualAt());
+
+        verify(userRepository).addToFineBalance(10L, new BigDecimal("1.00"));
+        verify(userRepository).addToFineBalance(20L, new BigDecimal("0.50"));
+        ArgumentCaptor<List<FineLedgerEntry>> entries = ArgumentCaptor.captor();
+        verify(fineLedgerEntryRepository, times(2)).saveAll(entries.capture());
+        assertEquals(2, entries.getAllValues().get(0).size());
+        assertEquals(FineEntryType.ACCRUAL, entries.getAllValues().get(1).get(0).getEntryType());
+    }
+
+    @Test
+    @DisplayName("Should not touch fines for loans returned on time")
+    void finalizeFines_OnTimeReturn() {
+        LocalDateTime now = LocalDateTime.now();
+
+        fineService.finalizeFines(List.of(loan(1L, 10L, now.plusDays(2))), now);
+
+        verifyNoInteractions(loanFineRepository, fineLedgerEntryRepository, userRepository);
+    }
+
+    @Test
+    @DisplayName("Should accrue a late loan up to the return date and finalize its fine")
+    void finalizeFines_LateReturn() {
+        LocalDateTime now = LocalDateTime.now();
+        LoanFine existing = fine(1L, 10L, now.minusDays(4).minusHours(1), "1.50");
+        when(loanFineRepository.findByBorrowRecordIdIn(List.of(1L, 2L))).thenReturn(List.of(existing));
+        when(loanFineRepository.save(any(LoanFine.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        fineService.finalizeFines(List.of(loan(1L, 10L, existing.getDueDate()), loan(2L, 10L, now.minusDays(2).minusHours(1))), now);
+
+        assertTrue(existing.isFinalized());
+        assertNull(existing.getNextAccrualAt());
+        assertEquals(new BigDecimal("2.00"), existing.getAmount());
+        verify(loanFineRepository, atLeastOnce()).save(argThat(fine -> fine.getBorrowRecordId() == 2L && fine.isFinalized()
+                && fine.getAmount().compareTo(new BigDecimal("1.00")) == 0));
+        verify(userRepository).addToFineBalance(10L, new BigDecimal("1.50"));
+    }
+
+    @Test
+    @DisplayName("Should block borrowing only above the threshold")
+    void checkBorrowingAllowed() {
+        User user = new User();
+        user.setFineBalance(new BigDecimal("10.00"));
+        assertDoesNotThrow(() -> fineService.checkBorrowingAllowed(user));
+
+        user.setFineBalance(new BigDecimal("10.50"));
+        assertThrows(BadRequestException.class, () -> fineService.checkBorrowingAllowed(user));
+
+        ReflectionTestUtils.setField(fineService, "blockBorrowing", false);
+        assertDoesNotThrow(() -> fineService.checkBorrowingAllowed(user));
+    }
+
+    @Test
+    @DisplayName("Should record a payment as a negative ledger entry")
+    void recordPayment_Success() {
+        User user = user(10L, "12.00");
+        when(userRepository.findById(10L)).thenReturn(Optional.of(user));
+        when(userRepository.deductFromFineBalanceIfCovered(10L, new BigDecimal("5.00"))).thenReturn(1);
+
+        FineBalanceDTO result = fineService.recordPayment(10L, new FinePaymentRequest(new BigDecimal("5.00")));
+
+        assertEquals(new BigDecimal("7.00"), result.getBalance());
+        assertFalse(result.isBorrowingBlocked());
+        verify(fineLedgerEntryRepository).save(argThat(entry -> entry.getEntryType() == FineEntryType.PAYMENT
+                && entry.getAmount().compareTo(new BigDecimal("-5.00")) == 0));
+    }
+
+    @Test
+    @DisplayName("Should reject a payment larger than the outstanding balance")
+    void recordPayment_ExceedsBalance() {
+        when(userRepository.findById(10L)).thenReturn(Optional.of(user(10L, "3.00")));
+        when(userRepository.deductFromFineBalanceIfCovered(10L, new BigDecimal("5.00"))).thenReturn(0);
+
+        assertThrows(BadRequestException.class,
+                () -> fineService.recordPayment(10L, new FinePaymentRequest(new BigDecimal("5.00"))));
+        verify(fineLedgerEntryRepository, never()).save(any());
+    }
+
+    private static LoanFine fine(Long borrowRecordId, Long userId, LocalDateTime dueDate, String amount) {
+        LoanFine fine = new LoanFine(borrowRecordId, userId, dueDate, 0, new BigDecimal(amount), dueDate.plusDays(1), false);
+        fine.setId(borrowRecordId + 100);
+        return fine;
+    }
+
+    private static BorrowRecord loan(Long id, Long userId, LocalDateTime dueDate) {
+        BorrowRecord loan = new BorrowRecord();
+        loan.setId(id);
+        loan.setUser(user(userId, "0.00"));
+        loan.setDueDate(dueDate);
+        return loan;
+    }
+
+    private static User user(Long id, String balance) {
+        User user = new User();
+        user.setId(id);
+        user.setEmail("user" + id + "@example.com");
+        user.setFineBalance(new BigDecimal(balance));
+        return user;
+    }
+
+    private static BorrowRecordRepository.OverdueLoan overdueLoan(Long id, Long userId, LocalDateTime dueDate) {
+        return new BorrowRecordRepository.OverdueLoan() {
+            public Long getId() { return id; }
+            public Long getUserId() { return userId; }
+            public LocalDateTime getDueDate() { return dueDate; }
+        };
+    }
+}
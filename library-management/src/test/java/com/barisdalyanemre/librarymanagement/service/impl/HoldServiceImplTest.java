@@ -0,0 +1,252 @@
+package com.barisdalyanemre.librarymanagement.service.impl;
+
+import com.barisdalyanemre.librarymanagement.dto.response.HoldDTO;
+import com.barisdalyanemre.librarymanagement.entity.Book;
+import com.barisdalyanemre.librarymanagement.entity.BookHold;
+import com.barisdalyanemre.librarymanagement.entity.User;
+import com.barisdalyanemre.librarymanagement.enums.HoldStatus;
+import com.barisdalyanemre.librarymanagement.enums.Role;
+import com.barisdalyanemre.librarymanagement.event.BookAvailabilityEvent;
+import com.barisdalyanemre.librarymanagement.exception.BadRequestException;
+import com.barisdalyanemre.librarymanagement.exception.ConflictException;
+import com.barisdalyanemre.librarymanagement.mapper.BookHoldMapper;
+import com.barisdalyanemre.librarymanagement.repository.BookHoldRepository;
+import com.barisdalyanemre.librarymanagement.repository.BookRepository;
+import com.barisdalyanemre.librarymanagement.repository.BorrowRecordRepository;
+import com.barisdalyanemre.librarymanagement.repository.UserRepository;
+import com.barisdalyanemre.librarymanagement.service.BookAvailabilityService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HoldServiceImplTest {
+
+    @Mock
+    private BookHoldRepository bookHoldRepository;
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private BorrowRecordRepository borrowRecordRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Spy
+    private BookHoldMapper bookHoldMapper;
+
+    @Mock
+    private BookAvailabilityService bookAvailabilityService;
+
+    @InjectMocks
+    private HoldServiceImpl holdService;
+
+    private User patron;
+    private Book book;
+
+    @BeforeEach
+    void setUp() {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("patron@example.com", null, List.of()));
+
+        patron = new User();
+        patron.setId(1L);
+        patron.setEmail("patron@example.com");
+        patron.setRole(Role.PATRON);
+        patron.setEnabled(true);
+
+        book = new Book();
+        book.setId(10L);
+        book.setTitle("Popular Book");
+        book.setIsbn("1234567890");
+        book.setAvailable(false);
+
+        lenient().when(userRepository.findByEmail("patron@example.com")).thenReturn(Optional.of(patron));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Should queue the patron behind earlier holds")
+    void placeHold_Success() {
+        when(bookRepository.findById(10L)).thenReturn(Optional.of(book));
+        when(bookHoldRepository.save(any(BookHold.class))).thenAnswer(invocation -> {
+            BookHold hold = invocation.getArgument(0);
+            hold.setId(100L);
+            return hold;
+        });
+        when(bookHoldRepository.countByBookIdAndStatusAndIdLessThan(10L, HoldStatus.WAITING, 100L)).thenReturn(2L);
+
+        HoldDTO result = holdService.placeHold(10L);
+
+        assertEquals(HoldStatus.WAITING, result.getStatus());
+        assertEquals(3L, result.getQueuePosition());
+    }
+
+    @Test
+    @DisplayName("Should refuse holds on available books")
+    void placeHold_BookAvailable() {
+        book.setAvailable(true);
+        when(bookRepository.findById(10L)).thenReturn(Optional.of(book));
+
+        assertThrows(BadRequestException.class, () -> holdService.placeHold(10L));
+        verify(bookHoldRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Should refuse a second hold on the same book")
+    void placeHold_AlreadyHeld() {
+        when(bookRepository.findById(10L)).thenReturn(Optional.of(book));
+        when(bookHoldRepository.existsByUserAndBookAndStatusIn(eq(patron), eq(book), anyCollection())).thenReturn(true);
+
+        assertThrows(ConflictException.class, () -> holdService.placeHold(10L));
+    }
+
+    @Test
+    @DisplayName("Should report queue positions from the in-memory queue")
+    void getHold_PositionFromQueue() {
+        seedQueue(100L, 101L, 102L);
+        BookHold hold = hold(101L, HoldStatus.WAITING);
+        when(bookHoldRepository.findFirstByUserAndBookIdAndStatusIn(eq(patron), eq(10L), anyCollection()))
+                .thenReturn(Optional.of(hold));
+
+        assertEquals(2L, holdService.getHold(10L).getQueuePosition());
+        verify(bookHoldRepository, never()).countByBookIdAndStatusAndIdLessThan(anyLong(), any(), anyLong());
+    }
+
+    @Test
+    @DisplayName("Should set a returned copy aside for the first waiting hold and notify its owner")
+    void allocateReturnedCopy_Success() {
+        seedQueue(100L, 101L);
+        BookHold hold = hold(100L, HoldStatus.WAITING);
+        when(bookHoldRepository.findFirstByBookIdAndStatusOrderByIdAsc(10L, HoldStatus.WAITING)).thenReturn(Optional.of(hold));
+
+        StepVerifier.create(holdService.getHoldAllocationStream("patron@example.com").take(1))
+                .then(() -> assertTrue(holdService.allocateReturnedCopy(book)))
+                .expectNextMatches(event -> event.getHoldId().equals(100L) && event.getBookId().equals(10L))
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+
+        assertEquals(HoldStatus.READY, hold.getStatus());
+        assertNotNull(hold.getExpiresAt());
+        assertTrue(holdService.isReservedFor(10L, "patron@example.com"));
+        assertFalse(holdService.isReservedFor(10L, "someone@example.com"));
+    }
+
+    @Test
+    @DisplayName("Should drop a book's queue once its last waiting hold leaves it")
+    void queue_DroppedWhenEmpty() {
+        seedQueue(100L, 101L);
+        when(bookHoldRepository.findFirstByBookIdAndStatusOrderByIdAsc(10L, HoldStatus.WAITING))
+                .thenReturn(Optional.of(hold(100L, HoldStatus.WAITING)));
+        assertTrue(holdService.allocateReturnedCopy(book));
+        assertEquals(1, holdService.queuedBooks());
+
+        when(bookHoldRepository.findFirstByUserAndBookIdAndStatusIn(eq(patron), eq(10L), anyCollection()))
+                .thenReturn(Optional.of(hold(101L, HoldStatus.WAITING)));
+        holdService.cancelHold(10L);
+
+        assertEquals(0, holdService.queuedBooks());
+    }
+
+    @Test
+    @DisplayName("Should report no allocation when nobody is waiting")
+    void allocateReturnedCopy_NoHolds() {
+        when(bookHoldRepository.findFirstByBookIdAndStatusOrderByIdAsc(10L, HoldStatus.WAITING)).thenReturn(Optional.empty());
+
+        assertFalse(holdService.allocateReturnedCopy(book));
+    }
+
+    @Test
+    @DisplayName("Should put the copy back on the shelf when a ready hold is cancelled and nobody else waits")
+    void cancelHold_ReadyReleasesCopy() {
+        BookHold hold = hold(100L, HoldStatus.READY);
+        when(bookHoldRepository.findFirstByUserAndBookIdAndStatusIn(eq(patron), eq(10L), anyCollection()))
+                .thenReturn(Optional.of(hold));
+        when(bookHoldRepository.findFirstByBookIdAndStatusOrderByIdAsc(10L, HoldStatus.WAITING)).thenReturn(Optional.empty());
+
+        holdService.cancelHold(10L);
+
+        assertEquals(HoldStatus.CANCELLED, hold.getStatus());
+        assertTrue(book.getAvailable());
+        verify(bookRepository).save(book);
+        verify(bookAvailabilityService).publishAvailabilityEvent(any(BookAvailabilityEvent.class));
+    }
+
+    @Test
+    @DisplayName("Should expire ready holds and pass the copy to the next patron")
+    void processExpiredHolds() {
+        BookHold expired = hold(100L, HoldStatus.READY);
+        BookHold next = hold(101L, HoldStatus.WAITING);
+        when(bookHoldRepository.findByStatusAndExpiresAtBefore(eq(HoldStatus.READY), any(LocalDateTime.class)))
+                .thenReturn(List.of(expired));
+        when(bookHoldRepository.findFirstByBookIdAndStatusOrderByIdAsc(10L, HoldStatus.WAITING)).thenReturn(Optional.of(next));
+
+        holdService.processExpiredHolds();
+
+        assertEquals(HoldStatus.EXPIRED, expired.getStatus());
+        assertEquals(HoldStatus.READY, next.getStatus());
+        assertFalse(book.getAvailable());
+    }
+
+    @Test
+    @DisplayName("Should keep FIFO positions correct across removals and growth")
+    void holdQueue_Positions() {
+        HoldServiceImpl.HoldQueue queue = new HoldServiceImpl.HoldQueue();
+        for (long id = 1; id <= 40; id++) {
+            queue.append(id);
+        }
+        for (long id = 1; id <= 30; id += 2) {
+            queue.remove(id);
+        }
+        for (long id = 41; id <= 60; id++) {
+            queue.append(id);
+        }
+
+        assertEquals(1, queue.position(2L));
+        assertEquals(15, queue.position(30L));
+        assertEquals(25, queue.position(40L));
+        assertEquals(45, queue.position(60L));
+        assertEquals(0, queue.position(1L));
+    }
+
+    private void seedQueue(Long... holdIds) {
+        List<BookHold> waiting = Arrays.stream(holdIds).map(id -> hold(id, HoldStatus.WAITING)).toList();
+        when(bookHoldRepository.findByStatusOrderByIdAsc(HoldStatus.WAITING)).thenReturn(waiting);
+        when(bookHoldRepository.findByStatusOrderByIdAsc(HoldStatus.READY)).thenReturn(List.of());
+        holdService.onApplicationReady();
+    }
+
+    private BookHold hold(Long id, HoldStatus status) {
+        BookHold hold = new BookHold();
+        hold.setId(id);
+        hold.setUser(patron);
+        hold.setBook(book);
+        hold.setStatus(status);
+        return hold;
+    }
+}
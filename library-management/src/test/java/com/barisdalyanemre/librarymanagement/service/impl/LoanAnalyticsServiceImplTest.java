@@ -0,0 +1,201 @@
+package com.barisdalyanemre.librarymanagement.service.impl;
+
+import com.barisdalyanemre.librarymanagement.dto.request.LoanAnalyticsFilter;
+import com.barisdalyanemre.librarymanagement.dto.response.LoanDurationHistogramDTO;
+import com.barisdalyanemre.librarymanagement.dto.response.LoanGroupCountDTO;
+import com.barisdalyanemre.librarymanagement.dto.response.PatronActivityDTO;
+import com.barisdalyanemre.librarymanagement.entity.Book;
+import com.barisdalyanemre.librarymanagement.entity.BorrowRecord;
+import com.barisdalyanemre.librarymanagement.entity.User;
+import com.barisdalyanemre.librarymanagement.enums.LoanGroupBy;
+import com.barisdalyanemre.librarymanagement.exception.BadRequestException;
+import com.barisdalyanemre.librarymanagement.repository.BorrowRecordRepository;
+import com.barisdalyanemre.librarymanagement.repository.BorrowRecordRepository.LoanFact;
+import com.barisdalyanemre.librarymanagement.service.LoanArchiveService;
+import com.barisdalyanemre.librarymanagement.service.impl.LoanAnalyticsServiceImpl.LoanColumns;
+import com.barisdalyanemre.librarymanagement.service.impl.LoanAnalyticsServiceImpl.RowFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class LoanAnalyticsServiceImplTest {
+
+    private static final LocalDateTime JANUARY = LocalDateTime.of(2024, 1, 10, 10, 0);
+    private static final LocalDateTime FEBRUARY = LocalDateTime.of(2024, 2, 5, 10, 0);
+
+    @Mock
+    private BorrowRecordRepository borrowRecordRepository;
+
+    @Mock
+    private LoanArchiveService loanArchiveService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private LoanAnalyticsServiceImpl loanAnalyticsService;
+
+    @BeforeEach
+    void setUp() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(borrowRecordRepository.streamLoanFacts()).thenAnswer(invocation -> Stream.of(
+                fact(2, 1, 10, "Romance", "Austen", JANUARY, JANUARY.plusDays(3)),
+                fact(3, 1, 11, "Dystopian Fiction", "Orwell", JANUARY.plusDays(1), JANUARY.plusDays(11)),
+                fact(4, 2, 10, "Romance", "Austen", FEBRUARY, null),
+                fact(5, 3, 12, null, "Salinger", FEBRUARY.plusDays(2), FEBRUARY.plusDays(42))));
+        doAnswer(invocation -> {
+            Consumer<BorrowRecord> consumer = invocation.getArgument(1);
+            consumer.accept(archived(1, 2, 10, "Romance", "Austen", JANUARY.minusYears(1)));
+            // Archived while the live table was read, so it shows up twice
+            consumer.accept(archived(2, 1, 10, "Romance", "Austen", JANUARY));
+            return null;
+        }).when(loanArchiveService).forEachRecord(any(), any());
+
+        loanAnalyticsService.reseed();
+    }
+
+    @Test
+    @DisplayName("Should seed from live and archived loans without counting a loan twice")
+    void reseed_LiveAndArchived() {
+        assertEquals(5, loanAnalyticsService.size());
+    }
+
+    @Test
+    @DisplayName("Should count loans per genre, most loans first, and per month in calendar order")
+    void countLoans_Grouped() {
+        List<LoanGroupCountDTO> byGenre = loanAnalyticsService.countLoans(LoanGroupBy.GENRE, null, 10);
+        assertEquals(List.of(new LoanGroupCountDTO("Romance", 3), new LoanGroupCountDTO("Dystopian Fiction", 1),
+                new LoanGroupCountDTO("Uncategorized", 1)), byGenre);
+
+        List<LoanGroupCountDTO> byMonth = loanAnalyticsService.countLoans(LoanGroupBy.MONTH,
+                LoanAnalyticsFilter.builder().borrowedFrom(JANUARY.toLocalDate()).build(), 10);
+        assertEquals(List.of(new LoanGroupCountDTO("2024-01", 2), new LoanGroupCountDTO("2024-02", 2)), byMonth);
+
+        assertEquals(1, loanAnalyticsService.countLoans(LoanGroupBy.USER, null, 1).size());
+    }
+
+    @Test
+    @DisplayName("Should apply author and date filters and return nothing for an unknown genre")
+    void countLoans_Filtered() {
+        LoanAnalyticsFilter austenIn2024 = LoanAnalyticsFilter.builder()
+                .author("Austen").borrowedFrom(LocalDate.of(2024, 1, 1)).borrowedTo(FEBRUARY.toLocalDate()).build();
+        assertEquals(List.of(new LoanGroupCountDTO("10", 2)),
+                loanAnalyticsService.countLoans(LoanGroupBy.BOOK, austenIn2024, 10));
+
+        assertTrue(loanAnalyticsService.countLoans(LoanGroupBy.GENRE,
+                LoanAnalyticsFilter.builder().genre("Poetry").build(), 10).isEmpty());
+        assertThrows(BadRequestException.class, () -> loanAnalyticsService.countLoans(LoanGroupBy.GENRE,
+                LoanAnalyticsFilter.builder().borrowedFrom(FEBRUARY.toLocalDate()).borrowedTo(JANUARY.toLocalDate()).build(), 10));
+        assertThrows(BadRequestException.class, () -> loanAnalyticsService.countLoans(LoanGroupBy.GENRE, null, 0));
+    }
+
+    @Test
+    @DisplayName("Should bucket returned loans by duration, including loans returned after seeding")
+    void getDurationHistogram_Success() {
+        loanAnalyticsService.recordReturns(List.of(4L), FEBRUARY.plusDays(8));
+        Book book = new Book();
+        book.setId(13L);
+        book.setGenre("Romance");
+        book.setAuthor("Brontë");
+        loanAnalyticsService.recordLoan(6L, 4L, book, FEBRUARY);
+
+        LoanDurationHistogramDTO histogram = loanAnalyticsService.getDurationHistogram(
+                LoanAnalyticsFilter.builder().borrowedFrom(LocalDate.of(2024, 1, 1)).build(), 7, 2);
+
+        // 3, 10 and 8 days returned; 40 days is past the last bucket; loan 6 is still open
+        assertEquals(List.of(1L, 2L), histogram.getBuckets());
+        assertEquals(1, histogram.getLonger());
+        assertEquals(4, histogram.getReturnedLoans());
+        assertEquals(new BigDecimal("15.25"), histogram.getAverageLoanDays());
+        assertEquals(6, loanAnalyticsService.size());
+        assertThrows(BadRequestException.class, () -> loanAnalyticsService.getDurationHistogram(null, 1, 367));
+    }
+
+    @Test
+    @DisplayName("Should compute nearest-rank percentiles of loans per patron")
+    void getPatronActivity_Percentiles() {
+        PatronActivityDTO activity = loanAnalyticsService.getPatronActivity(null, List.of(90, 10));
+
+        // Patrons 1 and 2 have two loans each, patron 3 one
+        assertEquals(3, activity.getPatrons());
+        assertEquals(5, activity.getLoans());
+        assertEquals(Map.of(10, 1L, 90, 2L), activity.getPercentiles());
+        assertEquals(List.of(10, 90), List.copyOf(activity.getPercentiles().keySet()));
+        assertThrows(BadRequestException.class, () -> loanAnalyticsService.getPatronActivity(null, List.of(0)));
+    }
+
+    @Test
+    @DisplayName("Should merge the partial counts of every chunk of a store larger than one chunk")
+    void loanColumns_ParallelChunks() {
+        int rows = LoanAnalyticsServiceImpl.CHUNK_SIZE * 2 + 123;
+        LoanColumns columns = new LoanColumns(16);
+        for (int i = 0; i < rows; i++) {
+            columns.append(i, i % 7, i % 3, i % 2 == 0 ? "Romance" : "Horror", "Author",
+                    JANUARY.plusMinutes(i), i % 5 == 0 ? JANUARY.plusMinutes(i).plusDays(2) : null);
+        }
+        // Appending a loan again is ignored
+        columns.append(10, 0, 0, "Romance", "Author", JANUARY, null);
+
+        long[] byGenre = columns.countBy(LoanGroupBy.GENRE, new RowFilter(Long.MIN_VALUE, Long.MAX_VALUE, -1, -1));
+
+        assertEquals(rows, columns.size());
+        assertEquals((rows + 1) / 2, byGenre[0]);
+        assertEquals(rows / 2, byGenre[1]);
+        assertEquals((rows + 4) / 5, columns.durationHistogram(
+                new RowFilter(Long.MIN_VALUE, Long.MAX_VALUE, -1, -1), 1, 10).loans);
+    }
+
+    private static LoanFact fact(long id, long userId, long bookId, String genre, String author,
+                                 LocalDateTime borrowDate, LocalDateTime returnDate) {
+        return new LoanFact() {
+            public Long getId() { return id; }
+            public Long getUserId() { return userId; }
+            public Long getBookId() { return bookId; }
+            public String getGenre() { return genre; }
+            public String getAuthor() { return author; }
+            public LocalDateTime getBorrowDate() { return borrowDate; }
+            public LocalDateTime getReturnDate() { return returnDate; }
+        };
+    }
+
+    private static BorrowRecord archived(long id, long userId, long bookId, String genre, String author,
+                                         LocalDateTime borrowDate) {
+        User user = new User();
+        user.setId(userId);
+        Book book = new Book();
+        book.setId(bookId);
+        book.setGenre(genre);
+        book.setAuthor(author);
+        BorrowRecord record = new BorrowRecord();
+        record.setId(id);
+        record.setUser(user);
+        record.setBook(book);
+        record.setBorrowDate(borrowDate);
+        record.setDueDate(borrowDate.plusDays(14));
+        record.setReturnDate(borrowDate.plusDays(5));
+        return record;
+    }
+}
@@ -0,0 +1,231 @@
+package com.barisdalyanemre.librarymanagement.service.impl;
+
+import com.barisdalyanemre.librarymanagement.dto.request.BorrowRecordSearchRequest;
+import com.barisdalyanemre.librarymanagement.entity.Book;
+import com.barisdalyanemre.librarymanagement.entity.BorrowRecord;
+import com.barisdalyanemre.librarymanagement.entity.User;
+import com.barisdalyanemre.librarymanagement.enums.LoanStatus;
+import com.barisdalyanemre.librarymanagement.repository.BookRepository;
+import com.barisdalyanemre.librarymanagement.repository.BorrowRecordRepository;
+import com.barisdalyanemre.librarymanagement.repository.UserRepository;
+import com.barisdalyanemre.librarymanagement.service.impl.LoanArchiveServiceImpl.ArchivedLoan;
+import com.barisdalyanemre.librarymanagement.service.impl.LoanArchiveServiceImpl.LoanSegment;
+import com.barisdalyanemre.librarymanagement.service.impl.LoanArchiveServiceImpl.SegmentColumns;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class LoanArchiveServiceImplTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2023, 1, 10, 9, 30, 15, 123_456_000);
+
+    @Mock
+    private BorrowRecordRepository borrowRecordRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private LoanArchiveServiceImpl loanArchiveService;
+
+    @TempDir
+    Path archiveDirectory;
+
+    private User user;
+    private Book book;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(loanArchiveService, "enabled", true);
+        ReflectionTestUtils.setField(loanArchiveService, "directory", archiveDirectory.toString());
+        ReflectionTestUtils.setField(loanArchiveService, "ageMonths", 12);
+        ReflectionTestUtils.setField(loanArchiveService, "segmentSize", 3);
+
+        user = new User();
+        user.setId(2L);
+        user.setEmail("john@example.com");
+        book = new Book();
+        book.setId(10L);
+        book.setTitle("1984");
+
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(bookRepository.findAllById(any())).thenReturn(List.of(book));
+        when(userRepository.findAllById(any())).thenReturn(List.of(user));
+    }
+
+    @Test
+    @DisplayName("Should read back every column of a written segment, sorted by user and newest first")
+    void segment_RoundTrip() throws IOException {
+        List<ArchivedLoan> loans = List.of(
+                loan(5, 3, 11, BASE.plusDays(3)),
+                loan(1, 2, 10, BASE),
+                loan(9, 2, 12, BASE.plusDays(40)),
+                loan(4, 7, 10, BASE.minusDays(400)));
+
+        LoanSegment segment = LoanSegment.write(archiveDirectory.resolve("loans-test.seg"), SegmentColumns.of(loans));
+        SegmentColumns columns = LoanSegment.open(segment.path()).decode();
+
+        assertEquals(4, columns.size());
+        assertArrayEquals(new long[]{9, 1, 5, 4}, columns.ids());
+        assertArrayEquals(new long[]{2, 2, 3, 7}, columns.userIds());
+        assertArrayEquals(new long[]{12, 10, 11, 10}, columns.bookIds());
+        assertEquals(loans.get(1), columns.row(1));
+        assertFalse(Files.exists(archiveDirectory.resolve("loans-test.seg.tmp")));
+    }
+
+    @Test
+    @DisplayName("Should decode one user's rows from their offsets alone")
+    void segment_DecodeUser() throws IOException {
+        List<ArchivedLoan> loans = List.of(
+                loan(5, 3, 11, BASE.plusDays(3)),
+                loan(1, 2, 10, BASE),
+                loan(9, 2, 12, BASE.plusDays(40)),
+                loan(6, 3, 14, BASE.minusDays(2)),
+                loan(4, 7, 10, BASE.minusDays(400)));
+        LoanSegment segment = LoanSegment.write(archiveDirectory.resolve("loans-test.seg"), SegmentColumns.of(loans));
+
+        SegmentColumns third = segment.decodeUser(3);
+        assertArrayEquals(new long[]{5, 6}, third.ids());
+        assertArrayEquals(new long[]{11, 14}, third.bookIds());
+        assertEquals(loans.get(3), third.row(1));
+        assertEquals(loans.get(4), segment.decodeUser(7).row(0));
+        assertNull(segment.decodeUser(5));
+        assertArrayEquals(new long[]{9, 1, 5, 6, 4}, segment.decode().ids());
+    }
+
+    @Test
+    @DisplayName("Should write full chunks to segments and delete the archived loans")
+    void archiveReturnedLoans_Success() {
+        List<BorrowRecordRepository.ArchivableLoan> firstChunk = List.of(archivable(1), archivable(2), archivable(3));
+        List<BorrowRecordRepository.ArchivableLoan> secondChunk = List.of(archivable(4));
+        when(borrowRecordRepository.findArchivableLoans(any(LocalDateTime.class), eq(Limit.of(3))))
+                .thenReturn(firstChunk, secondChunk);
+        when(borrowRecordRepository.deleteArchivedLoans(any(LocalDateTime.class), eq(3L))).thenReturn(3);
+        when(borrowRecordRepository.deleteArchivedLoans(any(LocalDateTime.class), eq(4L))).thenReturn(1);
+
+        int archived = loanArchiveService.archiveReturnedLoans();
+
+        assertEquals(4, archived);
+        assertTrue(Files.exists(archiveDirectory.resolve("loans-0000000000000000001-0000000000000000003.seg")));
+        assertTrue(Files.exists(archiveDirectory.resolve("loans-0000000000000000004-0000000000000000004.seg")));
+        verify(borrowRecordRepository, times(2)).findArchivableLoans(any(LocalDateTime.class), any());
+
+        List<BorrowRecord> history = loanArchiveService.findUserHistory(user, null, null, 10);
+        assertEquals(List.of(4L, 3L, 2L, 1L), history.stream().map(BorrowRecord::getId).toList());
+        assertSame(book, history.get(0).getBook());
+        assertEquals(BASE.plusDays(4), history.get(0).getBorrowDate());
+    }
+
+    @Test
+    @DisplayName("Should write nothing when no loan is due for archiving")
+    void archiveReturnedLoans_NothingToArchive() {
+        when(borrowRecordRepository.findArchivableLoans(any(LocalDateTime.class), any())).thenReturn(List.of());
+
+        assertEquals(0, loanArchiveService.archiveReturnedLoans());
+        verify(borrowRecordRepository, never()).deleteArchivedLoans(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should page a user's archived history after a cursor and find single loans")
+    void findUserHistory_AfterCursor() throws IOException {
+        writeSegment(loan(1, 2, 10, BASE), loan(2, 2, 10, BASE.plusDays(1)), loan(3, 4, 10, BASE.plusDays(2)));
+        writeSegment(loan(6, 2, 10, BASE.plusDays(5)), loan(7, 2, 10, BASE.plusDays(6)));
+        loanArchiveService.loadSegments();
+
+        List<BorrowRecord> page = loanArchiveService.findUserHistory(user, BASE.plusDays(6), 7L, 2);
+
+        assertEquals(List.of(6L, 2L), page.stream().map(BorrowRecord::getId).toList());
+        assertEquals(2L, loanArchiveService.findUserLoan(user, 2L).orElseThrow().getId());
+        assertTrue(loanArchiveService.findUserLoan(user, 3L).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should filter and stream archived loans and keep a loan archived twice once")
+    void findRecords_Filtered() throws IOException {
+        writeSegment(loan(1, 2, 10, BASE), loan(2, 2, 11, BASE.plusDays(1)), loan(3, 4, 10, BASE.plusDays(2)));
+        writeSegment(loan(3, 4, 10, BASE.plusDays(2)), loan(8, 5, 10, BASE.plusDays(9)));
+        loanArchiveService.loadSegments();
+        when(userRepository.findAllById(any())).thenReturn(List.of(user, patron(4L), patron(5L)));
+
+        BorrowRecordSearchRequest byBook = BorrowRecordSearchRequest.builder().bookId(10L).build();
+        assertEquals(List.of(8L, 3L, 1L), ids(loanArchiveService.findRecords(byBook, null, 10)));
+        assertEquals(List.of(3L), ids(loanArchiveService.findRecords(byBook, 8L, 1)));
+
+        BorrowRecordSearchRequest active = BorrowRecordSearchRequest.builder().status(LoanStatus.ACTIVE).build();
+        assertTrue(loanArchiveService.findRecords(active, null, 10).isEmpty());
+
+        BorrowRecordSearchRequest borrowedOnFirstDay = BorrowRecordSearchRequest.builder()
+                .borrowedFrom(BASE.toLocalDate()).borrowedTo(BASE.toLocalDate()).build();
+        List<BorrowRecord> streamed = new ArrayList<>();
+        loanArchiveService.forEachRecord(borrowedOnFirstDay, streamed::add);
+        assertEquals(List.of(1L), ids(streamed));
+
+        streamed.clear();
+        loanArchiveService.forEachRecord(byBook, streamed::add);
+        assertEquals(List.of(1L, 3L, 8L), ids(streamed).stream().sorted().toList());
+    }
+
+    private void writeSegment(ArchivedLoan... loans) throws IOException {
+        long first = loans[0].id();
+        LoanSegment.write(archiveDirectory.resolve("loans-" + first + "-" + loans.length + ".seg"),
+                SegmentColumns.of(List.of(loans)));
+    }
+
+    private static User patron(Long id) {
+        User patron = new User();
+        patron.setId(id);
+        return patron;
+    }
+
+    private static List<Long> ids(List<BorrowRecord> records) {
+        return records.stream().map(BorrowRecord::getId).toList();
+    }
+
+    private static ArchivedLoan loan(long id, long userId, long bookId, LocalDateTime borrowDate) {
+        return new ArchivedLoan(id, userId, bookId, TimeKeys.toMicros(borrowDate),
+                TimeKeys.toMicros(borrowDate.plusDays(14)),
+                TimeKeys.toMicros(borrowDate.plusDays(12)));
+    }
+
+    private static BorrowRecordRepository.ArchivableLoan archivable(long id) {
+        return new BorrowRecordRepository.ArchivableLoan() {
+            public Long getId() { return id; }
+            public Long getUserId() { return 2L; }
+            public Long getBookId() { return 10L; }
+            public LocalDateTime getBorrowDate() { return BASE.plusDays(id); }
+            public LocalDateTime getDueDate() { return BASE.plusDays(id + 14); }
+            public LocalDateTime getReturnDate() { return BASE.plusDays(id + 20); }
+        };
+    }
+}
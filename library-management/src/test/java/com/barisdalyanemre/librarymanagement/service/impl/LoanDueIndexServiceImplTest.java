@@ -0,0 +1,148 @@
+package com.barisdalyanemre.librarymanagement.service.impl;
+
+import com.barisdalyanemre.librarymanagement.repository.BorrowRecordRepository;
+import com.barisdalyanemre.librarymanagement.repository.BorrowRecordRepository.LoanDueDate;
+import com.barisdalyanemre.librarymanagement.service.impl.LoanDueIndexServiceImpl.DueDateHeap;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LoanDueIndexServiceImplTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 6, 1, 12, 0);
+
+    @Mock
+    private BorrowRecordRepository borrowRecordRepository;
+
+    @InjectMocks
+    private LoanDueIndexServiceImpl loanDueIndexService;
+
+    @Test
+    @DisplayName("Should answer overdue and due-soon queries in due date order")
+    void queries_OrderedByDueDate() {
+        loanDueIndexService.recordLoan(1L, NOW.plusHours(5));
+        loanDueIndexService.recordLoan(2L, NOW.minusDays(3));
+        loanDueIndexService.recordLoan(3L, NOW.minusHours(1));
+        loanDueIndexService.recordLoan(4L, NOW.plusDays(3));
+        loanDueIndexService.recordLoan(5L, NOW.plusHours(1));
+
+        assertEquals(List.of(2L, 3L), loanDueIndexService.getOverdueLoanIds(NOW));
+        assertEquals(List.of(5L, 1L), loanDueIndexService.getLoanIdsDueBetween(NOW, NOW.plusHours(24)));
+        assertEquals(2, loanDueIndexService.countOverdueLoans(NOW));
+    }
+
+    @Test
+    @DisplayName("Should drop returned loans from the index")
+    void removeLoans_NoLongerReported() {
+        loanDueIndexService.recordLoan(1L, NOW.minusDays(1));
+        loanDueIndexService.recordLoan(2L, NOW.minusDays(2));
+
+        loanDueIndexService.removeLoans(List.of(2L, 99L));
+
+        assertEquals(List.of(1L), loanDueIndexService.getOverdueLoanIds(NOW));
+        assertEquals(1, loanDueIndexService.size());
+    }
+
+    @Test
+    @DisplayName("Should only apply changes once the surrounding transaction commits")
+    void recordLoan_AppliedAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            loanDueIndexService.recordLoan(1L, NOW.minusDays(1));
+            assertTrue(loanDueIndexService.getOverdueLoanIds(NOW).isEmpty());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(List.of(1L), loanDueIndexService.getOverdueLoanIds(NOW));
+    }
+
+    @Test
+    @DisplayName("Should rebuild the index from the open loans in the database")
+    void reseed_ReplacesIndex() {
+        loanDueIndexService.recordLoan(7L, NOW.minusDays(1));
+        when(borrowRecordRepository.findActiveLoanDueDates())
+                .thenReturn(List.of(loanDue(1L, NOW.minusDays(2)), loanDue(2L, NOW.plusDays(2))));
+
+        loanDueIndexService.reseed();
+
+        assertEquals(List.of(1L), loanDueIndexService.getOverdueLoanIds(NOW));
+        assertEquals(2, loanDueIndexService.size());
+    }
+
+    @Test
+    @DisplayName("Should keep changes committed while the index is being reseeded")
+    void reseed_ReplaysConcurrentChanges() {
+        when(borrowRecordRepository.findActiveLoanDueDates()).thenAnswer(invocation -> {
+            loanDueIndexService.recordLoan(3L, NOW.minusHours(2));
+            loanDueIndexService.removeLoans(List.of(1L));
+            return List.of(loanDue(1L, NOW.minusDays(2)), loanDue(2L, NOW.minusDays(1)));
+        });
+
+        loanDueIndexService.reseed();
+
+        assertEquals(List.of(2L, 3L), loanDueIndexService.getOverdueLoanIds(NOW));
+    }
+
+    @Test
+    @DisplayName("Heap should match a sorted reference under random inserts, updates and removals")
+    void dueDateHeap_MatchesSortedReference() {
+        DueDateHeap heap = new DueDateHeap();
+        TreeMap<Long, Long> reference = new TreeMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 5000; i++) {
+            long loanId = random.nextInt(500);
+            if (random.nextInt(3) == 0) {
+                assertEquals(reference.remove(loanId) != null, heap.remove(loanId));
+            } else {
+                long dueKey = random.nextInt(1000);
+                heap.put(loanId, dueKey);
+                reference.put(loanId, dueKey);
+            }
+        }
+
+        long fromKey = 250;
+        long toKey = 600;
+        List<Long> expected = new ArrayList<>(reference.keySet().stream()
+                .filter(id -> reference.get(id) >= fromKey && reference.get(id) < toKey)
+                .sorted((a, b) -> reference.get(a).equals(reference.get(b))
+                        ? Long.compare(a, b) : Long.compare(reference.get(a), reference.get(b)))
+                .toList());
+
+        assertEquals(reference.size(), heap.size());
+        assertEquals(expected, heap.findBetween(fromKey, toKey));
+        assertEquals(expected.size(), heap.countBetween(fromKey, toKey));
+    }
+
+    private static LoanDueDate loanDue(Long id, LocalDateTime dueDate) {
+        return new LoanDueDate() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public LocalDateTime getDueDate() {
+                return dueDate;
+            }
+        };
+    }
+}
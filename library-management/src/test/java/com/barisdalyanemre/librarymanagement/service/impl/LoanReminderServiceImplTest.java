@@ -0,0 +1,220 @@
+package com.barisdalyanemre.librarymanagement.service.impl;
+
+import com.barisdalyanemre.librarymanagement.entity.Book;
+import com.barisdalyanemre.librarymanagement.entity.BorrowRecord;
+import com.barisdalyanemre.librarymanagement.entity.User;
+import com.barisdalyanemre.librarymanagement.enums.ReminderType;
+import com.barisdalyanemre.librarymanagement.event.LoanReminderEvent;
+import com.barisdalyanemre.librarymanagement.notification.ReminderNotificationSink;
+import com.barisdalyanemre.librarymanagement.repository.BorrowRecordRepository;
+import com.barisdalyanemre.librarymanagement.repository.BorrowRecordRepository.LoanDueDate;
+import com.barisdalyanemre.librarymanagement.service.impl.LoanReminderServiceImpl.ReminderWheel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LoanReminderServiceImplTest {
+
+    @Mock
+    private BorrowRecordRepository borrowRecordRepository;
+
+    @Mock
+    private ReminderNotificationSink reminderNotificationSink;
+
+    @InjectMocks
+    private LoanReminderServiceImpl loanReminderService;
+
+    private final Map<Long, BorrowRecord> loans = new HashMap<>();
+    private LocalDateTime now;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(loanReminderService, "batchSize", 500);
+        now = LocalDateTime.now();
+
+        lenient().when(borrowRecordRepository.findAllWithUserAndBookByIdIn(anyCollection())).thenAnswer(invocation -> {
+            List<Long> ids = new ArrayList<>(invocation.getArgument(0));
+            return ids.stream().filter(loans::containsKey).map(loans::get).toList();
+        });
+    }
+
+    @Test
+    @DisplayName("Should send each reminder of a loan when its moment comes")
+    void dispatchDueReminders_SendsRemindersInTurn() {
+        LocalDateTime dueDate = now.plusDays(5);
+        openLoan(1L, dueDate);
+        loanReminderService.scheduleReminders(1L, dueDate);
+        assertEquals(3, loanReminderService.pendingReminders());
+
+        assertEquals(0, loanReminderService.dispatchDueReminders(now.plusDays(1)));
+        assertEquals(List.of(ReminderType.DUE_IN_3_DAYS), sentTypes(now.plusDays(2).plusMinutes(1)));
+        assertEquals(List.of(ReminderType.DUE_TOMORROW), sentTypes(now.plusDays(4).plusMinutes(1)));
+        assertEquals(List.of(ReminderType.OVERDUE), sentTypes(now.plusDays(6).plusMinutes(1)));
+        assertEquals(0, loanReminderService.pendingReminders());
+    }
+
+    @Test
+    @DisplayName("Should not send reminders for returned loans")
+    void cancelReminders_NothingSent() {
+        openLoan(1L, now.plusDays(14));
+        loanReminderService.scheduleReminders(1L, now.plusDays(14));
+
+        loanReminderService.cancelReminders(List.of(1L));
+
+        assertEquals(0, loanReminderService.pendingReminders());
+        assertEquals(0, loanReminderService.dispatchDueReminders(now.plusDays(30)));
+        verifyNoInteractions(reminderNotificationSink);
+    }
+
+    @Test
+    @DisplayName("Should skip a reminder whose loan was returned after it came due")
+    void dispatchDueReminders_SkipsReturnedLoan() {
+        openLoan(1L, now.plusDays(2));
+        loanReminderService.scheduleReminders(1L, now.plusDays(2));
+        loans.get(1L).setReturnDate(now.plusHours(1));
+
+        assertEquals(0, loanReminderService.dispatchDueReminders(now.plusDays(5)));
+        verifyNoInteractions(reminderNotificationSink);
+    }
+
+    @Test
+    @DisplayName("Should send due reminders in batches")
+    void dispatchDueReminders_Batched() {
+        ReflectionTestUtils.setField(loanReminderService, "batchSize", 2);
+        for (long id = 1; id <= 5; id++) {
+            openLoan(id, now.plusDays(1).plusHours(id));
+            loanReminderService.scheduleReminders(id, now.plusDays(1).plusHours(id));
+        }
+
+        assertEquals(5, loanReminderService.dispatchDueReminders(now.plusDays(1)));
+
+        verify(reminderNotificationSink, times(3)).send(any());
+        verify(borrowRecordRepository, times(3)).findAllWithUserAndBookByIdIn(anyCollection());
+    }
+
+    @Test
+    @DisplayName("Should rebuild only the reminders that are still ahead")
+    void rebuild_SkipsPassedReminders() {
+        when(borrowRecordRepository.findActiveLoanDueDates()).thenReturn(List.of(
+                loanDue(1L, now.minusDays(3)),
+                loanDue(2L, now.plusDays(2)),
+                loanDue(3L, now.plusDays(14))));
+
+        loanReminderService.rebuild();
+
+        assertEquals(0 + 2 + 3, loanReminderService.pendingReminders());
+    }
+
+    @Test
+    @DisplayName("Should not double the reminders of a loan borrowed while the wheel is rebuilt")
+    void rebuild_ReplayedLoanAlreadySeeded() {
+        LocalDateTime dueDate = now.plusDays(5);
+        openLoan(1L, dueDate);
+        when(borrowRecordRepository.findActiveLoanDueDates()).thenAnswer(invocation -> {
+            // The borrow commits during the rebuild and its row is also in the loaded loans
+            loanReminderService.scheduleReminders(1L, dueDate);
+            return List.of(loanDue(1L, dueDate));
+        });
+
+        loanReminderService.rebuild();
+
+        assertEquals(3, loanReminderService.pendingReminders());
+        assertEquals(List.of(ReminderType.DUE_IN_3_DAYS), sentTypes(now.plusDays(2).plusMinutes(1)));
+    }
+
+    @Test
+    @DisplayName("Wheel should expire every timer exactly once, at its deadline, across all levels")
+    void reminderWheel_MatchesReference() {
+        Random random = new Random(7);
+        long start = 1_000_000;
+        ReminderWheel wheel = new ReminderWheel(start);
+        Map<Long, Long> deadlines = new HashMap<>();
+
+        for (long loanId = 0; loanId < 2000; loanId++) {
+            // Deadlines from the next minute up to about a year ahead, so every level is used
+            long deadline = start + 1 + (long) (Math.pow(random.nextDouble(), 3) * 600_000);
+            wheel.schedule(loanId, ReminderType.OVERDUE, deadline);
+            deadlines.put(loanId, deadline);
+        }
+        for (long loanId = 0; loanId < 2000; loanId += 7) {
+            assertTrue(wheel.cancel(loanId));
+            deadlines.remove(loanId);
+        }
+
+        long tick = start;
+        int expired = 0;
+        while (tick < start + 600_001) {
+            long next = tick + 1 + random.nextInt(5_000);
+            for (ReminderWheel.Timer timer : wheel.advanceTo(next)) {
+                Long deadline = deadlines.remove(timer.loanId());
+                assertNotNull(deadline, "timer fired twice or after being cancelled");
+                assertTrue(deadline > tick && deadline <= next, "timer fired outside its tick window");
+                expired++;
+            }
+            tick = next;
+        }
+
+        assertTrue(deadlines.isEmpty());
+        assertEquals(0, wheel.size());
+        assertTrue(expired > 1000);
+    }
+
+    private List<ReminderType> sentTypes(LocalDateTime at) {
+        clearInvocations(reminderNotificationSink);
+        loanReminderService.dispatchDueReminders(at);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<LoanReminderEvent>> captor = ArgumentCaptor.forClass(List.class);
+        verify(reminderNotificationSink).send(captor.capture());
+        return captor.getValue().stream().map(LoanReminderEvent::getType).toList();
+    }
+
+    private void openLoan(Long id, LocalDateTime dueDate) {
+        User user = new User();
+        user.setEmail("user" + id + "@example.com");
+        Book book = new Book();
+        book.setTitle("Book " + id);
+        book.setIsbn("isbn-" + id);
+
+        BorrowRecord loan = new BorrowRecord();
+        loan.setId(id);
+        loan.setUser(user);
+        loan.setBook(book);
+        loan.setBorrowDate(dueDate.minusDays(14));
+        loan.setDueDate(dueDate);
+        loans.put(id, loan);
+    }
+
+    private static LoanDueDate loanDue(Long id, LocalDateTime dueDate) {
+        return new LoanDueDate() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public LocalDateTime getDueDate() {
+                return dueDate;
+            }
+        };
+    }
+}
@@ -0,0 +1,271 @@
+package com.barisdalyanemre.librarymanagement.service.impl;
+
+import com.barisdalyanemre.librarymanagement.dto.response.LoanSketchDTO;
+import com.barisdalyanemre.librarymanagement.entity.Book;
+import com.barisdalyanemre.librarymanagement.entity.BorrowRecord;
+import com.barisdalyanemre.librarymanagement.entity.DailyLoanStats;
+import com.barisdalyanemre.librarymanagement.entity.LoanSketch;
+import com.barisdalyanemre.librarymanagement.enums.SketchDimension;
+import com.barisdalyanemre.librarymanagement.exception.BadRequestException;
+import com.barisdalyanemre.librarymanagement.repository.LoanSketchRepository;
+import com.barisdalyanemre.librarymanagement.service.impl.LoanSketchServiceImpl.DurationHistogram;
+import com.barisdalyanemre.librarymanagement.service.impl.LoanSketchServiceImpl.HyperLogLog;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class LoanSketchServiceImplTest {
+
+    private static final YearMonth THIS_MONTH = YearMonth.now();
+    private static final LocalDateTime NOW = THIS_MONTH.atDay(20).atTime(12, 0);
+
+    @Mock
+    private LoanSketchRepository loanSketchRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private LoanSketchServiceImpl loanSketchService;
+
+    private Book book;
+
+    @BeforeEach
+    void setUp() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(loanSketchRepository.findByDimensionAndSketchKeyAndPeriod(any(), any(), any())).thenReturn(Optional.empty());
+        when(loanSketchRepository.findWithLockByDimensionAndSketchKeyAndPeriod(any(), any(), any())).thenReturn(Optional.empty());
+
+        book = new Book();
+        book.setId(10L);
+        book.setGenre("Romance");
+    }
+
+    @Test
+    @DisplayName("Should estimate distinct values within a few percent and merge sketches like a union")
+    void hyperLogLog_EstimateAndMerge() {
+        HyperLogLog first = new HyperLogLog();
+        HyperLogLog second = new HyperLogLog();
+        for (long id = 1; id <= 10_000; id++) {
+            first.add(id);
+            second.add(id + 5_000);
+        }
+        // Adding a value again changes nothing
+        assertFalse(first.add(1));
+
+        assertEquals(10_000, first.estimate(), 500);
+        first.merge(second);
+        assertEquals(15_000, first.estimate(), 750);
+
+        HyperLogLog small = new HyperLogLog();
+        for (long id = 1; id <= 20; id++) {
+            small.add(id);
+        }
+        assertEquals(20, small.estimate(), 1);
+    }
+
+    @Test
+    @DisplayName("Should serialize small sketches sparsely and round-trip both encodings")
+    void hyperLogLog_Serialization() {
+        HyperLogLog small = new HyperLogLog();
+        HyperLogLog large = new HyperLogLog();
+        for (long id = 1; id <= 50_000; id++) {
+            if (id <= 100) {
+                small.add(id);
+            }
+            large.add(id);
+        }
+
+        byte[] sparse = small.serialize();
+        byte[] dense = large.serialize();
+
+        assertTrue(sparse.length < 400);
+        assertEquals(HyperLogLog.REGISTERS + 1, dense.length);
+        assertEquals(small.estimate(), HyperLogLog.deserialize(sparse).estimate());
+        assertEquals(large.estimate(), HyperLogLog.deserialize(dense).estimate());
+    }
+
+    @Test
+    @DisplayName("Should report percentiles within 1% and round-trip a histogram")
+    void durationHistogram_Percentiles() {
+        DurationHistogram histogram = new DurationHistogram();
+        for (long minutes = 1; minutes <= 100_000; minutes++) {
+            histogram.record(minutes);
+        }
+
+        DurationHistogram copy = DurationHistogram.deserialize(histogram.serialize());
+
+        assertEquals(100_000, copy.total());
+        assertEquals(50_000, copy.valueAtPercentile(50), 500);
+        assertEquals(99_000, copy.valueAtPercentile(99), 990);
+        assertEquals(100, copy.valueAtPercentile(0.1));
+        for (long value : new long[] {0, 127, 128, 1_000, 1L << 40}) {
+            int index = DurationHistogram.indexOf(value);
+            assertTrue(DurationHistogram.lowestValueOf(index) <= value && value <= DurationHistogram.highestValueOf(index));
+        }
+    }
+
+    @Test
+    @DisplayName("Should count borrows and returns for the book, its genre and the library")
+    void getSketch_AfterBorrowsAndReturns() {
+        Book uncategorized = new Book();
+        uncategorized.setId(11L);
+        loanSketchService.recordBorrow(1L, book, NOW);
+        loanSketchService.recordBorrow(2L, book, NOW);
+        loanSketchService.recordBorrow(1L, uncategorized, NOW);
+        loanSketchService.recordReturns(List.of(loan(book, NOW.minusDays(3)), loan(uncategorized, NOW.minusDays(10))), NOW);
+
+        LoanSketchDTO library = loanSketchService.getSketch(SketchDimension.ALL, null, null, null, List.of(100, 50));
+        LoanSketchDTO romance = loanSketchService.getSketch(SketchDimension.GENRE, "Romance", null, null, List.of(50));
+        LoanSketchDTO other = loanSketchService.getSketch(SketchDimension.GENRE, DailyLoanStats.UNCATEGORIZED, null, null, List.of(50));
+
+        assertEquals(2, library.getDistinctPatrons());
+        assertEquals(2, library.getReturnedLoans());
+        assertEquals(List.of(50, 100), List.copyOf(library.getLoanDaysPercentiles().keySet()));
+        assertEquals(new BigDecimal("3.00"), library.getLoanDaysPercentiles().get(50));
+        assertEquals(new BigDecimal("10.00"), library.getLoanDaysPercentiles().get(100));
+        assertEquals(2, romance.getDistinctPatrons());
+        assertEquals(1, other.getDistinctPatrons());
+        assertEquals(THIS_MONTH, romance.getFromMonth());
+    }
+
+    @Test
+    @DisplayName("Should write changed sketches only, and nothing when nothing changed since")
+    void flush_WritesDirtySketches() {
+        LoanSketch stored = new LoanSketch(SketchDimension.ALL, "", THIS_MONTH.atDay(1), new byte[] {0, 0}, new byte[] {0});
+        when(loanSketchRepository.findWithLockByDimensionAndSketchKeyAndPeriod(SketchDimension.ALL, "", THIS_MONTH.atDay(1)))
+                .thenReturn(Optional.of(stored));
+        loanSketchService.recordBorrow(1L, book, NOW);
+
+        assertEquals(3, loanSketchService.flush());
+
+        ArgumentCaptor<LoanSketch> saved = ArgumentCaptor.forClass(LoanSketch.class);
+        verify(loanSketchRepository, times(3)).save(saved.capture());
+        assertTrue(saved.getAllValues().contains(stored));
+        assertEquals(1, HyperLogLog.deserialize(stored.getPatrons()).estimate());
+        assertTrue(saved.getAllValues().stream().anyMatch(row -> row.getDimension() == SketchDimension.BOOK
+                && row.getSketchKey().equals("10") && row.getPeriod().equals(THIS_MONTH.atDay(1))));
+
+        // Borrowed by the same patron again, so no register changes
+        loanSketchService.recordBorrow(1L, book, NOW);
+        assertEquals(0, loanSketchService.flush());
+        verify(transactionTemplate, times(1)).execute(any());
+    }
+
+    @Test
+    @DisplayName("Should merge into sketches stored by other instances and add each duration once")
+    void flush_MergesStoredSketches() {
+        HyperLogLog otherPatrons = new HyperLogLog();
+        otherPatrons.add(7L);
+        DurationHistogram otherDurations = new DurationHistogram();
+        otherDurations.record(60 * 24);
+        LoanSketch stored = new LoanSketch(SketchDimension.ALL, "", THIS_MONTH.atDay(1),
+                otherPatrons.serialize(), otherDurations.serialize());
+        when(loanSketchRepository.findWithLockByDimensionAndSketchKeyAndPeriod(SketchDimension.ALL, "", THIS_MONTH.atDay(1)))
+                .thenReturn(Optional.of(stored));
+
+        loanSketchService.recordBorrow(1L, book, NOW);
+        loanSketchService.recordReturns(List.of(loan(book, NOW.minusDays(3))), NOW);
+        loanSketchService.flush();
+
+        assertEquals(2, HyperLogLog.deserialize(stored.getPatrons()).estimate());
+        assertEquals(2, DurationHistogram.deserialize(stored.getDurations()).total());
+
+        // Only the return recorded since is added on the next flush
+        loanSketchService.recordReturns(List.of(loan(book, NOW.minusDays(5))), NOW);
+        loanSketchService.flush();
+
+        assertEquals(3, DurationHistogram.deserialize(stored.getDurations()).total());
+        LoanSketchDTO library = loanSketchService.getSketch(SketchDimension.ALL, null, null, null, List.of(50));
+        assertEquals(2, library.getDistinctPatrons());
+        assertEquals(3, library.getReturnedLoans());
+    }
+
+    @Test
+    @DisplayName("Should merge stored months with the months kept in memory")
+    void getSketch_MergesStoredMonths() {
+        YearMonth lastMonth = THIS_MONTH.minusMonths(1);
+        HyperLogLog patrons = new HyperLogLog();
+        patrons.add(7L);
+        DurationHistogram durations = new DurationHistogram();
+        durations.record(60 * 24);
+        when(loanSketchRepository.findByDimensionAndSketchKeyAndPeriod(SketchDimension.BOOK, "10", lastMonth.atDay(1)))
+                .thenReturn(Optional.of(new LoanSketch(SketchDimension.BOOK, "10", lastMonth.atDay(1),
+                        patrons.serialize(), durations.serialize())));
+        loanSketchService.recordBorrow(8L, book, NOW);
+
+        LoanSketchDTO sketch = loanSketchService.getSketch(SketchDimension.BOOK, "10", lastMonth, THIS_MONTH, List.of(50));
+        loanSketchService.getSketch(SketchDimension.BOOK, "10", lastMonth, THIS_MONTH, List.of(50));
+
+        assertEquals(2, sketch.getDistinctPatrons());
+        assertEquals(1, sketch.getReturnedLoans());
+        assertEquals(new BigDecimal("1.00"), sketch.getLoanDaysPercentiles().get(50));
+        // Months before the kept ones are read again on every query
+        verify(loanSketchRepository, times(2))
+                .findByDimensionAndSketchKeyAndPeriod(SketchDimension.BOOK, "10", lastMonth.atDay(1));
+        assertEquals(3, loanSketchService.cachedSketches());
+    }
+
+    @Test
+    @DisplayName("Should drop written sketches of months before the kept ones and keep unwritten ones")
+    void flush_EvictsOldMonths() {
+        ReflectionTestUtils.setField(loanSketchService, "preloadMonths", 2);
+        loanSketchService.recordBorrow(1L, book, NOW);
+        loanSketchService.recordReturns(List.of(loan(book, NOW.minusMonths(4))), NOW.minusMonths(3));
+        assertEquals(6, loanSketchService.cachedSketches());
+
+        doThrow(new IllegalStateException("database down")).when(transactionTemplate).execute(any());
+        assertThrows(IllegalStateException.class, () -> loanSketchService.flush());
+        assertEquals(6, loanSketchService.cachedSketches());
+
+        doAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null))
+                .when(transactionTemplate).execute(any());
+        assertEquals(6, loanSketchService.flush());
+        assertEquals(3, loanSketchService.cachedSketches());
+    }
+
+    @Test
+    @DisplayName("Should reject month ranges over 12 months, missing keys and invalid percentiles")
+    void getSketch_Invalid() {
+        assertThrows(BadRequestException.class, () -> loanSketchService.getSketch(SketchDimension.ALL, null,
+                THIS_MONTH.minusMonths(12), THIS_MONTH, List.of(50)));
+        assertThrows(BadRequestException.class, () -> loanSketchService.getSketch(SketchDimension.ALL, null,
+                THIS_MONTH, THIS_MONTH.minusMonths(1), List.of(50)));
+        assertThrows(BadRequestException.class, () -> loanSketchService.getSketch(SketchDimension.GENRE, " ",
+                null, null, List.of(50)));
+        assertThrows(BadRequestException.class, () -> loanSketchService.getSketch(SketchDimension.ALL, null,
+                null, null, List.of(101)));
+        assertDoesNotThrow(() -> loanSketchService.getSketch(SketchDimension.ALL, null,
+                THIS_MONTH.minusMonths(11), THIS_MONTH, List.of(50)));
+    }
+
+    private static BorrowRecord loan(Book book, LocalDateTime borrowDate) {
+        BorrowRecord record = new BorrowRecord();
+        record.setBook(book);
+        record.setBorrowDate(borrowDate);
+        return record;
+    }
+}
@@ -0,0 +1,223 @@
+package com.barisdalyanemre.librarymanagement.service.impl;
+
+import com.barisdalyanemre.librarymanagement.dto.response.DailyLoanStatsDTO;
+import com.barisdalyanemre.librarymanagement.dto.response.LoanStatsSummaryDTO;
+import com.barisdalyanemre.librarymanagement.entity.DailyLoanStats;
+import com.barisdalyanemre.librarymanagement.entity.JobCheckpoint;
+import com.barisdalyanemre.librarymanagement.exception.BadRequestException;
+import com.barisdalyanemre.librarymanagement.repository.BorrowRecordRepository;
+import com.barisdalyanemre.librarymanagement.repository.BorrowRecordRepository.DailyLoanCount;
+import com.barisdalyanemre.librarymanagement.repository.BorrowRecordRepository.DailyReturnCount;
+import com.barisdalyanemre.librarymanagement.repository.DailyLoanStatsRepository;
+import com.barisdalyanemre.librarymanagement.repository.JobCheckpointRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class LoanStatsServiceImplTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+    private static final LocalDate YESTERDAY = TODAY.minusDays(1);
+
+    @Mock
+    private DailyLoanStatsRepository dailyLoanStatsRepository;
+
+    @Mock
+    private BorrowRecordRepository borrowRecordRepository;
+
+    @Mock
+    private JobCheckpointRepository jobCheckpointRepository;
+
+    @InjectMocks
+    private LoanStatsServiceImpl loanStatsService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(loanStatsService, "tailLagMs", 30000L);
+        ReflectionTestUtils.setField(loanStatsService, "reconcileDays", 7);
+
+        when(borrowRecordRepository.countBorrowsByDay(any(), any())).thenReturn(List.of());
+        when(borrowRecordRepository.countReturnsByDay(any(), any())).thenReturn(List.of());
+        when(borrowRecordRepository.countOpenLoansFallenDueByDay(any(), any())).thenReturn(List.of());
+        when(borrowRecordRepository.countLateReturnsFallenDueByDay(any(), any())).thenReturn(List.of());
+    }
+
+    @Test
+    @DisplayName("Should add new loan activity to the genre and all-genre rollups and move the watermark")
+    void tailLoanActivity_AddsToRollups() {
+        LocalDateTime since = LocalDateTime.now().minusMinutes(5);
+        JobCheckpoint checkpoint = new JobCheckpoint(LoanStatsServiceImpl.JOB_NAME, 0, 1, since, 0, 0, true);
+        when(jobCheckpointRepository.findByJobNameAndPartitionNo(LoanStatsServiceImpl.JOB_NAME, 0))
+                .thenReturn(Optional.of(checkpoint));
+        when(borrowRecordRepository.countBorrowsByDay(eq(since), any()))
+                .thenReturn(List.of(count(TODAY, "Romance", 2), count(TODAY, null, 1)));
+        when(borrowRecordRepository.countReturnsByDay(eq(since), any()))
+                .thenReturn(List.of(returns(TODAY, "Romance", 1, 86400 * 3)));
+        when(borrowRecordRepository.countLateReturnsFallenDueByDay(eq(since), any()))
+                .thenReturn(List.of(count(TODAY, "Romance", 1)));
+        DailyLoanStats existing = row(TODAY, "Romance", 4, 0, 0, 0);
+        when(dailyLoanStatsRepository.findByStatDateIn(List.of(TODAY))).thenReturn(List.of(existing));
+
+        long events = loanStatsService.tailLoanActivity();
+
+        assertEquals(5, events);
+        Map<String, DailyLoanStats> saved = savedRows();
+        assertSame(existing, saved.get("Romance"));
+        assertEquals(6, existing.getBorrows());
+        assertEquals(1, existing.getReturns());
+        assertEquals(1, existing.getFellOverdue());
+        assertEquals(86400 * 3, existing.getLoanSeconds());
+        assertEquals(1, saved.get(DailyLoanStats.UNCATEGORIZED).getBorrows());
+        assertEquals(3, saved.get(DailyLoanStats.ALL_GENRES).getBorrows());
+        assertEquals(1, saved.get(DailyLoanStats.ALL_GENRES).getReturns());
+        assertTrue(checkpoint.getCutoff().isAfter(since));
+        assertEquals(5, checkpoint.getProcessedCount());
+        verify(jobCheckpointRepository).save(checkpoint);
+    }
+
+    @Test
+    @DisplayName("Should not count anything when the watermark is already past the tail window")
+    void tailLoanActivity_NothingNew() {
+        JobCheckpoint checkpoint = new JobCheckpoint(LoanStatsServiceImpl.JOB_NAME, 0, 1,
+                LocalDateTime.now(), 0, 0, true);
+        when(jobCheckpointRepository.findByJobNameAndPartitionNo(LoanStatsServiceImpl.JOB_NAME, 0))
+                .thenReturn(Optional.of(checkpoint));
+
+        assertEquals(0, loanStatsService.tailLoanActivity());
+        verifyNoInteractions(borrowRecordRepository, dailyLoanStatsRepository);
+    }
+
+    @Test
+    @DisplayName("Should overwrite drifted rows, zero rows without activity and add missing rows")
+    void reconcile_CorrectsDrift() {
+        LocalDateTime watermark = LocalDateTime.now().minusMinutes(1);
+        when(jobCheckpointRepository.findByJobNameAndPartitionNo(LoanStatsServiceImpl.JOB_NAME, 0))
+                .thenReturn(Optional.of(new JobCheckpoint(LoanStatsServiceImpl.JOB_NAME, 0, 1, watermark, 0, 0, true)));
+        when(borrowRecordRepository.countBorrowsByDay(any(), eq(watermark)))
+                .thenReturn(List.of(count(YESTERDAY, "Romance", 2), count(TODAY, "Romance", 1)));
+        DailyLoanStats drifted = row(YESTERDAY, "Romance", 1, 0, 0, 0);
+        DailyLoanStats correct = row(YESTERDAY, DailyLoanStats.ALL_GENRES, 2, 0, 0, 0);
+        DailyLoanStats stale = row(YESTERDAY, "Horror", 1, 0, 0, 0);
+        when(dailyLoanStatsRepository.findByStatDateBetween(TODAY.minusDays(7), watermark.toLocalDate()))
+                .thenReturn(List.of(drifted, correct, stale));
+
+        int corrected = loanStatsService.reconcile();
+
+        assertEquals(4, corrected);
+        assertEquals(2, drifted.getBorrows());
+        assertEquals(0, stale.getBorrows());
+        List<DailyLoanStats> saved = captureSaved();
+        assertFalse(saved.contains(correct));
+        assertTrue(saved.stream().anyMatch(row -> row.getStatDate().equals(TODAY)
+                && row.getGenre().equals(DailyLoanStats.ALL_GENRES) && row.getBorrows() == 1));
+    }
+
+    @Test
+    @DisplayName("Should skip reconciliation before the rollups were first filled")
+    void reconcile_NoWatermark() {
+        when(jobCheckpointRepository.findByJobNameAndPartitionNo(LoanStatsServiceImpl.JOB_NAME, 0))
+                .thenReturn(Optional.empty());
+
+        assertEquals(0, loanStatsService.reconcile());
+        verifyNoInteractions(borrowRecordRepository, dailyLoanStatsRepository);
+    }
+
+    @Test
+    @DisplayName("Should return every day of the range, with zeros for days without a rollup row")
+    void getDailyStats_FillsGaps() {
+        LocalDate from = TODAY.minusDays(2);
+        when(dailyLoanStatsRepository.findByGenreAndStatDateBetweenOrderByStatDateAsc(DailyLoanStats.ALL_GENRES, from, TODAY))
+                .thenReturn(List.of(row(YESTERDAY, DailyLoanStats.ALL_GENRES, 3, 2, 1, 86400 * 3)));
+
+        List<DailyLoanStatsDTO> days = loanStatsService.getDailyStats(from, TODAY, null);
+
+        assertEquals(3, days.size());
+        assertEquals(0, days.get(0).getBorrows());
+        assertNull(days.get(0).getAverageLoanDays());
+        assertEquals(YESTERDAY, days.get(1).getDate());
+        assertEquals(3, days.get(1).getBorrows());
+        assertEquals(new BigDecimal("1.50"), days.get(1).getAverageLoanDays());
+    }
+
+    @Test
+    @DisplayName("Should add up the rollup rows of a genre over the range")
+    void getSummary_Success() {
+        LocalDate from = TODAY.minusDays(30);
+        when(dailyLoanStatsRepository.findByGenreAndStatDateBetweenOrderByStatDateAsc("Romance", from, TODAY))
+                .thenReturn(List.of(row(YESTERDAY, "Romance", 3, 1, 1, 86400 * 10),
+                        row(TODAY, "Romance", 1, 1, 0, 86400 * 4)));
+
+        LoanStatsSummaryDTO summary = loanStatsService.getSummary(from, TODAY, "Romance");
+
+        assertEquals("Romance", summary.getGenre());
+        assertEquals(4, summary.getBorrows());
+        assertEquals(2, summary.getReturns());
+        assertEquals(1, summary.getFellOverdue());
+        assertEquals(new BigDecimal("7.00"), summary.getAverageLoanDays());
+    }
+
+    @Test
+    @DisplayName("Should reject ranges longer than a year or ending before they start")
+    void getSummary_InvalidRange() {
+        assertThrows(BadRequestException.class, () -> loanStatsService.getSummary(TODAY.minusDays(366), TODAY, null));
+        assertThrows(BadRequestException.class, () -> loanStatsService.getDailyStats(TODAY, YESTERDAY, null));
+        assertDoesNotThrow(() -> loanStatsService.getDailyStats(TODAY.minusDays(365), TODAY, null));
+        verify(dailyLoanStatsRepository, times(1)).findByGenreAndStatDateBetweenOrderByStatDateAsc(any(), any(), any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<DailyLoanStats> captureSaved() {
+        ArgumentCaptor<Iterable<DailyLoanStats>> captor = ArgumentCaptor.forClass(Iterable.class);
+        verify(dailyLoanStatsRepository).saveAll(captor.capture());
+        List<DailyLoanStats> saved = new ArrayList<>();
+        captor.getValue().forEach(saved::add);
+        return saved;
+    }
+
+    private Map<String, DailyLoanStats> savedRows() {
+        return captureSaved().stream().collect(Collectors.toMap(DailyLoanStats::getGenre, Function.identity()));
+    }
+
+    private static DailyLoanStats row(LocalDate day, String genre, int borrows, int returns, int fellOverdue, long loanSeconds) {
+        DailyLoanStats row = new DailyLoanStats(day, genre, borrows, returns, fellOverdue, loanSeconds);
+        row.setId((long) (day.hashCode() + genre.hashCode()));
+        return row;
+    }
+
+    private static DailyLoanCount count(LocalDate day, String genre, long loans) {
+        return returns(day, genre, loans, 0);
+    }
+
+    private static DailyReturnCount returns(LocalDate day, String genre, long loans, long loanSeconds) {
+        return new DailyReturnCount() {
+            public LocalDate getDay() { return day; }
+            public String getGenre() { return genre; }
+            public Long getLoans() { return loans; }
+            public Long getLoanSeconds() { return loanSeconds; }
+        };
+    }
+}
@@ -0,0 +1,147 @@
+package com.barisdalyanemre.librarymanagement.service.impl;
+
+import com.barisdalyanemre.librarymanagement.entity.Book;
+import com.barisdalyanemre.librarymanagement.entity.BorrowRecord;
+import com.barisdalyanemre.librarymanagement.entity.JobCheckpoint;
+import com.barisdalyanemre.librarymanagement.entity.User;
+import com.barisdalyanemre.librarymanagement.repository.BorrowRecordRepository;
+import com.barisdalyanemre.librarymanagement.repository.JobCheckpointRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OverdueLoanJobServiceImplTest {
+
+    @Mock
+    private BorrowRecordRepository borrowRecordRepository;
+
+    @Mock
+    private JobCheckpointRepository jobCheckpointRepository;
+
+    @InjectMocks
+    private OverdueLoanJobServiceImpl overdueLoanJobService;
+
+    private final List<JobCheckpoint> savedCheckpoints = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(overdueLoanJobService, "chunkSize", 2);
+        ReflectionTestUtils.setField(overdueLoanJobService, "partitions", 1);
+
+        lenient().when(jobCheckpointRepository.save(any(JobCheckpoint.class))).thenAnswer(invocation -> {
+            JobCheckpoint checkpoint = invocation.getArgument(0);
+            savedCheckpoints.add(copy(checkpoint));
+            return checkpoint;
+        });
+    }
+
+    @Test
+    @DisplayName("Should walk overdue loans in keyset-ordered chunks and checkpoint after each chunk")
+    void processOverdueLoans_Chunked() {
+        when(jobCheckpointRepository.findByJobNameAndPartitionNo(OverdueLoanJobServiceImpl.JOB_NAME, 0))
+                .thenReturn(Optional.empty());
+        when(borrowRecordRepository.findOverdueChunk(any(LocalDateTime.class), eq(0L), eq(1), eq(0), eq(2)))
+                .thenReturn(List.of(loan(3L), loan(7L)));
+        when(borrowRecordRepository.findOverdueChunk(any(LocalDateTime.class), eq(7L), eq(1), eq(0), eq(2)))
+                .thenReturn(List.of(loan(9L)));
+
+        assertEquals(3, overdueLoanJobService.processOverdueLoans());
+
+        assertEquals(2, savedCheckpoints.size());
+        assertEquals(7L, savedCheckpoints.get(0).getLastProcessedId());
+        assertFalse(savedCheckpoints.get(0).isCompleted());
+        assertEquals(9L, savedCheckpoints.get(1).getLastProcessedId());
+        assertEquals(3, savedCheckpoints.get(1).getProcessedCount());
+        assertTrue(savedCheckpoints.get(1).isCompleted());
+    }
+
+    @Test
+    @DisplayName("Should resume an interrupted run from its checkpoint with the original cutoff")
+    void processOverdueLoans_ResumesFromCheckpoint() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(3);
+        JobCheckpoint interrupted = new JobCheckpoint(OverdueLoanJobServiceImpl.JOB_NAME, 0, 1, cutoff, 7L, 2, false);
+        interrupted.setId(1L);
+        when(jobCheckpointRepository.findByJobNameAndPartitionNo(OverdueLoanJobServiceImpl.JOB_NAME, 0))
+                .thenReturn(Optional.of(interrupted));
+        when(borrowRecordRepository.findOverdueChunk(cutoff, 7L, 1, 0, 2)).thenReturn(List.of(loan(9L)));
+
+        assertEquals(1, overdueLoanJobService.processOverdueLoans());
+
+        verify(borrowRecordRepository, never()).findOverdueChunk(any(), eq(0L), anyInt(), anyInt(), anyInt());
+        assertEquals(3, savedCheckpoints.get(0).getProcessedCount());
+        assertTrue(savedCheckpoints.get(0).isCompleted());
+    }
+
+    @Test
+    @DisplayName("Should start over once the previous run completed")
+    void processOverdueLoans_RestartsAfterCompletedRun() {
+        JobCheckpoint completed = new JobCheckpoint(OverdueLoanJobServiceImpl.JOB_NAME, 0, 1,
+                LocalDateTime.now().minusDays(1), 9L, 3, true);
+        completed.setId(1L);
+        when(jobCheckpointRepository.findByJobNameAndPartitionNo(OverdueLoanJobServiceImpl.JOB_NAME, 0))
+                .thenReturn(Optional.of(completed));
+        when(borrowRecordRepository.findOverdueChunk(any(LocalDateTime.class), eq(0L), eq(1), eq(0), eq(2)))
+                .thenReturn(List.of());
+
+        assertEquals(0, overdueLoanJobService.processOverdueLoans());
+
+        assertEquals(0, savedCheckpoints.get(0).getProcessedCount());
+        assertTrue(savedCheckpoints.get(0).getCutoff().isAfter(LocalDateTime.now().minusMinutes(1)));
+    }
+
+    @Test
+    @DisplayName("Should process each partition with its own checkpoint")
+    void processOverdueLoans_Partitioned() {
+        ReflectionTestUtils.setField(overdueLoanJobService, "partitions", 2);
+        when(jobCheckpointRepository.findByJobNameAndPartitionNo(eq(OverdueLoanJobServiceImpl.JOB_NAME), anyInt()))
+                .thenReturn(Optional.empty());
+        when(borrowRecordRepository.findOverdueChunk(any(LocalDateTime.class), eq(0L), eq(2), eq(0), eq(2)))
+                .thenReturn(List.of(loan(2L)));
+        when(borrowRecordRepository.findOverdueChunk(any(LocalDateTime.class), eq(0L), eq(2), eq(1), eq(2)))
+                .thenReturn(List.of(loan(1L)));
+
+        assertEquals(2, overdueLoanJobService.processOverdueLoans());
+
+        ArgumentCaptor<JobCheckpoint> captor = ArgumentCaptor.forClass(JobCheckpoint.class);
+        verify(jobCheckpointRepository, times(2)).save(captor.capture());
+        assertEquals(List.of(0, 1), captor.getAllValues().stream().map(JobCheckpoint::getPartitionNo).sorted().toList());
+        assertEquals(captor.getAllValues().get(0).getCutoff(), captor.getAllValues().get(1).getCutoff());
+    }
+
+    private BorrowRecord loan(Long id) {
+        User user = new User();
+        user.setFirstName("Test");
+        user.setLastName("User");
+        Book book = new Book();
+        book.setTitle("Book " + id);
+
+        BorrowRecord record = new BorrowRecord();
+        record.setId(id);
+        record.setUser(user);
+        record.setBook(book);
+        record.setDueDate(LocalDateTime.now().minusDays(1));
+        return record;
+    }
+
+    private JobCheckpoint copy(JobCheckpoint checkpoint) {
+        return new JobCheckpoint(checkpoint.getJobName(), checkpoint.getPartitionNo(), checkpoint.getPartitionCount(),
+                checkpoint.getCutoff(), checkpoint.getLastProcessedId(), checkpoint.getProcessedCount(),
+                checkpoint.isCompleted());
+    }
+}
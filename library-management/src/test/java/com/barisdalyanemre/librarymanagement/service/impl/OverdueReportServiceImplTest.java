@@ -0,0 +1,121 @@
+package com.barisdalyanemre.librarymanagement.service.impl;
+
+import com.barisdalyanemre.librarymanagement.dto.response.OverdueLoanRowDTO;
+import com.barisdalyanemre.librarymanagement.dto.response.OverdueReportSummaryDTO;
+import com.barisdalyanemre.librarymanagement.enums.ReportFormat;
+import com.barisdalyanemre.librarymanagement.repository.BorrowRecordRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OverdueReportServiceImplTest {
+
+    @Mock
+    private BorrowRecordRepository borrowRecordRepository;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @InjectMocks
+    private OverdueReportServiceImpl overdueReportService;
+
+    @Test
+    void writeOverdueReport_Text() throws Exception {
+        stubReport(new OverdueReportSummaryDTO(2L, 1L, 1L, 0L, 0L, 1L),
+                row("Test Book", LocalDateTime.now().minusDays(3)),
+                row("Old Book", LocalDateTime.now().minusDays(40)));
+
+        String result = write(ReportFormat.TEXT);
+
+        assertTrue(result.contains("LIBRARY OVERDUE BOOKS REPORT"));
+        assertTrue(result.contains("Total Overdue Books: 2"));
+        assertTrue(result.contains("Unique Patrons with Overdue Books: 1"));
+        assertTrue(result.contains("> 30 days overdue: 1"));
+        assertTrue(result.contains("1. Book: \"Test Book\""));
+        assertTrue(result.contains("2. Book: \"Old Book\""));
+        assertTrue(result.contains("Days Overdue: 40"));
+    }
+
+    @Test
+    void writeOverdueReport_NoOverdueBooks() throws Exception {
+        when(borrowRecordRepository.summarizeOverdue(any(), any(), any(), any()))
+                .thenReturn(new OverdueReportSummaryDTO(0L, 0L, null, null, null, null));
+
+        String result = write(ReportFormat.TEXT);
+
+        assertTrue(result.contains("LIBRARY OVERDUE BOOKS REPORT"));
+        assertTrue(result.contains("No overdue books found"));
+        verify(borrowRecordRepository, never()).streamOverdueReportRows(any());
+    }
+
+    @Test
+    void writeOverdueReport_CsvEscapesFields() throws Exception {
+        stubReport(new OverdueReportSummaryDTO(1L, 1L, 1L, 0L, 0L, 0L),
+                row("War, \"and\" Peace", LocalDateTime.now().minusDays(2)));
+
+        String[] lines = write(ReportFormat.CSV).split("\r\n");
+
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("book_title,isbn,author"));
+        assertTrue(lines[1].startsWith("\"War, \"\"and\"\" Peace\",1234567890,Test Author,Test User,user@example.com,"));
+        assertTrue(lines[1].endsWith(",2"));
+    }
+
+    @Test
+    void writeOverdueReport_Json() throws Exception {
+        stubReport(new OverdueReportSummaryDTO(1L, 1L, 0L, 1L, 0L, 0L),
+                row("Test Book", LocalDateTime.now().minusDays(8)));
+
+        JsonNode report = objectMapper.readTree(write(ReportFormat.JSON));
+
+        assertEquals(1, report.get("summary").get("totalOverdue").asLong());
+        assertEquals(1, report.get("summary").get("between7And14Days").asLong());
+        assertEquals(1, report.get("records").size());
+        assertEquals("Test Book", report.get("records").get(0).get("bookTitle").asText());
+        assertEquals(8, report.get("records").get(0).get("daysOverdue").asLong());
+    }
+
+    @Test
+    void writeOverdueReport_ClosesRowStream() throws Exception {
+        AtomicBoolean closed = new AtomicBoolean();
+        when(borrowRecordRepository.summarizeOverdue(any(), any(), any(), any()))
+                .thenReturn(new OverdueReportSummaryDTO(1L, 1L, 1L, 0L, 0L, 0L));
+        when(borrowRecordRepository.streamOverdueReportRows(any()))
+                .thenReturn(Stream.of(row("Test Book", LocalDateTime.now().minusDays(1))).onClose(() -> closed.set(true)));
+
+        write(ReportFormat.CSV);
+
+        assertTrue(closed.get());
+    }
+
+    private void stubReport(OverdueReportSummaryDTO summary, OverdueLoanRowDTO... rows) {
+        when(borrowRecordRepository.summarizeOverdue(any(), any(), any(), any())).thenReturn(summary);
+        when(borrowRecordRepository.streamOverdueReportRows(any())).thenReturn(Stream.of(rows));
+    }
+
+    private String write(ReportFormat format) throws Exception {
+        StringWriter writer = new StringWriter();
+        overdueReportService.writeOverdueReport(format, writer);
+        return writer.toString();
+    }
+
+    private static OverdueLoanRowDTO row(String title, LocalDateTime dueDate) {
+        return new OverdueLoanRowDTO(title, "1234567890", "Test Author", "Test", "User", "user@example.com",
+                dueDate.minusDays(14), dueDate);
+    }
+}
@@ -0,0 +1,43 @@
+package com.barisdalyanemre.librarymanagement.service.impl;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplayingSnapshotTest {
+
+    @Test
+    @DisplayName("Should replay changes applied while a new copy is loading")
+    void reseed_ReplaysConcurrentChanges() {
+        ReplayingSnapshot<Set<Long>> snapshot = new ReplayingSnapshot<>(new TreeSet<>(Set.of(1L, 2L)));
+
+        snapshot.reseed(() -> {
+            // Committed after the load's query: 3 opened, 1 closed
+            snapshot.apply(ids -> ids.add(3L));
+            snapshot.apply(ids -> ids.remove(1L));
+            return new TreeSet<>(Set.of(1L, 2L, 4L));
+        });
+
+        assertEquals(List.of(2L, 3L, 4L), snapshot.read(ArrayList::new));
+    }
+
+    @Test
+    @DisplayName("Should not replay updates and stop replaying once the reseed is done")
+    void update_NotReplayed() {
+        ReplayingSnapshot<List<String>> snapshot = new ReplayingSnapshot<>(new ArrayList<>());
+
+        snapshot.reseed(() -> {
+            snapshot.update(items -> items.add("old copy only"));
+            return new ArrayList<>();
+        });
+        snapshot.apply(items -> items.add("after"));
+
+        assertEquals(List.of("after"), snapshot.read(ArrayList::new));
+    }
+}
@@ -0,0 +1,28 @@
+package com.barisdalyanemre.librarymanagement.service.impl;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeKeysTest {
+
+    @Test
+    @DisplayName("Should keep microsecond precision when converting dates")
+    void micros_RoundTrip() {
+        LocalDateTime date = LocalDateTime.of(2024, 3, 15, 10, 30, 45, 123_456_000);
+        assertEquals(date, TimeKeys.fromMicros(TimeKeys.toMicros(date)));
+        LocalDateTime beforeEpoch = LocalDateTime.of(1960, 6, 1, 12, 0, 0, 5_000);
+        assertEquals(beforeEpoch, TimeKeys.fromMicros(TimeKeys.toMicros(beforeEpoch)));
+    }
+
+    @Test
+    @DisplayName("Should round minutes down, also before the epoch")
+    void toMinutes_FloorsBeforeEpoch() {
+        assertEquals(0, TimeKeys.toMinutes(LocalDateTime.of(1970, 1, 1, 0, 0, 59)));
+        assertEquals(-1, TimeKeys.toMinutes(LocalDateTime.of(1969, 12, 31, 23, 59, 59)));
+        assertEquals(86_400, TimeKeys.toSeconds(LocalDateTime.of(1970, 1, 2, 0, 0)));
+    }
+}
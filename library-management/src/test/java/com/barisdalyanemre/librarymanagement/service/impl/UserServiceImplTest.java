@@ -9,6 +9,7 @@ import com.barisdalyanemre.librarymanagement.exception.ForbiddenException;
 import com.barisdalyanemre.librarymanagement.exception.ResourceNotFoundException;
 import com.barisdalyanemre.librarymanagement.mapper.UserMapper;
 import com.barisdalyanemre.librarymanagement.repository.UserRepository;
+import com.barisdalyanemre.librarymanagement.service.DashboardService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -40,6 +41,9 @@ class UserServiceImplTest {
     @Mock
     private UserMapper userMapper;
 
+    @Mock
+    private DashboardService dashboardService;
+
     @Mock
     private Authentication authentication;
 
@@ -216,6 +220,7 @@ class UserServiceImplTest {
         userService.deleteUser(1L);
         
         verify(userRepository).delete(testUser);
+        verify(dashboardService).recordPatronRemoved();
     }
 
     @Test